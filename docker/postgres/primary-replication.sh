@@ -0,0 +1,4 @@
+#!/bin/sh
+# Allows the db-replica service to stream WAL from this instance. Runs once, on an empty volume.
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,10 @@
+#!/bin/sh
+# Bootstraps a streaming read replica of the db service on first start, then runs it.
+set -e
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  until pg_isready -h db -U "$POSTGRES_USER"; do sleep 1; done
+  mkdir -p "$PGDATA"
+  PGPASSWORD="$POSTGRES_PASSWORD" pg_basebackup -h db -U "$POSTGRES_USER" -D "$PGDATA" -X stream -R
+  chmod 0700 "$PGDATA"
+fi
+exec postgres
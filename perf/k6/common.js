@@ -1,5 +1,7 @@
 import http from 'k6/http';
 import { check, sleep } from 'k6';
+import { SharedArray } from 'k6/data';
+import exec from 'k6/execution';
 
 export const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
 
@@ -45,6 +47,39 @@ export function uniqueDealId(prefix = 'DEAL') {
   return `${prefix}-${__VU}-${__ITER}-${Date.now()}-${rand}`;
 }
 
+// DATASET=/scripts/datasets/deals.ndjson replays a file written by the dataset generator
+// (mvn -Pdataset test-compile exec:exec) instead of random deals, so runs are reproducible and comparable.
+// Each scenario reads its own slice of the file; list the importing scenarios in DATASET_STREAMS
+// (e.g. singles,batches) so they do not send the same rows.
+const DATASET_PATH = __ENV.DATASET;
+const DATASET_STREAMS = (__ENV.DATASET_STREAMS || '').split(',').filter((name) => name);
+
+export const dataset = DATASET_PATH
+  ? new SharedArray('deals', () => {
+      const text = open(DATASET_PATH);
+      if (!DATASET_PATH.endsWith('.ndjson')) {
+        return JSON.parse(text);
+      }
+      return text.split('\n').filter((line) => line).map((line) => JSON.parse(line));
+    })
+  : null;
+
+// Generated datasets contain duplicates and invalid rows on purpose, which the API rejects with 400
+const importParams = dataset ? { headers, responseCallback: http.expectedStatuses(201, 400) } : { headers };
+let datasetWrapped = false;
+
+export function datasetDeals(count) {
+  const streams = Math.max(1, DATASET_STREAMS.length);
+  const stream = Math.max(0, DATASET_STREAMS.indexOf(exec.scenario.name));
+  const size = Math.floor(dataset.length / streams);
+  const offset = exec.scenario.iterationInTest * count;
+  if (offset + count > size && !datasetWrapped) {
+    datasetWrapped = true;
+    console.warn(`Dataset slice of ${size} deals exhausted in scenario ${exec.scenario.name}, replaying it as duplicates`);
+  }
+  return Array.from({ length: count }, (_, i) => dataset[stream * size + ((offset + i) % size)]);
+}
+
 export function makeDealPayload({ dealId, fromCurrency, toCurrency, amount, timestamp } = {}) {
   const pair = randomCurrencyPair();
   return {
@@ -56,11 +91,11 @@ export function makeDealPayload({ dealId, fromCurrency, toCurrency, amount, time
   };
 }
 
-export function importSingleDeal(payload = makeDealPayload()) {
-  const res = http.post(`${BASE_URL}/api/v1/deals/import/single`, JSON.stringify(payload), { headers });
-  const ok = check(res, {
-    'single import status is 201': (r) => r.status === 201,
-  });
+export function importSingleDeal(payload = dataset ? datasetDeals(1)[0] : makeDealPayload()) {
+  const res = http.post(`${BASE_URL}/api/v1/deals/import/single`, JSON.stringify(payload), importParams);
+  const ok = dataset
+    ? check(res, { 'single import status is 201 or 400': (r) => r.status === 201 || r.status === 400 })
+    : check(res, { 'single import status is 201': (r) => r.status === 201 });
   if (!ok) {
     // If failure, log a concise error
     console.error('Import single failed', {
@@ -72,12 +107,12 @@ export function importSingleDeal(payload = makeDealPayload()) {
 }
 
 export function importBatchDeals(batchSize = 10) {
-  const deals = Array.from({ length: batchSize }, () => makeDealPayload());
-  const res = http.post(`${BASE_URL}/api/v1/deals/import/batch`, JSON.stringify(deals), { headers });
-  // For a valid batch with unique deals, expect 201
-  const ok = check(res, {
-    'batch import status is 201': (r) => r.status === 201,
-  });
+  const deals = dataset ? datasetDeals(batchSize) : Array.from({ length: batchSize }, () => makeDealPayload());
+  const res = http.post(`${BASE_URL}/api/v1/deals/import/batch`, JSON.stringify(deals), importParams);
+  // For a valid batch with unique deals, expect 201; dataset batches may be partially rejected with 400
+  const ok = dataset
+    ? check(res, { 'batch import status is 201 or 400': (r) => r.status === 201 || r.status === 400 })
+    : check(res, { 'batch import status is 201': (r) => r.status === 201 });
   if (!ok) {
     console.error('Import batch failed', {
       status: res.status,
@@ -0,0 +1,102 @@
+package com.bloomberg.fxdeals.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.bloomberg.fxdeals.archive.DealArchive;
+import com.bloomberg.fxdeals.cache.DealRangeCache;
+import com.bloomberg.fxdeals.dtos.req.FxDealReqDTO;
+import com.bloomberg.fxdeals.logging.ImportLogGovernor;
+import com.bloomberg.fxdeals.mappers.FxDealMapper;
+import com.bloomberg.fxdeals.metrics.ImportMetrics;
+import com.bloomberg.fxdeals.metrics.IngestionStatistics;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import com.bloomberg.fxdeals.service.impl.FxDealServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic request batches and a database-free {@link FxDealServiceImpl} shared by the benchmarks.
+ */
+final class BenchmarkDeals {
+    static final String DUPLICATE_PREFIX = "DUP-";
+    private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "JPY", "CHF", "AUD", "CAD", "SEK"};
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 15, 10, 0, 0);
+
+    private BenchmarkDeals() {
+    }
+
+    /**
+     * {@code batchSize} requests of which {@code round(batchSize * invalidRatio)} are invalid, spread
+     * over the batch and cycling through the rejection kinds the validator distinguishes.
+     */
+    static List<FxDealReqDTO> requests(int batchSize, double invalidRatio, long seed) {
+        var random = new Random(seed);
+        var invalid = new ArrayList<Boolean>(batchSize);
+        int invalidCount = (int) Math.round(batchSize * invalidRatio);
+        for (int i = 0; i < batchSize; i++) {
+            invalid.add(i < invalidCount);
+        }
+        Collections.shuffle(invalid, random);
+
+        var requests = new ArrayList<FxDealReqDTO>(batchSize);
+        int invalidKind = 0;
+        for (int i = 0; i < batchSize; i++) {
+            int fromIndex = random.nextInt(CURRENCIES.length);
+            var from = CURRENCIES[fromIndex];
+            var to = CURRENCIES[(fromIndex + 1 + random.nextInt(CURRENCIES.length - 1)) % CURRENCIES.length];
+            var timestamp = BASE.plusSeconds(i).format(FxDealServiceImpl.FORMATTER);
+            var amount = String.format("%d.%04d", 1 + random.nextInt(1_000_000), random.nextInt(10_000));
+            var dealId = "BENCH-" + seed + "-" + i;
+            if (!invalid.get(i)) {
+                requests.add(new FxDealReqDTO(dealId, from, to, timestamp, amount));
+                continue;
+            }
+            requests.add(switch (invalidKind++ % 5) {
+                case 0 -> new FxDealReqDTO(DUPLICATE_PREFIX + dealId, from, to, timestamp, amount);
+                case 1 -> new FxDealReqDTO(dealId, "ABC", to, timestamp, amount);
+                case 2 -> new FxDealReqDTO(dealId, from, from, timestamp, amount);
+                case 3 -> new FxDealReqDTO(dealId, from, to, "15/01/2024 10:00", amount);
+                default -> new FxDealReqDTO(dealId, from, to, timestamp, "-" + amount);
+            });
+        }
+        return requests;
+    }
+
+    /**
+     * The import service wired to an in-memory repository stub: IDs starting with
+     * {@link #DUPLICATE_PREFIX} already exist and {@code save} returns its argument.
+     */
+    static FxDealServiceImpl service(FxDealMapper mapper) {
+        var archive = new DealArchive(Path.of(System.getProperty("java.io.tmpdir"), "fx-deals-benchmark-archive-absent"), 2_000);
+        return new FxDealServiceImpl(stubRepository(), null, null, mapper, event -> { },
+                                     new DealRangeCache(60, 2232, 1_000_000), archive,
+                                     new ImportMetrics(new SimpleMeterRegistry()), new ImportLogGovernor(10, 20, 10_000),
+                                     new IngestionStatistics(new SimpleMeterRegistry(), 60));
+    }
+
+    /** Per-deal import logging would otherwise dominate every measurement. */
+    static void silenceLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+    }
+
+    private static FxDealRepository stubRepository() {
+        return (FxDealRepository) Proxy.newProxyInstance(
+                FxDealRepository.class.getClassLoader(), new Class<?>[]{FxDealRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "existsById" -> ((String) args[0]).startsWith(DUPLICATE_PREFIX);
+                    case "save" -> args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubFxDealRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
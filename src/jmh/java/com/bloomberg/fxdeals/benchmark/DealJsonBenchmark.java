@@ -0,0 +1,69 @@
+package com.bloomberg.fxdeals.benchmark;
+
+import com.bloomberg.fxdeals.dtos.req.FxDealReqDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import com.bloomberg.fxdeals.mappers.FxDealMapper;
+import com.bloomberg.fxdeals.mappers.FxDealMapperImpl;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson binding of the batch import body and the deal list response, using an {@link ObjectMapper}
+ * configured the way Spring MVC builds its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DealJsonBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int batchSize;
+
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private byte[] requestJson;
+    private List<FxDealResDTO> responses;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        requestReader = objectMapper.readerFor(new TypeReference<List<FxDealReqDTO>>() { });
+        responseWriter = objectMapper.writerFor(new TypeReference<List<FxDealResDTO>>() { });
+
+        FxDealMapper mapper = new FxDealMapperImpl();
+        var requests = BenchmarkDeals.requests(batchSize, 0.0, 42);
+        requestJson = objectMapper.writeValueAsBytes(requests);
+        responses = requests.stream().map(mapper::toEntity).map(mapper::toDTO).toList();
+    }
+
+    @Benchmark
+    public List<FxDealReqDTO> deserializeRequests() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public byte[] serializeResponses() throws IOException {
+        return responseWriter.writeValueAsBytes(responses);
+    }
+}
@@ -0,0 +1,59 @@
+package com.bloomberg.fxdeals.benchmark;
+
+import com.bloomberg.fxdeals.dtos.req.FxDealReqDTO;
+import com.bloomberg.fxdeals.entity.FxDeal;
+import com.bloomberg.fxdeals.mappers.FxDealMapper;
+import com.bloomberg.fxdeals.mappers.FxDealMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MapStruct mapper on both import directions: request to entity (timestamp and amount parsing)
+ * and entity list to response DTOs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FxDealMapperBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int batchSize;
+
+    private final FxDealMapper mapper = new FxDealMapperImpl();
+    private List<FxDealReqDTO> requests;
+    private List<FxDeal> entities;
+
+    @Setup
+    public void setUp() {
+        requests = BenchmarkDeals.requests(batchSize, 0.0, 42);
+        entities = requests.stream().map(mapper::toEntity).toList();
+    }
+
+    @Benchmark
+    public void toEntity(Blackhole blackhole) {
+        for (FxDealReqDTO request : requests) {
+            blackhole.consume(mapper.toEntity(request));
+        }
+    }
+
+    @Benchmark
+    public Object toDTOs() {
+        return mapper.toDTOs(entities);
+    }
+}
@@ -0,0 +1,58 @@
+package com.bloomberg.fxdeals.benchmark;
+
+import com.bloomberg.fxdeals.dtos.req.FxDealReqDTO;
+import com.bloomberg.fxdeals.exception.FxDealBatchImportException;
+import com.bloomberg.fxdeals.mappers.FxDealMapperImpl;
+import com.bloomberg.fxdeals.service.impl.FxDealServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch import through {@link FxDealServiceImpl} - field validation, duplicate check, mapping and the
+ * rejection bookkeeping - with the repository stubbed out so only the in-process cost is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImportValidationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int batchSize;
+
+    @Param({"0.0", "0.1", "0.5"})
+    private double invalidRatio;
+
+    private FxDealServiceImpl service;
+    private List<FxDealReqDTO> requests;
+
+    @Setup
+    public void setUp() {
+        BenchmarkDeals.silenceLogging();
+        service = BenchmarkDeals.service(new FxDealMapperImpl());
+        requests = BenchmarkDeals.requests(batchSize, invalidRatio, 42);
+    }
+
+    @Benchmark
+    public Object importBatch() {
+        try {
+            return service.importBatchDeals(requests);
+        } catch (FxDealBatchImportException e) {
+            return e;
+        }
+    }
+}
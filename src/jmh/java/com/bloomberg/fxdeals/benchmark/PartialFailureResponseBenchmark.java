@@ -0,0 +1,79 @@
+package com.bloomberg.fxdeals.benchmark;
+
+import com.bloomberg.fxdeals.config.GlobalExceptionHandler;
+import com.bloomberg.fxdeals.exception.FxDealBatchImportException;
+import com.bloomberg.fxdeals.mappers.FxDealMapperImpl;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the 400 body for a partially failed batch in {@link GlobalExceptionHandler}, alone and
+ * together with writing it as JSON, for both the full and the {@code response=summary} shapes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartialFailureResponseBenchmark {
+
+    @Param({"100", "1000"})
+    private int batchSize;
+
+    @Param({"0.1", "0.5", "1.0"})
+    private double invalidRatio;
+
+    @Param({"full", "summary"})
+    private String response;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private FxDealBatchImportException exception;
+    private WebRequest request;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        BenchmarkDeals.silenceLogging();
+        var service = BenchmarkDeals.service(new FxDealMapperImpl());
+        try {
+            service.importBatchDeals(BenchmarkDeals.requests(batchSize, invalidRatio, 42));
+            throw new IllegalStateException("Batch with invalid ratio " + invalidRatio + " was fully accepted");
+        } catch (FxDealBatchImportException e) {
+            exception = e;
+        }
+
+        var servletRequest = new MockHttpServletRequest("POST", "/api/v1/deals/import/batch");
+        servletRequest.setParameter("response", response);
+        request = new ServletWebRequest(servletRequest);
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+    }
+
+    @Benchmark
+    public Map<String, Object> buildResponse() {
+        return handler.handleFxDealBatchImportException(exception, request);
+    }
+
+    @Benchmark
+    public byte[] buildAndWriteResponse() throws IOException {
+        return writer.writeValueAsBytes(handler.handleFxDealBatchImportException(exception, request));
+    }
+}
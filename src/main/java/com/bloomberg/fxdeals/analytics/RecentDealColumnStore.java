@@ -0,0 +1,294 @@
+package com.bloomberg.fxdeals.analytics;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar, primitive-array store of recent deals used for analytics scans.
+ * <p>
+ * Each deal occupies one slot across three parallel columns: the deal timestamp as UTC epoch
+ * seconds, a dictionary code for the currency pair and the amount as an unscaled long at a fixed
+ * scale of {@value #AMOUNT_SCALE} (the scale of the {@code deal_amount} column). Queries are
+ * answered by linear scans over these columns; {@link BigDecimal} is only used at the edges.
+ */
+public final class RecentDealColumnStore {
+    public static final int AMOUNT_SCALE = 4;
+    static final int MAX_GROUPS = 1 << 20;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Short> pairCodes = new HashMap<>();
+    private String[] pairNames = new String[16];
+
+    private long[] epochSeconds;
+    private short[] pairs;
+    private long[] unscaledAmounts;
+    private int size;
+
+    public RecentDealColumnStore(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        this.epochSeconds = new long[capacity];
+        this.pairs = new short[capacity];
+        this.unscaledAmounts = new long[capacity];
+    }
+
+    public static String pairOf(String fromCurrency, String toCurrency) {
+        return fromCurrency + "/" + toCurrency;
+    }
+
+    public static long toEpochSecond(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Appends a deal. Returns {@code false} when the amount cannot be represented as an unscaled
+     * long at {@value #AMOUNT_SCALE} decimal places, in which case the deal is not stored.
+     */
+    public boolean append(LocalDateTime dealTimestamp, String fromCurrency, String toCurrency, BigDecimal amount) {
+        long unscaled;
+        try {
+            unscaled = amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return false;
+        }
+
+        var writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            short code = codeFor(pairOf(fromCurrency, toCurrency));
+            if (code < 0) {
+                return false;
+            }
+            if (size == epochSeconds.length) {
+                int capacity = size << 1;
+                epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+                pairs = Arrays.copyOf(pairs, capacity);
+                unscaledAmounts = Arrays.copyOf(unscaledAmounts, capacity);
+            }
+            epochSeconds[size] = toEpochSecond(dealTimestamp);
+            pairs[size] = code;
+            unscaledAmounts[size] = unscaled;
+            size++;
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Drops every deal whose timestamp is strictly before {@code cutoffEpochSecond} by compacting the
+     * columns in place, and returns the number of evicted deals.
+     */
+    public int evictOlderThan(long cutoffEpochSecond) {
+        var writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (epochSeconds[i] >= cutoffEpochSecond) {
+                    epochSeconds[kept] = epochSeconds[i];
+                    pairs[kept] = pairs[i];
+                    unscaledAmounts[kept] = unscaledAmounts[i];
+                    kept++;
+                }
+            }
+            int evicted = size - kept;
+            size = kept;
+            return evicted;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        var readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return size;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Aggregates the deals with {@code fromEpochSecond <= timestamp < toEpochSecond}, grouped by
+     * currency pair and, when {@code bucketSeconds > 0}, by fixed time buckets aligned on
+     * {@code fromEpochSecond}.
+     *
+     * @param currencyPair optional pair filter in {@code FROM/TO} form, {@code null} for all pairs
+     * @param percentiles  percentiles in {@code (0, 100]} computed with the nearest-rank method
+     */
+    public List<Aggregate> aggregate(long fromEpochSecond, long toEpochSecond, String currencyPair,
+                                     long bucketSeconds, double[] percentiles) {
+        if (toEpochSecond <= fromEpochSecond) {
+            return List.of();
+        }
+        long span = toEpochSecond - fromEpochSecond;
+        long bucketWidth = bucketSeconds > 0 ? bucketSeconds : span;
+        long bucketCount = (span + bucketWidth - 1) / bucketWidth;
+
+        var readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int pairFilter = -1;
+            if (currencyPair != null) {
+                Short code = pairCodes.get(currencyPair);
+                if (code == null) {
+                    return List.of();
+                }
+                pairFilter = code;
+            }
+            int pairCount = pairCodes.size();
+            if (pairCount == 0) {
+                return List.of();
+            }
+            if (bucketCount * pairCount > MAX_GROUPS) {
+                throw new IllegalArgumentException("Query spans too many pair/time groups: " + bucketCount * pairCount);
+            }
+            int groups = (int) (bucketCount * pairCount);
+
+            int[] counts = new int[groups];
+            long[] sums = new long[groups];
+            long[] mins = new long[groups];
+            long[] maxs = new long[groups];
+            BigInteger[] spill = null;
+            Arrays.fill(mins, Long.MAX_VALUE);
+            Arrays.fill(maxs, Long.MIN_VALUE);
+
+            final long[] ts = epochSeconds;
+            final short[] pc = pairs;
+            final long[] amounts = unscaledAmounts;
+            final int n = size;
+            for (int i = 0; i < n; i++) {
+                long t = ts[i];
+                if (t < fromEpochSecond || t >= toEpochSecond || (pairFilter >= 0 && pc[i] != pairFilter)) {
+                    continue;
+                }
+                int g = (int) ((t - fromEpochSecond) / bucketWidth) * pairCount + pc[i];
+                long v = amounts[i];
+                long s = sums[g];
+                long r = s + v;
+                if (((s ^ r) & (v ^ r)) < 0) {
+                    if (spill == null) {
+                        spill = new BigInteger[groups];
+                    }
+                    spill[g] = spill[g] == null ? BigInteger.valueOf(s) : spill[g].add(BigInteger.valueOf(s));
+                    r = v;
+                }
+                sums[g] = r;
+                counts[g]++;
+                if (v < mins[g]) mins[g] = v;
+                if (v > maxs[g]) maxs[g] = v;
+            }
+
+            long[][] percentileValues = percentiles != null && percentiles.length > 0
+                    ? percentiles(counts, fromEpochSecond, toEpochSecond, pairFilter, bucketWidth, pairCount, percentiles)
+                    : null;
+
+            var result = new ArrayList<Aggregate>();
+            for (int g = 0; g < groups; g++) {
+                if (counts[g] == 0) {
+                    continue;
+                }
+                BigInteger total = BigInteger.valueOf(sums[g]);
+                if (spill != null && spill[g] != null) {
+                    total = total.add(spill[g]);
+                }
+                List<BigDecimal> groupPercentiles = List.of();
+                if (percentileValues != null) {
+                    var values = new ArrayList<BigDecimal>(percentiles.length);
+                    for (long value : percentileValues[g]) {
+                        values.add(BigDecimal.valueOf(value, AMOUNT_SCALE));
+                    }
+                    groupPercentiles = values;
+                }
+                result.add(new Aggregate(
+                        pairNames[g % pairCount],
+                        fromEpochSecond + (long) (g / pairCount) * bucketWidth,
+                        counts[g],
+                        new BigDecimal(total, AMOUNT_SCALE),
+                        BigDecimal.valueOf(mins[g], AMOUNT_SCALE),
+                        BigDecimal.valueOf(maxs[g], AMOUNT_SCALE),
+                        groupPercentiles));
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private long[][] percentiles(int[] counts, long fromEpochSecond, long toEpochSecond, int pairFilter,
+                                 long bucketWidth, int pairCount, double[] percentiles) {
+        int groups = counts.length;
+        int[] offsets = new int[groups + 1];
+        for (int g = 0; g < groups; g++) {
+            offsets[g + 1] = offsets[g] + counts[g];
+        }
+        long[] values = new long[offsets[groups]];
+        int[] cursor = Arrays.copyOf(offsets, groups);
+
+        final long[] ts = epochSeconds;
+        final short[] pc = pairs;
+        final long[] amounts = unscaledAmounts;
+        final int n = size;
+        for (int i = 0; i < n; i++) {
+            long t = ts[i];
+            if (t < fromEpochSecond || t >= toEpochSecond || (pairFilter >= 0 && pc[i] != pairFilter)) {
+                continue;
+            }
+            int g = (int) ((t - fromEpochSecond) / bucketWidth) * pairCount + pc[i];
+            values[cursor[g]++] = amounts[i];
+        }
+
+        long[][] result = new long[groups][];
+        for (int g = 0; g < groups; g++) {
+            int count = counts[g];
+            if (count == 0) {
+                continue;
+            }
+            int start = offsets[g];
+            Arrays.sort(values, start, start + count);
+            long[] groupValues = new long[percentiles.length];
+            for (int p = 0; p < percentiles.length; p++) {
+                int rank = (int) Math.ceil(percentiles[p] / 100.0 * count);
+                groupValues[p] = values[start + Math.min(count, Math.max(1, rank)) - 1];
+            }
+            result[g] = groupValues;
+        }
+        return result;
+    }
+
+    private short codeFor(String pair) {
+        Short code = pairCodes.get(pair);
+        if (code != null) {
+            return code;
+        }
+        int next = pairCodes.size();
+        if (next > Short.MAX_VALUE) {
+            return -1;
+        }
+        if (next == pairNames.length) {
+            pairNames = Arrays.copyOf(pairNames, next << 1);
+        }
+        pairNames[next] = pair;
+        pairCodes.put(pair, (short) next);
+        return (short) next;
+    }
+
+    public record Aggregate(String currencyPair,
+                            long bucketStartEpochSecond,
+                            long count,
+                            BigDecimal sum,
+                            BigDecimal min,
+                            BigDecimal max,
+                            List<BigDecimal> percentiles) {
+    }
+}
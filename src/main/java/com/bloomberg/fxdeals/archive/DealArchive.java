@@ -0,0 +1,265 @@
+package com.bloomberg.fxdeals.archive;
+
+import com.bloomberg.fxdeals.dtos.res.FxDealChangeResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Index of the deal archive files under {@code fx-deals.archive.directory}. File headers and a sorted
+ * array of the 64-bit hashes of every archived deal ID (8 bytes per deal) are kept in memory; reads
+ * open just the files whose timestamp or sequence range overlaps the query. A deal ID lookup is a
+ * binary search over the hashes, so IDs that were never archived, which is nearly every ID an import
+ * checks, cost the same however many files there are. Only a hash hit scans files, those whose ID
+ * range and Bloom filter admit the ID.
+ * <p>
+ * A file becomes visible when the transaction deleting its deals from {@code fx_deals} commits, and
+ * that commit holds the write side of a fair lock. Reads that combine {@code fx_deals} with the
+ * archive run under the read side through {@link #consistently}, so on the primary they see each deal
+ * exactly once. The move queues for the lock for at most {@code fx-deals.archive.commit-lock-timeout-ms}
+ * and rolls back if it cannot get it, so neither a steady stream of reads nor a read stuck waiting for
+ * a connection can hold its row locks and transaction open indefinitely.
+ */
+@Slf4j
+@Component
+public class DealArchive {
+    private final Path directory;
+    private final long commitLockTimeoutMs;
+    private final List<DealArchiveFile.Metadata> files = new CopyOnWriteArrayList<>();
+    private final Map<Path, long[]> pendingIdHashes = new ConcurrentHashMap<>();
+    private final ReadWriteLock moves = new ReentrantReadWriteLock(true);
+    private volatile long[] idHashes = new long[0];
+
+    public DealArchive(@Value("${fx-deals.archive.directory:${java.io.tmpdir}/fx-deals-archive}") Path directory,
+                       @Value("${fx-deals.archive.commit-lock-timeout-ms:2000}") long commitLockTimeoutMs) {
+        this.directory = directory;
+        this.commitLockTimeoutMs = commitLockTimeoutMs;
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> paths = Files.list(directory)) {
+                var hashes = new ArrayList<long[]>();
+                for (Path path : paths.filter(p -> p.toString().endsWith(DealArchiveFile.EXTENSION)).sorted().toList()) {
+                    files.add(DealArchiveFile.readMetadata(path));
+                    hashes.add(DealArchiveFile.dealIdHashes(path));
+                }
+                idHashes = sortedUnion(hashes.toArray(long[][]::new));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not load deal archive from " + directory, e);
+            }
+            log.info("Loaded deal archive index - {} files, {} deals", files.size(), archivedDeals());
+        }
+    }
+
+    public int fileCount() {
+        return files.size();
+    }
+
+    public long archivedDeals() {
+        return files.stream().mapToLong(DealArchiveFile.Metadata::rows).sum();
+    }
+
+    /** Runs {@code read}, which reads {@code fx_deals} and the archive, while no move is committing. */
+    public <T, E extends Exception> T consistently(Read<T, E> read) throws E {
+        moves.readLock().lock();
+        try {
+            return read.run();
+        } finally {
+            moves.readLock().unlock();
+        }
+    }
+
+    public List<DealArchiveFile.Metadata> files() {
+        return List.copyOf(files);
+    }
+
+    /** Writes {@code deals} to a new archive file without making it visible to readers yet. */
+    public DealArchiveFile.Metadata write(List<FxDealChangeResDTO> deals) throws IOException {
+        Files.createDirectories(directory);
+        var name = String.format("deals-%d-%016x%s", System.currentTimeMillis(),
+                                 ThreadLocalRandom.current().nextLong(), DealArchiveFile.EXTENSION);
+        var file = DealArchiveFile.write(directory.resolve(name), deals);
+        pendingIdHashes.put(file.path(), deals.stream().mapToLong(deal -> DealIdBloomFilter.hash(deal.dealId())).toArray());
+        return file;
+    }
+
+    /**
+     * Registers {@code file} when the current transaction, which has deleted its deals from
+     * {@code fx_deals}, commits. Holds off {@link #consistently} reads from now until then.
+     *
+     * @throws CannotAcquireLockException if running reads keep the lock for longer than the commit
+     *                                    lock timeout; the transaction should be rolled back
+     */
+    public void registerOnCommit(DealArchiveFile.Metadata file) {
+        var lock = moves.writeLock();
+        try {
+            if (!lock.tryLock(commitLockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new CannotAcquireLockException("Archive reads held off the move of " + file.path()
+                                                     + " for more than " + commitLockTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while waiting to move " + file.path(), e);
+        }
+        try {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        var hashes = pendingIdHashes.remove(file.path());
+                        if (status == STATUS_COMMITTED) {
+                            idHashes = sortedUnion(idHashes, hashes);
+                            files.add(file);
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            });
+        } catch (IllegalStateException e) {
+            lock.unlock();
+            throw e;
+        }
+    }
+
+    /** Withdraws a file whose deals could not be removed from {@code fx_deals} and deletes it. */
+    public void discard(DealArchiveFile.Metadata file) {
+        pendingIdHashes.remove(file.path());
+        files.remove(file);
+        try {
+            Files.deleteIfExists(file.path());
+        } catch (IOException e) {
+            log.warn("Could not delete discarded archive file {} - {}", file.path(), e.getMessage());
+        }
+    }
+
+    /** Archived deals with {@code from <= dealTimestamp < to}, in timestamp order. */
+    public List<FxDealResDTO> findDealsBetween(LocalDateTime from, LocalDateTime to) {
+        var deals = new ArrayList<FxDealResDTO>();
+        int scanned = 0;
+        for (var file : files) {
+            if (file.overlaps(from, to)) {
+                scanned++;
+                try {
+                    deals.addAll(DealArchiveFile.read(file.path(), from, to));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read archive file " + file.path(), e);
+                }
+            }
+        }
+        if (scanned > 1) {
+            deals.sort(DealArchiveFile.timestampOrder());
+        }
+        return deals;
+    }
+
+    /** Every deal in {@code file} with its ingestion sequence, in timestamp order. */
+    public List<FxDealChangeResDTO> readAll(DealArchiveFile.Metadata file) {
+        try {
+            return DealArchiveFile.readAll(file.path());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive file " + file.path(), e);
+        }
+    }
+
+    /** The first {@code limit} archived deals with {@code after < ingestSeq <= through}, in sequence order. */
+    public List<FxDealChangeResDTO> findChangesBetween(long after, long through, int limit) {
+        var changes = new ArrayList<FxDealChangeResDTO>();
+        for (var file : files) {
+            if (!file.overlapsSequences(after, through)) {
+                continue;
+            }
+            for (FxDealChangeResDTO deal : readAll(file)) {
+                if (deal.ingestSeq() > after && deal.ingestSeq() <= through) {
+                    changes.add(deal);
+                }
+            }
+            changes.sort(Comparator.comparingLong(FxDealChangeResDTO::ingestSeq));
+            if (changes.size() > limit) {
+                changes.subList(limit, changes.size()).clear();
+            }
+        }
+        return changes;
+    }
+
+    public boolean containsDealId(String dealId) {
+        return !findDealIds(List.of(dealId)).isEmpty();
+    }
+
+    /** Which of {@code dealIds} are archived. Each file that may hold some of them is scanned once. */
+    public Set<String> findDealIds(Collection<String> dealIds) {
+        var hashes = idHashes;
+        var candidates = new HashSet<String>();
+        for (String dealId : dealIds) {
+            if (Arrays.binarySearch(hashes, DealIdBloomFilter.hash(dealId)) >= 0) {
+                candidates.add(dealId);
+            }
+        }
+        var found = new HashSet<String>();
+        for (var file : files) {
+            if (candidates.isEmpty()) {
+                break;
+            }
+            var fileCandidates = new HashSet<String>();
+            for (String dealId : candidates) {
+                if (file.mightContain(dealId)) {
+                    fileCandidates.add(dealId);
+                }
+            }
+            if (fileCandidates.isEmpty()) {
+                continue;
+            }
+            try {
+                var inFile = DealArchiveFile.findDealIds(file.path(), fileCandidates);
+                found.addAll(inFile);
+                candidates.removeAll(inFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read archive file " + file.path(), e);
+            }
+        }
+        return found;
+    }
+
+    private static long[] sortedUnion(long[]... parts) {
+        int length = 0;
+        for (long[] part : parts) {
+            length += part.length;
+        }
+        var union = new long[length];
+        int offset = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, union, offset, part.length);
+            offset += part.length;
+        }
+        Arrays.sort(union);
+        return union;
+    }
+
+    @FunctionalInterface
+    public interface Read<T, E extends Exception> {
+        T run() throws E;
+    }
+}
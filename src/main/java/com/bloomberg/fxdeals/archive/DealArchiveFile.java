@@ -0,0 +1,449 @@
+package com.bloomberg.fxdeals.archive;
+
+import com.bloomberg.fxdeals.dtos.res.FxDealChangeResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads and writes compressed, columnar deal archive files.
+ * <p>
+ * A file starts with an uncompressed header holding the row count, the min/max deal timestamp, deal
+ * ID and ingestion sequence and a {@link DealIdBloomFilter} over its deal IDs, so it can be pruned
+ * without touching the data. Five Deflate-compressed column blocks follow, each prefixed with an
+ * encoding byte and its compressed length so readers can skip columns they do not need:
+ * <ol>
+ *     <li>deal timestamps as UTC epoch seconds, delta encoded varints (rows are sorted by timestamp)</li>
+ *     <li>currency pairs as a dictionary followed by one varint code per row</li>
+ *     <li>deal amounts as zigzag varints unscaled at {@value #AMOUNT_SCALE} decimal places, or as
+ *     plain strings if any amount does not fit</li>
+ *     <li>deal IDs as length-prefixed UTF-8 strings</li>
+ *     <li>ingestion sequences as varints relative to the minimum sequence</li>
+ * </ol>
+ * Files are written to a temporary name, forced to disk and then atomically renamed.
+ */
+public final class DealArchiveFile {
+    public static final String EXTENSION = ".fxa";
+    static final int MAGIC = 0x46584132;
+    static final int AMOUNT_SCALE = 4;
+    private static final byte PLAIN = 0;
+    private static final byte UNSCALED_AMOUNTS = 0;
+    private static final byte STRING_AMOUNTS = 1;
+    private static final Comparator<FxDealResDTO> TIMESTAMP_ORDER =
+            Comparator.comparing(FxDealResDTO::dealTimestamp).thenComparing(FxDealResDTO::dealId);
+    private static final Comparator<FxDealChangeResDTO> ROW_ORDER =
+            Comparator.comparing(FxDealChangeResDTO::dealTimestamp).thenComparing(FxDealChangeResDTO::dealId);
+
+    private DealArchiveFile() {
+    }
+
+    public static Comparator<FxDealResDTO> timestampOrder() {
+        return TIMESTAMP_ORDER;
+    }
+
+    /** Writes {@code deals} (in any order) to {@code target} and returns the new file's metadata. */
+    public static Metadata write(Path target, List<FxDealChangeResDTO> deals) throws IOException {
+        if (deals.isEmpty()) {
+            throw new IllegalArgumentException("Cannot archive an empty set of deals");
+        }
+        var sorted = deals.stream().sorted(ROW_ORDER).toList();
+        long minEpoch = epochSecond(sorted.get(0).dealTimestamp());
+        long maxEpoch = epochSecond(sorted.get(sorted.size() - 1).dealTimestamp());
+        var bloom = DealIdBloomFilter.forIds(sorted.size());
+        String minDealId = null;
+        String maxDealId = null;
+        long minIngestSeq = Long.MAX_VALUE;
+        long maxIngestSeq = Long.MIN_VALUE;
+        for (FxDealChangeResDTO deal : sorted) {
+            bloom.add(deal.dealId());
+            minDealId = minDealId == null || deal.dealId().compareTo(minDealId) < 0 ? deal.dealId() : minDealId;
+            maxDealId = maxDealId == null || deal.dealId().compareTo(maxDealId) > 0 ? deal.dealId() : maxDealId;
+            minIngestSeq = Math.min(minIngestSeq, deal.ingestSeq());
+            maxIngestSeq = Math.max(maxIngestSeq, deal.ingestSeq());
+        }
+
+        var temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(sorted.size());
+            out.writeLong(minEpoch);
+            out.writeLong(maxEpoch);
+            out.writeUTF(minDealId);
+            out.writeUTF(maxDealId);
+            out.writeLong(minIngestSeq);
+            out.writeLong(maxIngestSeq);
+            out.writeInt(bloom.words().length);
+            for (long word : bloom.words()) {
+                out.writeLong(word);
+            }
+            writeColumn(out, PLAIN, timestampColumn(sorted, minEpoch));
+            writeColumn(out, PLAIN, pairColumn(sorted));
+            var unscaled = unscaledAmountColumn(sorted);
+            if (unscaled != null) {
+                writeColumn(out, UNSCALED_AMOUNTS, unscaled);
+            } else {
+                writeColumn(out, STRING_AMOUNTS, stringAmountColumn(sorted));
+            }
+            writeColumn(out, PLAIN, dealIdColumn(sorted));
+            writeColumn(out, PLAIN, ingestSeqColumn(sorted, minIngestSeq));
+        }
+        try (var channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        return new Metadata(target, sorted.size(), toTimestamp(minEpoch), toTimestamp(maxEpoch), minDealId, maxDealId,
+                            minIngestSeq, maxIngestSeq, bloom);
+    }
+
+    public static Metadata readMetadata(Path path) throws IOException {
+        try (var in = open(path)) {
+            return readHeader(path, in);
+        }
+    }
+
+    /** Deals in the file with {@code from <= dealTimestamp < to}, in timestamp order. */
+    public static List<FxDealResDTO> read(Path path, LocalDateTime from, LocalDateTime to) throws IOException {
+        try (var in = open(path)) {
+            var metadata = readHeader(path, in);
+            int rows = metadata.rows();
+            long fromEpoch = epochSecond(from);
+            long toEpoch = epochSecond(to);
+
+            var timestamps = new long[rows];
+            int first = rows;
+            int end = 0;
+            try (var column = readColumn(in)) {
+                long epoch = epochSecond(metadata.minTimestamp());
+                for (int i = 0; i < rows; i++) {
+                    epoch += readVarLong(column);
+                    timestamps[i] = epoch;
+                    if (epoch >= fromEpoch && epoch < toEpoch) {
+                        first = Math.min(first, i);
+                        end = i + 1;
+                    }
+                }
+            }
+            if (first >= end) {
+                return List.of();
+            }
+
+            var pairs = readPairs(in, end);
+            var amounts = readAmounts(in, end);
+
+            var deals = new ArrayList<FxDealResDTO>(end - first);
+            try (var column = readColumn(in)) {
+                for (int i = 0; i < end; i++) {
+                    var dealId = column.readUTF();
+                    if (i >= first && timestamps[i] >= fromEpoch && timestamps[i] < toEpoch) {
+                        int slash = pairs[i].indexOf('/');
+                        deals.add(new FxDealResDTO(dealId, pairs[i].substring(0, slash), pairs[i].substring(slash + 1),
+                                                   toTimestamp(timestamps[i]), amounts[i]));
+                    }
+                }
+            }
+            return deals;
+        }
+    }
+
+    /** Every deal in the file with its ingestion sequence, in timestamp order. */
+    public static List<FxDealChangeResDTO> readAll(Path path) throws IOException {
+        try (var in = open(path)) {
+            var metadata = readHeader(path, in);
+            int rows = metadata.rows();
+            var timestamps = new long[rows];
+            try (var column = readColumn(in)) {
+                long epoch = epochSecond(metadata.minTimestamp());
+                for (int i = 0; i < rows; i++) {
+                    epoch += readVarLong(column);
+                    timestamps[i] = epoch;
+                }
+            }
+            var pairs = readPairs(in, rows);
+            var amounts = readAmounts(in, rows);
+            var dealIds = new String[rows];
+            try (var column = readColumn(in)) {
+                for (int i = 0; i < rows; i++) {
+                    dealIds[i] = column.readUTF();
+                }
+            }
+
+            var deals = new ArrayList<FxDealChangeResDTO>(rows);
+            try (var column = readColumn(in)) {
+                for (int i = 0; i < rows; i++) {
+                    int slash = pairs[i].indexOf('/');
+                    deals.add(new FxDealChangeResDTO(metadata.minIngestSeq() + readVarLong(column), dealIds[i],
+                                                     pairs[i].substring(0, slash), pairs[i].substring(slash + 1),
+                                                     toTimestamp(timestamps[i]), amounts[i]));
+                }
+            }
+            return deals;
+        }
+    }
+
+    /** Which of {@code dealIds} the file holds, in one pass over the deal ID column only. */
+    public static Set<String> findDealIds(Path path, Set<String> dealIds) throws IOException {
+        var found = new HashSet<String>();
+        try (var in = open(path)) {
+            int rows = readHeader(path, in).rows();
+            try (var column = dealIdColumn(in)) {
+                for (int i = 0; i < rows && found.size() < dealIds.size(); i++) {
+                    var dealId = column.readUTF();
+                    if (dealIds.contains(dealId)) {
+                        found.add(dealId);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /** The {@link DealIdBloomFilter#hash} of every deal ID in the file, in row order. */
+    public static long[] dealIdHashes(Path path) throws IOException {
+        try (var in = open(path)) {
+            var hashes = new long[readHeader(path, in).rows()];
+            try (var column = dealIdColumn(in)) {
+                for (int i = 0; i < hashes.length; i++) {
+                    hashes[i] = DealIdBloomFilter.hash(column.readUTF());
+                }
+            }
+            return hashes;
+        }
+    }
+
+    /** Skips the three columns before the deal IDs; {@code in} must be positioned just past the header. */
+    private static DataInputStream dealIdColumn(DataInputStream in) throws IOException {
+        for (int column = 0; column < 3; column++) {
+            in.readByte();
+            in.skipNBytes(in.readInt());
+        }
+        return readColumn(in);
+    }
+
+    private static DataInputStream open(Path path) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+    }
+
+    private static Metadata readHeader(Path path, DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a deal archive file: " + path);
+        }
+        int rows = in.readInt();
+        long minEpoch = in.readLong();
+        long maxEpoch = in.readLong();
+        var minDealId = in.readUTF();
+        var maxDealId = in.readUTF();
+        long minIngestSeq = in.readLong();
+        long maxIngestSeq = in.readLong();
+        var words = new long[in.readInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.readLong();
+        }
+        return new Metadata(path, rows, toTimestamp(minEpoch), toTimestamp(maxEpoch), minDealId, maxDealId,
+                            minIngestSeq, maxIngestSeq, new DealIdBloomFilter(words));
+    }
+
+    /** Currency pairs of the first {@code rows} rows. */
+    private static String[] readPairs(DataInputStream in, int rows) throws IOException {
+        var pairs = new String[rows];
+        try (var column = readColumn(in)) {
+            var dictionary = new String[(int) readVarLong(column)];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = column.readUTF();
+            }
+            for (int i = 0; i < rows; i++) {
+                pairs[i] = dictionary[(int) readVarLong(column)];
+            }
+        }
+        return pairs;
+    }
+
+    /** Deal amounts of the first {@code rows} rows. */
+    private static BigDecimal[] readAmounts(DataInputStream in, int rows) throws IOException {
+        var amounts = new BigDecimal[rows];
+        byte amountEncoding = (byte) in.read();
+        try (var column = readColumnBody(in)) {
+            for (int i = 0; i < rows; i++) {
+                amounts[i] = amountEncoding == STRING_AMOUNTS
+                        ? new BigDecimal(column.readUTF())
+                        : BigDecimal.valueOf(zigzagDecode(readVarLong(column)), AMOUNT_SCALE);
+            }
+        }
+        return amounts;
+    }
+
+    private static ByteArrayOutputStream timestampColumn(List<FxDealChangeResDTO> sorted, long minEpoch) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        long previous = minEpoch;
+        for (FxDealChangeResDTO deal : sorted) {
+            long epoch = epochSecond(deal.dealTimestamp());
+            writeVarLong(bytes, epoch - previous);
+            previous = epoch;
+        }
+        return bytes;
+    }
+
+    private static ByteArrayOutputStream pairColumn(List<FxDealChangeResDTO> sorted) throws IOException {
+        var codes = new HashMap<String, Integer>();
+        var dictionary = new ArrayList<String>();
+        var rowCodes = new int[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            var deal = sorted.get(i);
+            rowCodes[i] = codes.computeIfAbsent(deal.fromCurrency() + "/" + deal.toCurrency(), pair -> {
+                dictionary.add(pair);
+                return dictionary.size() - 1;
+            });
+        }
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        writeVarLong(bytes, dictionary.size());
+        for (String pair : dictionary) {
+            out.writeUTF(pair);
+        }
+        for (int code : rowCodes) {
+            writeVarLong(bytes, code);
+        }
+        return bytes;
+    }
+
+    /** Returns {@code null} when some amount cannot be stored as an unscaled long. */
+    private static ByteArrayOutputStream unscaledAmountColumn(List<FxDealChangeResDTO> sorted) {
+        var bytes = new ByteArrayOutputStream();
+        for (FxDealChangeResDTO deal : sorted) {
+            try {
+                long unscaled = deal.dealAmount().setScale(AMOUNT_SCALE).unscaledValue().longValueExact();
+                writeVarLong(bytes, (unscaled << 1) ^ (unscaled >> 63));
+            } catch (ArithmeticException e) {
+                return null;
+            }
+        }
+        return bytes;
+    }
+
+    private static ByteArrayOutputStream stringAmountColumn(List<FxDealChangeResDTO> sorted) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        for (FxDealChangeResDTO deal : sorted) {
+            out.writeUTF(deal.dealAmount().toPlainString());
+        }
+        return bytes;
+    }
+
+    private static ByteArrayOutputStream dealIdColumn(List<FxDealChangeResDTO> sorted) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        for (FxDealChangeResDTO deal : sorted) {
+            out.writeUTF(deal.dealId());
+        }
+        return bytes;
+    }
+
+    private static ByteArrayOutputStream ingestSeqColumn(List<FxDealChangeResDTO> sorted, long minIngestSeq) {
+        var bytes = new ByteArrayOutputStream();
+        for (FxDealChangeResDTO deal : sorted) {
+            writeVarLong(bytes, deal.ingestSeq() - minIngestSeq);
+        }
+        return bytes;
+    }
+
+    private static void writeColumn(DataOutputStream out, byte encoding, ByteArrayOutputStream column) throws IOException {
+        var compressed = new ByteArrayOutputStream(Math.max(64, column.size() / 4));
+        try (var deflater = new DeflaterOutputStream(compressed)) {
+            column.writeTo(deflater);
+        }
+        out.writeByte(encoding);
+        out.writeInt(compressed.size());
+        compressed.writeTo(out);
+    }
+
+    private static DataInputStream readColumn(DataInputStream in) throws IOException {
+        in.readByte();
+        return readColumnBody(in);
+    }
+
+    private static DataInputStream readColumnBody(DataInputStream in) throws IOException {
+        var compressed = in.readNBytes(in.readInt());
+        return new DataInputStream(new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Truncated deal archive column");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in deal archive column");
+    }
+
+    private static long zigzagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long epochSecond(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toTimestamp(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    public record Metadata(Path path,
+                           int rows,
+                           LocalDateTime minTimestamp,
+                           LocalDateTime maxTimestamp,
+                           String minDealId,
+                           String maxDealId,
+                           long minIngestSeq,
+                           long maxIngestSeq,
+                           DealIdBloomFilter dealIds) {
+
+        public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+            return minTimestamp.isBefore(to) && !maxTimestamp.isBefore(from);
+        }
+
+        /** Whether the file may hold deals with {@code after < ingestSeq <= through}. */
+        public boolean overlapsSequences(long after, long through) {
+            return maxIngestSeq > after && minIngestSeq <= through;
+        }
+
+        public boolean mightContain(String dealId) {
+            return dealId.compareTo(minDealId) >= 0 && dealId.compareTo(maxDealId) <= 0 && dealIds.mightContain(dealId);
+        }
+    }
+}
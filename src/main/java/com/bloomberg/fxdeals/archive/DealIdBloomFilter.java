@@ -0,0 +1,59 @@
+package com.bloomberg.fxdeals.archive;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bloom filter over deal IDs, sized at {@value #BITS_PER_ID} bits per ID with {@value #HASHES} hash
+ * functions (about 1% false positives). Probes are derived from one 64-bit FNV-1a hash by double
+ * hashing.
+ */
+final class DealIdBloomFilter {
+    static final int BITS_PER_ID = 10;
+    static final int HASHES = 7;
+
+    private final long[] words;
+
+    DealIdBloomFilter(long[] words) {
+        this.words = words;
+    }
+
+    static DealIdBloomFilter forIds(int expectedIds) {
+        long bits = Math.max(64L, (long) expectedIds * BITS_PER_ID);
+        return new DealIdBloomFilter(new long[(int) ((bits + 63) / 64)]);
+    }
+
+    long[] words() {
+        return words;
+    }
+
+    void add(String dealId) {
+        long hash = hash(dealId);
+        long bits = (long) words.length * 64;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(hash + i * (hash >>> 32 | 1), bits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String dealId) {
+        long hash = hash(dealId);
+        long bits = (long) words.length * 64;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(hash + i * (hash >>> 32 | 1), bits);
+            if ((words[(int) (bit >>> 6)] & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** 64-bit FNV-1a hash of the UTF-8 bytes of {@code value}. */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
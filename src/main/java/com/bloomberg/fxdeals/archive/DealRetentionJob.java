@@ -0,0 +1,128 @@
+package com.bloomberg.fxdeals.archive;
+
+import com.bloomberg.fxdeals.cache.DealChecksumCache;
+import com.bloomberg.fxdeals.cache.DealReadVersion;
+import com.bloomberg.fxdeals.dtos.res.FxDealChangeResDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Moves deals older than {@code fx-deals.archive.retention-days} out of {@code fx_deals} into
+ * {@link DealArchive} files, at most {@code fx-deals.archive.max-rows-per-file} deals per file.
+ * <p>
+ * Each file is produced in one primary transaction: the oldest deals are locked, written and forced
+ * to disk, the rows are deleted and the file is registered with the archive as the transaction
+ * commits, so {@link DealArchive#consistently} readers see each deal in exactly one place; if the
+ * transaction fails the file is discarded again, and a move rolled back because archive reads kept
+ * it waiting is retried on the next run. Archived deals keep their ingestion sequence.
+ */
+@Slf4j
+@Component
+public class DealRetentionJob {
+    static final String SELECT_EXPIRED = "SELECT ingest_seq, deal_id, from_currency, to_currency, deal_timestamp,"
+            + " deal_amount FROM fx_deals WHERE deal_timestamp < ? ORDER BY deal_timestamp, deal_id LIMIT ? FOR UPDATE";
+    static final String DELETE_ARCHIVED = "DELETE FROM fx_deals WHERE deal_id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final DealArchive archive;
+    private final DealReadVersion readVersion;
+    private final DealChecksumCache checksumCache;
+    private final boolean enabled;
+    private final Duration retention;
+    private final int maxRowsPerFile;
+    private final int maxFilesPerRun;
+
+    public DealRetentionJob(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            DealArchive archive,
+                            DealReadVersion readVersion,
+                            DealChecksumCache checksumCache,
+                            @Value("${fx-deals.archive.enabled:false}") boolean enabled,
+                            @Value("${fx-deals.archive.retention-days:365}") long retentionDays,
+                            @Value("${fx-deals.archive.max-rows-per-file:100000}") int maxRowsPerFile,
+                            @Value("${fx-deals.archive.max-files-per-run:10}") int maxFilesPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.archive = archive;
+        this.readVersion = readVersion;
+        this.checksumCache = checksumCache;
+        this.enabled = enabled;
+        this.retention = Duration.ofDays(retentionDays);
+        this.maxRowsPerFile = maxRowsPerFile;
+        this.maxFilesPerRun = maxFilesPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${fx-deals.archive.interval-ms:3600000}")
+    public void archiveExpiredDeals() {
+        if (!enabled) {
+            return;
+        }
+        var cutoff = LocalDateTime.now(ZoneOffset.UTC).minus(retention);
+        long archived = 0;
+        for (int file = 0; file < maxFilesPerRun; file++) {
+            int moved;
+            try {
+                moved = archiveOneFile(cutoff);
+            } catch (CannotAcquireLockException e) {
+                log.warn("Deferring archiving to the next run - {}", e.getMessage());
+                break;
+            }
+            archived += moved;
+            if (moved < maxRowsPerFile) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            readVersion.bump();
+            checksumCache.clear();
+            log.info("Archived {} deals older than {} - archive now holds {} deals in {} files",
+                     archived, cutoff, archive.archivedDeals(), archive.fileCount());
+        }
+    }
+
+    int archiveOneFile(LocalDateTime cutoff) {
+        var written = new DealArchiveFile.Metadata[1];
+        try {
+            Integer moved = transaction.execute(status -> {
+                List<FxDealChangeResDTO> deals = jdbcTemplate.query(SELECT_EXPIRED, (rs, rowNum) -> new FxDealChangeResDTO(
+                        rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getTimestamp(5).toLocalDateTime(), rs.getBigDecimal(6)), Timestamp.valueOf(cutoff), maxRowsPerFile);
+                if (deals.isEmpty()) {
+                    return 0;
+                }
+                try {
+                    written[0] = archive.write(deals);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                var ids = deals.stream().map(FxDealChangeResDTO::dealId).toArray(String[]::new);
+                jdbcTemplate.update(DELETE_ARCHIVED, ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", ids)));
+                archive.registerOnCommit(written[0]);
+                log.debug("Archived {} deals from {} to {} into {}", deals.size(), written[0].minTimestamp(),
+                          written[0].maxTimestamp(), written[0].path());
+                return deals.size();
+            });
+            return moved == null ? 0 : moved;
+        } catch (RuntimeException e) {
+            if (written[0] != null) {
+                archive.discard(written[0]);
+            }
+            throw e;
+        }
+    }
+}
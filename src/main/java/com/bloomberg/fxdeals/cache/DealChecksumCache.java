@@ -0,0 +1,68 @@
+package com.bloomberg.fxdeals.cache;
+
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import com.bloomberg.fxdeals.event.FxDealsImportedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Leaf digests of closed time buckets, keyed by bucket width and bucket index (epoch seconds divided
+ * by the width). Imports only evict the buckets their deal timestamps fall into, so late deals for
+ * an old bucket are picked up while every other closed bucket stays cached.
+ * <p>
+ * Every invalidation also advances a generation; a digest computed across an invalidation is not
+ * stored, since it may predate the change.
+ */
+@Component
+public class DealChecksumCache {
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<Long, Leaf>> bucketsByWidth = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public Leaf get(long widthSeconds, long bucketIndex) {
+        var buckets = bucketsByWidth.get(widthSeconds);
+        return isNull(buckets) ? null : buckets.get(bucketIndex);
+    }
+
+    /** Stores a leaf unless the cache was invalidated since {@code computedAtGeneration}. */
+    public void put(long widthSeconds, long bucketIndex, Leaf leaf, long computedAtGeneration) {
+        if (generation.get() != computedAtGeneration) {
+            return;
+        }
+        bucketsByWidth.computeIfAbsent(widthSeconds, width -> new ConcurrentHashMap<>()).put(bucketIndex, leaf);
+        if (generation.get() != computedAtGeneration) {
+            bucketsByWidth.get(widthSeconds).remove(bucketIndex, leaf);
+        }
+    }
+
+    public void invalidate(LocalDateTime dealTimestamp) {
+        generation.incrementAndGet();
+        long epochSecond = dealTimestamp.toEpochSecond(ZoneOffset.UTC);
+        bucketsByWidth.forEach((width, buckets) -> buckets.remove(Math.floorDiv(epochSecond, width)));
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        bucketsByWidth.clear();
+    }
+
+    @EventListener
+    public void onDealsImported(FxDealsImportedEvent event) {
+        for (FxDealResDTO deal : event.deals()) {
+            invalidate(deal.dealTimestamp());
+        }
+    }
+
+    public record Leaf(long count, String digest) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.bloomberg.fxdeals.cache;
+
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import com.bloomberg.fxdeals.event.FxDealsImportedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deals of closed time buckets for range queries, keyed by bucket index (UTC epoch seconds divided
+ * by the bucket width) and evicted least recently used once more than
+ * {@code fx-deals.range-cache.max-deals} deals are held.
+ * <p>
+ * Every bucket has its own version, bumped whenever an import lands a deal in it; {@link #clear()}
+ * advances a version shared by all buckets. A bucket read from the database is only stored if its
+ * version has not moved since the read started, so an import that races a read is never masked.
+ */
+@Component
+public class DealRangeCache {
+    private final long bucketSeconds;
+    private final int maxQueryBuckets;
+    private final long maxDeals;
+    private final AtomicLong generation = new AtomicLong();
+    private final ConcurrentHashMap<Long, Long> bucketVersions = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Long, List<FxDealResDTO>> buckets = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedDeals;
+
+    public DealRangeCache(@Value("${fx-deals.range-cache.bucket-minutes:60}") int bucketMinutes,
+                          @Value("${fx-deals.range-cache.max-query-buckets:2232}") int maxQueryBuckets,
+                          @Value("${fx-deals.range-cache.max-deals:1000000}") long maxDeals) {
+        this.bucketSeconds = bucketMinutes * 60L;
+        this.maxQueryBuckets = maxQueryBuckets;
+        this.maxDeals = maxDeals;
+    }
+
+    public int maxQueryBuckets() {
+        return maxQueryBuckets;
+    }
+
+    public long bucketIndex(LocalDateTime timestamp) {
+        return Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), bucketSeconds);
+    }
+
+    public LocalDateTime bucketStart(long bucketIndex) {
+        return LocalDateTime.ofEpochSecond(bucketIndex * bucketSeconds, 0, ZoneOffset.UTC);
+    }
+
+    /** Both parts only ever grow, so their sum changes whenever either is bumped. */
+    public long version(long bucketIndex) {
+        return generation.get() + bucketVersions.getOrDefault(bucketIndex, 0L);
+    }
+
+    public synchronized List<FxDealResDTO> get(long bucketIndex) {
+        return buckets.get(bucketIndex);
+    }
+
+    /** Stores a bucket unless it was invalidated since {@code readAtVersion}. */
+    public synchronized void put(long bucketIndex, List<FxDealResDTO> deals, long readAtVersion) {
+        if (version(bucketIndex) != readAtVersion || weight(deals) > maxDeals) {
+            return;
+        }
+        var previous = buckets.put(bucketIndex, List.copyOf(deals));
+        cachedDeals += weight(deals) - (previous == null ? 0 : weight(previous));
+        var eldest = buckets.entrySet().iterator();
+        while (cachedDeals > maxDeals && eldest.hasNext()) {
+            cachedDeals -= weight(eldest.next().getValue());
+            eldest.remove();
+        }
+    }
+
+    public void invalidate(LocalDateTime dealTimestamp) {
+        invalidateBucket(bucketIndex(dealTimestamp));
+    }
+
+    private void invalidateBucket(long bucketIndex) {
+        bucketVersions.merge(bucketIndex, 1L, Long::sum);
+        synchronized (this) {
+            var removed = buckets.remove(bucketIndex);
+            if (removed != null) {
+                cachedDeals -= weight(removed);
+            }
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        synchronized (this) {
+            buckets.clear();
+            cachedDeals = 0;
+        }
+    }
+
+    public synchronized long cachedDeals() {
+        return cachedDeals;
+    }
+
+    @EventListener
+    public void onDealsImported(FxDealsImportedEvent event) {
+        var touched = new HashSet<Long>();
+        for (FxDealResDTO deal : event.deals()) {
+            long bucketIndex = bucketIndex(deal.dealTimestamp());
+            if (touched.add(bucketIndex)) {
+                invalidateBucket(bucketIndex);
+            }
+        }
+    }
+
+    /** Empty buckets still cost an entry. */
+    private static long weight(List<FxDealResDTO> deals) {
+        return Math.max(1, deals.size());
+    }
+}
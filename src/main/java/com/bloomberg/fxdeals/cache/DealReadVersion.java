@@ -0,0 +1,42 @@
+package com.bloomberg.fxdeals.cache;
+
+import com.bloomberg.fxdeals.event.FxDealsImportedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Monotonic version of the deal data as seen by read caches. Write paths bump it after their
+ * changes are committed, so anything rendered after reading version {@code v} stays valid for as
+ * long as {@link #current()} still returns {@code v}. Caches register through {@link #onBump} to
+ * release what a bump made unreachable.
+ */
+@Component
+public class DealReadVersion {
+    private final AtomicLong version = new AtomicLong();
+    private final List<LongConsumer> listeners = new CopyOnWriteArrayList<>();
+
+    public long current() {
+        return version.get();
+    }
+
+    public long bump() {
+        long bumped = version.incrementAndGet();
+        listeners.forEach(listener -> listener.accept(bumped));
+        return bumped;
+    }
+
+    /** Calls {@code listener} with the new version after every bump. */
+    public void onBump(LongConsumer listener) {
+        listeners.add(listener);
+    }
+
+    @EventListener
+    public void onDealsImported(FxDealsImportedEvent event) {
+        bump();
+    }
+}
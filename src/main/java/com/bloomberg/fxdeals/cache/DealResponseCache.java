@@ -0,0 +1,203 @@
+package com.bloomberg.fxdeals.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Holds fully serialized deal read responses per query shape, keyed by the {@link DealReadVersion}
+ * they were rendered at. Any write bumps the version, which invalidates every entry at once and drops
+ * them from memory. The cache holds at most {@code fx-deals.read-cache.max-bytes} of bodies, counting
+ * gzip copies; a body larger than that is served but not kept.
+ * <p>
+ * ETags are derived from the instance, version and shape alone, so a conditional request can be
+ * answered with 304 without rendering or touching the database. The gzip representation carries its
+ * own strong ETag ({@link #gzipEtag}), as each coding of a response needs a distinct validator.
+ * <p>
+ * Renderers must read the primary: a replica may still be behind the version an entry is stored
+ * under, and the entry would then hide the missing writes behind a current ETag.
+ */
+@Slf4j
+@Component
+public class DealResponseCache {
+    private final DealReadVersion readVersion;
+    private final boolean gzipEnabled;
+    private final int gzipMinBytes;
+    private final long maxBytes;
+    private final String instanceId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Object> renderLocks = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+
+    public DealResponseCache(DealReadVersion readVersion,
+                             @Value("${fx-deals.read-cache.gzip.enabled:true}") boolean gzipEnabled,
+                             @Value("${fx-deals.read-cache.gzip.min-bytes:2048}") int gzipMinBytes,
+                             @Value("${fx-deals.read-cache.max-bytes:67108864}") long maxBytes) {
+        this.readVersion = readVersion;
+        this.gzipEnabled = gzipEnabled;
+        this.gzipMinBytes = gzipMinBytes;
+        this.maxBytes = maxBytes;
+        readVersion.onBump(this::evictBefore);
+    }
+
+    /** Bytes held by cached bodies, identity and gzip together. */
+    public long bytes() {
+        return bytes.get();
+    }
+
+    public String currentEtag(String shape) {
+        return etag(shape, readVersion.current());
+    }
+
+    /**
+     * Returns the entry for {@code shape} at the current version, rendering it at most once per
+     * version: concurrent misses for the same shape wait for the first renderer.
+     */
+    public Entry get(String shape, Supplier<byte[]> renderer) {
+        long version = readVersion.current();
+        var entry = entries.get(shape);
+        if (!isNull(entry) && entry.version() == version) {
+            return entry;
+        }
+
+        synchronized (renderLocks.computeIfAbsent(shape, key -> new Object())) {
+            version = readVersion.current();
+            entry = entries.get(shape);
+            if (!isNull(entry) && entry.version() == version) {
+                return entry;
+            }
+            return render(shape, version, renderer);
+        }
+    }
+
+    /**
+     * Renders {@code shape} even when an entry for the current version exists, and stores the result.
+     * For readers that must see writes this instance may not have been told about, such as a client's
+     * own import through another instance.
+     */
+    public Entry refresh(String shape, Supplier<byte[]> renderer) {
+        synchronized (renderLocks.computeIfAbsent(shape, key -> new Object())) {
+            return render(shape, readVersion.current(), renderer);
+        }
+    }
+
+    private Entry render(String shape, long version, Supplier<byte[]> renderer) {
+        byte[] body = renderer.get();
+        byte[] gzipBody = gzipEnabled && body.length >= gzipMinBytes ? gzip(body) : null;
+        var entry = new Entry(version, etag(shape, version), body, gzipBody);
+        if (version == readVersion.current() && entry.bytes() <= maxBytes) {
+            store(shape, entry);
+        }
+        log.debug("Rendered read response for shape {} at version {} - {} bytes", shape, version, body.length);
+        return entry;
+    }
+
+    /**
+     * Stores {@code entry}, first dropping entries of older versions and then, while the cache is over
+     * {@code fx-deals.read-cache.max-bytes}, entries of other shapes.
+     */
+    private void store(String shape, Entry entry) {
+        evictBefore(entry.version());
+        var previous = entries.put(shape, entry);
+        bytes.addAndGet(entry.bytes() - (isNull(previous) ? 0 : previous.bytes()));
+        for (var cached : entries.entrySet()) {
+            if (bytes.get() <= maxBytes) {
+                break;
+            }
+            if (!cached.getKey().equals(shape)) {
+                remove(cached.getKey(), cached.getValue());
+            }
+        }
+    }
+
+    /** Drops every entry rendered before {@code version}; they can never be served again. */
+    private void evictBefore(long version) {
+        entries.forEach((shape, entry) -> {
+            if (entry.version() < version) {
+                remove(shape, entry);
+            }
+        });
+    }
+
+    private void remove(String shape, Entry entry) {
+        if (entries.remove(shape, entry)) {
+            bytes.addAndGet(-entry.bytes());
+        }
+    }
+
+    /** The ETag of the gzip representation of the response whose identity ETag is {@code etag}. */
+    public static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    /**
+     * Weak comparison of an {@code If-None-Match} header against the identity ETag of a response and
+     * against the ETag of its gzip representation, as required for conditional GETs.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        return matchesTag(ifNoneMatch, etag) || matchesTag(ifNoneMatch, gzipEtag(etag));
+    }
+
+    /**
+     * The ETag to send with a 304 for the response whose identity ETag is {@code etag}: the gzip
+     * ETag when the client accepts gzip and holds the gzip representation, otherwise the identity ETag.
+     */
+    public static String notModifiedEtag(String ifNoneMatch, String etag, boolean acceptsGzip) {
+        var gzipEtag = gzipEtag(etag);
+        return acceptsGzip && matchesTag(ifNoneMatch, gzipEtag) ? gzipEtag : etag;
+    }
+
+    private static boolean matchesTag(String ifNoneMatch, String etag) {
+        if (isNull(ifNoneMatch) || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            var tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String etag(String shape, long version) {
+        return "\"" + instanceId + "-" + version + "-" + Integer.toHexString(shape.hashCode()) + "\"";
+    }
+
+    private static byte[] gzip(byte[] body) {
+        var out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public record Entry(long version, String etag, byte[] body, byte[] gzipBody) {
+        public String gzipEtag() {
+            return DealResponseCache.gzipEtag(etag);
+        }
+
+        long bytes() {
+            return body.length + (isNull(gzipBody) ? 0L : gzipBody.length);
+        }
+    }
+}
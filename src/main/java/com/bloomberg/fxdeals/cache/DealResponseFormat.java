@@ -0,0 +1,57 @@
+package com.bloomberg.fxdeals.cache;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Wire formats a cached deal read response can be rendered in. Each format is cached as its own
+ * shape, so negotiating a format never re-encodes a response rendered for another one.
+ */
+public enum DealResponseFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    SMILE(new MediaType("application", "x-jackson-smile")),
+    CBOR(MediaType.APPLICATION_CBOR);
+
+    private final MediaType mediaType;
+
+    DealResponseFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Picks the format for an {@code Accept} header by quality value, preferring JSON for wildcards
+     * and falling back to JSON when nothing matches or the header is missing or malformed.
+     */
+    public static DealResponseFormat negotiate(String accept) {
+        if (isNull(accept) || accept.isBlank()) {
+            return JSON;
+        }
+        ArrayList<MediaType> acceptedTypes;
+        try {
+            acceptedTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        acceptedTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType acceptedType : acceptedTypes) {
+            if (acceptedType.getQualityValue() == 0) {
+                continue;
+            }
+            for (DealResponseFormat format : values()) {
+                if (acceptedType.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,107 @@
+package com.bloomberg.fxdeals.capture;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The binary traffic capture format: a gzip stream holding a header (magic, version, capture start as
+ * epoch milliseconds) followed by one {@link Entry} per captured request. Entries are appended as
+ * requests complete, so they are ordered by completion rather than arrival; a capture cut short by a
+ * crash reads back up to its last complete entry.
+ */
+public final class CaptureLog {
+    static final int MAGIC = 0x46584350;
+    static final int VERSION = 1;
+
+    private CaptureLog() {
+    }
+
+    /**
+     * One captured request. {@code offsetNanos} is its arrival relative to the capture start and
+     * {@code inFlight} the number of captured requests being processed at that moment, itself included.
+     */
+    public record Entry(long offsetNanos, int inFlight, String method, String uri, String contentType,
+                        int status, long durationNanos, byte[] body) {
+    }
+
+    public static final class Writer implements Closeable {
+        private final DataOutputStream out;
+
+        public Writer(OutputStream out, long startEpochMillis) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(out, 1 << 16), 1 << 16));
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(VERSION);
+            this.out.writeLong(startEpochMillis);
+        }
+
+        public void write(Entry entry) throws IOException {
+            out.writeLong(entry.offsetNanos());
+            out.writeInt(entry.inFlight());
+            out.writeUTF(entry.method());
+            out.writeUTF(entry.uri());
+            out.writeUTF(entry.contentType());
+            out.writeShort(entry.status());
+            out.writeLong(entry.durationNanos());
+            out.writeInt(entry.body().length);
+            out.write(entry.body());
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    public static final class Reader implements Closeable {
+        private final DataInputStream in;
+        private final long startEpochMillis;
+
+        public Reader(InputStream in) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in, 1 << 16), 1 << 16));
+            if (this.in.readInt() != MAGIC) {
+                throw new IOException("Not a traffic capture");
+            }
+            int version = this.in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported traffic capture version " + version);
+            }
+            this.startEpochMillis = this.in.readLong();
+        }
+
+        public long startEpochMillis() {
+            return startEpochMillis;
+        }
+
+        /** The next entry, or {@code null} at the end of the capture or of its last complete entry. */
+        public Entry next() throws IOException {
+            try {
+                long offsetNanos = in.readLong();
+                int inFlight = in.readInt();
+                var method = in.readUTF();
+                var uri = in.readUTF();
+                var contentType = in.readUTF();
+                int status = in.readUnsignedShort();
+                long durationNanos = in.readLong();
+                var body = new byte[in.readInt()];
+                in.readFully(body);
+                return new Entry(offsetNanos, inFlight, method, uri, contentType, status, durationNanos, body);
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.bloomberg.fxdeals.capture;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Records captured import requests to a {@link CaptureLog} file. Request threads only hand entries to
+ * a bounded queue ({@code fx-deals.capture.queue-capacity}); a writer thread compresses them to disk
+ * and an entry that does not fit in the queue is dropped and counted rather than slowing the request
+ * down. A capture ends when it is stopped, after its duration or once its file reaches its size limit.
+ * Only one capture runs at a time and nothing is captured in between.
+ */
+@Slf4j
+@Component
+public class TrafficCapture {
+    private final int maxBodyBytes;
+    private final int queueCapacity;
+    private volatile Session session;
+
+    public TrafficCapture(@Value("${fx-deals.capture.max-body-kb:4096}") int maxBodyKb,
+                          @Value("${fx-deals.capture.queue-capacity:10000}") int queueCapacity) {
+        this.maxBodyBytes = maxBodyKb * 1024;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public boolean isActive() {
+        var current = session;
+        return !isNull(current) && current.running;
+    }
+
+    /** Requests with bodies above this many bytes are skipped rather than captured in part. */
+    public int maxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    public synchronized void start(Path file, Duration duration, long maxBytes) throws IOException {
+        if (isActive()) {
+            throw new IllegalStateException("A traffic capture is already running");
+        }
+        var next = new Session(file, duration, maxBytes, queueCapacity);
+        next.writerThread.start();
+        session = next;
+        log.info("Started traffic capture to {} - Duration: {}s, Max size: {} bytes", file, duration.toSeconds(), maxBytes);
+    }
+
+    /** Stops the capture, if one is running, and waits until its file is complete. */
+    public synchronized Path stop() throws InterruptedException {
+        var current = session;
+        if (isNull(current)) {
+            return null;
+        }
+        current.running = false;
+        current.writerThread.join();
+        return current.file;
+    }
+
+    public Map<String, Object> status() {
+        var current = session;
+        var status = new LinkedHashMap<String, Object>();
+        if (isNull(current)) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", current.running ? "RUNNING" : "STOPPED");
+        status.put("file", current.file.toString());
+        status.put("startTime", current.startTime.toString());
+        status.put("durationSeconds", TimeUnit.NANOSECONDS.toSeconds(current.deadlineNanos - current.startNanos));
+        status.put("captured", current.written.get());
+        status.put("dropped", current.dropped.get());
+        status.put("skipped", current.skipped.get());
+        status.put("bytes", current.bytes.get());
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stop();
+    }
+
+    /** Marks the arrival of a request to capture; returns the session to report it to, or {@code null}. */
+    Session arrive() {
+        var current = session;
+        if (isNull(current) || !current.running) {
+            return null;
+        }
+        current.inFlight.incrementAndGet();
+        return current;
+    }
+
+    static final class Session {
+        private final Path file;
+        private final Instant startTime = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private final long deadlineNanos;
+        private final long maxBytes;
+        private final BlockingQueue<CaptureLog.Entry> queue;
+        private final CaptureLog.Writer writer;
+        private final Thread writerThread;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong written = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private volatile boolean running = true;
+
+        private Session(Path file, Duration duration, long maxBytes, int queueCapacity) throws IOException {
+            this.file = file;
+            this.deadlineNanos = startNanos + duration.toNanos();
+            this.maxBytes = maxBytes;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.writer = new CaptureLog.Writer(new CountingOutputStream(Files.newOutputStream(file), bytes), startTime.toEpochMilli());
+            this.writerThread = new Thread(this::writeLoop, "traffic-capture-writer");
+            this.writerThread.setDaemon(true);
+        }
+
+        long startNanos() {
+            return startNanos;
+        }
+
+        int inFlight() {
+            return inFlight.get();
+        }
+
+        /** Reports the completion of a request counted by {@link #arrive()}; {@code entry} is null when skipped. */
+        void complete(CaptureLog.Entry entry) {
+            inFlight.decrementAndGet();
+            if (!running) {
+                return;
+            }
+            if (isNull(entry)) {
+                skipped.incrementAndGet();
+            } else if (!queue.offer(entry)) {
+                dropped.incrementAndGet();
+            }
+        }
+
+        private void writeLoop() {
+            try (writer) {
+                while (true) {
+                    var entry = queue.poll(200, TimeUnit.MILLISECONDS);
+                    if (!isNull(entry)) {
+                        writer.write(entry);
+                        written.incrementAndGet();
+                    } else if (!running) {
+                        break;
+                    }
+                    if (running && (System.nanoTime() - deadlineNanos >= 0 || bytes.get() >= maxBytes)) {
+                        running = false;
+                        log.info("Traffic capture to {} reached its duration or size limit", file);
+                    }
+                }
+            } catch (IOException e) {
+                running = false;
+                log.error("Traffic capture to {} failed", file, e);
+            } catch (InterruptedException e) {
+                running = false;
+                Thread.currentThread().interrupt();
+            }
+            log.info("Stopped traffic capture to {} - Captured: {}, Dropped: {}, Skipped: {}",
+                     file, written.get(), dropped.get(), skipped.get());
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private final AtomicLong count;
+
+        private CountingOutputStream(OutputStream out, AtomicLong count) {
+            super(out);
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count.addAndGet(len);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.bloomberg.fxdeals.capture;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.IOException;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Hands import requests to the running {@link TrafficCapture}: their arrival time, the captured
+ * requests in flight at that moment, the request line and body as the controller read them, and the
+ * status and duration of the response. Costs one volatile read per request while no capture runs.
+ */
+@Component
+@RequiredArgsConstructor
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+    static final String CAPTURED_PATH = "/api/v1/deals/import/";
+
+    private final TrafficCapture capture;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !capture.isActive() || !request.getRequestURI().startsWith(CAPTURED_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var session = capture.arrive();
+        if (isNull(session)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long arrival = System.nanoTime();
+        int inFlight = session.inFlight();
+        var capturing = new CapturingRequest(request, capture.maxBodyBytes());
+        try {
+            chain.doFilter(capturing, response);
+        } finally {
+            long duration = System.nanoTime() - arrival;
+            session.complete(capturing.overflowed ? null : new CaptureLog.Entry(
+                    arrival - session.startNanos(), inFlight, request.getMethod(), uri(request),
+                    isNull(request.getContentType()) ? "" : request.getContentType(),
+                    response.getStatus(), duration, capturing.getContentAsByteArray()));
+        }
+    }
+
+    private static String uri(HttpServletRequest request) {
+        return isNull(request.getQueryString()) ? request.getRequestURI() : request.getRequestURI() + "?" + request.getQueryString();
+    }
+
+    private static final class CapturingRequest extends ContentCachingRequestWrapper {
+        private boolean overflowed;
+
+        private CapturingRequest(HttpServletRequest request, int limit) {
+            super(request, limit);
+        }
+
+        @Override
+        protected void handleContentOverflow(int contentCacheLimit) {
+            overflowed = true;
+        }
+    }
+}
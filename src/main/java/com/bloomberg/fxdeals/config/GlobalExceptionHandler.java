@@ -1,20 +1,28 @@
 package com.bloomberg.fxdeals.config;
 
+import com.bloomberg.fxdeals.dtos.res.BatchImportSummaryResDTO;
+import com.bloomberg.fxdeals.dtos.res.RejectedFxDealResDTO;
 import com.bloomberg.fxdeals.exception.FxDealBatchImportException;
+import com.bloomberg.fxdeals.exception.FxDealFeedUnavailableException;
+import com.bloomberg.fxdeals.exception.FxDealExportUnavailableException;
+import com.bloomberg.fxdeals.exception.FxDealQueryException;
 import com.bloomberg.fxdeals.exception.FxDealSingleImportException;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 
 @RestControllerAdvice
 @Slf4j
 public class GlobalExceptionHandler {
+    private static final int LOGGED_DEAL_IDS = 10;
 
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler(Exception.class)
@@ -28,25 +36,35 @@ public class GlobalExceptionHandler {
 
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(FxDealBatchImportException.class)
-    public Map<String, Object> handleFxDealBatchImportException(FxDealBatchImportException ex) {
+    public Map<String, Object> handleFxDealBatchImportException(FxDealBatchImportException ex, WebRequest request) {
         var rejectedDeals = ex.getRejectedFxDeals();
         var savedDeals = ex.getSavedDeals();
         var errorMsg = "All fx deals in the batch failed to be validated";
 
         Map<String, Object> errorRes = new LinkedHashMap<>();
-        errorRes.put("rejectedDeals", rejectedDeals);
+        boolean summary = "summary".equals(request.getParameter("response"));
+        if (summary) {
+            var summaryRes = BatchImportSummaryResDTO.of(savedDeals, rejectedDeals);
+            errorRes.put("savedCount", summaryRes.savedCount());
+            errorRes.put("rejectedCount", summaryRes.rejectedCount());
+            errorRes.put("rejectedDeals", summaryRes.rejectedDeals());
+        } else {
+            errorRes.put("rejectedDeals", rejectedDeals);
+        }
 
         if (!savedDeals.isEmpty()) {
             errorMsg = "Some fx deals in the batch failed to be validated";
-            errorRes.put("savedDeals", savedDeals);
+            if (!summary) {
+                errorRes.put("savedDeals", savedDeals);
+            }
             log.error("Batch import partial failure - {} deals rejected, {} deals saved. Rejected deal IDs: {}",
                       rejectedDeals.size(),
                       savedDeals.size(),
-                      rejectedDeals.stream().map(d -> d.dealId()).toList());
+                      loggedDealIds(rejectedDeals));
         } else {
             log.error("Batch import complete failure - All {} deals rejected. Rejected deal IDs: {}",
                       rejectedDeals.size(),
-                      rejectedDeals.stream().map(d -> d.dealId()).toList());
+                      loggedDealIds(rejectedDeals));
         }
 
         errorRes.put("error", errorMsg);
@@ -66,4 +84,32 @@ public class GlobalExceptionHandler {
                 "error", errorMsg,
                 "rejectedDeal", rejectedDeal);
     }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(FxDealQueryException.class)
+    public Map<String, String> handleFxDealQueryException(FxDealQueryException ex) {
+        log.warn("Rejected deal query - {}", ex.getMessage());
+        return Map.of("error", ex.getMessage());
+    }
+
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ExceptionHandler(FxDealFeedUnavailableException.class)
+    public Map<String, String> handleFxDealFeedUnavailableException(FxDealFeedUnavailableException ex) {
+        log.warn("Rejected live deal feed subscription - {}", ex.getMessage());
+        return Map.of("error", ex.getMessage());
+    }
+
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ExceptionHandler(FxDealExportUnavailableException.class)
+    public Map<String, String> handleFxDealExportUnavailableException(FxDealExportUnavailableException ex) {
+        log.warn("Rejected deal export - {}", ex.getMessage());
+        return Map.of("error", ex.getMessage());
+    }
+
+    /** The first {@link #LOGGED_DEAL_IDS} rejected IDs, so a large batch does not produce one huge log line. */
+    private static String loggedDealIds(List<RejectedFxDealResDTO> rejectedDeals) {
+        var ids = rejectedDeals.stream().limit(LOGGED_DEAL_IDS).map(RejectedFxDealResDTO::dealId).toList();
+        int more = rejectedDeals.size() - ids.size();
+        return more > 0 ? ids + " and " + more + " more" : ids.toString();
+    }
 }
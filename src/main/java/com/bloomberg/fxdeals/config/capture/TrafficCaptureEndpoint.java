@@ -0,0 +1,122 @@
+package com.bloomberg.fxdeals.config.capture;
+
+import com.bloomberg.fxdeals.capture.TrafficCapture;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+
+/**
+ * {@code /actuator/capture}: starts capturing import traffic bounded by
+ * {@code fx-deals.capture.max-duration-seconds} and {@code fx-deals.capture.max-size-mb}
+ * ({@code POST}), reports on the capture ({@code GET}) and stops it and returns the capture file
+ * ({@code DELETE}). The file of the previous capture is deleted when the next one starts. Not in the
+ * default web exposure, as captures hold full request bodies: it is meant for a management port
+ * reachable by operators only.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "capture")
+public class TrafficCaptureEndpoint {
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final TrafficCapture capture;
+    private final Path directory;
+    private final int defaultDurationSeconds;
+    private final int maxDurationSeconds;
+    private final long maxSizeBytes;
+    private Path file;
+
+    public TrafficCaptureEndpoint(TrafficCapture capture,
+                                  @Value("${fx-deals.capture.directory:${java.io.tmpdir}/fx-deals-capture}") Path directory,
+                                  @Value("${fx-deals.capture.default-duration-seconds:300}") int defaultDurationSeconds,
+                                  @Value("${fx-deals.capture.max-duration-seconds:3600}") int maxDurationSeconds,
+                                  @Value("${fx-deals.capture.max-size-mb:512}") long maxSizeMb) {
+        this.capture = capture;
+        this.directory = directory;
+        this.defaultDurationSeconds = defaultDurationSeconds;
+        this.maxDurationSeconds = maxDurationSeconds;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return capture.status();
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable Integer durationSeconds) {
+        if (capture.isActive()) {
+            return new WebEndpointResponse<>(Map.of("error", "A traffic capture is already running"),
+                                             WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        int duration = isNull(durationSeconds) ? defaultDurationSeconds : durationSeconds;
+        if (duration <= 0 || duration > maxDurationSeconds) {
+            return new WebEndpointResponse<>(Map.of("error", "Duration must be between 1 and " + maxDurationSeconds + " seconds"),
+                                             WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        try {
+            discardPrevious();
+            Files.createDirectories(directory);
+            var next = directory.resolve("fx-deals-" + NAME_FORMAT.format(LocalDateTime.now(ZoneOffset.UTC)) + ".fxcap");
+            capture.start(next, Duration.ofSeconds(duration), maxSizeBytes);
+            file = next;
+        } catch (IOException e) {
+            log.error("Could not start traffic capture in {}", directory, e);
+            return new WebEndpointResponse<>(Map.of("error", "Could not start traffic capture: " + e.getMessage()),
+                                             WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new WebEndpointResponse<>(Map.of("error", "Interrupted while stopping the previous capture"),
+                                             WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        return new WebEndpointResponse<>(capture.status(), WebEndpointResponse.STATUS_OK);
+    }
+
+    /** Stops the capture if it is still running and returns its file. */
+    @DeleteOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> stop() {
+        try {
+            capture.stop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        if (isNull(file) || !Files.exists(file)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(file), WebEndpointResponse.STATUS_OK);
+    }
+
+    private void discardPrevious() throws InterruptedException {
+        if (isNull(file)) {
+            return;
+        }
+        capture.stop();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete previous traffic capture {} - {}", file, e.getMessage());
+        }
+        file = null;
+    }
+}
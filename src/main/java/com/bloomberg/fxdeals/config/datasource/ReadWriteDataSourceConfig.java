@@ -0,0 +1,77 @@
+package com.bloomberg.fxdeals.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Splits database access across two Hikari pools when {@code fx-deals.datasource.replica.enabled}
+ * is set: the primary pool (configured through the usual {@code spring.datasource.*} properties)
+ * serves writes, migrations and anything outside a read-only transaction, while read-only
+ * transactions go to the replica pool ({@code fx-deals.datasource.replica.pool.*}). Separate pools
+ * mean a burst of reads can never take connections away from imports. Clients that need to read
+ * their own imports send back the write position issued by {@link ReadYourWritesFilter}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "fx-deals.datasource.replica", name = "enabled", havingValue = "true")
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    @LiquibaseDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        var dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("fx-deals-primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("fx-deals.datasource.replica.pool")
+    public HikariDataSource replicaDataSource() {
+        var dataSource = new HikariDataSource();
+        dataSource.setPoolName("fx-deals-replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagGuard replicaLagGuard(@Qualifier("replicaDataSource") HikariDataSource replicaDataSource,
+                                           @Value("${fx-deals.datasource.replica.max-lag-ms:5000}") long maxLagMs) {
+        var jdbcTemplate = new JdbcTemplate(replicaDataSource);
+        jdbcTemplate.setQueryTimeout(2);
+        return new ReplicaLagGuard(jdbcTemplate, maxLagMs);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource) {
+        var jdbcTemplate = new JdbcTemplate(primaryDataSource);
+        jdbcTemplate.setQueryTimeout(2);
+        return new ReadYourWritesFilter(jdbcTemplate);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") HikariDataSource replicaDataSource,
+                                 ReplicaLagGuard replicaLagGuard) {
+        var routing = new ReadWriteRoutingDataSource(replicaLagGuard);
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource,
+                ReadWriteRoutingDataSource.Route.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,29 @@
+package com.bloomberg.fxdeals.config.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections requested inside read-only transactions to the replica pool while the
+ * {@link ReplicaLagGuard} allows it, and everything else to the primary pool. Requests carrying a
+ * client's write position ({@link ReadYourWritesFilter}) only go to the replica once it has replayed
+ * that write. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the lookup happens
+ * after the transaction's read-only flag has been bound.
+ */
+@RequiredArgsConstructor
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReplicaLagGuard lagGuard;
+
+    public enum Route { PRIMARY, REPLICA }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && lagGuard.allowsReplicaReadsAfter(ReadYourWritesFilter.requiredPosition())) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+}
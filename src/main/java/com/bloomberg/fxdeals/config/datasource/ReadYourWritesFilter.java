@@ -0,0 +1,140 @@
+package com.bloomberg.fxdeals.config.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Set;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Read-your-writes per client while reads go to the replica. Every write request ({@code POST},
+ * {@code PUT}, {@code PATCH} or {@code DELETE} under {@code /api/}) gets an
+ * {@value #WRITE_POSITION} response header with the primary's WAL insert position once the request
+ * has done its work. A client that sends that header back on later reads has them served by the
+ * primary until the replica has replayed past that position, which {@link ReplicaLagGuard} checks
+ * on its usual schedule. Reads without the header, including those of other clients while someone
+ * is importing, are routed on replica lag alone. A header that is not a valid position keeps the
+ * request on the primary.
+ */
+@Slf4j
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String WRITE_POSITION = "X-Deals-Write-Position";
+    static final String WRITE_POSITION_QUERY = "SELECT (pg_current_wal_insert_lsn() - '0/0'::pg_lsn)::bigint";
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final ThreadLocal<Long> REQUIRED_POSITION = new ThreadLocal<>();
+
+    private final JdbcTemplate primaryJdbcTemplate;
+
+    public ReadYourWritesFilter(JdbcTemplate primaryJdbcTemplate) {
+        this.primaryJdbcTemplate = primaryJdbcTemplate;
+    }
+
+    /** The WAL position the replica must have replayed to serve the current request, {@code 0} if none. */
+    static long requiredPosition() {
+        Long position = REQUIRED_POSITION.get();
+        return isNull(position) ? 0 : position;
+    }
+
+    /**
+     * Whether the current request presented a write position, so must see that write even where
+     * state cached by this instance (which may not have served the write) would otherwise answer it.
+     */
+    public static boolean presentsWritePosition() {
+        return !isNull(REQUIRED_POSITION.get());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var token = request.getHeader(WRITE_POSITION);
+        if (!isNull(token)) {
+            REQUIRED_POSITION.set(parsePosition(token));
+        }
+        var positionResponse = WRITE_METHODS.contains(request.getMethod()) ? new WritePositionResponse(response) : null;
+        try {
+            chain.doFilter(request, isNull(positionResponse) ? response : positionResponse);
+        } finally {
+            REQUIRED_POSITION.remove();
+            if (!isNull(positionResponse)) {
+                positionResponse.addWritePosition();
+            }
+        }
+    }
+
+    private static long parsePosition(String token) {
+        try {
+            return Long.parseLong(token.trim());
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /** Adds the {@value #WRITE_POSITION} header just before anything can commit the response. */
+    private final class WritePositionResponse extends HttpServletResponseWrapper {
+        private boolean added;
+
+        private WritePositionResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addWritePosition();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addWritePosition();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addWritePosition();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addWritePosition();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addWritePosition();
+            super.sendError(sc);
+        }
+
+        private void addWritePosition() {
+            if (added || isCommitted()) {
+                return;
+            }
+            added = true;
+            try {
+                Long position = primaryJdbcTemplate.queryForObject(WRITE_POSITION_QUERY, Long.class);
+                if (!isNull(position)) {
+                    setHeader(WRITE_POSITION, Long.toString(position));
+                }
+            } catch (Exception e) {
+                log.debug("Could not read the primary write position", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.bloomberg.fxdeals.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Periodically measures how far the replica is behind the primary and only lets reads go to it
+ * while the lag is within {@code fx-deals.datasource.replica.max-lag-ms}. Writes by other clients do
+ * not affect routing. Each check also records the WAL position the replica has replayed up to, so a
+ * client that presents the position of its own write (see {@link ReadYourWritesFilter}) is kept on
+ * the primary until the replica has replayed past it.
+ */
+@Slf4j
+public class ReplicaLagGuard {
+    static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE((EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint, 0)
+            END""";
+    static final String REPLAYED_POSITION_QUERY = """
+            SELECT (COALESCE(CASE
+                WHEN pg_is_in_recovery() THEN pg_last_wal_replay_lsn()
+                ELSE pg_current_wal_lsn()
+            END, '0/0') - '0/0'::pg_lsn)::bigint""";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxLagMs;
+    private volatile boolean replicaHealthy;
+    private volatile long lastLagMs = -1;
+    private volatile long replayedPosition = -1;
+
+    public ReplicaLagGuard(JdbcTemplate replicaJdbcTemplate, long maxLagMs) {
+        this.replicaJdbcTemplate = replicaJdbcTemplate;
+        this.maxLagMs = maxLagMs;
+    }
+
+    public boolean allowsReplicaReads() {
+        return replicaHealthy;
+    }
+
+    /** Whether a read that must see a write committed at WAL position {@code writePosition} may use the replica. */
+    public boolean allowsReplicaReadsAfter(long writePosition) {
+        return replicaHealthy && replayedPosition >= writePosition;
+    }
+
+    public long lastLagMs() {
+        return lastLagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${fx-deals.datasource.replica.lag-check-interval-ms:2000}")
+    public void checkLag() {
+        boolean healthy;
+        try {
+            Long lag = replicaJdbcTemplate.queryForObject(LAG_QUERY, Long.class);
+            lastLagMs = lag == null ? -1 : lag;
+            Long position = replicaJdbcTemplate.queryForObject(REPLAYED_POSITION_QUERY, Long.class);
+            replayedPosition = position == null ? -1 : position;
+            healthy = lag != null && lag <= maxLagMs;
+        } catch (Exception e) {
+            log.debug("Replica lag check failed", e);
+            lastLagMs = -1;
+            replayedPosition = -1;
+            healthy = false;
+        }
+
+        if (healthy != replicaHealthy) {
+            if (healthy) {
+                log.info("Replica lag {} ms within {} ms - routing read-only transactions to replica", lastLagMs, maxLagMs);
+            } else {
+                log.warn("Replica unavailable or lagging ({} ms, max {} ms) - routing reads to primary", lastLagMs, maxLagMs);
+            }
+        }
+        replicaHealthy = healthy;
+    }
+}
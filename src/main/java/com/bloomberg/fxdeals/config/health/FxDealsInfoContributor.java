@@ -1,5 +1,7 @@
 package com.bloomberg.fxdeals.config.health;
 
+import com.bloomberg.fxdeals.stats.DealStatistics;
+import lombok.RequiredArgsConstructor;
 import org.springframework.boot.actuate.info.Info;
 import org.springframework.boot.actuate.info.InfoContributor;
 import org.springframework.stereotype.Component;
@@ -9,8 +11,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 @Component
+@RequiredArgsConstructor
 public class FxDealsInfoContributor implements InfoContributor {
 
+    private final DealStatistics dealStatistics;
+
     @Override
     public void contribute(Info.Builder builder) {
         Map<String, Object> appDetails = new HashMap<>();
@@ -26,6 +31,16 @@ public class FxDealsInfoContributor implements InfoContributor {
 
         builder.withDetail("application", appDetails);
         builder.withDetail("capabilities", capabilities);
+
+        var statistics = dealStatistics.current();
+        if (statistics != null) {
+            Map<String, Object> statisticsDetails = new HashMap<>();
+            statisticsDetails.put("totalDeals", statistics.totalDeals());
+            statisticsDetails.put("estimated", statistics.estimated());
+            statisticsDetails.put("refreshedAt", statistics.refreshedAt().toString());
+            statisticsDetails.put("ageMs", statistics.ageMs());
+            builder.withDetail("statistics", statisticsDetails);
+        }
     }
 }
 
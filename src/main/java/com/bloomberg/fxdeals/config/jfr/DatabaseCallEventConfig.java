@@ -0,0 +1,30 @@
+package com.bloomberg.fxdeals.config.jfr;
+
+import com.bloomberg.fxdeals.jfr.DatabaseCallInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Adds {@link DatabaseCallInterceptor} as the outermost advice of every Spring Data repository, so
+ * each {@code DatabaseCall} event also covers the repository's own transaction and its commit.
+ */
+@Configuration(proxyBeanMethods = false)
+public class DatabaseCallEventConfig {
+
+    @Bean
+    static BeanPostProcessor databaseCallEventPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repository) -> proxyFactory.addAdvice(0, new DatabaseCallInterceptor(
+                                    repository.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,164 @@
+package com.bloomberg.fxdeals.config.jfr;
+
+import com.bloomberg.fxdeals.jfr.DatabaseCallEvent;
+import com.bloomberg.fxdeals.jfr.DealImportEvent;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+
+/**
+ * {@code /actuator/jfr}: starts a JFR recording bounded by {@code fx-deals.jfr.max-duration-seconds}
+ * and {@code fx-deals.jfr.max-size-mb} ({@code POST}), reports on it ({@code GET}) and stops it and
+ * returns the {@code .jfr} file ({@code DELETE}). Only one recording runs at a time; the file of the
+ * previous recording is deleted when the next one starts. Not in the default web exposure: it is
+ * meant for a management port reachable by operators only.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private final int defaultDurationSeconds;
+    private final int maxDurationSeconds;
+    private final long maxSizeBytes;
+    private final String defaultSettings;
+    private Recording recording;
+    private Path file;
+
+    public JfrRecordingEndpoint(@Value("${fx-deals.jfr.directory:${java.io.tmpdir}/fx-deals-jfr}") Path directory,
+                                @Value("${fx-deals.jfr.default-duration-seconds:60}") int defaultDurationSeconds,
+                                @Value("${fx-deals.jfr.max-duration-seconds:600}") int maxDurationSeconds,
+                                @Value("${fx-deals.jfr.max-size-mb:256}") long maxSizeMb,
+                                @Value("${fx-deals.jfr.settings:profile}") String defaultSettings) {
+        this.directory = directory;
+        this.defaultDurationSeconds = defaultDurationSeconds;
+        this.maxDurationSeconds = maxDurationSeconds;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.defaultSettings = defaultSettings;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        var status = new LinkedHashMap<String, Object>();
+        if (isNull(recording)) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("name", recording.getName());
+        status.put("state", recording.getState().name());
+        status.put("startTime", String.valueOf(recording.getStartTime()));
+        status.put("durationSeconds", recording.getDuration().toSeconds());
+        status.put("maxSizeBytes", recording.getMaxSize());
+        status.put("file", file.toString());
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable Integer durationSeconds,
+                                                                      @Nullable String settings) {
+        if (!isNull(recording) && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(Map.of("error", "A JFR recording is already running"),
+                                             WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        int duration = isNull(durationSeconds) ? defaultDurationSeconds : durationSeconds;
+        if (duration <= 0 || duration > maxDurationSeconds) {
+            return new WebEndpointResponse<>(Map.of("error", "Duration must be between 1 and " + maxDurationSeconds + " seconds"),
+                                             WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        var settingsName = isNull(settings) ? defaultSettings : settings;
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settingsName);
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(Map.of("error", "Unknown JFR settings '" + settingsName + "', use default or profile"),
+                                             WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        discardPrevious();
+        var name = "fx-deals-" + NAME_FORMAT.format(LocalDateTime.now(ZoneOffset.UTC));
+        try {
+            Files.createDirectories(directory);
+            var next = new Recording(configuration);
+            next.setName(name);
+            next.enable(DealImportEvent.class);
+            next.enable(DatabaseCallEvent.class);
+            next.setToDisk(true);
+            next.setDuration(Duration.ofSeconds(duration));
+            next.setMaxSize(maxSizeBytes);
+            file = directory.resolve(name + ".jfr");
+            next.setDestination(file);
+            next.start();
+            recording = next;
+        } catch (IOException e) {
+            log.error("Could not start JFR recording in {}", directory, e);
+            return new WebEndpointResponse<>(Map.of("error", "Could not start JFR recording: " + e.getMessage()),
+                                             WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+        log.info("Started JFR recording {} - Settings: {}, Duration: {}s, Max size: {} bytes",
+                 name, settingsName, duration, maxSizeBytes);
+        return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_OK);
+    }
+
+    /** Stops the recording if it is still running and returns its file. */
+    @DeleteOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> stop() {
+        if (isNull(recording)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("Stopped JFR recording {}", recording.getName());
+        }
+        if (!Files.exists(file)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(file), WebEndpointResponse.STATUS_OK);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!isNull(recording)) {
+            recording.close();
+        }
+    }
+
+    private void discardPrevious() {
+        if (isNull(recording)) {
+            return;
+        }
+        recording.close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete previous JFR recording {} - {}", file, e.getMessage());
+        }
+        recording = null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.bloomberg.fxdeals.config.metrics;
+
+import com.bloomberg.fxdeals.metrics.ImportStageAdvice;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers {@link ImportStageAdvice} as an interceptor so it can close the respond stage once the
+ * response has been written.
+ */
+@Configuration(proxyBeanMethods = false)
+@RequiredArgsConstructor
+public class ImportMetricsWebConfig implements WebMvcConfigurer {
+    private final ImportStageAdvice importStageAdvice;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(importStageAdvice).addPathPatterns("/api/v1/deals/import/**");
+    }
+}
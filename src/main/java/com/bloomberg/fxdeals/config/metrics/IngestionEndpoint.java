@@ -0,0 +1,69 @@
+package com.bloomberg.fxdeals.config.metrics;
+
+import com.bloomberg.fxdeals.metrics.ImportMetrics;
+import com.bloomberg.fxdeals.metrics.IngestionStatistics;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+
+/**
+ * {@code /actuator/ingestion}: one live view of ingestion for incidents. Reports deal rates over
+ * 1, 5 and 15 minutes, recent import duration percentiles per operation, recent latency
+ * percentiles of every API handler, the batches and deals in flight, rejections per reason since
+ * startup and the saturation of every Hikari pool.
+ */
+@Component
+@Endpoint(id = "ingestion")
+@RequiredArgsConstructor
+public class IngestionEndpoint {
+    private final IngestionStatistics statistics;
+    private final ImportMetrics metrics;
+    private final ObjectProvider<HikariDataSource> pools;
+
+    @ReadOperation
+    public Map<String, Object> ingestion() {
+        var inFlight = new LinkedHashMap<String, Object>();
+        inFlight.put("batches", statistics.inFlightBatches());
+        inFlight.put("deals", statistics.inFlightDeals());
+
+        var ingestion = new LinkedHashMap<String, Object>();
+        ingestion.put("timestamp", Instant.now().toString());
+        ingestion.put("dealsPerSecond", statistics.dealsPerSecond());
+        ingestion.put("durationMs", statistics.durationPercentiles());
+        ingestion.put("requestDurationMs", statistics.requestPercentiles());
+        ingestion.put("inFlight", inFlight);
+        ingestion.put("rejections", metrics.rejectionCounts());
+        ingestion.put("connectionPools", connectionPools());
+        return ingestion;
+    }
+
+    private Map<String, Object> connectionPools() {
+        var connectionPools = new LinkedHashMap<String, Object>();
+        pools.orderedStream().forEach(dataSource -> {
+            var pool = dataSource.getHikariPoolMXBean();
+            var details = new LinkedHashMap<String, Object>();
+            if (isNull(pool)) {
+                details.put("state", "NOT_STARTED");
+            } else {
+                int max = dataSource.getMaximumPoolSize();
+                details.put("active", pool.getActiveConnections());
+                details.put("idle", pool.getIdleConnections());
+                details.put("total", pool.getTotalConnections());
+                details.put("max", max);
+                details.put("pending", pool.getThreadsAwaitingConnection());
+                details.put("utilization", max == 0 ? 0.0 : (double) pool.getActiveConnections() / max);
+            }
+            connectionPools.put(dataSource.getPoolName(), details);
+        });
+        return connectionPools;
+    }
+}
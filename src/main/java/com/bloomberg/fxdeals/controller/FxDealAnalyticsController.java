@@ -0,0 +1,30 @@
+package com.bloomberg.fxdeals.controller;
+
+import com.bloomberg.fxdeals.dtos.res.RecentDealStatsResDTO;
+import com.bloomberg.fxdeals.service.FxDealAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/deals/analytics")
+public class FxDealAnalyticsController {
+    private final FxDealAnalyticsService service;
+
+    @GetMapping("/recent")
+    public List<RecentDealStatsResDTO> getRecentDealStats(@RequestParam(required = false) String from,
+                                                          @RequestParam(required = false) String to,
+                                                          @RequestParam(required = false) String pair,
+                                                          @RequestParam(required = false) Integer bucketMinutes,
+                                                          @RequestParam(required = false) List<Double> percentiles) {
+        log.info("Received request for recent deal stats - From: {}, To: {}, Pair: {}, Bucket minutes: {}",
+                 from, to, pair, bucketMinutes);
+        List<RecentDealStatsResDTO> stats = service.getRecentDealStats(from, to, pair, bucketMinutes, percentiles);
+        log.info("Returning {} recent deal stat groups", stats.size());
+        return stats;
+    }
+}
@@ -0,0 +1,28 @@
+package com.bloomberg.fxdeals.controller;
+
+import com.bloomberg.fxdeals.dtos.res.DealChecksumTreeResDTO;
+import com.bloomberg.fxdeals.service.FxDealChecksumService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/deals/checksums")
+public class FxDealChecksumController {
+    private final FxDealChecksumService service;
+
+    @GetMapping
+    public DealChecksumTreeResDTO getChecksumTree(@RequestParam(required = false) String by,
+                                                  @RequestParam(required = false) String from,
+                                                  @RequestParam(required = false) String to,
+                                                  @RequestParam(required = false) Integer bucketMinutes) {
+        log.info("Received request for deal checksums - By: {}, From: {}, To: {}, Bucket minutes: {}",
+                 by, from, to, bucketMinutes);
+        DealChecksumTreeResDTO tree = service.getChecksumTree(by, from, to, bucketMinutes);
+        log.info("Returning checksum tree with {} leaves over {} deals, root {}",
+                 tree.leaves().size(), tree.count(), tree.root());
+        return tree;
+    }
+}
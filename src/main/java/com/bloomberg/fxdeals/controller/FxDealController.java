@@ -1,21 +1,51 @@
 package com.bloomberg.fxdeals.controller;
 
+import com.bloomberg.fxdeals.cache.DealResponseCache;
+import com.bloomberg.fxdeals.cache.DealResponseFormat;
+import com.bloomberg.fxdeals.config.datasource.ReadYourWritesFilter;
+import com.bloomberg.fxdeals.dtos.req.DealField;
 import com.bloomberg.fxdeals.dtos.req.FxDealReqDTO;
+import com.bloomberg.fxdeals.dtos.res.BatchImportSummaryResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealChangesResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealExistenceResDTO;
 import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import com.bloomberg.fxdeals.feed.DealFeedBroadcaster;
 import com.bloomberg.fxdeals.service.FxDealService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/api/v1/deals")
 public class FxDealController {
+    private static final String ALL_DEALS_SHAPE = "all";
+
     private final FxDealService service;
+    private final DealResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+    private final MappingJackson2SmileHttpMessageConverter smileConverter;
+    private final MappingJackson2CborHttpMessageConverter cborConverter;
+    private final DealFeedBroadcaster feedBroadcaster;
 
     @PostMapping("/import/single")
     @ResponseStatus(HttpStatus.CREATED)
@@ -35,12 +65,149 @@ public class FxDealController {
         return results;
     }
 
+    @PostMapping(path = "/import/batch", params = "response=summary")
+    @ResponseStatus(HttpStatus.CREATED)
+    public BatchImportSummaryResDTO importBatchDealsSummary(@RequestBody List<FxDealReqDTO> fxDealReqs) {
+        log.info("Received request to import batch of {} deals with summary response", fxDealReqs.size());
+        List<FxDealResDTO> results = service.importBatchDeals(fxDealReqs);
+        log.info("Successfully imported {} deals in batch", results.size());
+        return BatchImportSummaryResDTO.of(results, List.of());
+    }
+
+    @PostMapping("/exists")
+    public FxDealExistenceResDTO checkExistingDeals(@RequestBody List<String> dealIds) {
+        log.info("Received request to check existence of {} deal IDs", dealIds.size());
+        FxDealExistenceResDTO result = service.checkExistingDeals(dealIds);
+        log.info("Existence check found {} existing deals", result.existing().size());
+        return result;
+    }
 
     @GetMapping
-    public List<FxDealResDTO> getAllDeals() {
-        log.info("Received request to retrieve all deals");
-        List<FxDealResDTO> deals = service.getAllDeals();
-        log.info("Retrieved {} deals", deals.size());
-        return deals;
+    public ResponseEntity<byte[]> getAllDeals(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(required = false) String fields) {
+        var format = DealResponseFormat.negotiate(accept);
+        var projection = DealField.parse(fields);
+        var shape = ALL_DEALS_SHAPE + "." + format.name().toLowerCase();
+        if (projection != null) {
+            shape += "?fields=" + projection.stream().map(DealField::jsonName).collect(Collectors.joining(","));
+        }
+        log.info("Received request to retrieve all deals as {} - Fields: {}", format, projection == null ? "ALL" : projection);
+        boolean ownWrites = ReadYourWritesFilter.presentsWritePosition();
+        var currentEtag = responseCache.currentEtag(shape);
+        if (!ownWrites && DealResponseCache.matches(ifNoneMatch, currentEtag)) {
+            var etag = DealResponseCache.notModifiedEtag(ifNoneMatch, currentEtag, acceptsGzip(acceptEncoding));
+            log.info("Deals unchanged since ETag {}, returning 304", etag);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+
+        Supplier<byte[]> renderer = () -> projection == null
+                ? render(format, service.getAllDeals())
+                : renderProjected(format, projection);
+        // A client reading its own import may have written through another instance, whose version
+        // bump this cache never saw: render it afresh from the primary.
+        var entry = ownWrites ? responseCache.refresh(shape, renderer) : responseCache.get(shape, renderer);
+        var response = ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (entry.gzipBody() != null && acceptsGzip(acceptEncoding)) {
+            log.info("Returning {} gzip bytes of deals", entry.gzipBody().length);
+            return response.eTag(entry.gzipEtag()).header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.gzipBody());
+        }
+        log.info("Returning {} bytes of deals", entry.body().length);
+        return response.eTag(entry.etag()).body(entry.body());
+    }
+
+    @GetMapping("/range")
+    public ResponseEntity<?> getDealsInRange(@RequestParam String from, @RequestParam String to,
+                                             @RequestParam(required = false) String fields,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        var projection = DealField.parse(fields);
+        log.info("Received request for deals from {} to {} - Fields: {}", from, to, projection == null ? "ALL" : projection);
+        if (projection != null) {
+            var format = DealResponseFormat.negotiate(accept);
+            return ResponseEntity.ok().contentType(format.mediaType())
+                    .body(write(format, generator -> service.writeDealsInRange(from, to, projection, generator)));
+        }
+        List<FxDealResDTO> deals = service.getDealsInRange(from, to);
+        log.info("Returning {} deals in range", deals.size());
+        return ResponseEntity.ok(deals);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<?> getDealChanges(@RequestParam(required = false) Long after,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String fields,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        var projection = DealField.parse(fields);
+        log.info("Received request for deal changes - After: {}, Limit: {}, Fields: {}", after, limit,
+                 projection == null ? "ALL" : projection);
+        if (projection != null) {
+            var format = DealResponseFormat.negotiate(accept);
+            return ResponseEntity.ok().contentType(format.mediaType())
+                    .body(write(format, generator -> service.writeChangesAfter(after, limit, projection, generator)));
+        }
+        FxDealChangesResDTO changes = service.getChangesAfter(after, limit);
+        log.info("Returning {} deal changes, next watermark {}", changes.changes().size(), changes.nextAfter());
+        return ResponseEntity.ok(changes);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDeals(@RequestParam(required = false) List<String> pairs,
+                                  @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.info("Received request to stream deals - Pairs: {}, Last event ID: {}", pairs, lastEventId);
+        return feedBroadcaster.subscribe(pairs, lastEventId);
+    }
+
+    private byte[] render(DealResponseFormat format, List<FxDealResDTO> deals) {
+        try {
+            return mapperFor(format).writeValueAsBytes(deals);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] renderProjected(DealResponseFormat format, Set<DealField> fields) {
+        return write(format, generator -> service.writeAllDeals(fields, generator));
+    }
+
+    /** Lets {@code body} write a response straight to a generator of {@code format}, without building DTO trees. */
+    private byte[] write(DealResponseFormat format, GeneratorBody body) {
+        var out = new ByteArrayOutputStream(8192);
+        try (var generator = mapperFor(format).getFactory().createGenerator(out)) {
+            body.writeTo(generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface GeneratorBody {
+        void writeTo(JsonGenerator generator) throws IOException;
+    }
+
+    private ObjectMapper mapperFor(DealResponseFormat format) {
+        return switch (format) {
+            case JSON -> objectMapper;
+            case SMILE -> smileConverter.getObjectMapper();
+            case CBOR -> cborConverter.getObjectMapper();
+        };
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            var parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,25 @@
+package com.bloomberg.fxdeals.controller;
+
+import com.bloomberg.fxdeals.dtos.res.DealExportResDTO;
+import com.bloomberg.fxdeals.service.FxDealExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/deals/exports")
+public class FxDealExportController {
+    private final FxDealExportService service;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public DealExportResDTO exportAllDeals(@RequestParam(required = false) Integer workers) {
+        log.info("Received request to export all deals - Workers: {}", workers);
+        DealExportResDTO export = service.exportAllDeals(workers);
+        log.info("Exported {} deals to {}", export.rows(), export.directory());
+        return export;
+    }
+}
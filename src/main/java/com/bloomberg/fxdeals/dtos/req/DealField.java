@@ -0,0 +1,58 @@
+package com.bloomberg.fxdeals.dtos.req;
+
+import com.bloomberg.fxdeals.exception.FxDealQueryException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Deal fields that can be requested with {@code fields=}. The column names are the only values
+ * ever placed in a generated SELECT list, so the enum doubles as the whitelist.
+ */
+public enum DealField {
+    DEAL_ID("dealId", "deal_id"),
+    FROM_CURRENCY("fromCurrency", "from_currency"),
+    TO_CURRENCY("toCurrency", "to_currency"),
+    DEAL_TIMESTAMP("dealTimestamp", "deal_timestamp"),
+    DEAL_AMOUNT("dealAmount", "deal_amount");
+
+    private final String jsonName;
+    private final String column;
+
+    DealField(String jsonName, String column) {
+        this.jsonName = jsonName;
+        this.column = column;
+    }
+
+    public String jsonName() {
+        return jsonName;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    /**
+     * Parses a comma separated list of JSON field names, e.g. {@code dealId,dealAmount}. Returns
+     * {@code null} when no projection was requested.
+     */
+    public static Set<DealField> parse(String fields) {
+        if (isNull(fields)) {
+            return null;
+        }
+        var selected = EnumSet.noneOf(DealField.class);
+        for (String name : fields.split(",")) {
+            var trimmed = name.trim();
+            selected.add(Arrays.stream(values())
+                    .filter(field -> field.jsonName.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new FxDealQueryException("Unknown field '" + trimmed + "', allowed fields are "
+                            + Arrays.stream(values()).map(DealField::jsonName).collect(Collectors.joining(", ")))));
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,21 @@
+package com.bloomberg.fxdeals.dtos.res;
+
+import java.util.List;
+
+import static java.util.Objects.isNull;
+
+public record BatchImportSummaryResDTO(int savedCount,
+                                       int rejectedCount,
+                                       List<RejectedDealSummaryResDTO> rejectedDeals) {
+
+    public static BatchImportSummaryResDTO of(List<FxDealResDTO> savedDeals, List<RejectedFxDealResDTO> rejectedDeals) {
+        return new BatchImportSummaryResDTO(
+                savedDeals.size(),
+                rejectedDeals.size(),
+                rejectedDeals.stream()
+                        .map(rejected -> new RejectedDealSummaryResDTO(
+                                rejected.dealId(),
+                                isNull(rejected.reasons()) ? List.of() : rejected.reasons()))
+                        .toList());
+    }
+}
@@ -0,0 +1,7 @@
+package com.bloomberg.fxdeals.dtos.res;
+
+public record DealChecksumLeafResDTO(String start,
+                                     String end,
+                                     long count,
+                                     String digest) {
+}
@@ -0,0 +1,10 @@
+package com.bloomberg.fxdeals.dtos.res;
+
+import java.util.List;
+
+public record DealChecksumTreeResDTO(String by,
+                                     String root,
+                                     long count,
+                                     List<List<String>> levels,
+                                     List<DealChecksumLeafResDTO> leaves) {
+}
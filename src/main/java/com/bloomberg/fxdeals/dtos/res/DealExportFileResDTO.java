@@ -0,0 +1,8 @@
+package com.bloomberg.fxdeals.dtos.res;
+
+public record DealExportFileResDTO(String file,
+                                   Long fromBlock,
+                                   Long toBlock,
+                                   long rows,
+                                   long bytes) {
+}
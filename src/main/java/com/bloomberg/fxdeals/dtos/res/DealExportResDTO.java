@@ -0,0 +1,11 @@
+package com.bloomberg.fxdeals.dtos.res;
+
+import java.util.List;
+
+public record DealExportResDTO(String exportId,
+                               String snapshot,
+                               String directory,
+                               long rows,
+                               long durationMs,
+                               List<DealExportFileResDTO> files) {
+}
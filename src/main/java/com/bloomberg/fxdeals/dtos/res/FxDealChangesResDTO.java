@@ -0,0 +1,8 @@
+package com.bloomberg.fxdeals.dtos.res;
+
+import java.util.List;
+
+public record FxDealChangesResDTO(List<FxDealChangeResDTO> changes,
+                                  long nextAfter,
+                                  boolean hasMore) {
+}
@@ -0,0 +1,7 @@
+package com.bloomberg.fxdeals.dtos.res;
+
+import java.util.List;
+
+public record FxDealExistenceResDTO(List<String> existing,
+                                    List<String> missing) {
+}
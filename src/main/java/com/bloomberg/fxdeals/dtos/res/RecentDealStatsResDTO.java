@@ -0,0 +1,18 @@
+package com.bloomberg.fxdeals.dtos.res;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public record RecentDealStatsResDTO(String currencyPair,
+
+                                    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+                                    LocalDateTime bucketStart,
+                                    long count,
+                                    BigDecimal sum,
+                                    BigDecimal min,
+                                    BigDecimal max,
+                                    Map<String, BigDecimal> percentiles) {
+}
@@ -1,10 +1,14 @@
 package com.bloomberg.fxdeals.dtos.res;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 
 import java.util.List;
 
 @Builder
 public record RejectedFxDealResDTO(String dealId,
-                                   List<String> validationMsgs) {
+                                   List<String> validationMsgs,
+
+                                   @JsonIgnore
+                                   List<RejectionReason> reasons) {
 }
@@ -0,0 +1,17 @@
+package com.bloomberg.fxdeals.dtos.res;
+
+public enum RejectionReason {
+    DEAL_ID_REQUIRED,
+    DUPLICATE_DEAL_ID,
+    FROM_CURRENCY_REQUIRED,
+    INVALID_FROM_CURRENCY,
+    TO_CURRENCY_REQUIRED,
+    INVALID_TO_CURRENCY,
+    SAME_CURRENCIES,
+    DEAL_TIMESTAMP_REQUIRED,
+    INVALID_DEAL_TIMESTAMP,
+    DEAL_AMOUNT_REQUIRED,
+    INVALID_DEAL_AMOUNT,
+    NON_POSITIVE_DEAL_AMOUNT,
+    PERSISTENCE_ERROR
+}
@@ -9,6 +9,7 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "fx_deals")
+@EntityListeners(FxDealEntityListener.class)
 public class FxDeal {
     @Id
     @Column(name = "deal_id", unique = true, nullable = false)
@@ -25,4 +26,7 @@ public class FxDeal {
 
     @Column(name = "deal_amount", nullable = false)
     private BigDecimal dealAmount;
+
+    @Column(name = "ingest_seq", insertable = false, updatable = false)
+    private Long ingestSeq;
 }
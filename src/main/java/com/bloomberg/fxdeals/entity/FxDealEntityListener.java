@@ -0,0 +1,27 @@
+package com.bloomberg.fxdeals.entity;
+
+import com.bloomberg.fxdeals.cache.DealChecksumCache;
+import com.bloomberg.fxdeals.cache.DealRangeCache;
+import com.bloomberg.fxdeals.cache.DealReadVersion;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Bumps the {@link DealReadVersion} and drops cached checksums and range buckets for changes made
+ * through JPA outside the import paths (updates and deletes), so cached reads never outlive them.
+ */
+@RequiredArgsConstructor
+public class FxDealEntityListener {
+    private final DealReadVersion readVersion;
+    private final DealChecksumCache checksumCache;
+    private final DealRangeCache rangeCache;
+
+    @PostUpdate
+    @PostRemove
+    void onChange(FxDeal deal) {
+        readVersion.bump();
+        checksumCache.clear();
+        rangeCache.clear();
+    }
+}
@@ -0,0 +1,12 @@
+package com.bloomberg.fxdeals.event;
+
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+
+import java.util.List;
+
+/**
+ * Published by the import paths once deals have been persisted, so that in-memory
+ * read models can follow the write side without polling the database.
+ */
+public record FxDealsImportedEvent(List<FxDealResDTO> deals) {
+}
@@ -0,0 +1,7 @@
+package com.bloomberg.fxdeals.exception;
+
+public class FxDealExportUnavailableException extends RuntimeException {
+    public FxDealExportUnavailableException(String message) {
+        super(message);
+    }
+}
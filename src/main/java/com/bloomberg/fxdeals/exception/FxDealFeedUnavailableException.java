@@ -0,0 +1,7 @@
+package com.bloomberg.fxdeals.exception;
+
+public class FxDealFeedUnavailableException extends RuntimeException {
+    public FxDealFeedUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.bloomberg.fxdeals.exception;
+
+public class FxDealQueryException extends RuntimeException {
+    public FxDealQueryException(String message) {
+        super(message);
+    }
+}
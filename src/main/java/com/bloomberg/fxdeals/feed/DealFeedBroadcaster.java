@@ -0,0 +1,359 @@
+package com.bloomberg.fxdeals.feed;
+
+import com.bloomberg.fxdeals.analytics.RecentDealColumnStore;
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import com.bloomberg.fxdeals.event.FxDealsImportedEvent;
+import com.bloomberg.fxdeals.exception.FxDealFeedUnavailableException;
+import com.bloomberg.fxdeals.exception.FxDealQueryException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Fans newly imported deals out to Server-Sent Events subscribers.
+ * <p>
+ * The import paths publish into a {@link DealFeedRingBuffer}; each subscriber keeps its own cursor
+ * into the ring and is drained on a small dispatcher pool, heartbeats included. A subscriber that
+ * falls further behind than the ring holds either receives a {@code lagged} event and resumes from
+ * the oldest available deal, or is disconnected, depending on {@code fx-deals.feed.slow-consumer-policy}.
+ * <p>
+ * A write to a stalled client blocks its dispatcher thread until the socket times out, so a send
+ * still running after {@code fx-deals.feed.send-timeout-ms} evicts the subscriber and lends the pool
+ * a replacement thread until that write returns; the other subscribers keep the full pool. The
+ * evicted emitter is completed once its write returns, as it cannot be completed while the write
+ * holds it.
+ */
+@Slf4j
+@Component
+public class DealFeedBroadcaster {
+    private static final Pattern CURRENCY_PAIR = Pattern.compile("[A-Z]{3}/[A-Z]{3}");
+
+    private static final long IDLE = 0;
+    private static final long EVICTED = -1;
+
+    public enum SlowConsumerPolicy { NOTIFY, DROP }
+
+    private final ObjectMapper objectMapper;
+    private final DealFeedRingBuffer ring;
+    private final long emitterTimeoutMs;
+    private final int maxSubscribers;
+    private final int maxEventsPerSend;
+    private final SlowConsumerPolicy slowConsumerPolicy;
+    private final int dispatchThreads;
+    private final long sendTimeoutNanos;
+    private final LongFunction<SseEmitter> emitterFactory;
+    private final ThreadPoolExecutor dispatcher;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private int lentThreads;
+
+    @Autowired
+    public DealFeedBroadcaster(ObjectMapper objectMapper,
+                               @Value("${fx-deals.feed.ring-capacity:65536}") int ringCapacity,
+                               @Value("${fx-deals.feed.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                               @Value("${fx-deals.feed.max-subscribers:256}") int maxSubscribers,
+                               @Value("${fx-deals.feed.max-events-per-send:512}") int maxEventsPerSend,
+                               @Value("${fx-deals.feed.slow-consumer-policy:NOTIFY}") SlowConsumerPolicy slowConsumerPolicy,
+                               @Value("${fx-deals.feed.dispatch-threads:4}") int dispatchThreads,
+                               @Value("${fx-deals.feed.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this(objectMapper, ringCapacity, emitterTimeoutMs, maxSubscribers, maxEventsPerSend, slowConsumerPolicy,
+             dispatchThreads, sendTimeoutMs, SseEmitter::new);
+    }
+
+    DealFeedBroadcaster(ObjectMapper objectMapper, int ringCapacity, long emitterTimeoutMs, int maxSubscribers,
+                        int maxEventsPerSend, SlowConsumerPolicy slowConsumerPolicy, int dispatchThreads,
+                        long sendTimeoutMs, LongFunction<SseEmitter> emitterFactory) {
+        this.objectMapper = objectMapper;
+        this.ring = new DealFeedRingBuffer(ringCapacity);
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.maxEventsPerSend = maxEventsPerSend;
+        this.slowConsumerPolicy = slowConsumerPolicy;
+        this.dispatchThreads = dispatchThreads;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.emitterFactory = emitterFactory;
+        var threadCount = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 60, TimeUnit.SECONDS,
+                                                 new LinkedBlockingQueue<>(), runnable -> {
+            var thread = new Thread(runnable, "deal-feed-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Registers a subscriber for the given pairs (all pairs when empty). A {@code lastEventId} from
+     * a previous connection resumes right after that deal if it is still in the ring.
+     */
+    public SseEmitter subscribe(List<String> currencyPairs, Long lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new FxDealFeedUnavailableException("Live deal feed is at its limit of " + maxSubscribers + " subscribers");
+        }
+        Set<String> pairs = null;
+        if (!isNull(currencyPairs) && !currencyPairs.isEmpty()) {
+            for (String pair : currencyPairs) {
+                if (!CURRENCY_PAIR.matcher(pair).matches()) {
+                    throw new FxDealQueryException("Currency pair must be in FROM/TO form, e.g. USD/EUR");
+                }
+            }
+            pairs = Set.copyOf(currencyPairs);
+        }
+
+        long published = ring.published();
+        long start = isNull(lastEventId) ? published : Math.min(lastEventId + 1, published);
+        var emitter = emitterFactory.apply(emitterTimeoutMs);
+        var subscriber = new Subscriber(emitter, pairs, start);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        try {
+            emitter.send(SseEmitter.event().name("subscribed").data(Map.of("sequence", start), MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            subscribers.remove(subscriber);
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        log.info("Live deal feed subscriber added - Pairs: {}, Starting sequence: {}, Subscribers: {}",
+                 isNull(pairs) ? "ALL" : pairs, start, subscribers.size());
+        if (start < published) {
+            schedule(subscriber);
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onDealsImported(FxDealsImportedEvent event) {
+        var items = new ArrayList<DealFeedItem>(event.deals().size());
+        for (FxDealResDTO deal : event.deals()) {
+            items.add(new DealFeedItem(RecentDealColumnStore.pairOf(deal.fromCurrency(), deal.toCurrency()), toJson(deal)));
+        }
+        ring.publish(items);
+        for (Subscriber subscriber : subscribers) {
+            schedule(subscriber);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fx-deals.feed.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    /** Evicts subscribers whose current send has run past the send timeout. */
+    @Scheduled(fixedDelayString = "${fx-deals.feed.stall-check-interval-ms:1000}")
+    public void evictStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStartedNanos.get();
+            if (started == IDLE || started == EVICTED || now - started < sendTimeoutNanos) {
+                continue;
+            }
+            subscriber.lentThread = lendThread();
+            if (!subscriber.sendStartedNanos.compareAndSet(started, EVICTED)) {
+                if (subscriber.lentThread) {
+                    returnThread();
+                }
+                continue;
+            }
+            subscribers.remove(subscriber);
+            log.warn("Evicted live deal feed subscriber stalled in a send for {} ms",
+                     TimeUnit.NANOSECONDS.toMillis(now - started));
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    /** Adds a dispatcher thread in place of one blocked on an evicted subscriber, at most one per subscriber slot. */
+    private synchronized boolean lendThread() {
+        if (lentThreads >= maxSubscribers) {
+            return false;
+        }
+        lentThreads++;
+        dispatcher.setMaximumPoolSize(dispatchThreads + lentThreads);
+        dispatcher.setCorePoolSize(dispatchThreads + lentThreads);
+        return true;
+    }
+
+    private synchronized void returnThread() {
+        lentThreads--;
+        dispatcher.setCorePoolSize(dispatchThreads + lentThreads);
+        dispatcher.setMaximumPoolSize(dispatchThreads + lentThreads);
+    }
+
+    int dispatcherPoolSize() {
+        return dispatcher.getCorePoolSize();
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            try {
+                if (!sendPending(subscriber)) {
+                    return;
+                }
+            } catch (IOException | IllegalStateException e) {
+                disconnect(subscriber, e.getMessage());
+                return;
+            } finally {
+                subscriber.draining.set(false);
+            }
+        } while ((subscriber.cursor < ring.published() || subscriber.heartbeatDue)
+                && subscriber.draining.compareAndSet(false, true));
+    }
+
+    /** Sends everything between the subscriber's cursor and the ring head; false once disconnected. */
+    private boolean sendPending(Subscriber subscriber) throws IOException {
+        while (subscribers.contains(subscriber)) {
+            if (subscriber.heartbeatDue) {
+                subscriber.heartbeatDue = false;
+                send(subscriber, SseEmitter.event().comment("heartbeat").build());
+                continue;
+            }
+            long head = ring.published();
+            if (subscriber.cursor >= head) {
+                return true;
+            }
+
+            var events = new LinkedHashSet<ResponseBodyEmitter.DataWithMediaType>();
+            int count = 0;
+            while (subscriber.cursor < head && count < maxEventsPerSend) {
+                long sequence = subscriber.cursor;
+                var item = ring.get(sequence);
+                if (isNull(item)) {
+                    if (!events.isEmpty()) {
+                        send(subscriber, events);
+                        events = new LinkedHashSet<>();
+                    }
+                    if (!fallenBehind(subscriber, sequence)) {
+                        return false;
+                    }
+                    continue;
+                }
+                subscriber.cursor = sequence + 1;
+                if (!isNull(subscriber.pairs) && !subscriber.pairs.contains(item.currencyPair())) {
+                    continue;
+                }
+                events.addAll(SseEmitter.event()
+                        .id(Long.toString(sequence))
+                        .name("deal")
+                        .data(item.json(), MediaType.APPLICATION_JSON)
+                        .build());
+                count++;
+            }
+            if (!events.isEmpty()) {
+                send(subscriber, events);
+            }
+        }
+        return false;
+    }
+
+    private boolean fallenBehind(Subscriber subscriber, long sequence) throws IOException {
+        long resumeFrom = ring.oldestAvailable();
+        long missed = resumeFrom - sequence;
+        if (slowConsumerPolicy == SlowConsumerPolicy.DROP) {
+            log.warn("Dropping live deal feed subscriber that fell {} deals behind", missed);
+            send(subscriber, SseEmitter.event().name("dropped")
+                    .data(Map.of("missed", missed), MediaType.APPLICATION_JSON).build());
+            subscribers.remove(subscriber);
+            subscriber.emitter.complete();
+            return false;
+        }
+        log.warn("Live deal feed subscriber fell {} deals behind, resuming from sequence {}", missed, resumeFrom);
+        send(subscriber, SseEmitter.event().name("lagged")
+                .data(Map.of("missed", missed, "resumeFrom", resumeFrom), MediaType.APPLICATION_JSON).build());
+        subscriber.cursor = resumeFrom;
+        return true;
+    }
+
+    /** Sends under the send timeout; an eviction during the send completes the emitter once it returns. */
+    private void send(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> events) throws IOException {
+        long started = System.nanoTime();
+        subscriber.sendStartedNanos.set(started);
+        try {
+            subscriber.emitter.send(events);
+        } finally {
+            if (!subscriber.sendStartedNanos.compareAndSet(started, IDLE)) {
+                if (subscriber.lentThread) {
+                    returnThread();
+                }
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    private void disconnect(Subscriber subscriber, String reason) {
+        if (subscribers.remove(subscriber)) {
+            log.info("Live deal feed subscriber disconnected - {}", reason);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private String toJson(FxDealResDTO deal) {
+        try {
+            return objectMapper.writeValueAsString(deal);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<String> pairs;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicLong sendStartedNanos = new AtomicLong(IDLE);
+        private volatile long cursor;
+        private volatile boolean heartbeatDue;
+        private volatile boolean lentThread;
+
+        private Subscriber(SseEmitter emitter, Set<String> pairs, long cursor) {
+            this.emitter = emitter;
+            this.pairs = pairs;
+            this.cursor = cursor;
+        }
+    }
+}
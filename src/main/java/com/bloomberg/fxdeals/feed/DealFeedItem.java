@@ -0,0 +1,8 @@
+package com.bloomberg.fxdeals.feed;
+
+/**
+ * A deal as carried by the live feed: its currency pair for subscriber filtering and its JSON
+ * rendering, produced once at publish time and shared by every subscriber.
+ */
+public record DealFeedItem(String currencyPair, String json) {
+}
@@ -0,0 +1,64 @@
+package com.bloomberg.fxdeals.feed;
+
+import java.util.List;
+
+/**
+ * Fixed-size ring of recently imported deals. Deals are written by one producer at a time and
+ * read concurrently by any number of subscribers, each tracking its own sequence cursor. The
+ * producer never waits for readers: a reader that falls more than {@link #capacity()} deals behind
+ * finds its slots overwritten and is told so by {@link #get(long)}.
+ */
+public final class DealFeedRingBuffer {
+    private final Slot[] slots;
+    private final int mask;
+    private volatile long published;
+
+    public DealFeedRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.slots = new Slot[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Appends items and returns the sequence that the next published deal will get. Calls are
+     * serialized, which makes the buffer single-producer regardless of how many import threads
+     * publish into it.
+     */
+    public synchronized long publish(List<DealFeedItem> items) {
+        long sequence = published;
+        for (DealFeedItem item : items) {
+            slots[(int) (sequence & mask)] = new Slot(sequence, item);
+            sequence++;
+        }
+        published = sequence;
+        return sequence;
+    }
+
+    /** Sequence that the next published deal will get; every lower sequence has been published. */
+    public long published() {
+        return published;
+    }
+
+    /** Lowest sequence that may still be readable. */
+    public long oldestAvailable() {
+        return Math.max(0, published - slots.length);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Returns the item published at {@code sequence}, or {@code null} when it has already been
+     * overwritten. {@code sequence} must be lower than {@link #published()}.
+     */
+    public DealFeedItem get(long sequence) {
+        var slot = slots[(int) (sequence & mask)];
+        return slot != null && slot.sequence == sequence ? slot.item : null;
+    }
+
+    private record Slot(long sequence, DealFeedItem item) {
+    }
+}
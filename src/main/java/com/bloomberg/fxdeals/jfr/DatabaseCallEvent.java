@@ -0,0 +1,29 @@
+package com.bloomberg.fxdeals.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one Spring Data repository call, including the transaction it opens, so the event
+ * covers the database round trips of the call and the commit that flushes them.
+ */
+@Name("com.bloomberg.fxdeals.DatabaseCall")
+@Label("Database Call")
+@Category({"FX Deals", "Database"})
+@Description("One repository call and the database round trips it makes")
+@StackTrace(false)
+public class DatabaseCallEvent extends Event {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Error")
+    String error;
+}
@@ -0,0 +1,35 @@
+package com.bloomberg.fxdeals.jfr;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Repository advice emitting a {@link DatabaseCallEvent} per call while the event is being recorded,
+ * and passing calls straight through otherwise.
+ */
+public class DatabaseCallInterceptor implements MethodInterceptor {
+    private final String repository;
+
+    public DatabaseCallInterceptor(String repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        var event = new DatabaseCallEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.repository = repository;
+        event.method = invocation.getMethod().getName();
+        event.begin();
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            event.error = e.getClass().getName();
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.bloomberg.fxdeals.jfr;
+
+import com.bloomberg.fxdeals.dtos.res.RejectionReason;
+import com.bloomberg.fxdeals.metrics.ImportMetrics;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+
+/**
+ * JFR event for one deal passing through single or batch import. The stage fields are filled from
+ * {@link ImportMetrics} while the event is the current one on its thread; when the event type is not
+ * enabled in a running recording nothing is tracked beyond the allocation of the event itself.
+ */
+@Name("com.bloomberg.fxdeals.DealImport")
+@Label("Deal Import")
+@Category({"FX Deals", "Import"})
+@Description("One deal passing through single or batch import, with the time spent in each stage")
+@StackTrace(false)
+public class DealImportEvent extends Event {
+    public static final String SAVED = "SAVED";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    private static final ThreadLocal<DealImportEvent> CURRENT = new ThreadLocal<>();
+
+    @Label("Deal ID")
+    private String dealId;
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Batch Size")
+    private int batchSize;
+
+    @Label("Validate")
+    @Timespan
+    private long validate;
+
+    @Label("Duplicate Check")
+    @Timespan
+    private long duplicateCheck;
+
+    @Label("Map")
+    @Timespan
+    private long map;
+
+    @Label("Persist")
+    @Timespan
+    private long persist;
+
+    @Label("Outcome")
+    private String outcome;
+
+    @Label("Rejection Reasons")
+    private String rejectionReasons;
+
+    /** Starts timing {@code dealId} and makes the event current on this thread if it is being recorded. */
+    public static DealImportEvent start(ImportMetrics.Operation operation, String dealId, int batchSize) {
+        var event = new DealImportEvent();
+        if (event.isEnabled()) {
+            event.operation = operation.name();
+            event.dealId = dealId;
+            event.batchSize = batchSize;
+            event.outcome = FAILED;
+            CURRENT.set(event);
+            event.begin();
+        }
+        return event;
+    }
+
+    /** Adds {@code nanos} to the matching stage of the current event, if any. */
+    public static void recordStage(ImportMetrics.Stage stage, long nanos) {
+        var event = CURRENT.get();
+        if (isNull(event)) {
+            return;
+        }
+        switch (stage) {
+            case VALIDATE -> event.validate += nanos;
+            case DUPLICATE_CHECK -> event.duplicateCheck += nanos;
+            case MAP -> event.map += nanos;
+            case PERSIST -> event.persist += nanos;
+            default -> { }
+        }
+    }
+
+    public void saved() {
+        outcome = SAVED;
+    }
+
+    public void rejected(List<RejectionReason> reasons) {
+        outcome = REJECTED;
+        if (!isNull(operation)) {
+            rejectionReasons = reasons.stream().map(Enum::name).collect(Collectors.joining(","));
+        }
+    }
+
+    /** Commits the event with its outcome, {@link #FAILED} unless marked saved or rejected. */
+    public void finish() {
+        if (isNull(operation)) {
+            return;
+        }
+        CURRENT.remove();
+        commit();
+    }
+}
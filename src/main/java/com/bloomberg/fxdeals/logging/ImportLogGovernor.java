@@ -0,0 +1,140 @@
+package com.bloomberg.fxdeals.logging;
+
+import com.bloomberg.fxdeals.dtos.res.RejectedFxDealResDTO;
+import com.bloomberg.fxdeals.dtos.res.RejectionReason;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Keeps import logging proportional to batches rather than deals.
+ * <p>
+ * A {@link BatchLog} logs each saved deal at DEBUG only, gives rejected and failed deals a WARN or
+ * ERROR line for the first {@code fx-deals.logging.batch-sample-size} of them, and ends the batch
+ * with one summary line carrying the counts per rejection reason. {@link #warn} lets repeated
+ * messages of one kind, such as an invalid currency, through at most
+ * {@code fx-deals.logging.warn-permits-per-interval} times per {@code fx-deals.logging.warn-interval-ms}
+ * and reports how many were suppressed once the next interval starts.
+ */
+@Component
+public class ImportLogGovernor {
+    private final int batchSampleSize;
+    private final int warnPermitsPerInterval;
+    private final long warnIntervalNanos;
+    private final Map<RejectionReason, WarnWindow> warnWindows = new EnumMap<>(RejectionReason.class);
+
+    public ImportLogGovernor(@Value("${fx-deals.logging.batch-sample-size:10}") int batchSampleSize,
+                             @Value("${fx-deals.logging.warn-permits-per-interval:20}") int warnPermitsPerInterval,
+                             @Value("${fx-deals.logging.warn-interval-ms:10000}") long warnIntervalMs) {
+        this.batchSampleSize = batchSampleSize;
+        this.warnPermitsPerInterval = warnPermitsPerInterval;
+        this.warnIntervalNanos = warnIntervalMs * 1_000_000;
+        for (RejectionReason reason : RejectionReason.values()) {
+            warnWindows.put(reason, new WarnWindow());
+        }
+    }
+
+    public BatchLog batch(Logger log, int size) {
+        return new BatchLog(log, size);
+    }
+
+    /** Logs at WARN unless the permitted number of {@code reason} warnings was already logged this interval. */
+    public void warn(Logger log, RejectionReason reason, String format, Object... args) {
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+        var window = warnWindows.get(reason);
+        long suppressed;
+        synchronized (window) {
+            long now = System.nanoTime();
+            if (now - window.start >= warnIntervalNanos) {
+                suppressed = window.suppressed;
+                window.start = now;
+                window.permitted = 0;
+                window.suppressed = 0;
+            } else {
+                suppressed = 0;
+            }
+            if (window.permitted >= warnPermitsPerInterval) {
+                window.suppressed++;
+                return;
+            }
+            window.permitted++;
+        }
+        if (suppressed > 0) {
+            log.warn("{} similar '{}' warnings were suppressed in the previous {} ms",
+                     suppressed, reason, warnIntervalNanos / 1_000_000);
+        }
+        log.warn(format, args);
+    }
+
+    private static final class WarnWindow {
+        private long start = System.nanoTime();
+        private int permitted;
+        private long suppressed;
+    }
+
+    /** Per-batch log state; not thread-safe, one per {@code importBatchDeals} call. */
+    public final class BatchLog {
+        private final Logger log;
+        private final int size;
+        private final Map<RejectionReason, Integer> reasons = new EnumMap<>(RejectionReason.class);
+        private int saved;
+        private int rejected;
+        private int detailed;
+
+        private BatchLog(Logger log, int size) {
+            this.log = log;
+            this.size = size;
+        }
+
+        public void saved(String dealId) {
+            saved++;
+            log.debug("Successfully saved deal ID: {} in batch", dealId);
+        }
+
+        public void rejected(RejectedFxDealResDTO rejectedDeal) {
+            count(rejectedDeal);
+            if (sampled()) {
+                log.warn("Validation failed for deal ID: {} in batch - Errors: {}",
+                         rejectedDeal.dealId(), rejectedDeal.validationMsgs());
+            }
+        }
+
+        public void failed(RejectedFxDealResDTO rejectedDeal, Exception e) {
+            count(rejectedDeal);
+            if (sampled()) {
+                log.error("Failed to save deal ID: {} in batch - Error: {}", rejectedDeal.dealId(), e.getMessage(), e);
+            }
+        }
+
+        /** Logs the batch summary: INFO when every deal was saved, WARN otherwise. */
+        public void finish() {
+            if (rejected == 0) {
+                log.info("Batch import completed successfully with {} deals", saved);
+                return;
+            }
+            log.warn("Batch import completed with {} rejected deals and {} successful deals out of {} - Reasons: {}{}",
+                     rejected, saved, size, reasons,
+                     detailed < rejected ? " - details logged for the first " + detailed + " only" : "");
+        }
+
+        private void count(RejectedFxDealResDTO rejectedDeal) {
+            rejected++;
+            for (RejectionReason reason : rejectedDeal.reasons()) {
+                reasons.merge(reason, 1, Integer::sum);
+            }
+        }
+
+        private boolean sampled() {
+            if (detailed >= batchSampleSize) {
+                return false;
+            }
+            detailed++;
+            return true;
+        }
+    }
+}
@@ -21,6 +21,7 @@ public interface FxDealMapper {
             target = "dealAmount",
             expression = "java(new java.math.BigDecimal(dto.dealAmount()))"
     )
+    @Mapping(target = "ingestSeq", ignore = true)
     FxDeal toEntity(FxDealReqDTO dto);
 
     FxDealResDTO toDTO(FxDeal entity);
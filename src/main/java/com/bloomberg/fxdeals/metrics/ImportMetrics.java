@@ -0,0 +1,103 @@
+package com.bloomberg.fxdeals.metrics;
+
+import com.bloomberg.fxdeals.dtos.res.RejectionReason;
+import com.bloomberg.fxdeals.jfr.DealImportEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the import pipeline: one {@code fxdeals.import.stage} timer per stage and operation
+ * (with a percentile histogram), the {@code fxdeals.import.batch.size} distribution and
+ * {@code fxdeals.import.rejections} counters per {@link RejectionReason}. All meters are registered
+ * up front so the hot path only looks them up in enum maps.
+ */
+@Component
+public class ImportMetrics {
+    public enum Stage { DESERIALIZE, VALIDATE, DUPLICATE_CHECK, MAP, PERSIST, RESPOND }
+
+    public enum Operation { SINGLE, BATCH }
+
+    private final Map<Operation, Map<Stage, Timer>> timers = new EnumMap<>(Operation.class);
+    private final Map<RejectionReason, Counter> rejections = new EnumMap<>(RejectionReason.class);
+    private final DistributionSummary batchSize;
+
+    public ImportMetrics(MeterRegistry registry) {
+        for (Operation operation : Operation.values()) {
+            var stageTimers = new EnumMap<Stage, Timer>(Stage.class);
+            for (Stage stage : Stage.values()) {
+                stageTimers.put(stage, Timer.builder("fxdeals.import.stage")
+                        .description("Time spent in each stage of deal imports")
+                        .tag("stage", tagValue(stage))
+                        .tag("operation", tagValue(operation))
+                        .publishPercentileHistogram()
+                        .register(registry));
+            }
+            timers.put(operation, stageTimers);
+        }
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejections.put(reason, Counter.builder("fxdeals.import.rejections")
+                    .description("Rejected deals per reason")
+                    .tag("reason", reason.name())
+                    .register(registry));
+        }
+        this.batchSize = DistributionSummary.builder("fxdeals.import.batch.size")
+                .description("Number of deals per batch import request")
+                .baseUnit("deals")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public Timer timer(Stage stage, Operation operation) {
+        return timers.get(operation).get(stage);
+    }
+
+    public <T> T record(Stage stage, Operation operation, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(stage, operation, System.nanoTime() - start);
+        }
+    }
+
+    /** Records {@code nanos} on the stage timer and on the deal's {@link DealImportEvent}, if one is recording. */
+    public void record(Stage stage, Operation operation, long nanos) {
+        timer(stage, operation).record(nanos, TimeUnit.NANOSECONDS);
+        DealImportEvent.recordStage(stage, nanos);
+    }
+
+    public void recordBatchSize(int deals) {
+        batchSize.record(deals);
+    }
+
+    public void recordRejections(List<RejectionReason> reasons) {
+        for (RejectionReason reason : reasons) {
+            rejections.get(reason).increment();
+        }
+    }
+
+    /** Deals rejected per reason since startup, leaving out reasons that never occurred. */
+    public Map<RejectionReason, Long> rejectionCounts() {
+        var counts = new EnumMap<RejectionReason, Long>(RejectionReason.class);
+        rejections.forEach((reason, counter) -> {
+            if (counter.count() > 0) {
+                counts.put(reason, (long) counter.count());
+            }
+        });
+        return counts;
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
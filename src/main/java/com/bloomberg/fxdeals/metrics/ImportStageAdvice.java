@@ -0,0 +1,102 @@
+package com.bloomberg.fxdeals.metrics;
+
+import com.bloomberg.fxdeals.dtos.req.FxDealReqDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Times the web-side stages of deal imports. The deserialize stage runs from just before the request
+ * body is read to just after it has been converted; the respond stage from just before the response
+ * body (or error body) is written until request completion. The operation is inferred from the body
+ * type: a single {@link FxDealReqDTO} or a list of them.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class ImportStageAdvice extends RequestBodyAdviceAdapter implements ResponseBodyAdvice<Object>, HandlerInterceptor {
+    static final String OPERATION_ATTRIBUTE = ImportStageAdvice.class.getName() + ".operation";
+    static final String STAGE_START_ATTRIBUTE = ImportStageAdvice.class.getName() + ".stageStart";
+
+    private final ImportMetrics metrics;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return !isNull(operationOf(targetType));
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) {
+        var attributes = RequestContextHolder.currentRequestAttributes();
+        attributes.setAttribute(OPERATION_ATTRIBUTE, operationOf(targetType), RequestAttributes.SCOPE_REQUEST);
+        attributes.setAttribute(STAGE_START_ATTRIBUTE, System.nanoTime(), RequestAttributes.SCOPE_REQUEST);
+        return inputMessage;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        var attributes = RequestContextHolder.currentRequestAttributes();
+        if (attributes.getAttribute(STAGE_START_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long start) {
+            metrics.record(ImportMetrics.Stage.DESERIALIZE, operationOf(targetType), System.nanoTime() - start);
+            attributes.removeAttribute(STAGE_START_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+        return body;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && !isNull(servletRequest.getServletRequest().getAttribute(OPERATION_ATTRIBUTE))) {
+            servletRequest.getServletRequest().setAttribute(STAGE_START_ATTRIBUTE, System.nanoTime());
+        }
+        return body;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(OPERATION_ATTRIBUTE) instanceof ImportMetrics.Operation operation
+                && request.getAttribute(STAGE_START_ATTRIBUTE) instanceof Long start) {
+            metrics.record(ImportMetrics.Stage.RESPOND, operation, System.nanoTime() - start);
+        }
+    }
+
+    static ImportMetrics.Operation operationOf(Type targetType) {
+        if (targetType == FxDealReqDTO.class) {
+            return ImportMetrics.Operation.SINGLE;
+        }
+        if (targetType instanceof ParameterizedType parameterized
+                && parameterized.getRawType() == List.class
+                && parameterized.getActualTypeArguments()[0] == FxDealReqDTO.class) {
+            return ImportMetrics.Operation.BATCH;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,194 @@
+package com.bloomberg.fxdeals.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The rolling state of ingestion for {@code /actuator/ingestion}: deals received, imported and
+ * rejected per second as exponentially weighted moving averages over 1, 5 and 15 minutes (ticked
+ * every {@value #TICK_SECONDS} seconds, like a Unix load average), import durations per operation in
+ * an {@code fxdeals.ingestion.duration} timer whose percentiles only cover the last
+ * {@code fx-deals.ingestion.percentile-window-seconds}, the import requests and deals in flight, and
+ * the latency of every API handler, reads included, in an {@code fxdeals.request.duration} timer per
+ * method and URI pattern over the same window.
+ */
+@Component
+public class IngestionStatistics {
+    static final int TICK_SECONDS = 5;
+    static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+    static final String[] PERCENTILE_NAMES = {"p50", "p99", "p999"};
+
+    private final Rate received = new Rate();
+    private final Rate imported = new Rate();
+    private final Rate rejected = new Rate();
+    private final Map<ImportMetrics.Operation, Timer> durations = new EnumMap<>(ImportMetrics.Operation.class);
+    private final Map<String, Timer> requestDurations = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlightBatches = new AtomicInteger();
+    private final AtomicLong inFlightDeals = new AtomicLong();
+    private final MeterRegistry registry;
+    private final Duration window;
+
+    public IngestionStatistics(MeterRegistry registry,
+                               @Value("${fx-deals.ingestion.percentile-window-seconds:60}") int windowSeconds) {
+        this.registry = registry;
+        this.window = Duration.ofSeconds(windowSeconds);
+        for (ImportMetrics.Operation operation : ImportMetrics.Operation.values()) {
+            durations.put(operation, windowed(Timer.builder("fxdeals.ingestion.duration")
+                    .description("Service time of deal import requests")
+                    .tag("operation", operation.name().toLowerCase(Locale.ROOT))));
+        }
+    }
+
+    private Timer windowed(Timer.Builder builder) {
+        return builder.publishPercentiles(PERCENTILES)
+                .distributionStatisticExpiry(window)
+                .distributionStatisticBufferLength(3)
+                .register(registry);
+    }
+
+    /** Counts an import request of {@code deals} deals as received and in flight until {@link Import#finish()}. */
+    public Import start(ImportMetrics.Operation operation, int deals) {
+        if (operation == ImportMetrics.Operation.BATCH) {
+            inFlightBatches.incrementAndGet();
+        }
+        inFlightDeals.addAndGet(deals);
+        received.mark(deals);
+        return new Import(operation, deals, System.nanoTime());
+    }
+
+    /** Records one request served by the handler mapped to {@code uri}, the URI pattern rather than the path. */
+    public void recordRequest(String method, String uri, long nanos) {
+        requestDurations.computeIfAbsent(method + ' ' + uri, key -> windowed(Timer.builder("fxdeals.request.duration")
+                .description("Service time of API requests per handler")
+                .tag("method", method)
+                .tag("uri", uri))).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Scheduled(fixedRate = TICK_SECONDS * 1000L)
+    public void tick() {
+        received.tick();
+        imported.tick();
+        rejected.tick();
+    }
+
+    /** Deals per second by outcome, each as {@code m1_rate}, {@code m5_rate} and {@code m15_rate}. */
+    public Map<String, Map<String, Double>> dealsPerSecond() {
+        var rates = new LinkedHashMap<String, Map<String, Double>>();
+        rates.put("received", received.rates());
+        rates.put("imported", imported.rates());
+        rates.put("rejected", rejected.rates());
+        return rates;
+    }
+
+    /** Import durations in milliseconds per operation over the percentile window. */
+    public Map<String, Map<String, Object>> durationPercentiles() {
+        var percentiles = new LinkedHashMap<String, Map<String, Object>>();
+        durations.forEach((operation, timer) -> percentiles.put(operation.name().toLowerCase(Locale.ROOT), percentiles(timer)));
+        return percentiles;
+    }
+
+    /** Request durations in milliseconds per {@code "<method> <uri pattern>"} over the percentile window. */
+    public Map<String, Map<String, Object>> requestPercentiles() {
+        var percentiles = new TreeMap<String, Map<String, Object>>();
+        requestDurations.forEach((handler, timer) -> percentiles.put(handler, percentiles(timer)));
+        return percentiles;
+    }
+
+    private static Map<String, Object> percentiles(Timer timer) {
+        var values = new LinkedHashMap<String, Object>();
+        ValueAtPercentile[] snapshot = timer.takeSnapshot().percentileValues();
+        for (int i = 0; i < snapshot.length; i++) {
+            values.put(PERCENTILE_NAMES[i], snapshot[i].value(TimeUnit.MILLISECONDS));
+        }
+        return values;
+    }
+
+    public int inFlightBatches() {
+        return inFlightBatches.get();
+    }
+
+    public long inFlightDeals() {
+        return inFlightDeals.get();
+    }
+
+    /** One import request in flight; report each deal as saved or rejected, then finish it once. */
+    public final class Import {
+        private final ImportMetrics.Operation operation;
+        private final int deals;
+        private final long startNanos;
+
+        private Import(ImportMetrics.Operation operation, int deals, long startNanos) {
+            this.operation = operation;
+            this.deals = deals;
+            this.startNanos = startNanos;
+        }
+
+        public void saved() {
+            imported.mark(1);
+        }
+
+        public void rejected() {
+            rejected.mark(1);
+        }
+
+        public void finish() {
+            durations.get(operation).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            inFlightDeals.addAndGet(-deals);
+            if (operation == ImportMetrics.Operation.BATCH) {
+                inFlightBatches.decrementAndGet();
+            }
+        }
+    }
+
+    /** Events per second averaged over 1, 5 and 15 minutes; marks are lock-free and folded in on each tick. */
+    static final class Rate {
+        private static final int[] MINUTES = {1, 5, 15};
+
+        private final LongAdder uncounted = new LongAdder();
+        private final double[] alphas = new double[MINUTES.length];
+        private final double[] rates = new double[MINUTES.length];
+        private boolean initialized;
+
+        Rate() {
+            for (int i = 0; i < MINUTES.length; i++) {
+                alphas[i] = 1 - Math.exp(-TICK_SECONDS / (60.0 * MINUTES[i]));
+            }
+        }
+
+        void mark(long count) {
+            uncounted.add(count);
+        }
+
+        synchronized void tick() {
+            double instantRate = uncounted.sumThenReset() / (double) TICK_SECONDS;
+            for (int i = 0; i < rates.length; i++) {
+                rates[i] = initialized ? rates[i] + alphas[i] * (instantRate - rates[i]) : instantRate;
+            }
+            initialized = true;
+        }
+
+        synchronized Map<String, Double> rates() {
+            var values = new LinkedHashMap<String, Double>();
+            for (int i = 0; i < MINUTES.length; i++) {
+                values.put("m" + MINUTES[i] + "_rate", rates[i]);
+            }
+            return values;
+        }
+    }
+}
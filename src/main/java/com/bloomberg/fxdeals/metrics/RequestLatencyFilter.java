@@ -0,0 +1,45 @@
+package com.bloomberg.fxdeals.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Times every {@code /api/} request, including writing its response, and records it in
+ * {@link IngestionStatistics} under its method and URI pattern, so the percentiles in
+ * {@code /actuator/ingestion} cover the read endpoints as well as imports. Requests no handler
+ * matched are recorded under {@value #UNKNOWN_URI}; for the live feed only the initial dispatch
+ * that opens the stream is timed.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestLatencyFilter extends OncePerRequestFilter {
+    static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final IngestionStatistics statistics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long startNanos = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            var uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern
+                    ? pattern : UNKNOWN_URI;
+            statistics.recordRequest(request.getMethod(), uri, System.nanoTime() - startNanos);
+        }
+    }
+}
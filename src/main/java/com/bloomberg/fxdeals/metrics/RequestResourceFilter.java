@@ -0,0 +1,174 @@
+package com.bloomberg.fxdeals.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Accounts the CPU time and heap allocation of every {@code /api/} request on the thread that served
+ * it, using the per-thread counters of {@link com.sun.management.ThreadMXBean}. Each request records
+ * {@code fxdeals.request.cpu} and {@code fxdeals.request.allocation} tagged with its method and URI
+ * pattern. Clients that send {@code X-Server-Timing: true} (the header name is
+ * {@code fx-deals.request-accounting.trigger-header}) also get a {@code Server-Timing} header with the
+ * wall time, CPU time and allocated bytes up to the moment the response body was first written, as
+ * headers cannot follow the body; the meters cover the whole request including serialization. Work
+ * handed off to other threads, such as the live feed dispatchers, is not included.
+ */
+@Slf4j
+@Component
+public class RequestResourceFilter extends OncePerRequestFilter {
+    static final String SERVER_TIMING = "Server-Timing";
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry registry;
+    private final com.sun.management.ThreadMXBean threads;
+    private final boolean enabled;
+    private final String triggerHeader;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public RequestResourceFilter(MeterRegistry registry,
+                                 @Value("${fx-deals.request-accounting.enabled:true}") boolean enabled,
+                                 @Value("${fx-deals.request-accounting.trigger-header:X-Server-Timing}") String triggerHeader) {
+        this.registry = registry;
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.triggerHeader = triggerHeader;
+        this.enabled = enabled && threads.isThreadCpuTimeSupported() && threads.isThreadAllocatedMemorySupported();
+        if (enabled && !this.enabled) {
+            log.warn("Request accounting disabled - this JVM does not support per-thread CPU time or allocation counters");
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var start = new Usage(System.nanoTime(), threads.getCurrentThreadCpuTime(), threads.getCurrentThreadAllocatedBytes());
+        var timedResponse = Boolean.parseBoolean(request.getHeader(triggerHeader))
+                ? new ServerTimingResponse(response, start) : null;
+        try {
+            chain.doFilter(request, isNull(timedResponse) ? response : timedResponse);
+        } finally {
+            if (!isNull(timedResponse)) {
+                timedResponse.addServerTiming();
+            }
+            var used = usedSince(start);
+            var requestMeters = meters(request);
+            requestMeters.cpu.record(used.cpuNanos, TimeUnit.NANOSECONDS);
+            requestMeters.allocation.record(used.allocatedBytes);
+        }
+    }
+
+    private Usage usedSince(Usage start) {
+        return new Usage(System.nanoTime() - start.wallNanos,
+                         threads.getCurrentThreadCpuTime() - start.cpuNanos,
+                         threads.getCurrentThreadAllocatedBytes() - start.allocatedBytes);
+    }
+
+    private Meters meters(HttpServletRequest request) {
+        var uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern
+                ? pattern : UNKNOWN_URI;
+        var method = request.getMethod();
+        return meters.computeIfAbsent(method + ' ' + uri, key -> new Meters(
+                Timer.builder("fxdeals.request.cpu")
+                        .description("CPU time spent by the request thread per request")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .publishPercentileHistogram()
+                        .register(registry),
+                DistributionSummary.builder("fxdeals.request.allocation")
+                        .description("Heap bytes allocated by the request thread per request")
+                        .baseUnit("bytes")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .publishPercentileHistogram()
+                        .register(registry)));
+    }
+
+    private record Usage(long wallNanos, long cpuNanos, long allocatedBytes) {
+    }
+
+    private record Meters(Timer cpu, DistributionSummary allocation) {
+    }
+
+    /** Adds the {@code Server-Timing} header just before anything can commit the response. */
+    private final class ServerTimingResponse extends HttpServletResponseWrapper {
+        private final Usage start;
+        private boolean added;
+
+        private ServerTimingResponse(HttpServletResponse response, Usage start) {
+            super(response);
+            this.start = start;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addServerTiming();
+            super.sendRedirect(location);
+        }
+
+        private void addServerTiming() {
+            if (added || isCommitted()) {
+                return;
+            }
+            added = true;
+            var used = usedSince(start);
+            addHeader(SERVER_TIMING, String.format(Locale.ROOT, "app;dur=%.3f, cpu;dur=%.3f, alloc;desc=\"%d bytes\"",
+                                                   used.wallNanos / 1e6, used.cpuNanos / 1e6, used.allocatedBytes));
+        }
+    }
+}
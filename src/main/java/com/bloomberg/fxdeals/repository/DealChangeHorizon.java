@@ -0,0 +1,61 @@
+package com.bloomberg.fxdeals.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The highest ingestion sequence the change feed may hand out: every deal at or below it has either
+ * committed or rolled back, so a consumer that advances its watermark up to it never skips a deal
+ * that commits later.
+ * <p>
+ * The {@code fx_deals} insert trigger gives a transaction its ID before it takes a sequence value.
+ * Each {@link #advance()} reads the last sequence issued and then takes a snapshot, so every
+ * transaction that took one of those sequences started before the snapshot's {@code xmax}. The
+ * sequence becomes safe once the oldest running transaction is at or past that {@code xmax}; until
+ * then it waits in a queue. Under steady ingestion the horizon trails the newest sequence by about
+ * the longest running import. Runs outside any read-only transaction, so always on the primary.
+ */
+@Component
+@RequiredArgsConstructor
+public class DealChangeHorizon {
+    static final String ISSUED_QUERY =
+            "SELECT CASE WHEN is_called THEN last_value ELSE last_value - 1 END FROM fx_deals_ingest_seq";
+    static final String SNAPSHOT_QUERY =
+            "SELECT pg_snapshot_xmin(s)::text::bigint, pg_snapshot_xmax(s)::text::bigint FROM pg_current_snapshot() s";
+    static final int MAX_PENDING = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Deque<Candidate> pending = new ArrayDeque<>();
+    private long safeSequence;
+
+    /** Advances the horizon and returns it. */
+    public synchronized long current() {
+        advance();
+        return safeSequence;
+    }
+
+    @Scheduled(fixedDelayString = "${fx-deals.changes.horizon-interval-ms:1000}")
+    public synchronized void advance() {
+        Long issued = jdbcTemplate.queryForObject(ISSUED_QUERY, Long.class);
+        var snapshot = jdbcTemplate.queryForObject(SNAPSHOT_QUERY,
+                                                   (rs, row) -> new Snapshot(rs.getLong(1), rs.getLong(2)));
+        if (pending.size() == MAX_PENDING) {
+            pending.pollFirst();
+        }
+        pending.addLast(new Candidate(issued == null ? 0 : issued, snapshot.xmax()));
+        while (!pending.isEmpty() && pending.peekFirst().xmax() <= snapshot.xmin()) {
+            safeSequence = Math.max(safeSequence, pending.pollFirst().sequence());
+        }
+    }
+
+    record Snapshot(long xmin, long xmax) {
+    }
+
+    private record Candidate(long sequence, long xmax) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.bloomberg.fxdeals.repository;
+
+import com.bloomberg.fxdeals.dtos.req.DealField;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams deals with a SELECT list limited to the requested {@link DealField}s, for reads that do
+ * not need every column.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FxDealProjectionRepository {
+    static final int FETCH_SIZE = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Calls {@code rowHandler} once per deal; the result set columns follow the iteration order of
+     * {@code fields}. Runs in a read-write transaction so the rows come from the primary, as the
+     * result is cached as the listing for the current read version.
+     */
+    @Transactional
+    public void streamDeals(Set<DealField> fields, RowCallbackHandler rowHandler) {
+        var sql = fields.stream().map(DealField::column).collect(Collectors.joining(", ", "SELECT ", " FROM fx_deals"));
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, rowHandler);
+    }
+
+    /**
+     * Calls {@code rowHandler} for up to {@code limit} deals with {@code after < ingest_seq <= through},
+     * in sequence order. The first result set column is {@code ingest_seq}, followed by {@code fields}
+     * in iteration order. Runs on the primary, like {@link FxDealRepository#findChangesAfter}.
+     */
+    @Transactional
+    public void streamChanges(Set<DealField> fields, long after, long through, int limit, RowCallbackHandler rowHandler) {
+        var sql = fields.stream().map(DealField::column).collect(Collectors.joining(", ", "SELECT ingest_seq, ",
+                " FROM fx_deals WHERE ingest_seq > ? AND ingest_seq <= ? ORDER BY ingest_seq LIMIT ?"));
+        jdbcTemplate.query(sql, rowHandler, after, through, limit);
+    }
+}
@@ -1,12 +1,84 @@
 package com.bloomberg.fxdeals.repository;
 
+import com.bloomberg.fxdeals.dtos.res.FxDealChangeResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
 import com.bloomberg.fxdeals.entity.FxDeal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface FxDealRepository extends JpaRepository<FxDeal, String> {
     Optional<FxDeal> findByDealId(String dealId);
+
+    /**
+     * Duplicate checks run in a read-write transaction so that they always see the primary, even
+     * when read-only transactions are routed to a replica.
+     */
+    @Override
+    @Transactional
+    boolean existsById(String dealId);
+
+    /**
+     * Returns which of {@code dealIds} exist with a single array-bound query. Runs on the primary, like
+     * {@link #existsById(String)}.
+     */
+    @Transactional
+    @Query(value = "SELECT deal_id FROM fx_deals WHERE deal_id = ANY(:dealIds)", nativeQuery = true)
+    List<String> findExistingDealIds(@Param("dealIds") String[] dealIds);
+
+    /**
+     * Projects every deal straight into its response DTO, skipping entity hydration, dirty-checking
+     * snapshots and the MapStruct copy.
+     */
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query("select new com.bloomberg.fxdeals.dtos.res.FxDealResDTO("
+            + "d.dealId, d.fromCurrency, d.toCurrency, d.dealTimestamp, d.dealAmount) from FxDeal d")
+    List<FxDealResDTO> findAllProjected();
+
+    /**
+     * Deals with an ingestion sequence greater than {@code after} and at most {@code through}, in
+     * sequence order. Served by the unique index on {@code ingest_seq}. Runs on the primary, where
+     * {@link DealChangeHorizon} guarantees every deal up to {@code through} is already visible; a
+     * replica may not have replayed all of them yet.
+     */
+    @Transactional
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query("select new com.bloomberg.fxdeals.dtos.res.FxDealChangeResDTO("
+            + "d.ingestSeq, d.dealId, d.fromCurrency, d.toCurrency, d.dealTimestamp, d.dealAmount) "
+            + "from FxDeal d where d.ingestSeq > :after and d.ingestSeq <= :through order by d.ingestSeq")
+    List<FxDealChangeResDTO> findChangesAfter(@Param("after") long after, @Param("through") long through, Limit limit);
+
+    /**
+     * Deals with {@code from <= dealTimestamp < to}, ordered by timestamp and deal ID. Served by the
+     * index on {@code deal_timestamp}. Runs on the primary, as the result is cached per bucket version
+     * and a replica may not have replayed every deal the version already covers.
+     */
+    @Transactional
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query("select new com.bloomberg.fxdeals.dtos.res.FxDealResDTO("
+            + "d.dealId, d.fromCurrency, d.toCurrency, d.dealTimestamp, d.dealAmount) "
+            + "from FxDeal d where d.dealTimestamp >= :from and d.dealTimestamp < :to "
+            + "order by d.dealTimestamp, d.dealId")
+    List<FxDealResDTO> findDealsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,10 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.dtos.res.RecentDealStatsResDTO;
+
+import java.util.List;
+
+public interface FxDealAnalyticsService {
+    List<RecentDealStatsResDTO> getRecentDealStats(String from, String to, String currencyPair,
+                                                   Integer bucketMinutes, List<Double> percentiles);
+}
@@ -0,0 +1,7 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.dtos.res.DealChecksumTreeResDTO;
+
+public interface FxDealChecksumService {
+    DealChecksumTreeResDTO getChecksumTree(String by, String from, String to, Integer bucketMinutes);
+}
@@ -0,0 +1,7 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.dtos.res.DealExportResDTO;
+
+public interface FxDealExportService {
+    DealExportResDTO exportAllDeals(Integer workers);
+}
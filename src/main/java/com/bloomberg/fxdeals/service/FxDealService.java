@@ -1,12 +1,25 @@
 package com.bloomberg.fxdeals.service;
 
+import com.bloomberg.fxdeals.dtos.req.DealField;
 import com.bloomberg.fxdeals.dtos.req.FxDealReqDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealChangesResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealExistenceResDTO;
 import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
 public interface FxDealService {
     FxDealResDTO importSingleDeal(FxDealReqDTO fxDeal);
     List<FxDealResDTO> importBatchDeals(List<FxDealReqDTO> fxDeals);
     List<FxDealResDTO> getAllDeals();
+    void writeAllDeals(Set<DealField> fields, JsonGenerator generator) throws IOException;
+    FxDealChangesResDTO getChangesAfter(Long after, Integer limit);
+    void writeChangesAfter(Long after, Integer limit, Set<DealField> fields, JsonGenerator generator) throws IOException;
+    FxDealExistenceResDTO checkExistingDeals(List<String> dealIds);
+    List<FxDealResDTO> getDealsInRange(String from, String to);
+    void writeDealsInRange(String from, String to, Set<DealField> fields, JsonGenerator generator) throws IOException;
 }
@@ -0,0 +1,168 @@
+package com.bloomberg.fxdeals.service.impl;
+
+import com.bloomberg.fxdeals.analytics.RecentDealColumnStore;
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import com.bloomberg.fxdeals.dtos.res.RecentDealStatsResDTO;
+import com.bloomberg.fxdeals.event.FxDealsImportedEvent;
+import com.bloomberg.fxdeals.exception.FxDealQueryException;
+import com.bloomberg.fxdeals.service.FxDealAnalyticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static com.bloomberg.fxdeals.service.impl.FxDealServiceImpl.FORMATTER;
+import static java.util.Objects.isNull;
+
+/**
+ * Keeps the last {@code fx-deals.analytics.hot-store.window-hours} of deals in a
+ * {@link RecentDealColumnStore}. The store is warmed from {@code fx_deals} before the web server
+ * starts, then follows the import paths through {@link FxDealsImportedEvent}. Deal timestamps are
+ * interpreted as UTC.
+ */
+@Slf4j
+@Service
+public class FxDealAnalyticsServiceImpl implements FxDealAnalyticsService, SmartInitializingSingleton {
+    private static final Pattern CURRENCY_PAIR = Pattern.compile("[A-Z]{3}/[A-Z]{3}");
+    private static final String WARM_UP_QUERY =
+            "SELECT from_currency, to_currency, deal_timestamp, deal_amount FROM fx_deals WHERE deal_timestamp >= ?";
+    private static final int WARM_UP_FETCH_SIZE = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration window;
+    private final boolean warmUp;
+    private final RecentDealColumnStore store;
+
+    public FxDealAnalyticsServiceImpl(JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${fx-deals.analytics.hot-store.window-hours:24}") long windowHours,
+                                      @Value("${fx-deals.analytics.hot-store.initial-capacity:65536}") int initialCapacity,
+                                      @Value("${fx-deals.analytics.hot-store.warm-up:true}") boolean warmUp) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.window = Duration.ofHours(windowHours);
+        this.warmUp = warmUp;
+        this.store = new RecentDealColumnStore(initialCapacity);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!warmUp) {
+            log.info("Recent deal store warm-up disabled");
+            return;
+        }
+        var cutoff = windowStart();
+        log.info("Warming recent deal store with deals since {}", cutoff);
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(WARM_UP_QUERY);
+            ps.setFetchSize(WARM_UP_FETCH_SIZE);
+            ps.setTimestamp(1, Timestamp.valueOf(cutoff));
+            return ps;
+        }, rs -> {
+            store.append(rs.getTimestamp(3).toLocalDateTime(), rs.getString(1), rs.getString(2), rs.getBigDecimal(4));
+        }));
+        log.info("Recent deal store warmed with {} deals", store.size());
+    }
+
+    @EventListener
+    public void onDealsImported(FxDealsImportedEvent event) {
+        var cutoff = windowStart();
+        for (FxDealResDTO deal : event.deals()) {
+            if (deal.dealTimestamp().isBefore(cutoff)) {
+                continue;
+            }
+            if (!store.append(deal.dealTimestamp(), deal.fromCurrency(), deal.toCurrency(), deal.dealAmount())) {
+                log.debug("Deal ID: {} not kept in recent deal store - amount {} out of range",
+                          deal.dealId(), deal.dealAmount());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fx-deals.analytics.hot-store.eviction-interval-ms:60000}")
+    public void evictExpiredDeals() {
+        int evicted = store.evictOlderThan(RecentDealColumnStore.toEpochSecond(windowStart()));
+        if (evicted > 0) {
+            log.debug("Evicted {} deals from recent deal store, {} remaining", evicted, store.size());
+        }
+    }
+
+    @Override
+    public List<RecentDealStatsResDTO> getRecentDealStats(String from, String to, String currencyPair,
+                                                          Integer bucketMinutes, List<Double> percentiles) {
+        var fromTs = isNull(from) ? windowStart() : parseTimestamp("from", from);
+        var toTs = isNull(to) ? LocalDateTime.now(ZoneOffset.UTC) : parseTimestamp("to", to);
+        if (!isNull(currencyPair) && !CURRENCY_PAIR.matcher(currencyPair).matches()) {
+            throw new FxDealQueryException("Currency pair must be in FROM/TO form, e.g. USD/EUR");
+        }
+        if (!isNull(bucketMinutes) && bucketMinutes <= 0) {
+            throw new FxDealQueryException("Bucket minutes must be a positive number");
+        }
+        double[] ranks = isNull(percentiles) ? new double[0]
+                : percentiles.stream().mapToDouble(Double::doubleValue).toArray();
+        for (double rank : ranks) {
+            if (rank <= 0 || rank > 100) {
+                throw new FxDealQueryException("Percentiles must be in the range (0, 100]");
+            }
+        }
+
+        List<RecentDealColumnStore.Aggregate> aggregates;
+        try {
+            aggregates = store.aggregate(
+                    RecentDealColumnStore.toEpochSecond(fromTs),
+                    RecentDealColumnStore.toEpochSecond(toTs),
+                    currencyPair,
+                    isNull(bucketMinutes) ? 0 : bucketMinutes * 60L,
+                    ranks);
+        } catch (IllegalArgumentException e) {
+            throw new FxDealQueryException(e.getMessage());
+        }
+
+        log.debug("Recent deal stats from {} to {} produced {} groups", fromTs, toTs, aggregates.size());
+        return aggregates.stream().map(aggregate -> toDTO(aggregate, ranks)).toList();
+    }
+
+    private RecentDealStatsResDTO toDTO(RecentDealColumnStore.Aggregate aggregate, double[] ranks) {
+        var percentileValues = new LinkedHashMap<String, BigDecimal>();
+        for (int i = 0; i < ranks.length; i++) {
+            percentileValues.put("p" + BigDecimal.valueOf(ranks[i]).stripTrailingZeros().toPlainString(),
+                                 aggregate.percentiles().get(i));
+        }
+        return new RecentDealStatsResDTO(
+                aggregate.currencyPair(),
+                LocalDateTime.ofEpochSecond(aggregate.bucketStartEpochSecond(), 0, ZoneOffset.UTC),
+                aggregate.count(),
+                aggregate.sum(),
+                aggregate.min(),
+                aggregate.max(),
+                percentileValues);
+    }
+
+    private LocalDateTime parseTimestamp(String name, String value) {
+        try {
+            return LocalDateTime.parse(value, FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new FxDealQueryException("Invalid " + name + " timestamp format, should be yyyy-MM-dd HH:mm:ss");
+        }
+    }
+
+    private LocalDateTime windowStart() {
+        return LocalDateTime.now(ZoneOffset.UTC).minus(window);
+    }
+}
@@ -0,0 +1,301 @@
+package com.bloomberg.fxdeals.service.impl;
+
+import com.bloomberg.fxdeals.archive.DealArchive;
+import com.bloomberg.fxdeals.cache.DealChecksumCache;
+import com.bloomberg.fxdeals.dtos.res.DealChecksumLeafResDTO;
+import com.bloomberg.fxdeals.dtos.res.DealChecksumTreeResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealChangeResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import com.bloomberg.fxdeals.exception.FxDealQueryException;
+import com.bloomberg.fxdeals.service.FxDealChecksumService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.bloomberg.fxdeals.service.impl.FxDealServiceImpl.FORMATTER;
+import static java.util.Objects.isNull;
+
+/**
+ * Builds Merkle trees of deal digests for reconciliation.
+ * <p>
+ * Each deal hashes to the first 64 bits of {@code md5(deal_id|from_currency|to_currency|deal_timestamp|deal_amount)};
+ * a leaf digest is {@code md5(count + ":" + sum of row hashes)} over its bucket, which PostgreSQL
+ * computes in a single streaming aggregate without ordering rows. Parent digests are the MD5 of
+ * their children's hex digests concatenated, with an unpaired last child promoted unchanged.
+ * <p>
+ * Time buckets are aligned on multiples of the bucket width since the epoch. They are split into
+ * contiguous chunks that are aggregated concurrently, and digests of buckets that have already ended
+ * are kept in the {@link DealChecksumCache}. Deal-ID trees use 256 buckets keyed by the first byte
+ * of {@code md5(deal_id)} and are always computed in one pass.
+ * <p>
+ * Archived deals are hashed the same way in Java ({@link #rowHash}) and added to their bucket's count
+ * and sum, so moving a deal into the {@link DealArchive} leaves every digest unchanged.
+ */
+@Slf4j
+@Service
+public class FxDealChecksumServiceImpl implements FxDealChecksumService {
+    static final String ROW_HASH = "('x' || substr(md5(deal_id || '|' || from_currency || '|' || to_currency || '|'"
+            + " || to_char(deal_timestamp, 'YYYY-MM-DD HH24:MI:SS') || '|' || deal_amount::text), 1, 16))::bit(64)::bigint";
+    static final String TIMESTAMP_LEAVES_QUERY = "SELECT floor(extract(epoch FROM deal_timestamp) / ?)::bigint, count(*), sum("
+            + ROW_HASH + ") FROM fx_deals WHERE deal_timestamp >= ? AND deal_timestamp < ? GROUP BY 1";
+    static final String DEAL_ID_LEAVES_QUERY = "SELECT get_byte(decode(md5(deal_id), 'hex'), 0), count(*), sum("
+            + ROW_HASH + ") FROM fx_deals GROUP BY 1";
+    static final int DEAL_ID_BUCKETS = 256;
+    static final DealChecksumCache.Leaf EMPTY_LEAF = leaf(0, BigDecimal.ZERO);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DealChecksumCache checksumCache;
+    private final DealArchive archive;
+    private final int parallelism;
+    private final int maxLeaves;
+    private final ExecutorService executor;
+
+    public FxDealChecksumServiceImpl(JdbcTemplate jdbcTemplate,
+                                     DealChecksumCache checksumCache,
+                                     DealArchive archive,
+                                     @Value("${fx-deals.checksums.parallelism:4}") int parallelism,
+                                     @Value("${fx-deals.checksums.max-leaves:10000}") int maxLeaves) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.checksumCache = checksumCache;
+        this.archive = archive;
+        this.parallelism = parallelism;
+        this.maxLeaves = maxLeaves;
+        var threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            var thread = new Thread(runnable, "deal-checksum-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public DealChecksumTreeResDTO getChecksumTree(String by, String from, String to, Integer bucketMinutes) {
+        if (isNull(by) || by.equals("timestamp")) {
+            return timestampTree(from, to, bucketMinutes);
+        }
+        if (by.equals("dealId")) {
+            return dealIdTree();
+        }
+        throw new FxDealQueryException("Checksums can be computed by timestamp or dealId");
+    }
+
+    private DealChecksumTreeResDTO timestampTree(String from, String to, Integer bucketMinutes) {
+        if (isNull(from) || isNull(to)) {
+            throw new FxDealQueryException("From and to are required for timestamp checksums");
+        }
+        var fromTs = parseTimestamp("from", from);
+        var toTs = parseTimestamp("to", to);
+        if (!toTs.isAfter(fromTs)) {
+            throw new FxDealQueryException("To must be after from");
+        }
+        if (!isNull(bucketMinutes) && bucketMinutes <= 0) {
+            throw new FxDealQueryException("Bucket minutes must be a positive number");
+        }
+        long width = (isNull(bucketMinutes) ? 60L : bucketMinutes) * 60L;
+        long firstIndex = Math.floorDiv(fromTs.toEpochSecond(ZoneOffset.UTC), width);
+        long endIndex = Math.floorDiv(toTs.toEpochSecond(ZoneOffset.UTC) - 1, width) + 1;
+        if (endIndex - firstIndex > maxLeaves) {
+            throw new FxDealQueryException("Checksum range spans more than " + maxLeaves + " buckets");
+        }
+        int leafCount = (int) (endIndex - firstIndex);
+        long nowIndex = Math.floorDiv(LocalDateTime.now(ZoneOffset.UTC).toEpochSecond(ZoneOffset.UTC), width);
+        long generation = checksumCache.generation();
+
+        var leaves = new DealChecksumCache.Leaf[leafCount];
+        var tasks = new ArrayList<CompletableFuture<Void>>();
+        int chunkSize = Math.max(1, (leafCount + parallelism - 1) / parallelism);
+        for (int chunkStart = 0; chunkStart < leafCount; chunkStart += chunkSize) {
+            int start = chunkStart;
+            int end = Math.min(leafCount, chunkStart + chunkSize);
+            if (fillFromCache(leaves, firstIndex, start, end, width, nowIndex)) {
+                continue;
+            }
+            tasks.add(CompletableFuture.runAsync(
+                    () -> computeChunk(leaves, firstIndex, start, end, width, nowIndex, generation), executor));
+        }
+        try {
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        log.debug("Timestamp checksums from {} to {} - {} buckets, {} chunks queried", fromTs, toTs, leafCount, tasks.size());
+
+        var leafDTOs = new ArrayList<DealChecksumLeafResDTO>(leafCount);
+        for (int i = 0; i < leafCount; i++) {
+            long bucketStart = (firstIndex + i) * width;
+            leafDTOs.add(new DealChecksumLeafResDTO(
+                    FORMATTER.format(LocalDateTime.ofEpochSecond(bucketStart, 0, ZoneOffset.UTC)),
+                    FORMATTER.format(LocalDateTime.ofEpochSecond(bucketStart + width, 0, ZoneOffset.UTC)),
+                    leaves[i].count(),
+                    leaves[i].digest()));
+        }
+        return tree("timestamp", leafDTOs);
+    }
+
+    /** Fills {@code leaves[start, end)} from the cache; false if any bucket still has to be computed. */
+    private boolean fillFromCache(DealChecksumCache.Leaf[] leaves, long firstIndex, int start, int end,
+                                  long width, long nowIndex) {
+        for (int i = start; i < end; i++) {
+            long index = firstIndex + i;
+            var cached = index < nowIndex ? checksumCache.get(width, index) : null;
+            if (isNull(cached)) {
+                return false;
+            }
+            leaves[i] = cached;
+        }
+        return true;
+    }
+
+    private void computeChunk(DealChecksumCache.Leaf[] leaves, long firstIndex, int start, int end,
+                              long width, long nowIndex, long generation) {
+        var computed = new HashMap<Long, Bucket>();
+        var chunkStart = LocalDateTime.ofEpochSecond((firstIndex + start) * width, 0, ZoneOffset.UTC);
+        var chunkEnd = LocalDateTime.ofEpochSecond((firstIndex + end) * width, 0, ZoneOffset.UTC);
+        archive.consistently(() -> {
+            jdbcTemplate.query(con -> {
+                var ps = con.prepareStatement(TIMESTAMP_LEAVES_QUERY);
+                ps.setLong(1, width);
+                ps.setObject(2, chunkStart);
+                ps.setObject(3, chunkEnd);
+                return ps;
+            }, rs -> {
+                computed.computeIfAbsent(rs.getLong(1), index -> new Bucket()).add(rs.getLong(2), rs.getBigDecimal(3));
+            });
+            for (FxDealResDTO deal : archive.findDealsBetween(chunkStart, chunkEnd)) {
+                long index = Math.floorDiv(deal.dealTimestamp().toEpochSecond(ZoneOffset.UTC), width);
+                computed.computeIfAbsent(index, i -> new Bucket()).add(rowHash(deal.dealId(), deal.fromCurrency(),
+                        deal.toCurrency(), deal.dealTimestamp(), deal.dealAmount()));
+            }
+            return null;
+        });
+        for (int i = start; i < end; i++) {
+            long index = firstIndex + i;
+            var bucket = computed.get(index);
+            var leaf = isNull(bucket) ? EMPTY_LEAF : bucket.leaf();
+            leaves[i] = leaf;
+            if (index < nowIndex) {
+                checksumCache.put(width, index, leaf, generation);
+            }
+        }
+    }
+
+    private DealChecksumTreeResDTO dealIdTree() {
+        var buckets = new HashMap<Integer, Bucket>();
+        archive.consistently(() -> {
+            jdbcTemplate.query(DEAL_ID_LEAVES_QUERY, rs -> {
+                buckets.computeIfAbsent(rs.getInt(1), b -> new Bucket()).add(rs.getLong(2), rs.getBigDecimal(3));
+            });
+            for (var file : archive.files()) {
+                for (FxDealChangeResDTO deal : archive.readAll(file)) {
+                    int bucket = md5Bytes(deal.dealId())[0] & 0xFF;
+                    buckets.computeIfAbsent(bucket, b -> new Bucket()).add(rowHash(deal.dealId(), deal.fromCurrency(),
+                            deal.toCurrency(), deal.dealTimestamp(), deal.dealAmount()));
+                }
+            }
+            return null;
+        });
+        var leafDTOs = new ArrayList<DealChecksumLeafResDTO>(DEAL_ID_BUCKETS);
+        for (int bucket = 0; bucket < DEAL_ID_BUCKETS; bucket++) {
+            var leaf = buckets.containsKey(bucket) ? buckets.get(bucket).leaf() : EMPTY_LEAF;
+            leafDTOs.add(new DealChecksumLeafResDTO(
+                    String.format("%02x", bucket),
+                    bucket + 1 < DEAL_ID_BUCKETS ? String.format("%02x", bucket + 1) : "100",
+                    leaf.count(),
+                    leaf.digest()));
+        }
+        return tree("dealId", leafDTOs);
+    }
+
+    /** {@link #ROW_HASH} computed in Java, for deals that are no longer in {@code fx_deals}. */
+    static long rowHash(String dealId, String fromCurrency, String toCurrency, LocalDateTime dealTimestamp,
+                        BigDecimal dealAmount) {
+        return ByteBuffer.wrap(md5Bytes(dealId + "|" + fromCurrency + "|" + toCurrency + "|"
+                + FORMATTER.format(dealTimestamp) + "|" + dealAmount.toPlainString())).getLong();
+    }
+
+    static DealChecksumCache.Leaf leaf(long count, BigDecimal hashSum) {
+        return new DealChecksumCache.Leaf(count, md5(count + ":" + hashSum.toPlainString()));
+    }
+
+    static DealChecksumTreeResDTO tree(String by, List<DealChecksumLeafResDTO> leaves) {
+        var levels = new ArrayList<List<String>>();
+        List<String> level = leaves.stream().map(DealChecksumLeafResDTO::digest).toList();
+        levels.add(level);
+        while (level.size() > 1) {
+            var parents = new ArrayList<String>((level.size() + 1) / 2);
+            for (int i = 0; i < level.size(); i += 2) {
+                parents.add(i + 1 < level.size() ? md5(level.get(i) + level.get(i + 1)) : level.get(i));
+            }
+            level = parents;
+            levels.add(level);
+        }
+        Collections.reverse(levels);
+        long count = leaves.stream().mapToLong(DealChecksumLeafResDTO::count).sum();
+        return new DealChecksumTreeResDTO(by, levels.get(0).get(0), count, levels, leaves);
+    }
+
+    private static String md5(String value) {
+        return HexFormat.of().formatHex(md5Bytes(value));
+    }
+
+    private static byte[] md5Bytes(String value) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private LocalDateTime parseTimestamp(String name, String value) {
+        try {
+            return LocalDateTime.parse(value, FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new FxDealQueryException("Invalid " + name + " timestamp format, should be yyyy-MM-dd HH:mm:ss");
+        }
+    }
+
+    /** Running count and row hash sum of one bucket. */
+    private static final class Bucket {
+        private long count;
+        private BigDecimal hashSum = BigDecimal.ZERO;
+
+        void add(long rows, BigDecimal rowHashSum) {
+            count += rows;
+            hashSum = hashSum.add(rowHashSum);
+        }
+
+        void add(long rowHash) {
+            add(1, BigDecimal.valueOf(rowHash));
+        }
+
+        DealChecksumCache.Leaf leaf() {
+            return FxDealChecksumServiceImpl.leaf(count, hashSum);
+        }
+    }
+}
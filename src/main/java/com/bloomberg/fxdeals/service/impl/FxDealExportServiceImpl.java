@@ -0,0 +1,394 @@
+package com.bloomberg.fxdeals.service.impl;
+
+import com.bloomberg.fxdeals.archive.DealArchive;
+import com.bloomberg.fxdeals.archive.DealArchiveFile;
+import com.bloomberg.fxdeals.dtos.res.DealExportFileResDTO;
+import com.bloomberg.fxdeals.dtos.res.DealExportResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealChangeResDTO;
+import com.bloomberg.fxdeals.exception.FxDealExportUnavailableException;
+import com.bloomberg.fxdeals.exception.FxDealQueryException;
+import com.bloomberg.fxdeals.service.FxDealExportService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.bloomberg.fxdeals.service.impl.FxDealServiceImpl.FORMATTER;
+import static java.util.Objects.isNull;
+
+/**
+ * Exports every deal to CSV files in parallel from a single consistent snapshot.
+ * <p>
+ * A coordinator connection opens a read-only REPEATABLE READ transaction and publishes its snapshot
+ * with {@code pg_export_snapshot()}. Each worker connection adopts that snapshot with
+ * {@code SET TRANSACTION SNAPSHOT} and streams a disjoint range of the table's heap blocks to its own
+ * file through {@code COPY ... TO STDOUT}, so workers never read the same pages and the files
+ * together hold exactly the deals visible at the moment the export started. The coordinator
+ * transaction stays open until every worker has finished.
+ * <p>
+ * The snapshot is taken together with the list of {@link DealArchive} files, with no archive move
+ * committing in between, and the coordinator writes the deals of those files to an extra
+ * {@code archive-00000.csv} part in the same layout while the workers run.
+ * <p>
+ * Exports connect to the primary database through their own pool of {@code max-workers + 1}
+ * connections, which holds no idle connections between exports, so an export never takes
+ * connections away from imports. When a part fails, the COPY statements still running on the other
+ * workers are cancelled on the server and the export returns once every worker has let go of its
+ * connection.
+ */
+@Slf4j
+@Service
+public class FxDealExportServiceImpl implements FxDealExportService {
+    static final String SNAPSHOT_QUERY =
+            "SELECT pg_export_snapshot(), pg_relation_size('fx_deals') / current_setting('block_size')::bigint";
+    static final String COPY_QUERY = "COPY (SELECT deal_id, from_currency, to_currency,"
+            + " to_char(deal_timestamp, 'YYYY-MM-DD HH24:MI:SS') AS deal_timestamp, deal_amount"
+            + " FROM fx_deals WHERE %s) TO STDOUT WITH (FORMAT csv, HEADER)";
+    static final String CSV_HEADER = "deal_id,from_currency,to_currency,deal_timestamp,deal_amount\n";
+    private static final Pattern SNAPSHOT_ID = Pattern.compile("[0-9A-Fa-f-]+");
+    private static final DateTimeFormatter EXPORT_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DealArchive archive;
+    private final Path directory;
+    private final int defaultWorkers;
+    private final int maxWorkers;
+    private final boolean gzip;
+    private final ExecutorService executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public FxDealExportServiceImpl(DataSourceProperties dataSourceProperties,
+                                   DealArchive archive,
+                                   @Value("${fx-deals.export.directory:${java.io.tmpdir}/fx-deals-exports}") Path directory,
+                                   @Value("${fx-deals.export.default-workers:4}") int defaultWorkers,
+                                   @Value("${fx-deals.export.max-workers:8}") int maxWorkers,
+                                   @Value("${fx-deals.export.gzip:true}") boolean gzip) {
+        this(new JdbcTemplate(exportPool(dataSourceProperties, maxWorkers + 1)), archive, directory, defaultWorkers,
+             maxWorkers, gzip);
+    }
+
+    FxDealExportServiceImpl(JdbcTemplate jdbcTemplate, DealArchive archive, Path directory, int defaultWorkers,
+                            int maxWorkers, boolean gzip) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archive = archive;
+        this.directory = directory;
+        this.defaultWorkers = defaultWorkers;
+        this.maxWorkers = maxWorkers;
+        this.gzip = gzip;
+        var threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxWorkers, runnable -> {
+            var thread = new Thread(runnable, "deal-export-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static HikariDataSource exportPool(DataSourceProperties properties, int size) {
+        var dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("fx-deals-export");
+        dataSource.setMaximumPoolSize(size);
+        dataSource.setMinimumIdle(0);
+        dataSource.setIdleTimeout(TimeUnit.SECONDS.toMillis(30));
+        return dataSource;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        if (jdbcTemplate.getDataSource() instanceof HikariDataSource pool) {
+            pool.close();
+        }
+    }
+
+    @Override
+    public DealExportResDTO exportAllDeals(Integer workers) {
+        int workerCount = isNull(workers) ? defaultWorkers : workers;
+        if (workerCount < 1 || workerCount > maxWorkers) {
+            throw new FxDealQueryException("Workers must be between 1 and " + maxWorkers);
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new FxDealExportUnavailableException("A deal export is already running");
+        }
+        try {
+            var exportId = EXPORT_ID_FORMAT.format(LocalDateTime.now(ZoneOffset.UTC)) + "-"
+                    + Integer.toHexString(ThreadLocalRandom.current().nextInt(0x10000, 0x100000));
+            var exportDirectory = directory.resolve(exportId);
+            createDirectories(exportDirectory);
+            try {
+                return jdbcTemplate.execute((ConnectionCallback<DealExportResDTO>) con ->
+                        coordinate(con, exportId, exportDirectory, workerCount));
+            } catch (RuntimeException e) {
+                deleteQuietly(exportDirectory);
+                throw e;
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private DealExportResDTO coordinate(Connection con, String exportId, Path exportDirectory, int workerCount)
+            throws SQLException {
+        long startNanos = System.nanoTime();
+        beginSnapshotTransaction(con);
+        var start = archive.consistently(() -> {
+            try (var statement = con.createStatement(); var rs = statement.executeQuery(SNAPSHOT_QUERY)) {
+                rs.next();
+                return new ExportStart(rs.getString(1), rs.getLong(2), archive.files());
+            }
+        });
+        var snapshot = start.snapshot();
+        long blocks = start.blocks();
+        if (!SNAPSHOT_ID.matcher(snapshot).matches()) {
+            throw new IllegalStateException("Unexpected snapshot identifier " + snapshot);
+        }
+        log.info("Starting deal export {} - Snapshot: {}, Blocks: {}, Workers: {}, Archive files: {}",
+                 exportId, snapshot, blocks, workerCount, start.archived().size());
+
+        var ranges = partition(blocks, workerCount);
+        var workers = new Workers();
+        var tasks = new ArrayList<CompletableFuture<DealExportFileResDTO>>(ranges.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            var file = exportDirectory.resolve(String.format("part-%05d.csv%s", i, gzip ? ".gz" : ""));
+            var range = ranges.get(i);
+            tasks.add(CompletableFuture.supplyAsync(() -> jdbcTemplate.execute(
+                    (ConnectionCallback<DealExportFileResDTO>) worker ->
+                            copyRange(worker, workers, snapshot, range, file)), executor));
+        }
+        var files = new ArrayList<DealExportFileResDTO>(tasks.size() + 1);
+        try {
+            if (!start.archived().isEmpty()) {
+                files.add(writeArchived(start.archived(),
+                                        exportDirectory.resolve(String.format("archive-%05d.csv%s", 0, gzip ? ".gz" : ""))));
+            }
+            tasks.forEach(task -> files.add(task.join()));
+        } catch (CompletionException e) {
+            workers.abort(tasks);
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } catch (RuntimeException e) {
+            workers.abort(tasks);
+            throw e;
+        }
+        con.commit();
+
+        long rows = files.stream().mapToLong(DealExportFileResDTO::rows).sum();
+        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        log.info("Finished deal export {} - {} deals in {} files, {} ms", exportId, rows, files.size(), durationMs);
+        return new DealExportResDTO(exportId, snapshot, exportDirectory.toString(), rows, durationMs, files);
+    }
+
+    private DealExportFileResDTO copyRange(Connection con, Workers workers, String snapshot, BlockRange range,
+                                           Path file) throws SQLException {
+        long rows;
+        workers.register(con);
+        try {
+            beginSnapshotTransaction(con);
+            try (var statement = con.createStatement()) {
+                statement.execute("SET TRANSACTION SNAPSHOT '" + snapshot + "'");
+            }
+            workers.checkNotAborted();
+            try (var out = open(file)) {
+                rows = con.unwrap(PGConnection.class).getCopyAPI().copyOut(String.format(COPY_QUERY, range.predicate()), out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            con.commit();
+        } finally {
+            workers.release(con);
+        }
+        log.debug("Exported {} deals from blocks {} to {}", rows, range.fromBlock(), range.toBlock());
+        try {
+            return new DealExportFileResDTO(file.getFileName().toString(), range.fromBlock(), range.toBlock(), rows,
+                                            Files.size(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Writes the deals of {@code archived} to {@code file} in the CSV layout {@link #COPY_QUERY} produces. */
+    private DealExportFileResDTO writeArchived(List<DealArchiveFile.Metadata> archived, Path file) {
+        long rows = 0;
+        try (var out = new BufferedWriter(new OutputStreamWriter(open(file), StandardCharsets.UTF_8))) {
+            out.write(CSV_HEADER);
+            for (var archiveFile : archived) {
+                for (FxDealChangeResDTO deal : archive.readAll(archiveFile)) {
+                    out.write(csv(deal.dealId()));
+                    out.write(',');
+                    out.write(csv(deal.fromCurrency()));
+                    out.write(',');
+                    out.write(csv(deal.toCurrency()));
+                    out.write(',');
+                    out.write(FORMATTER.format(deal.dealTimestamp()));
+                    out.write(',');
+                    out.write(deal.dealAmount().toPlainString());
+                    out.write('\n');
+                    rows++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.debug("Exported {} deals from {} archive files", rows, archived.size());
+        try {
+            return new DealExportFileResDTO(file.getFileName().toString(), null, null, rows, Files.size(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Quotes {@code value} the way {@code COPY ... (FORMAT csv)} does for a non-null text column. */
+    static String csv(String value) {
+        boolean plain = !value.isEmpty() && !value.equals("\\.")
+                && value.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r');
+        return plain ? value : '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void beginSnapshotTransaction(Connection con) throws SQLException {
+        con.setAutoCommit(false);
+        con.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        con.setReadOnly(true);
+    }
+
+    private OutputStream open(Path file) throws IOException {
+        var out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+        return gzip ? new GZIPOutputStream(out, 1 << 16) : out;
+    }
+
+    /**
+     * Splits {@code blocks} heap blocks into at most {@code workers} contiguous ranges. The last range
+     * is open-ended so nothing is missed if the table grew after its size was read; rows added since
+     * the snapshot are invisible to the workers anyway.
+     */
+    static List<BlockRange> partition(long blocks, int workers) {
+        int count = (int) Math.max(1, Math.min(workers, blocks));
+        long size = blocks / count;
+        long remainder = blocks % count;
+        var ranges = new ArrayList<BlockRange>(count);
+        long start = 0;
+        for (int i = 0; i < count; i++) {
+            long end = start + size + (i < remainder ? 1 : 0);
+            ranges.add(new BlockRange(start, i == count - 1 ? null : end));
+            start = end;
+        }
+        return ranges;
+    }
+
+    private static void createDirectories(Path path) {
+        try {
+            Files.createDirectories(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Could not clean up failed export directory {} - {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Worker connections of one export. Once the export is aborted, workers that have not started
+     * their COPY give up, and the COPY statements already running are cancelled on the server, which
+     * a thread interrupt would not do.
+     */
+    private static final class Workers {
+        private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+        private volatile boolean aborted;
+
+        void register(Connection con) {
+            connections.add(con);
+            checkNotAborted();
+        }
+
+        void release(Connection con) {
+            connections.remove(con);
+        }
+
+        void checkNotAborted() {
+            if (aborted) {
+                throw new CancellationException("Deal export aborted");
+            }
+        }
+
+        /**
+         * Cancels the running COPY statements until every task has finished, since a cancel that
+         * reaches a worker just before its COPY starts has nothing to cancel.
+         */
+        void abort(List<? extends CompletableFuture<?>> tasks) {
+            aborted = true;
+            var finished = CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new));
+            while (!finished.isDone()) {
+                connections.forEach(Workers::cancel);
+                try {
+                    finished.get(100, TimeUnit.MILLISECONDS);
+                } catch (ExecutionException | TimeoutException e) {
+                    // A worker failed or is still stopping; checked again on the next round
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private static void cancel(Connection con) {
+            try {
+                con.unwrap(PGConnection.class).cancelQuery();
+            } catch (SQLException e) {
+                log.warn("Could not cancel export worker query - {}", e.getMessage());
+            }
+        }
+    }
+
+    private record ExportStart(String snapshot, long blocks, List<DealArchiveFile.Metadata> archived) {
+    }
+
+    record BlockRange(long fromBlock, Long toBlock) {
+        String predicate() {
+            var lower = "ctid >= '(" + fromBlock + ",0)'::tid";
+            return isNull(toBlock) ? lower : lower + " AND ctid < '(" + toBlock + ",0)'::tid";
+        }
+    }
+}
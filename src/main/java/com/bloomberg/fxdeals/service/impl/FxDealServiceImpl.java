@@ -1,24 +1,55 @@
 package com.bloomberg.fxdeals.service.impl;
 
+import com.bloomberg.fxdeals.archive.DealArchive;
+import com.bloomberg.fxdeals.archive.DealArchiveFile;
+import com.bloomberg.fxdeals.cache.DealRangeCache;
+import com.bloomberg.fxdeals.dtos.req.DealField;
 import com.bloomberg.fxdeals.dtos.req.FxDealReqDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealChangeResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealChangesResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealExistenceResDTO;
 import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
 import com.bloomberg.fxdeals.dtos.res.RejectedFxDealResDTO;
+import com.bloomberg.fxdeals.dtos.res.RejectionReason;
+import com.bloomberg.fxdeals.event.FxDealsImportedEvent;
 import com.bloomberg.fxdeals.exception.FxDealBatchImportException;
+import com.bloomberg.fxdeals.exception.FxDealQueryException;
 import com.bloomberg.fxdeals.exception.FxDealSingleImportException;
+import com.bloomberg.fxdeals.jfr.DealImportEvent;
+import com.bloomberg.fxdeals.logging.ImportLogGovernor;
 import com.bloomberg.fxdeals.mappers.FxDealMapper;
+import com.bloomberg.fxdeals.metrics.ImportMetrics;
+import com.bloomberg.fxdeals.metrics.IngestionStatistics;
+import com.bloomberg.fxdeals.repository.DealChangeHorizon;
+import com.bloomberg.fxdeals.repository.FxDealProjectionRepository;
 import com.bloomberg.fxdeals.repository.FxDealRepository;
 import com.bloomberg.fxdeals.service.FxDealService;
+import com.fasterxml.jackson.core.JsonGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Currency;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static java.util.Objects.isNull;
@@ -28,8 +59,20 @@ import static java.util.Objects.isNull;
 @RequiredArgsConstructor
 public class FxDealServiceImpl implements FxDealService {
     public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    static final int DEFAULT_CHANGES_LIMIT = 500;
+    static final int MAX_CHANGES_LIMIT = 5_000;
+    static final int MAX_EXISTENCE_IDS = 50_000;
+    static final int EXISTENCE_CHUNK_SIZE = 5_000;
     private final FxDealRepository repo;
+    private final FxDealProjectionRepository projectionRepo;
+    private final DealChangeHorizon changeHorizon;
     private final FxDealMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DealRangeCache rangeCache;
+    private final DealArchive archive;
+    private final ImportMetrics metrics;
+    private final ImportLogGovernor logGovernor;
+    private final IngestionStatistics ingestion;
 
     @Override
     public FxDealResDTO importSingleDeal(FxDealReqDTO fxDealReq) {
@@ -38,160 +81,686 @@ public class FxDealServiceImpl implements FxDealService {
                   fxDealReq.fromCurrency(), fxDealReq.toCurrency(),
                   fxDealReq.dealAmount(), fxDealReq.dealTimestamp());
 
-        var validationMsgs = validateImport(fxDealReq);
-        if (!validationMsgs.isEmpty()) {
-            log.warn("Validation failed for deal ID: {} - Errors: {}", fxDealReq.dealId(), validationMsgs);
-            throw new FxDealSingleImportException(RejectedFxDealResDTO.builder()
-                    .dealId(fxDealReq.dealId())
-                    .validationMsgs(validationMsgs)
-                    .build());
-        }
+        var importEvent = DealImportEvent.start(ImportMetrics.Operation.SINGLE, fxDealReq.dealId(), 1);
+        var inFlight = ingestion.start(ImportMetrics.Operation.SINGLE, 1);
+        FxDealResDTO savedDeal;
+        try {
+            var rejections = validateImport(fxDealReq, ImportMetrics.Operation.SINGLE);
+            if (!rejections.isEmpty()) {
+                var rejectedFxDeal = rejected(fxDealReq.dealId(), rejections);
+                importEvent.rejected(rejectedFxDeal.reasons());
+                inFlight.rejected();
+                log.warn("Validation failed for deal ID: {} - Errors: {}", fxDealReq.dealId(), rejectedFxDeal.validationMsgs());
+                throw new FxDealSingleImportException(rejectedFxDeal);
+            }
 
-        var savedFxDeal = repo.save(mapper.toEntity(fxDealReq));
-        log.info("Successfully saved deal with ID: {}", savedFxDeal.getDealId());
-        return mapper.toDTO(savedFxDeal);
+            savedDeal = save(fxDealReq, ImportMetrics.Operation.SINGLE);
+            importEvent.saved();
+            inFlight.saved();
+        } finally {
+            importEvent.finish();
+            inFlight.finish();
+        }
+        log.info("Successfully saved deal with ID: {}", fxDealReq.dealId());
+        eventPublisher.publishEvent(new FxDealsImportedEvent(List.of(savedDeal)));
+        return savedDeal;
     }
 
     @Override
     public List<FxDealResDTO> importBatchDeals(List<FxDealReqDTO> fxDealReqs) {
         log.info("Starting batch import for {} deals", fxDealReqs.size());
+        metrics.recordBatchSize(fxDealReqs.size());
         var rejectedFxDeals = new ArrayList<RejectedFxDealResDTO>();
         var  validatedFxDeals = new ArrayList<FxDealResDTO>();
+        var batchLog = logGovernor.batch(log, fxDealReqs.size());
+        var inFlight = ingestion.start(ImportMetrics.Operation.BATCH, fxDealReqs.size());
 
-        fxDealReqs.forEach(fxDealReq -> {
-            log.debug("Processing deal ID: {} in batch", fxDealReq.dealId());
-            var validationMsgs = validateImport(fxDealReq);
-            if(validationMsgs.isEmpty()){
+        try {
+            fxDealReqs.forEach(fxDealReq -> {
+                log.debug("Processing deal ID: {} in batch", fxDealReq.dealId());
+                var importEvent = DealImportEvent.start(ImportMetrics.Operation.BATCH, fxDealReq.dealId(), fxDealReqs.size());
                 try {
-                    var savedFxDeal = repo.save(mapper.toEntity(fxDealReq));
-                    validatedFxDeals.add(mapper.toDTO(savedFxDeal));
-                    log.info("Successfully saved deal ID: {} in batch", savedFxDeal.getDealId());
-                } catch (Exception e) {
-                    log.error("Failed to save deal ID: {} in batch - Error: {}", fxDealReq.dealId(), e.getMessage(), e);
-                    rejectedFxDeals.add(RejectedFxDealResDTO.builder()
-                            .dealId(fxDealReq.dealId())
-                            .validationMsgs(List.of("Database error: " + e.getMessage()))
-                            .build());
+                    var rejections = validateImport(fxDealReq, ImportMetrics.Operation.BATCH);
+                    if(rejections.isEmpty()){
+                        try {
+                            validatedFxDeals.add(save(fxDealReq, ImportMetrics.Operation.BATCH));
+                            importEvent.saved();
+                            inFlight.saved();
+                            batchLog.saved(fxDealReq.dealId());
+                        } catch (Exception e) {
+                            var failedFxDeal = rejected(fxDealReq.dealId(), List.of(
+                                    new Rejection(RejectionReason.PERSISTENCE_ERROR, "Database error: " + e.getMessage())));
+                            inFlight.rejected();
+                            batchLog.failed(failedFxDeal, e);
+                            rejectedFxDeals.add(failedFxDeal);
+                        }
+                    } else {
+                        var rejectedFxDeal = rejected(fxDealReq.dealId(), rejections);
+                        importEvent.rejected(rejectedFxDeal.reasons());
+                        inFlight.rejected();
+                        batchLog.rejected(rejectedFxDeal);
+                        rejectedFxDeals.add(rejectedFxDeal);
+                    }
+                } finally {
+                    importEvent.finish();
                 }
-            } else {
-                log.warn("Validation failed for deal ID: {} in batch - Errors: {}", fxDealReq.dealId(), validationMsgs);
-                rejectedFxDeals.add(RejectedFxDealResDTO.builder()
-                        .dealId(fxDealReq.dealId())
-                        .validationMsgs(validationMsgs)
-                        .build());
-            }
-        });
+            });
+        } finally {
+            inFlight.finish();
+        }
 
+        if (!validatedFxDeals.isEmpty()) {
+            eventPublisher.publishEvent(new FxDealsImportedEvent(List.copyOf(validatedFxDeals)));
+        }
+
+        batchLog.finish();
         if(!rejectedFxDeals.isEmpty()) {
-            log.warn("Batch import completed with {} rejected deals and {} successful deals",
-                     rejectedFxDeals.size(), validatedFxDeals.size());
             throw new FxDealBatchImportException(rejectedFxDeals, validatedFxDeals);
         }
-
-        log.info("Batch import completed successfully with {} deals", validatedFxDeals.size());
         return validatedFxDeals;
     }
 
+    /**
+     * Lists {@code fx_deals} followed by the archived deals. An archived deal the table still returned
+     * is listed once. Runs in a read-write transaction so it reads the primary: the listing is cached
+     * per {@link com.bloomberg.fxdeals.cache.DealReadVersion}, which a lagging replica may not have
+     * caught up with.
+     */
     @Override
+    @Transactional
     public List<FxDealResDTO> getAllDeals() {
         log.info("Fetching all deals from database");
-        var deals = mapper.toDTOs(repo.findAll());
-        log.info("Retrieved {} deals from database", deals.size());
+        return archive.consistently(() -> {
+            var files = archive.files();
+            var archivedThrough = archivedThrough(files);
+            var deals = new ArrayList<>(repo.findAllProjected());
+            int hot = deals.size();
+            var listed = new HashSet<String>();
+            if (!isNull(archivedThrough)) {
+                for (FxDealResDTO deal : deals) {
+                    if (!deal.dealTimestamp().isAfter(archivedThrough)) {
+                        listed.add(deal.dealId());
+                    }
+                }
+            }
+            for (var file : files) {
+                for (FxDealChangeResDTO deal : archive.readAll(file)) {
+                    if (!listed.contains(deal.dealId())) {
+                        deals.add(new FxDealResDTO(deal.dealId(), deal.fromCurrency(), deal.toCurrency(),
+                                                   deal.dealTimestamp(), deal.dealAmount()));
+                    }
+                }
+            }
+            log.info("Retrieved {} deals from database and {} from the archive", hot, deals.size() - hot);
+            return deals;
+        });
+    }
+
+    /**
+     * Writes every deal as an array of objects holding only {@code fields}, straight from the JDBC
+     * result set to {@code generator} without materializing DTOs, followed by the archived deals.
+     * While the archive holds files the deal ID and timestamp are selected too, so an archived deal the
+     * table still returned is written once. Reads the primary, like {@link #getAllDeals()}.
+     */
+    @Override
+    public void writeAllDeals(Set<DealField> fields, JsonGenerator generator) throws IOException {
+        log.info("Streaming all deals with fields {}", fields);
+        generator.writeStartArray();
+        long[] count = archive.consistently(() -> {
+            var files = archive.files();
+            var archivedThrough = archivedThrough(files);
+            var columns = EnumSet.copyOf(fields);
+            if (!isNull(archivedThrough)) {
+                columns.add(DealField.DEAL_ID);
+                columns.add(DealField.DEAL_TIMESTAMP);
+            }
+            var values = new Object[DealField.values().length];
+            var listed = new HashSet<String>();
+            var written = new long[2];
+            try {
+                projectionRepo.streamDeals(columns, rs -> {
+                    readFields(rs, 1, columns, values);
+                    if (!isNull(archivedThrough)
+                            && !((LocalDateTime) values[DealField.DEAL_TIMESTAMP.ordinal()]).isAfter(archivedThrough)) {
+                        listed.add((String) values[DealField.DEAL_ID.ordinal()]);
+                    }
+                    try {
+                        writeDeal(generator, fields, values);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    written[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            for (var file : files) {
+                for (FxDealChangeResDTO deal : archive.readAll(file)) {
+                    if (!listed.contains(deal.dealId())) {
+                        setValues(values, deal.dealId(), deal.fromCurrency(), deal.toCurrency(), deal.dealTimestamp(),
+                                  deal.dealAmount());
+                        writeDeal(generator, fields, values);
+                        written[1]++;
+                    }
+                }
+            }
+            return written;
+        });
+        generator.writeEndArray();
+        log.info("Streamed {} deals and {} archived deals with fields {}", count[0], count[1], fields);
+    }
+
+    /** Writes one object holding {@code fields}, taking each value from {@code values} at the field's ordinal. */
+    private static void writeDeal(JsonGenerator generator, Set<DealField> fields, Object[] values) throws IOException {
+        generator.writeStartObject();
+        writeFields(generator, fields, values);
+        generator.writeEndObject();
+    }
+
+    private static void writeFields(JsonGenerator generator, Set<DealField> fields, Object[] values) throws IOException {
+        for (DealField field : fields) {
+            generator.writeFieldName(field.jsonName());
+            var value = values[field.ordinal()];
+            switch (field) {
+                case DEAL_TIMESTAMP -> generator.writeString(FORMATTER.format((LocalDateTime) value));
+                case DEAL_AMOUNT -> generator.writeNumber((BigDecimal) value);
+                default -> generator.writeString((String) value);
+            }
+        }
+    }
+
+    /** Reads {@code fields}, in iteration order from result set column {@code column} on, into {@code values}. */
+    private static void readFields(ResultSet rs, int column, Set<DealField> fields, Object[] values) throws SQLException {
+        for (DealField field : fields) {
+            values[field.ordinal()] = switch (field) {
+                case DEAL_TIMESTAMP -> rs.getTimestamp(column).toLocalDateTime();
+                case DEAL_AMOUNT -> rs.getBigDecimal(column);
+                default -> rs.getString(column);
+            };
+            column++;
+        }
+    }
+
+    private static void setValues(Object[] values, String dealId, String fromCurrency, String toCurrency,
+                                  LocalDateTime dealTimestamp, BigDecimal dealAmount) {
+        values[DealField.DEAL_ID.ordinal()] = dealId;
+        values[DealField.FROM_CURRENCY.ordinal()] = fromCurrency;
+        values[DealField.TO_CURRENCY.ordinal()] = toCurrency;
+        values[DealField.DEAL_TIMESTAMP.ordinal()] = dealTimestamp;
+        values[DealField.DEAL_AMOUNT.ordinal()] = dealAmount;
+    }
+
+    /** The latest deal timestamp in {@code files}, or {@code null} when there are none. */
+    private static LocalDateTime archivedThrough(List<DealArchiveFile.Metadata> files) {
+        LocalDateTime through = null;
+        for (var file : files) {
+            through = isNull(through) || file.maxTimestamp().isAfter(through) ? file.maxTimestamp() : through;
+        }
+        return through;
+    }
+
+    /**
+     * Returns up to {@code limit} deals ingested after the {@code after} watermark and at or below the
+     * {@link DealChangeHorizon}, so no deal that commits later can land behind the returned watermark.
+     * The returned watermark is the last sequence in the page (or {@code after} when nothing is new),
+     * so it can be passed straight back as the next {@code after}. Archived deals keep their sequence
+     * and are merged into the page. Not transactional: the horizon and the page are both read on the
+     * primary, which a read-only transaction could route away from.
+     */
+    @Override
+    public FxDealChangesResDTO getChangesAfter(Long after, Integer limit) {
+        long watermark = changesWatermark(after);
+        int pageSize = changesPageSize(limit);
+
+        long horizon = changeHorizon.current();
+        if (watermark >= horizon) {
+            return new FxDealChangesResDTO(List.of(), watermark, false);
+        }
+        log.info("Fetching up to {} deal changes after sequence {} up to {}", pageSize, watermark, horizon);
+        var changes = archive.consistently(() -> mergeBySequence(
+                repo.findChangesAfter(watermark, horizon, Limit.of(pageSize + 1)),
+                archive.findChangesBetween(watermark, horizon, pageSize + 1), pageSize + 1));
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes.remove(pageSize);
+        }
+        long nextAfter = changes.isEmpty() ? watermark : changes.get(changes.size() - 1).ingestSeq();
+        log.info("Retrieved {} deal changes, next watermark {}", changes.size(), nextAfter);
+        return new FxDealChangesResDTO(List.copyOf(changes), nextAfter, hasMore);
+    }
+
+    /**
+     * Writes the page {@link #getChangesAfter} would return, with each change holding its ingestion
+     * sequence and only {@code fields}. Deals in {@code fx_deals} are read with a SELECT of just those
+     * columns and written as they arrive, merged with the archived deals of the page by sequence.
+     */
+    @Override
+    public void writeChangesAfter(Long after, Integer limit, Set<DealField> fields, JsonGenerator generator)
+            throws IOException {
+        long watermark = changesWatermark(after);
+        int pageSize = changesPageSize(limit);
+
+        long horizon = changeHorizon.current();
+        var page = new ChangesPage(generator, fields, pageSize, watermark);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("changes");
+        if (watermark < horizon) {
+            log.info("Streaming up to {} deal changes after sequence {} up to {} with fields {}", pageSize, watermark,
+                     horizon, fields);
+            archive.consistently(() -> {
+                var archived = archive.findChangesBetween(watermark, horizon, pageSize + 1);
+                var values = new Object[DealField.values().length];
+                int[] next = {0};
+                try {
+                    projectionRepo.streamChanges(fields, watermark, horizon, pageSize + 1, rs -> {
+                        long ingestSeq = rs.getLong(1);
+                        readFields(rs, 2, fields, values);
+                        try {
+                            while (next[0] < archived.size() && archived.get(next[0]).ingestSeq() < ingestSeq) {
+                                page.add(archived.get(next[0]++));
+                            }
+                            page.add(ingestSeq, values);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                while (next[0] < archived.size()) {
+                    page.add(archived.get(next[0]++));
+                }
+                return null;
+            });
+        }
+        generator.writeEndArray();
+        generator.writeNumberField("nextAfter", page.nextAfter);
+        generator.writeBooleanField("hasMore", page.hasMore);
+        generator.writeEndObject();
+        log.info("Streamed {} deal changes, next watermark {}", page.written, page.nextAfter);
+    }
+
+    private static long changesWatermark(Long after) {
+        long watermark = isNull(after) ? 0 : after;
+        if (watermark < 0) {
+            throw new FxDealQueryException("After must be zero or a positive sequence number");
+        }
+        return watermark;
+    }
+
+    private static int changesPageSize(Integer limit) {
+        int pageSize = isNull(limit) ? DEFAULT_CHANGES_LIMIT : limit;
+        if (pageSize <= 0 || pageSize > MAX_CHANGES_LIMIT) {
+            throw new FxDealQueryException("Limit must be between 1 and " + MAX_CHANGES_LIMIT);
+        }
+        return pageSize;
+    }
+
+    /** A change page being written: changes past the page size only mark that there are more. */
+    private static final class ChangesPage {
+        private final JsonGenerator generator;
+        private final Set<DealField> fields;
+        private final int pageSize;
+        private final Object[] archivedValues = new Object[DealField.values().length];
+        private int written;
+        private long nextAfter;
+        private boolean hasMore;
+
+        private ChangesPage(JsonGenerator generator, Set<DealField> fields, int pageSize, long watermark) {
+            this.generator = generator;
+            this.fields = fields;
+            this.pageSize = pageSize;
+            this.nextAfter = watermark;
+        }
+
+        private void add(FxDealChangeResDTO change) throws IOException {
+            setValues(archivedValues, change.dealId(), change.fromCurrency(), change.toCurrency(),
+                      change.dealTimestamp(), change.dealAmount());
+            add(change.ingestSeq(), archivedValues);
+        }
+
+        private void add(long ingestSeq, Object[] values) throws IOException {
+            if (written == pageSize) {
+                hasMore = true;
+                return;
+            }
+            generator.writeStartObject();
+            generator.writeNumberField("ingestSeq", ingestSeq);
+            writeFields(generator, fields, values);
+            generator.writeEndObject();
+            written++;
+            nextAfter = ingestSeq;
+        }
+    }
+
+    /** Merges two lists sorted by ingestion sequence into the first {@code limit} changes. */
+    private static List<FxDealChangeResDTO> mergeBySequence(List<FxDealChangeResDTO> hot,
+                                                            List<FxDealChangeResDTO> archived, int limit) {
+        var merged = new ArrayList<FxDealChangeResDTO>(Math.min(limit, hot.size() + archived.size()));
+        int h = 0;
+        int a = 0;
+        while (merged.size() < limit && (h < hot.size() || a < archived.size())) {
+            int cmp = h == hot.size() ? 1 : a == archived.size() ? -1
+                    : Long.compare(hot.get(h).ingestSeq(), archived.get(a).ingestSeq());
+            if (cmp <= 0) {
+                merged.add(hot.get(h++));
+                a += cmp == 0 ? 1 : 0;
+            } else {
+                merged.add(archived.get(a++));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Assembles the range from {@link DealRangeCache} buckets. Consecutive uncached buckets are read
+     * with one query, merged with any archived deals in the same span and split afterwards; only
+     * buckets that have already ended are cached, and the first and last bucket are trimmed to the
+     * requested bounds.
+     */
+    @Override
+    public List<FxDealResDTO> getDealsInRange(String from, String to) {
+        if (isNull(from) || isNull(to)) {
+            throw new FxDealQueryException("From and to are required");
+        }
+        var fromTs = parseQueryTimestamp("from", from);
+        var toTs = parseQueryTimestamp("to", to);
+        if (!toTs.isAfter(fromTs)) {
+            throw new FxDealQueryException("To must be after from");
+        }
+        long firstIndex = rangeCache.bucketIndex(fromTs);
+        long endIndex = rangeCache.bucketIndex(toTs.minusNanos(1)) + 1;
+        if (endIndex - firstIndex > rangeCache.maxQueryBuckets()) {
+            throw new FxDealQueryException("Range spans more than " + rangeCache.maxQueryBuckets() + " buckets");
+        }
+        long nowIndex = rangeCache.bucketIndex(LocalDateTime.now(ZoneOffset.UTC));
+
+        int bucketCount = (int) (endIndex - firstIndex);
+        var buckets = new ArrayList<List<FxDealResDTO>>(bucketCount);
+        int cached = 0;
+        for (long index = firstIndex; index < endIndex; index++) {
+            var bucket = index < nowIndex ? rangeCache.get(index) : null;
+            buckets.add(bucket);
+            cached += isNull(bucket) ? 0 : 1;
+        }
+        int start = 0;
+        while (start < bucketCount) {
+            if (!isNull(buckets.get(start))) {
+                start++;
+                continue;
+            }
+            int end = start + 1;
+            while (end < bucketCount && isNull(buckets.get(end))) {
+                end++;
+            }
+            loadBuckets(buckets, firstIndex, start, end, nowIndex);
+            start = end;
+        }
+        log.info("Retrieved deals from {} to {} - {} buckets, {} from cache", fromTs, toTs, bucketCount, cached);
+
+        var deals = new ArrayList<FxDealResDTO>();
+        for (var bucket : buckets) {
+            for (FxDealResDTO deal : bucket) {
+                if (!deal.dealTimestamp().isBefore(fromTs) && deal.dealTimestamp().isBefore(toTs)) {
+                    deals.add(deal);
+                }
+            }
+        }
         return deals;
     }
 
-    private List<String> validateImport(FxDealReqDTO req) {
-        return Stream.of(
-                validateDealId(req.dealId()),
+    /** Writes the deals {@link #getDealsInRange} returns as an array of objects holding only {@code fields}. */
+    @Override
+    public void writeDealsInRange(String from, String to, Set<DealField> fields, JsonGenerator generator)
+            throws IOException {
+        var deals = getDealsInRange(from, to);
+        var values = new Object[DealField.values().length];
+        generator.writeStartArray();
+        for (FxDealResDTO deal : deals) {
+            setValues(values, deal.dealId(), deal.fromCurrency(), deal.toCurrency(), deal.dealTimestamp(),
+                      deal.dealAmount());
+            writeDeal(generator, fields, values);
+        }
+        generator.writeEndArray();
+        log.info("Wrote {} deals in range with fields {}", deals.size(), fields);
+    }
+
+    private void loadBuckets(List<List<FxDealResDTO>> buckets, long firstIndex, int start, int end, long nowIndex) {
+        var versions = new long[end - start];
+        for (int i = start; i < end; i++) {
+            versions[i - start] = rangeCache.version(firstIndex + i);
+        }
+        var spanStart = rangeCache.bucketStart(firstIndex + start);
+        var spanEnd = rangeCache.bucketStart(firstIndex + end);
+        var deals = archive.consistently(
+                () -> merge(repo.findDealsBetween(spanStart, spanEnd), archive.findDealsBetween(spanStart, spanEnd)));
+        int next = 0;
+        for (int i = start; i < end; i++) {
+            long index = firstIndex + i;
+            int bucketStart = next;
+            while (next < deals.size() && rangeCache.bucketIndex(deals.get(next).dealTimestamp()) == index) {
+                next++;
+            }
+            var bucket = deals.subList(bucketStart, next);
+            buckets.set(i, bucket);
+            if (index < nowIndex) {
+                rangeCache.put(index, bucket, versions[i - start]);
+            }
+        }
+    }
+
+    /**
+     * Merges two lists sorted by timestamp and deal ID. A deal present in both, as happens while it is
+     * being archived, is kept once.
+     */
+    private static List<FxDealResDTO> merge(List<FxDealResDTO> hot, List<FxDealResDTO> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        var order = DealArchiveFile.timestampOrder();
+        var merged = new ArrayList<FxDealResDTO>(hot.size() + archived.size());
+        int h = 0;
+        int a = 0;
+        while (h < hot.size() || a < archived.size()) {
+            int cmp = h == hot.size() ? 1 : a == archived.size() ? -1 : order.compare(hot.get(h), archived.get(a));
+            if (cmp <= 0) {
+                merged.add(hot.get(h++));
+                a += cmp == 0 ? 1 : 0;
+            } else {
+                merged.add(archived.get(a++));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Splits the (de-duplicated) IDs into chunks of {@value #EXISTENCE_CHUNK_SIZE} and resolves each
+     * chunk with one {@code = ANY(...)} query; IDs not found there are then looked up in the deal
+     * archive together. Both lookups run under {@link DealArchive#consistently}, so a deal being
+     * archived meanwhile is found in one place or the other. Both result lists keep the request order.
+     */
+    @Override
+    public FxDealExistenceResDTO checkExistingDeals(List<String> dealIds) {
+        if (isNull(dealIds)) {
+            throw new FxDealQueryException("Deal IDs are required");
+        }
+        if (dealIds.size() > MAX_EXISTENCE_IDS) {
+            throw new FxDealQueryException("At most " + MAX_EXISTENCE_IDS + " deal IDs can be checked per request");
+        }
+        var uniqueIds = new LinkedHashSet<String>(dealIds.size() * 2);
+        for (String dealId : dealIds) {
+            if (isBlank(dealId)) {
+                throw new FxDealQueryException("Deal IDs must not be blank");
+            }
+            uniqueIds.add(dealId);
+        }
+
+        log.info("Checking existence of {} deal IDs", uniqueIds.size());
+        var ids = uniqueIds.toArray(String[]::new);
+        var found = archive.consistently(() -> {
+            var inTable = new HashSet<String>();
+            for (int from = 0; from < ids.length; from += EXISTENCE_CHUNK_SIZE) {
+                var chunk = Arrays.copyOfRange(ids, from, Math.min(ids.length, from + EXISTENCE_CHUNK_SIZE));
+                inTable.addAll(repo.findExistingDealIds(chunk));
+            }
+            var unknown = new ArrayList<String>(ids.length - inTable.size());
+            for (String id : ids) {
+                if (!inTable.contains(id)) {
+                    unknown.add(id);
+                }
+            }
+            inTable.addAll(archive.findDealIds(unknown));
+            return inTable;
+        });
+
+        var existing = new ArrayList<String>(found.size());
+        var missing = new ArrayList<String>(ids.length - found.size());
+        for (String id : ids) {
+            (found.contains(id) ? existing : missing).add(id);
+        }
+        log.info("Found {} existing and {} missing deal IDs", existing.size(), missing.size());
+        return new FxDealExistenceResDTO(existing, missing);
+    }
+
+    /** Maps and persists a validated deal; both mapping directions are timed together as one map stage. */
+    private FxDealResDTO save(FxDealReqDTO fxDealReq, ImportMetrics.Operation operation) {
+        long mapStart = System.nanoTime();
+        var fxDeal = mapper.toEntity(fxDealReq);
+        long mapNanos = System.nanoTime() - mapStart;
+        var savedFxDeal = metrics.record(ImportMetrics.Stage.PERSIST, operation, () -> repo.save(fxDeal));
+        mapStart = System.nanoTime();
+        var savedDeal = mapper.toDTO(savedFxDeal);
+        metrics.record(ImportMetrics.Stage.MAP, operation, mapNanos + System.nanoTime() - mapStart);
+        return savedDeal;
+    }
+
+    private RejectedFxDealResDTO rejected(String dealId, List<Rejection> rejections) {
+        metrics.recordRejections(rejections.stream().map(Rejection::reason).toList());
+        return RejectedFxDealResDTO.builder()
+                .dealId(dealId)
+                .validationMsgs(rejections.stream().map(Rejection::message).toList())
+                .reasons(rejections.stream().map(Rejection::reason).toList())
+                .build();
+    }
+
+    /**
+     * Field checks are timed as the validate stage and the duplicate lookup as the duplicate check
+     * stage; a deal ID rejection is still reported first.
+     */
+    private List<Rejection> validateImport(FxDealReqDTO req, ImportMetrics.Operation operation) {
+        long validateStart = System.nanoTime();
+        var fieldRejections = Stream.of(
                 validateFromCurrency(req.fromCurrency()),
                 validateToCurrency(req.toCurrency()),
                 validateCurrenciesNotSame(req),
                 validateDealTimestamp(req.dealTimestamp()),
                 validateDealAmount(req.dealAmount())
-        ).filter(msg -> !msg.isBlank()).toList();
+        ).filter(Objects::nonNull).toList();
+        metrics.record(ImportMetrics.Stage.VALIDATE, operation, System.nanoTime() - validateStart);
+
+        var dealIdRejection = validateDealId(req.dealId(), operation);
+        if (isNull(dealIdRejection)) {
+            return fieldRejections;
+        }
+        var rejections = new ArrayList<Rejection>(fieldRejections.size() + 1);
+        rejections.add(dealIdRejection);
+        rejections.addAll(fieldRejections);
+        return rejections;
     }
 
-    private String validateDealTimestamp(String dealTimestamp) {
+    private Rejection validateDealTimestamp(String dealTimestamp) {
         if (isBlank(dealTimestamp))
-            return "Deal timestamp is required";
+            return new Rejection(RejectionReason.DEAL_TIMESTAMP_REQUIRED, "Deal timestamp is required");
         else {
             try {
                 LocalDateTime.parse(dealTimestamp, FORMATTER);
             } catch (DateTimeParseException e) {
-                return "Invalid deal timestamp format, should be yyyy-MM-dd HH:mm:ss";
+                return new Rejection(RejectionReason.INVALID_DEAL_TIMESTAMP, "Invalid deal timestamp format, should be yyyy-MM-dd HH:mm:ss");
             }
         }
-        return "";
+        return null;
     }
 
-    private String validateCurrenciesNotSame(FxDealReqDTO req) {
+    private Rejection validateCurrenciesNotSame(FxDealReqDTO req) {
         if(!isBlank(req.fromCurrency()) && !isBlank(req.toCurrency())
             && req.fromCurrency().equals(req.toCurrency()))
-            return "From currency and To currency must be different";
-        return "";
+            return new Rejection(RejectionReason.SAME_CURRENCIES, "From currency and To currency must be different");
+        return null;
     }
 
-    private String validateFromCurrency(String fromCurrency) {
+    private Rejection validateFromCurrency(String fromCurrency) {
         if(isBlank(fromCurrency)) {
-            log.warn("From currency validation failed: From currency is missing");
-            return "From currency is required";
+            logGovernor.warn(log, RejectionReason.FROM_CURRENCY_REQUIRED, "From currency validation failed: From currency is missing");
+            return new Rejection(RejectionReason.FROM_CURRENCY_REQUIRED, "From currency is required");
         } else {
             try {
                 Currency.getInstance(fromCurrency);
             } catch (IllegalArgumentException e) {
-                log.warn("From currency validation failed: Invalid ISO currency code: {}", fromCurrency);
-                return "From currency must be a valid ISO currency";
+                logGovernor.warn(log, RejectionReason.INVALID_FROM_CURRENCY, "From currency validation failed: Invalid ISO currency code: {}", fromCurrency);
+                return new Rejection(RejectionReason.INVALID_FROM_CURRENCY, "From currency must be a valid ISO currency");
             }
         }
-        return "";
+        return null;
     }
 
-    private String validateToCurrency(String toCurrency) {
+    private Rejection validateToCurrency(String toCurrency) {
         if(isBlank(toCurrency)) {
-            log.warn("To currency validation failed: To currency is missing");
-            return "To currency is required";
+            logGovernor.warn(log, RejectionReason.TO_CURRENCY_REQUIRED, "To currency validation failed: To currency is missing");
+            return new Rejection(RejectionReason.TO_CURRENCY_REQUIRED, "To currency is required");
         }
         try {
             Currency.getInstance(toCurrency);
         } catch (IllegalArgumentException e) {
-            log.warn("To currency validation failed: Invalid ISO currency code: {}", toCurrency);
-            return "To currency must be a valid ISO currency";
+            logGovernor.warn(log, RejectionReason.INVALID_TO_CURRENCY, "To currency validation failed: Invalid ISO currency code: {}", toCurrency);
+            return new Rejection(RejectionReason.INVALID_TO_CURRENCY, "To currency must be a valid ISO currency");
         }
-        return "";
+        return null;
     }
 
-    private String validateDealId(String dealId) {
+    private Rejection validateDealId(String dealId, ImportMetrics.Operation operation) {
         if(isBlank(dealId)) {
-            log.warn("Deal ID validation failed: Deal ID is missing");
-            return "Deal Id is required";
-        } else if(repo.existsById(dealId)) {
-            log.warn("Deal ID validation failed: Duplicate deal ID detected: {}", dealId);
-            return "Deal with id " + dealId + " already exists";
+            logGovernor.warn(log, RejectionReason.DEAL_ID_REQUIRED, "Deal ID validation failed: Deal ID is missing");
+            return new Rejection(RejectionReason.DEAL_ID_REQUIRED, "Deal Id is required");
+        } else if(metrics.record(ImportMetrics.Stage.DUPLICATE_CHECK, operation, () -> archive.consistently(
+                () -> repo.existsById(dealId) || archive.containsDealId(dealId)))) {
+            logGovernor.warn(log, RejectionReason.DUPLICATE_DEAL_ID, "Deal ID validation failed: Duplicate deal ID detected: {}", dealId);
+            return new Rejection(RejectionReason.DUPLICATE_DEAL_ID, "Deal with id " + dealId + " already exists");
         }
 
-        return "";
+        return null;
     }
 
-    private String validateDealAmount(String dealAmount) {
+    private Rejection validateDealAmount(String dealAmount) {
         if (isBlank(dealAmount)) {
-            log.warn("Deal amount validation failed: Deal amount is missing");
-            return "Deal amount is required";
+            logGovernor.warn(log, RejectionReason.DEAL_AMOUNT_REQUIRED, "Deal amount validation failed: Deal amount is missing");
+            return new Rejection(RejectionReason.DEAL_AMOUNT_REQUIRED, "Deal amount is required");
         } else {
             try {
                 var amount = new BigDecimal(dealAmount);
                 if(amount.compareTo(BigDecimal.ZERO) <= 0) {
-                    log.warn("Deal amount validation failed: Amount {} is not positive", dealAmount);
-                    return "Deal amount must be a positive number";
+                    logGovernor.warn(log, RejectionReason.NON_POSITIVE_DEAL_AMOUNT, "Deal amount validation failed: Amount {} is not positive", dealAmount);
+                    return new Rejection(RejectionReason.NON_POSITIVE_DEAL_AMOUNT, "Deal amount must be a positive number");
                 }
             } catch (NumberFormatException e) {
-                log.warn("Deal amount validation failed: Invalid decimal format: {}", dealAmount);
-                return "Deal amount must be a valid decimal number";
+                logGovernor.warn(log, RejectionReason.INVALID_DEAL_AMOUNT, "Deal amount validation failed: Invalid decimal format: {}", dealAmount);
+                return new Rejection(RejectionReason.INVALID_DEAL_AMOUNT, "Deal amount must be a valid decimal number");
             }
         }
-        return "";
+        return null;
+    }
+
+    private LocalDateTime parseQueryTimestamp(String name, String value) {
+        try {
+            return LocalDateTime.parse(value, FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new FxDealQueryException("Invalid " + name + " timestamp format, should be yyyy-MM-dd HH:mm:ss");
+        }
     }
 
     private boolean isBlank(String string) {
         return isNull(string) || string.isBlank();
     }
+
+    private record Rejection(RejectionReason reason, String message) {
+    }
 }
@@ -0,0 +1,110 @@
+package com.bloomberg.fxdeals.stats;
+
+import com.bloomberg.fxdeals.event.FxDealsImportedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Background-refreshed deal statistics for health and info endpoints, so that probes never scan
+ * {@code fx_deals} themselves.
+ * <p>
+ * Each refresh reads the planner estimate from {@code pg_class.reltuples} and only falls back to an
+ * exact {@code count(*)} while the table is small or has never been analyzed. Imports between
+ * refreshes are added from {@link FxDealsImportedEvent}, so the reported total follows ingestion
+ * without touching the database; deletes are picked up by the next refresh.
+ */
+@Slf4j
+@Component
+public class DealStatistics implements SmartInitializingSingleton {
+    static final String ESTIMATE_QUERY = "SELECT reltuples::bigint FROM pg_class WHERE oid = 'fx_deals'::regclass";
+    static final String COUNT_QUERY = "SELECT count(*) FROM fx_deals";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long exactCountThreshold;
+    private final AtomicLong importedSinceRefresh = new AtomicLong();
+    private volatile Snapshot snapshot;
+    private volatile String lastError;
+
+    @Autowired
+    public DealStatistics(DataSource dataSource,
+                          @Value("${fx-deals.statistics.exact-count-threshold:100000}") long exactCountThreshold,
+                          @Value("${fx-deals.statistics.query-timeout-seconds:5}") int queryTimeoutSeconds) {
+        this(statisticsJdbcTemplate(dataSource, queryTimeoutSeconds), exactCountThreshold);
+    }
+
+    DealStatistics(JdbcTemplate jdbcTemplate, long exactCountThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exactCountThreshold = exactCountThreshold;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh();
+    }
+
+    @Scheduled(initialDelayString = "${fx-deals.statistics.refresh-interval-ms:30000}",
+               fixedDelayString = "${fx-deals.statistics.refresh-interval-ms:30000}")
+    public void refresh() {
+        long importedBefore = importedSinceRefresh.get();
+        try {
+            Long estimate = jdbcTemplate.queryForObject(ESTIMATE_QUERY, Long.class);
+            boolean estimated = !isNull(estimate) && estimate >= exactCountThreshold;
+            long total = estimated ? estimate : jdbcTemplate.queryForObject(COUNT_QUERY, Long.class);
+            importedSinceRefresh.addAndGet(-importedBefore);
+            snapshot = new Snapshot(total, estimated, Instant.now());
+            lastError = null;
+            log.debug("Deal statistics refreshed - Total deals: {}, Estimated: {}", total, estimated);
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.warn("Deal statistics refresh failed - {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onDealsImported(FxDealsImportedEvent event) {
+        importedSinceRefresh.addAndGet(event.deals().size());
+    }
+
+    /**
+     * Latest statistics, or {@code null} before the first successful refresh. The total includes
+     * deals imported since that refresh.
+     */
+    public View current() {
+        var current = snapshot;
+        if (isNull(current)) {
+            return null;
+        }
+        long ageMs = Math.max(0, Instant.now().toEpochMilli() - current.refreshedAt().toEpochMilli());
+        return new View(current.totalDeals() + importedSinceRefresh.get(), current.estimated(),
+                        current.refreshedAt(), ageMs);
+    }
+
+    /** Message of the last failed refresh, {@code null} when the last refresh succeeded. */
+    public String lastError() {
+        return lastError;
+    }
+
+    private static JdbcTemplate statisticsJdbcTemplate(DataSource dataSource, int queryTimeoutSeconds) {
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setQueryTimeout(queryTimeoutSeconds);
+        return jdbcTemplate;
+    }
+
+    private record Snapshot(long totalDeals, boolean estimated, Instant refreshedAt) {
+    }
+
+    public record View(long totalDeals, boolean estimated, Instant refreshedAt, long ageMs) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.bloomberg.fxdeals.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.bloomberg.fxdeals.analytics.RecentDealColumnStore.toEpochSecond;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("RecentDealColumnStore Tests")
+class RecentDealColumnStoreTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 16, 10, 0, 0);
+
+    private RecentDealColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RecentDealColumnStore(2);
+    }
+
+    @Test
+    @DisplayName("Should aggregate count, sum, min and max per currency pair")
+    void shouldAggregatePerPair() {
+        // Arrange
+        store.append(BASE, "USD", "EUR", new BigDecimal("100.50"));
+        store.append(BASE.plusMinutes(1), "USD", "EUR", new BigDecimal("200.25"));
+        store.append(BASE.plusMinutes(2), "GBP", "JPY", new BigDecimal("10"));
+
+        // Act
+        var aggregates = store.aggregate(toEpochSecond(BASE), toEpochSecond(BASE.plusHours(1)), null, 0, null);
+
+        // Assert
+        assertThat(aggregates).hasSize(2);
+        var usdEur = aggregates.stream().filter(a -> a.currencyPair().equals("USD/EUR")).findFirst().orElseThrow();
+        assertThat(usdEur.count()).isEqualTo(2);
+        assertThat(usdEur.sum()).isEqualByComparingTo("300.75");
+        assertThat(usdEur.min()).isEqualByComparingTo("100.50");
+        assertThat(usdEur.max()).isEqualByComparingTo("200.25");
+    }
+
+    @Test
+    @DisplayName("Should filter by pair and time range")
+    void shouldFilterByPairAndTimeRange() {
+        // Arrange
+        store.append(BASE, "USD", "EUR", new BigDecimal("1"));
+        store.append(BASE.plusHours(2), "USD", "EUR", new BigDecimal("2"));
+        store.append(BASE, "GBP", "JPY", new BigDecimal("3"));
+
+        // Act
+        var aggregates = store.aggregate(toEpochSecond(BASE), toEpochSecond(BASE.plusHours(1)), "USD/EUR", 0, null);
+
+        // Assert
+        assertThat(aggregates).singleElement()
+                .satisfies(a -> {
+                    assertThat(a.count()).isEqualTo(1);
+                    assertThat(a.sum()).isEqualByComparingTo("1");
+                });
+        assertThat(store.aggregate(toEpochSecond(BASE), toEpochSecond(BASE.plusHours(1)), "CHF/SEK", 0, null))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should group into time buckets aligned on range start")
+    void shouldGroupIntoTimeBuckets() {
+        // Arrange
+        store.append(BASE.plusMinutes(5), "USD", "EUR", new BigDecimal("1"));
+        store.append(BASE.plusMinutes(65), "USD", "EUR", new BigDecimal("2"));
+        store.append(BASE.plusMinutes(70), "USD", "EUR", new BigDecimal("3"));
+
+        // Act
+        var aggregates = store.aggregate(toEpochSecond(BASE), toEpochSecond(BASE.plusHours(2)), null, 3600, null);
+
+        // Assert
+        assertThat(aggregates).hasSize(2);
+        assertThat(aggregates.get(0).bucketStartEpochSecond()).isEqualTo(toEpochSecond(BASE));
+        assertThat(aggregates.get(0).count()).isEqualTo(1);
+        assertThat(aggregates.get(1).bucketStartEpochSecond()).isEqualTo(toEpochSecond(BASE.plusHours(1)));
+        assertThat(aggregates.get(1).sum()).isEqualByComparingTo("5");
+    }
+
+    @Test
+    @DisplayName("Should compute nearest-rank percentiles")
+    void shouldComputePercentiles() {
+        // Arrange
+        for (int i = 1; i <= 100; i++) {
+            store.append(BASE, "USD", "EUR", BigDecimal.valueOf(i));
+        }
+
+        // Act
+        var aggregates = store.aggregate(toEpochSecond(BASE), toEpochSecond(BASE.plusSeconds(1)), null, 0,
+                                         new double[]{50, 99, 100});
+
+        // Assert
+        assertThat(aggregates.get(0).percentiles())
+                .extracting(BigDecimal::intValue)
+                .containsExactly(50, 99, 100);
+    }
+
+    @Test
+    @DisplayName("Should keep exact sums when unscaled totals overflow a long")
+    void shouldSpillSumOnOverflow() {
+        // Arrange
+        var large = new BigDecimal("900000000000000");
+        store.append(BASE, "USD", "EUR", large);
+        store.append(BASE, "USD", "EUR", large);
+        store.append(BASE, "USD", "EUR", large);
+
+        // Act
+        var aggregates = store.aggregate(toEpochSecond(BASE), toEpochSecond(BASE.plusSeconds(1)), null, 0, null);
+
+        // Assert
+        assertThat(aggregates.get(0).sum()).isEqualByComparingTo(large.multiply(BigDecimal.valueOf(3)));
+    }
+
+    @Test
+    @DisplayName("Should reject amounts that do not fit the unscaled column")
+    void shouldRejectOutOfRangeAmount() {
+        assertThat(store.append(BASE, "USD", "EUR", new BigDecimal("1000000000000000"))).isFalse();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should evict deals older than cutoff")
+    void shouldEvictOldDeals() {
+        // Arrange
+        store.append(BASE, "USD", "EUR", new BigDecimal("1"));
+        store.append(BASE.plusHours(1), "USD", "EUR", new BigDecimal("2"));
+        store.append(BASE.plusHours(2), "GBP", "JPY", new BigDecimal("3"));
+
+        // Act
+        int evicted = store.evictOlderThan(toEpochSecond(BASE.plusHours(1)));
+
+        // Assert
+        assertThat(evicted).isEqualTo(1);
+        assertThat(store.size()).isEqualTo(2);
+        List<RecentDealColumnStore.Aggregate> aggregates =
+                store.aggregate(toEpochSecond(BASE), toEpochSecond(BASE.plusHours(3)), null, 0, null);
+        assertThat(aggregates).extracting(RecentDealColumnStore.Aggregate::currencyPair)
+                .containsExactlyInAnyOrder("USD/EUR", "GBP/JPY");
+    }
+
+    @Test
+    @DisplayName("Should refuse queries with too many groups")
+    void shouldRefuseTooManyGroups() {
+        store.append(BASE, "USD", "EUR", new BigDecimal("1"));
+
+        assertThatThrownBy(() -> store.aggregate(0, toEpochSecond(BASE), null, 1, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -3,6 +3,8 @@ package com.bloomberg.fxdeals.api;
 import com.bloomberg.fxdeals.config.AbstractIntegrationTest;
 import com.bloomberg.fxdeals.dtos.req.FxDealReqDTO;
 import com.bloomberg.fxdeals.repository.FxDealRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
@@ -15,6 +17,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
 
@@ -444,6 +447,30 @@ class FxDealApiTest extends AbstractIntegrationTest {
                     .body("rejectedDeals", hasSize(1))
                     .body("rejectedDeals[0].dealId", equalTo(""));
         }
+
+        @Test
+        @DisplayName("Should return counts and reason codes in summary mode")
+        void shouldReturnSummaryForPartialFailure() {
+            importDeal(createValidDeal("BATCH-SUM-001"));
+
+            List<FxDealReqDTO> batchDeals = Arrays.asList(
+                    createValidDeal("BATCH-SUM-001"), // Duplicate
+                    createValidDeal("BATCH-SUM-002")  // New
+            );
+
+            givenJsonRequest()
+                    .queryParam("response", "summary")
+                    .body(batchDeals)
+            .when()
+                    .post(getBaseUrl() + BATCH_IMPORT_ENDPOINT)
+            .then()
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .body("savedCount", equalTo(1))
+                    .body("rejectedCount", equalTo(1))
+                    .body("$", not(hasKey("savedDeals")))
+                    .body("rejectedDeals[0].dealId", equalTo("BATCH-SUM-001"))
+                    .body("rejectedDeals[0].reasons", contains("DUPLICATE_DEAL_ID"));
+        }
     }
 
     // ========== Get All Deals Tests ==========
@@ -503,6 +530,120 @@ class FxDealApiTest extends AbstractIntegrationTest {
                     .body("[0].dealTimestamp", notNullValue())
                     .body("[0].dealAmount", equalTo(1234.56f)); // Use direct equality for cleaner assertion
         }
+
+        @Test
+        @DisplayName("Should return 304 NOT MODIFIED for a matching ETag until a new deal is imported")
+        void shouldReturnNotModifiedForMatchingEtag() {
+            // Given
+            importDeal(createValidDeal("GET-ETAG-001"));
+            String etag = givenJsonRequest()
+            .when()
+                    .get(getBaseUrl() + GET_ALL_ENDPOINT)
+            .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .header("ETag", notNullValue())
+                    .extract().header("ETag");
+
+            // When & Then
+            givenJsonRequest()
+                    .header("If-None-Match", etag)
+            .when()
+                    .get(getBaseUrl() + GET_ALL_ENDPOINT)
+            .then()
+                    .statusCode(HttpStatus.NOT_MODIFIED.value());
+
+            importDeal(createValidDeal("GET-ETAG-002"));
+
+            givenJsonRequest()
+                    .header("If-None-Match", etag)
+            .when()
+                    .get(getBaseUrl() + GET_ALL_ENDPOINT)
+            .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .header("ETag", not(equalTo(etag)))
+                    .body("size()", equalTo(2));
+        }
+
+        @Test
+        @DisplayName("Should return CBOR with its own ETag when requested")
+        void shouldNegotiateCbor() throws Exception {
+            // Given
+            importDeal(createValidDeal("GET-CBOR-001"));
+            String jsonEtag = givenJsonRequest()
+            .when()
+                    .get(getBaseUrl() + GET_ALL_ENDPOINT)
+            .then()
+                    .extract().header("ETag");
+
+            // When
+            var response = given()
+                    .accept("application/cbor")
+            .when()
+                    .get(getBaseUrl() + GET_ALL_ENDPOINT)
+            .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .contentType("application/cbor")
+                    .header("ETag", not(equalTo(jsonEtag)))
+                    .extract().asByteArray();
+
+            // Then
+            var deals = new ObjectMapper(new CBORFactory()).readTree(response);
+            assertThat(deals.get(0).get("dealId").asText(), equalTo("GET-CBOR-001"));
+            assertThat(deals.get(0).get("dealTimestamp").asText(), equalTo("2024-11-16 10:30:00"));
+        }
+
+        @Test
+        @DisplayName("Should return only the requested fields from the range endpoint")
+        void shouldProjectRangeFields() {
+            // Given
+            importDeal(createValidDeal("GET-RANGE-001"));
+
+            // When & Then
+            givenJsonRequest()
+                    .queryParam("from", "2024-11-16 00:00:00")
+                    .queryParam("to", "2024-11-17 00:00:00")
+                    .queryParam("fields", "dealId,dealAmount")
+            .when()
+                    .get(getBaseUrl() + GET_ALL_ENDPOINT + "/range")
+            .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("[0].dealId", equalTo("GET-RANGE-001"))
+                    .body("[0].dealAmount", equalTo(1000.5f))
+                    .body("[0]", not(hasKey("fromCurrency")))
+                    .body("[0]", not(hasKey("dealTimestamp")));
+        }
+
+        @Test
+        @DisplayName("Should return only the requested fields and the sequence from the changes endpoint")
+        void shouldProjectChangeFields() {
+            // Given
+            importDeal(createValidDeal("GET-CHANGES-001"));
+
+            // When & Then
+            givenJsonRequest()
+                    .queryParam("fields", "dealId")
+            .when()
+                    .get(getBaseUrl() + GET_ALL_ENDPOINT + "/changes")
+            .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("changes.dealId", hasItem("GET-CHANGES-001"))
+                    .body("changes[0]", hasKey("ingestSeq"))
+                    .body("changes[0]", not(hasKey("dealAmount")))
+                    .body("nextAfter", notNullValue());
+        }
+
+        @Test
+        @DisplayName("Should reject unknown fields on the range endpoint")
+        void shouldRejectUnknownRangeField() {
+            givenJsonRequest()
+                    .queryParam("from", "2024-11-16 00:00:00")
+                    .queryParam("to", "2024-11-17 00:00:00")
+                    .queryParam("fields", "dealId,price")
+            .when()
+                    .get(getBaseUrl() + GET_ALL_ENDPOINT + "/range")
+            .then()
+                    .statusCode(HttpStatus.BAD_REQUEST.value());
+        }
     }
 
     // ========== Edge Cases and Negative Tests ==========
@@ -71,7 +71,8 @@ class HealthCheckEndpointTest {
                         .value("FX Deals Data Warehouse"))
                 .andExpect(jsonPath("$.components.fxDeals.details.database")
                         .value("Connected"))
-                .andExpect(jsonPath("$.components.fxDeals.details.totalDeals").exists());
+                .andExpect(jsonPath("$.components.fxDeals.details.totalDeals").exists())
+                .andExpect(jsonPath("$.components.fxDeals.details.statisticsAgeMs").exists());
     }
 }
 
@@ -0,0 +1,144 @@
+package com.bloomberg.fxdeals.archive;
+
+import com.bloomberg.fxdeals.dtos.res.FxDealChangeResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("DealArchiveFile Tests")
+class DealArchiveFileTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 15, 10, 0, 0);
+
+    @TempDir
+    private Path directory;
+
+    private static FxDealChangeResDTO deal(long ingestSeq, String dealId, int minutes, String amount) {
+        return new FxDealChangeResDTO(ingestSeq, dealId, "USD", "EUR", BASE.plusMinutes(minutes), new BigDecimal(amount));
+    }
+
+    private static FxDealResDTO withoutSequence(FxDealChangeResDTO deal) {
+        return new FxDealResDTO(deal.dealId(), deal.fromCurrency(), deal.toCurrency(), deal.dealTimestamp(),
+                                deal.dealAmount());
+    }
+
+    @Test
+    @DisplayName("Should round-trip deals in timestamp order with min/max metadata")
+    void shouldRoundTripDeals() throws IOException {
+        // Arrange
+        var deals = List.of(
+                deal(7, "D3", 90, "300.0000"),
+                new FxDealChangeResDTO(12, "D1", "GBP", "JPY", BASE, new BigDecimal("-0.5000")),
+                deal(3, "D2", 30, "1000.5000"));
+
+        // Act
+        var metadata = DealArchiveFile.write(directory.resolve("a" + DealArchiveFile.EXTENSION), deals);
+        var read = DealArchiveFile.read(metadata.path(), BASE, BASE.plusDays(1));
+
+        // Assert
+        assertThat(read).containsExactly(withoutSequence(deals.get(1)), withoutSequence(deals.get(2)),
+                                         withoutSequence(deals.get(0)));
+        assertThat(DealArchiveFile.readMetadata(metadata.path())).satisfies(header -> {
+            assertThat(header.rows()).isEqualTo(3);
+            assertThat(header.minTimestamp()).isEqualTo(BASE);
+            assertThat(header.maxTimestamp()).isEqualTo(BASE.plusMinutes(90));
+            assertThat(header.minDealId()).isEqualTo("D1");
+            assertThat(header.maxDealId()).isEqualTo("D3");
+            assertThat(header.minIngestSeq()).isEqualTo(3);
+            assertThat(header.maxIngestSeq()).isEqualTo(12);
+        });
+        try (var entries = Files.list(directory)) {
+            assertThat(entries).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should return only deals inside the requested range")
+    void shouldFilterByRange() throws IOException {
+        // Arrange
+        var deals = new ArrayList<FxDealChangeResDTO>();
+        for (int i = 0; i < 100; i++) {
+            deals.add(deal(i + 1, "D" + i, i, "1"));
+        }
+        var metadata = DealArchiveFile.write(directory.resolve("a" + DealArchiveFile.EXTENSION), deals);
+
+        // Act
+        var read = DealArchiveFile.read(metadata.path(), BASE.plusMinutes(10), BASE.plusMinutes(13));
+
+        // Assert
+        assertThat(read).extracting(FxDealResDTO::dealId).containsExactly("D10", "D11", "D12");
+        assertThat(metadata.overlaps(BASE.plusMinutes(99), BASE.plusHours(5))).isTrue();
+        assertThat(metadata.overlaps(BASE.plusMinutes(100), BASE.plusHours(5))).isFalse();
+        assertThat(DealArchiveFile.read(metadata.path(), BASE.minusDays(1), BASE)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep amounts that do not fit an unscaled long")
+    void shouldKeepLargeAmounts() throws IOException {
+        // Arrange
+        var large = deal(1, "BIG", 0, "999999999999999.9999");
+        var metadata = DealArchiveFile.write(directory.resolve("a" + DealArchiveFile.EXTENSION),
+                                             List.of(large, deal(2, "SMALL", 1, "1.0000")));
+
+        // Act
+        var read = DealArchiveFile.read(metadata.path(), BASE, BASE.plusHours(1));
+
+        // Assert
+        assertThat(read).extracting(FxDealResDTO::dealAmount)
+                .containsExactly(new BigDecimal("999999999999999.9999"), new BigDecimal("1.0000"));
+    }
+
+    @Test
+    @DisplayName("Should find archived deal IDs through the ID column")
+    void shouldFindDealIds() throws IOException {
+        // Arrange
+        var metadata = DealArchiveFile.write(directory.resolve("a" + DealArchiveFile.EXTENSION),
+                                             List.of(deal(1, "DEAL-B", 0, "1"), deal(2, "DEAL-D", 1, "1")));
+
+        // Act & Assert
+        assertThat(metadata.mightContain("DEAL-B")).isTrue();
+        assertThat(metadata.mightContain("DEAL-A")).isFalse();
+        assertThat(metadata.mightContain("DEAL-E")).isFalse();
+        assertThat(DealArchiveFile.findDealIds(metadata.path(), Set.of("DEAL-D", "DEAL-C"))).containsExactly("DEAL-D");
+        assertThat(DealArchiveFile.dealIdHashes(metadata.path()))
+                .containsExactly(DealIdBloomFilter.hash("DEAL-B"), DealIdBloomFilter.hash("DEAL-D"));
+    }
+
+    @Test
+    @DisplayName("Should read every deal back with its ingestion sequence")
+    void shouldReadAllWithSequences() throws IOException {
+        // Arrange
+        var deals = List.of(deal(40, "D2", 5, "2.5000"), deal(9, "D1", 0, "1.0000"), deal(1_000_000, "D3", 9, "3.0000"));
+        var metadata = DealArchiveFile.write(directory.resolve("a" + DealArchiveFile.EXTENSION), deals);
+
+        // Act
+        var read = DealArchiveFile.readAll(metadata.path());
+
+        // Assert
+        assertThat(read).containsExactly(deals.get(1), deals.get(0), deals.get(2));
+        assertThat(metadata.overlapsSequences(0, 9)).isTrue();
+        assertThat(metadata.overlapsSequences(1_000_000, 2_000_000)).isFalse();
+        assertThat(metadata.overlapsSequences(0, 8)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject files that are not deal archives")
+    void shouldRejectForeignFiles() throws IOException {
+        var path = Files.write(directory.resolve("x" + DealArchiveFile.EXTENSION), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThatThrownBy(() -> DealArchiveFile.readMetadata(path)).isInstanceOf(IOException.class);
+    }
+}
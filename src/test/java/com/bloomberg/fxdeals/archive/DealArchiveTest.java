@@ -0,0 +1,119 @@
+package com.bloomberg.fxdeals.archive;
+
+import com.bloomberg.fxdeals.dtos.res.FxDealChangeResDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("DealArchive Tests")
+class DealArchiveTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 15, 10, 0, 0);
+
+    @TempDir
+    private Path directory;
+
+    private static FxDealChangeResDTO deal(long ingestSeq, String dealId) {
+        return new FxDealChangeResDTO(ingestSeq, dealId, "USD", "EUR", BASE.plusMinutes(ingestSeq), BigDecimal.ONE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void complete(int status) {
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    @Test
+    @DisplayName("Should find deal IDs across the files loaded at startup")
+    void shouldFindIdsAcrossFiles() throws IOException {
+        // Arrange
+        Files.createDirectories(directory);
+        DealArchiveFile.write(directory.resolve("a" + DealArchiveFile.EXTENSION), List.of(deal(1, "OLD-1"), deal(2, "OLD-2")));
+        DealArchiveFile.write(directory.resolve("b" + DealArchiveFile.EXTENSION), List.of(deal(3, "OLD-3")));
+
+        // Act
+        var archive = new DealArchive(directory, 100);
+
+        // Assert
+        assertThat(archive.findDealIds(List.of("OLD-1", "OLD-3", "NEW-1"))).containsExactlyInAnyOrder("OLD-1", "OLD-3");
+        assertThat(archive.containsDealId("OLD-2")).isTrue();
+        assertThat(archive.containsDealId("NEW-1")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should only index a moved file's deal IDs once its transaction commits")
+    void shouldIndexIdsOnCommit() throws IOException {
+        // Arrange
+        var archive = new DealArchive(directory, 100);
+        var committed = archive.write(List.of(deal(1, "OLD-1")));
+        var rolledBack = archive.write(List.of(deal(2, "OLD-2")));
+
+        // Act
+        TransactionSynchronizationManager.initSynchronization();
+        archive.registerOnCommit(committed);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.initSynchronization();
+        archive.registerOnCommit(rolledBack);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        assertThat(archive.containsDealId("OLD-1")).isTrue();
+        assertThat(archive.containsDealId("OLD-2")).isFalse();
+        assertThat(archive.files()).containsExactly(committed);
+    }
+
+    @Test
+    @DisplayName("Should give up on a move that running reads hold off for longer than the timeout")
+    void shouldTimeOutMoveBehindReads() throws Exception {
+        // Arrange
+        var archive = new DealArchive(directory, 100);
+        var file = archive.write(List.of(deal(1, "OLD-1")));
+        var reading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var read = CompletableFuture.runAsync(() -> archive.consistently(() -> {
+            reading.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        reading.await();
+
+        // Act & Assert
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThatThrownBy(() -> archive.registerOnCommit(file)).isInstanceOf(CannotAcquireLockException.class);
+            assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+        } finally {
+            release.countDown();
+            read.join();
+        }
+        assertThat(archive.consistently(() -> archive.files())).isEmpty();
+    }
+}
@@ -0,0 +1,66 @@
+package com.bloomberg.fxdeals.cache;
+
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import com.bloomberg.fxdeals.event.FxDealsImportedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DealChecksumCache Tests")
+class DealChecksumCacheTest {
+
+    private static final long HOUR = 3600;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 16, 10, 0, 0);
+    private static final long BASE_INDEX = BASE.toEpochSecond(ZoneOffset.UTC) / HOUR;
+
+    private final DealChecksumCache cache = new DealChecksumCache();
+    private final DealChecksumCache.Leaf leaf = new DealChecksumCache.Leaf(1, "digest");
+
+    @Test
+    @DisplayName("Should evict only the bucket an imported deal falls into")
+    void shouldEvictImportedBucket() {
+        // Arrange
+        cache.put(HOUR, BASE_INDEX, leaf, cache.generation());
+        cache.put(HOUR, BASE_INDEX + 1, leaf, cache.generation());
+        var deal = new FxDealResDTO("DEAL001", "USD", "EUR", BASE.plusMinutes(30), BigDecimal.ONE);
+
+        // Act
+        cache.onDealsImported(new FxDealsImportedEvent(List.of(deal)));
+
+        // Assert
+        assertThat(cache.get(HOUR, BASE_INDEX)).isNull();
+        assertThat(cache.get(HOUR, BASE_INDEX + 1)).isEqualTo(leaf);
+    }
+
+    @Test
+    @DisplayName("Should not store digests computed before an invalidation")
+    void shouldSkipStaleDigests() {
+        // Arrange
+        long generation = cache.generation();
+        cache.invalidate(BASE.minusDays(1));
+
+        // Act
+        cache.put(HOUR, BASE_INDEX, leaf, generation);
+
+        // Assert
+        assertThat(cache.get(HOUR, BASE_INDEX)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should drop every bucket on clear")
+    void shouldClearEverything() {
+        cache.put(HOUR, BASE_INDEX, leaf, cache.generation());
+        cache.put(HOUR * 24, BASE_INDEX / 24, leaf, cache.generation());
+
+        cache.clear();
+
+        assertThat(cache.get(HOUR, BASE_INDEX)).isNull();
+        assertThat(cache.get(HOUR * 24, BASE_INDEX / 24)).isNull();
+    }
+}
@@ -0,0 +1,187 @@
+package com.bloomberg.fxdeals.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DealResponseCache Tests")
+class DealResponseCacheTest {
+
+    private DealReadVersion readVersion;
+    private DealResponseCache cache;
+    private AtomicInteger renders;
+
+    @BeforeEach
+    void setUp() {
+        readVersion = new DealReadVersion();
+        cache = new DealResponseCache(readVersion, true, 16, 1_000);
+        renders = new AtomicInteger();
+    }
+
+    private byte[] render(String body) {
+        renders.incrementAndGet();
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should render once per version and reuse the bytes")
+    void shouldReuseRenderedBytes() {
+        // Act
+        var first = cache.get("all", () -> render("[1]"));
+        var second = cache.get("all", () -> render("[2]"));
+
+        // Assert
+        assertThat(renders).hasValue(1);
+        assertThat(second.body()).isEqualTo(first.body());
+        assertThat(second.etag()).isEqualTo(cache.currentEtag("all"));
+    }
+
+    @Test
+    @DisplayName("Should re-render and change ETag after a write bumps the version")
+    void shouldInvalidateOnVersionBump() {
+        // Arrange
+        var before = cache.get("all", () -> render("[1]"));
+
+        // Act
+        readVersion.bump();
+        var after = cache.get("all", () -> render("[1,2]"));
+
+        // Assert
+        assertThat(renders).hasValue(2);
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        assertThat(new String(after.body(), StandardCharsets.UTF_8)).isEqualTo("[1,2]");
+    }
+
+    @Test
+    @DisplayName("Should re-render on refresh and serve the refreshed bytes afterwards")
+    void shouldRefreshWithinVersion() {
+        // Arrange
+        cache.get("all", () -> render("[1]"));
+
+        // Act
+        var refreshed = cache.refresh("all", () -> render("[1,2]"));
+        var next = cache.get("all", () -> render("[3]"));
+
+        // Assert
+        assertThat(renders).hasValue(2);
+        assertThat(refreshed.etag()).isEqualTo(cache.currentEtag("all"));
+        assertThat(new String(next.body(), StandardCharsets.UTF_8)).isEqualTo("[1,2]");
+    }
+
+    @Test
+    @DisplayName("Should keep separate entries and ETags per query shape")
+    void shouldSeparateShapes() {
+        var all = cache.get("all", () -> render("[1]"));
+        var other = cache.get("other", () -> render("[]"));
+
+        assertThat(all.etag()).isNotEqualTo(other.etag());
+        assertThat(renders).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should gzip bodies above the size threshold only")
+    void shouldGzipLargeBodies() throws IOException {
+        // Arrange
+        var large = "[" + "1,".repeat(50) + "1]";
+
+        // Act
+        var small = cache.get("small", () -> render("[]"));
+        var big = cache.get("big", () -> render(large));
+
+        // Assert
+        assertThat(small.gzipBody()).isNull();
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(big.gzipBody()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(large);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not retain more bytes than configured")
+    void shouldBoundBytes() {
+        // Arrange
+        var small = new DealResponseCache(readVersion, true, 16, 10);
+
+        // Act
+        small.get("a", () -> render("aaaa"));
+        small.get("b", () -> render("bbbb"));
+        small.get("c", () -> render("cccc"));
+        small.get("c", () -> render("cccc"));
+        small.get("big", () -> render("x".repeat(11)));
+        small.get("big", () -> render("x".repeat(11)));
+
+        // Assert
+        assertThat(renders).hasValue(5);
+        assertThat(small.bytes()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Should drop entries of older versions as soon as the version is bumped")
+    void shouldEvictOnBump() {
+        // Arrange
+        cache.get("a", () -> render("[1]"));
+        cache.get("b", () -> render("[2]"));
+
+        // Act
+        long before = cache.bytes();
+        readVersion.bump();
+
+        // Assert
+        assertThat(before).isEqualTo(6);
+        assertThat(cache.bytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not store a response rendered at a version bumped meanwhile")
+    void shouldNotStoreStaleRender() {
+        // Act
+        var stale = cache.get("all", () -> {
+            readVersion.bump();
+            return render("[1]");
+        });
+        var fresh = cache.get("all", () -> render("[1,2]"));
+
+        // Assert
+        assertThat(stale.etag()).isNotEqualTo(fresh.etag());
+        assertThat(renders).hasValue(2);
+        assertThat(cache.bytes()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should match If-None-Match lists, wildcards and weak validators")
+    void shouldMatchIfNoneMatch() {
+        var etag = cache.currentEtag("all");
+
+        assertThat(DealResponseCache.matches(etag, etag)).isTrue();
+        assertThat(DealResponseCache.matches("\"x\", " + etag, etag)).isTrue();
+        assertThat(DealResponseCache.matches("W/" + etag, etag)).isTrue();
+        assertThat(DealResponseCache.matches("*", etag)).isTrue();
+        assertThat(DealResponseCache.matches("\"x\"", etag)).isFalse();
+        assertThat(DealResponseCache.matches(null, etag)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should give the gzip representation its own strong ETag and accept either form")
+    void shouldSeparateGzipEtag() {
+        // Arrange
+        var entry = cache.get("big", () -> render("[" + "1,".repeat(50) + "1]"));
+
+        // Act
+        var gzipEtag = entry.gzipEtag();
+
+        // Assert
+        assertThat(gzipEtag).isNotEqualTo(entry.etag()).startsWith("\"").endsWith("-gzip\"");
+        assertThat(DealResponseCache.matches(gzipEtag, entry.etag())).isTrue();
+        assertThat(DealResponseCache.matches("W/" + gzipEtag, entry.etag())).isTrue();
+        assertThat(DealResponseCache.notModifiedEtag(gzipEtag, entry.etag(), true)).isEqualTo(gzipEtag);
+        assertThat(DealResponseCache.notModifiedEtag(entry.etag(), entry.etag(), true)).isEqualTo(entry.etag());
+        assertThat(DealResponseCache.notModifiedEtag(gzipEtag, entry.etag(), false)).isEqualTo(entry.etag());
+    }
+}
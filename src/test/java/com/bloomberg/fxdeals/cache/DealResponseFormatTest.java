@@ -0,0 +1,38 @@
+package com.bloomberg.fxdeals.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DealResponseFormat Tests")
+class DealResponseFormatTest {
+
+    @Test
+    @DisplayName("Should default to JSON for missing, wildcard or malformed Accept headers")
+    void shouldDefaultToJson() {
+        assertThat(DealResponseFormat.negotiate(null)).isEqualTo(DealResponseFormat.JSON);
+        assertThat(DealResponseFormat.negotiate("*/*")).isEqualTo(DealResponseFormat.JSON);
+        assertThat(DealResponseFormat.negotiate("application/*")).isEqualTo(DealResponseFormat.JSON);
+        assertThat(DealResponseFormat.negotiate("text/html")).isEqualTo(DealResponseFormat.JSON);
+        assertThat(DealResponseFormat.negotiate("not a media type;;")).isEqualTo(DealResponseFormat.JSON);
+    }
+
+    @Test
+    @DisplayName("Should select binary formats when requested")
+    void shouldSelectBinaryFormats() {
+        assertThat(DealResponseFormat.negotiate("application/x-jackson-smile")).isEqualTo(DealResponseFormat.SMILE);
+        assertThat(DealResponseFormat.negotiate("application/cbor")).isEqualTo(DealResponseFormat.CBOR);
+        assertThat(DealResponseFormat.negotiate("text/html, application/cbor, */*;q=0.1"))
+                .isEqualTo(DealResponseFormat.CBOR);
+    }
+
+    @Test
+    @DisplayName("Should honour quality values")
+    void shouldHonourQualityValues() {
+        assertThat(DealResponseFormat.negotiate("application/cbor;q=0.5, application/json"))
+                .isEqualTo(DealResponseFormat.JSON);
+        assertThat(DealResponseFormat.negotiate("application/json;q=0, application/x-jackson-smile;q=0.2"))
+                .isEqualTo(DealResponseFormat.SMILE);
+    }
+}
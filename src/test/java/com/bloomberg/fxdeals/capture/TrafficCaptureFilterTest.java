@@ -0,0 +1,111 @@
+package com.bloomberg.fxdeals.capture;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TrafficCaptureFilter Tests")
+class TrafficCaptureFilterTest {
+
+    private final TrafficCapture capture = new TrafficCapture(1, 100);
+    private final TrafficCaptureFilter filter = new TrafficCaptureFilter(capture);
+
+    /** Stands in for the import controller: reads the whole body and answers 201. */
+    private static MockFilterChain importChain() {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                request.getInputStream().readAllBytes();
+                response.setStatus(201);
+            }
+        });
+    }
+
+    private static MockHttpServletRequest importRequest(String body) {
+        var request = new MockHttpServletRequest("POST", "/api/v1/deals/import/single");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    @Test
+    @DisplayName("Should capture import requests with their timing and skip oversized bodies and other paths")
+    void shouldCaptureImportRequests(@TempDir Path directory) throws ServletException, IOException, InterruptedException {
+        // Arrange
+        var file = directory.resolve("traffic.fxcap");
+        var body = "{\"dealUniqueId\":\"D1\"}";
+        capture.start(file, Duration.ofMinutes(1), Long.MAX_VALUE);
+
+        // Act
+        filter.doFilter(importRequest(body), new MockHttpServletResponse(), importChain());
+        filter.doFilter(importRequest("x".repeat(2048)), new MockHttpServletResponse(), importChain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/deals"), new MockHttpServletResponse(), importChain());
+        capture.stop();
+
+        // Assert
+        var entries = new ArrayList<CaptureLog.Entry>();
+        try (var reader = new CaptureLog.Reader(Files.newInputStream(file))) {
+            for (var entry = reader.next(); entry != null; entry = reader.next()) {
+                entries.add(entry);
+            }
+        }
+        assertThat(entries).singleElement().satisfies(entry -> {
+            assertThat(entry.method()).isEqualTo("POST");
+            assertThat(entry.uri()).isEqualTo("/api/v1/deals/import/single");
+            assertThat(entry.contentType()).isEqualTo("application/json");
+            assertThat(entry.status()).isEqualTo(201);
+            assertThat(entry.inFlight()).isEqualTo(1);
+            assertThat(entry.durationNanos()).isPositive();
+            assertThat(new String(entry.body(), StandardCharsets.UTF_8)).isEqualTo(body);
+        });
+        assertThat(capture.status()).containsEntry("state", "STOPPED").containsEntry("captured", 1L).containsEntry("skipped", 1L);
+        assertThat(capture.isActive()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should read a truncated capture up to its last complete entry")
+    void shouldReadTruncatedCapture() throws IOException {
+        // Arrange
+        var out = new ByteArrayOutputStream();
+        try (var writer = new CaptureLog.Writer(out, 1_700_000_000_000L)) {
+            for (int i = 0; i < 100; i++) {
+                writer.write(new CaptureLog.Entry(i * 1_000_000L, 1, "POST", "/api/v1/deals/import/batch",
+                                                  "application/json", 201, 5_000_000L, new byte[512]));
+            }
+        }
+        var bytes = out.toByteArray();
+        var truncated = Arrays.copyOf(bytes, bytes.length / 2);
+
+        // Act
+        int complete = 0;
+        try (var reader = new CaptureLog.Reader(new ByteArrayInputStream(truncated))) {
+            assertThat(reader.startEpochMillis()).isEqualTo(1_700_000_000_000L);
+            for (var entry = reader.next(); entry != null; entry = reader.next()) {
+                assertThat(entry.offsetNanos()).isEqualTo(complete * 1_000_000L);
+                complete++;
+            }
+        }
+
+        // Assert
+        assertThat(complete).isBetween(1, 99);
+    }
+}
@@ -0,0 +1,141 @@
+package com.bloomberg.fxdeals.config.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReadYourWritesFilter Tests")
+class ReadYourWritesFilterTest {
+
+    @Mock
+    private JdbcTemplate primaryJdbcTemplate;
+
+    @Mock
+    private JdbcTemplate replicaJdbcTemplate;
+
+    private final AtomicLong primaryPosition = new AtomicLong(1_000);
+    private ReplicaLagGuard guard;
+    private ReadWriteRoutingDataSource routing;
+    private ReadYourWritesFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        guard = new ReplicaLagGuard(replicaJdbcTemplate, 1_000);
+        routing = new ReadWriteRoutingDataSource(guard);
+        filter = new ReadYourWritesFilter(primaryJdbcTemplate);
+        when(replicaJdbcTemplate.queryForObject(ReplicaLagGuard.LAG_QUERY, Long.class)).thenReturn(200L);
+        when(replicaJdbcTemplate.queryForObject(ReplicaLagGuard.REPLAYED_POSITION_QUERY, Long.class))
+                .thenReturn(1_000L);
+        guard.checkLag();
+    }
+
+    @Test
+    @DisplayName("Should keep routing other clients' reads to the replica while one client keeps importing")
+    void shouldReadFromReplicaWhileAnotherClientImports() throws Exception {
+        // Arrange
+        when(primaryJdbcTemplate.queryForObject(ReadYourWritesFilter.WRITE_POSITION_QUERY, Long.class))
+                .thenAnswer(invocation -> primaryPosition.addAndGet(500));
+        var readerRoutes = new ArrayList<ReadWriteRoutingDataSource.Route>();
+        var importerRoutes = new ArrayList<ReadWriteRoutingDataSource.Route>();
+        String lastWritePosition = null;
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            var importResponse = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/deals/import/batch"), importResponse,
+                            (request, response) -> response.getWriter().write("{}"));
+            lastWritePosition = importResponse.getHeader(ReadYourWritesFilter.WRITE_POSITION);
+
+            readerRoutes.add(readOnlyRoute(new MockHttpServletRequest("GET", "/api/v1/deals")));
+            var importerRead = new MockHttpServletRequest("GET", "/api/v1/deals");
+            importerRead.addHeader(ReadYourWritesFilter.WRITE_POSITION, lastWritePosition);
+            importerRoutes.add(readOnlyRoute(importerRead));
+        }
+
+        // Assert
+        assertThat(lastWritePosition).isEqualTo("3500");
+        assertThat(readerRoutes).containsOnly(ReadWriteRoutingDataSource.Route.REPLICA);
+        assertThat(importerRoutes).containsOnly(ReadWriteRoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    @DisplayName("Should route a client's reads to the replica once it has replayed the client's write")
+    void shouldReadFromReplicaAfterReplay() throws Exception {
+        // Arrange
+        when(replicaJdbcTemplate.queryForObject(ReplicaLagGuard.REPLAYED_POSITION_QUERY, Long.class))
+                .thenReturn(2_000L);
+        var read = new MockHttpServletRequest("GET", "/api/v1/deals");
+        read.addHeader(ReadYourWritesFilter.WRITE_POSITION, "1500");
+
+        // Act
+        var beforeReplay = readOnlyRoute(read);
+        guard.checkLag();
+        var afterReplay = readOnlyRoute(read);
+
+        // Assert
+        assertThat(beforeReplay).isEqualTo(ReadWriteRoutingDataSource.Route.PRIMARY);
+        assertThat(afterReplay).isEqualTo(ReadWriteRoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    @DisplayName("Should keep reads with an unreadable write position on the primary")
+    void shouldRouteInvalidPositionToPrimary() throws Exception {
+        // Arrange
+        var read = new MockHttpServletRequest("GET", "/api/v1/deals");
+        read.addHeader(ReadYourWritesFilter.WRITE_POSITION, "16/B374D848");
+
+        // Act
+        var route = readOnlyRoute(read);
+
+        // Assert
+        assertThat(route).isEqualTo(ReadWriteRoutingDataSource.Route.PRIMARY);
+        assertThat(ReadYourWritesFilter.requiredPosition()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should report whether the current request presented a write position")
+    void shouldExposeWritePositionPresence() throws Exception {
+        // Arrange
+        var ownRead = new MockHttpServletRequest("GET", "/api/v1/deals");
+        ownRead.addHeader(ReadYourWritesFilter.WRITE_POSITION, "1500");
+        var presented = new ArrayList<Boolean>();
+
+        // Act
+        filter.doFilter(ownRead, new MockHttpServletResponse(),
+                        (req, res) -> presented.add(ReadYourWritesFilter.presentsWritePosition()));
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/deals"), new MockHttpServletResponse(),
+                        (req, res) -> presented.add(ReadYourWritesFilter.presentsWritePosition()));
+
+        // Assert
+        assertThat(presented).containsExactly(true, false);
+        assertThat(ReadYourWritesFilter.presentsWritePosition()).isFalse();
+    }
+
+    private ReadWriteRoutingDataSource.Route readOnlyRoute(MockHttpServletRequest request) throws Exception {
+        List<Object> routes = new ArrayList<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            try {
+                routes.add(routing.determineCurrentLookupKey());
+            } finally {
+                TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            }
+        });
+        return (ReadWriteRoutingDataSource.Route) routes.get(0);
+    }
+}
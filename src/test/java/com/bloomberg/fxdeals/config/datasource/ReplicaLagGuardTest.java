@@ -0,0 +1,89 @@
+package com.bloomberg.fxdeals.config.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReplicaLagGuard Tests")
+class ReplicaLagGuardTest {
+
+    @Mock
+    private JdbcTemplate replicaJdbcTemplate;
+
+    private ReplicaLagGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        guard = new ReplicaLagGuard(replicaJdbcTemplate, 1_000);
+    }
+
+    @Test
+    @DisplayName("Should keep reads on primary until the first successful lag check")
+    void shouldStartOnPrimary() {
+        assertThat(guard.allowsReplicaReads()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should allow replica reads when lag is within bound")
+    void shouldAllowReplicaWhenCaughtUp() {
+        when(replicaJdbcTemplate.queryForObject(ReplicaLagGuard.LAG_QUERY, Long.class)).thenReturn(200L);
+
+        guard.checkLag();
+
+        assertThat(guard.allowsReplicaReads()).isTrue();
+        assertThat(guard.lastLagMs()).isEqualTo(200L);
+    }
+
+    @Test
+    @DisplayName("Should fall back to primary when replica lags too far behind")
+    void shouldFallBackWhenLagging() {
+        when(replicaJdbcTemplate.queryForObject(ReplicaLagGuard.LAG_QUERY, Long.class))
+                .thenReturn(0L)
+                .thenReturn(5_000L);
+
+        guard.checkLag();
+        guard.checkLag();
+
+        assertThat(guard.allowsReplicaReads()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should fall back to primary when the lag check fails")
+    void shouldFallBackWhenCheckFails() {
+        when(replicaJdbcTemplate.queryForObject(ReplicaLagGuard.LAG_QUERY, Long.class))
+                .thenReturn(0L)
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        guard.checkLag();
+        guard.checkLag();
+
+        assertThat(guard.allowsReplicaReads()).isFalse();
+        assertThat(guard.lastLagMs()).isEqualTo(-1L);
+    }
+
+    @Test
+    @DisplayName("Should keep a client's reads on primary until the replica has replayed its write")
+    void shouldReadYourWritesFromPrimary() {
+        when(replicaJdbcTemplate.queryForObject(ReplicaLagGuard.LAG_QUERY, Long.class)).thenReturn(0L);
+        when(replicaJdbcTemplate.queryForObject(ReplicaLagGuard.REPLAYED_POSITION_QUERY, Long.class))
+                .thenReturn(100L)
+                .thenReturn(200L);
+
+        guard.checkLag();
+        boolean beforeReplay = guard.allowsReplicaReadsAfter(150L);
+        guard.checkLag();
+
+        assertThat(beforeReplay).isFalse();
+        assertThat(guard.allowsReplicaReads()).isTrue();
+        assertThat(guard.allowsReplicaReadsAfter(150L)).isTrue();
+    }
+}
@@ -0,0 +1,401 @@
+package com.bloomberg.fxdeals.dataset;
+
+import com.bloomberg.fxdeals.dtos.req.FxDealReqDTO;
+import com.bloomberg.fxdeals.dtos.res.RejectionReason;
+import com.bloomberg.fxdeals.service.impl.FxDealServiceImpl;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Writes a reproducible synthetic deal dataset: the same options and seed always produce the same
+ * bytes, so load tests and benchmarks run against identical input and can be compared.
+ * <p>
+ * Valid rows draw their currency pair from a Zipf distribution over {@link #PAIRS} ({@code --pair-skew},
+ * 0 is uniform), their timestamp from {@code --timestamps} over {@code --days} days from
+ * {@code --start}, and a log-uniform amount. {@code --duplicate-ratio} of the rows repeat the ID of an
+ * earlier valid row and {@code --invalid-ratio} of them are invalid in exactly one way, chosen from
+ * {@code --invalid-mix} (rejection reason weights, all field reasons equally by default). Every row
+ * is written as the import API receives it ({@code json}, {@code ndjson}, {@code smile} or
+ * {@code cbor}) or as {@code csv}, and a {@code .manifest.json} next to the output records the options
+ * and the outcome the import service should report for the dataset against an empty table.
+ * <pre>
+ * mvn -Pdataset test-compile exec:exec -Ddataset.args="--count 5000000 --format ndjson --seed 7"
+ * </pre>
+ */
+@Slf4j
+public final class DealDatasetGenerator {
+    public enum Format { JSON, NDJSON, CSV, SMILE, CBOR }
+
+    public enum Timestamps { UNIFORM, SEQUENTIAL, BUSINESS_HOURS }
+
+    /** The rejection reasons a single malformed field can produce. */
+    static final RejectionReason[] FIELD_REASONS = {
+            RejectionReason.DEAL_ID_REQUIRED,
+            RejectionReason.FROM_CURRENCY_REQUIRED, RejectionReason.INVALID_FROM_CURRENCY,
+            RejectionReason.TO_CURRENCY_REQUIRED, RejectionReason.INVALID_TO_CURRENCY,
+            RejectionReason.SAME_CURRENCIES,
+            RejectionReason.DEAL_TIMESTAMP_REQUIRED, RejectionReason.INVALID_DEAL_TIMESTAMP,
+            RejectionReason.DEAL_AMOUNT_REQUIRED, RejectionReason.INVALID_DEAL_AMOUNT,
+            RejectionReason.NON_POSITIVE_DEAL_AMOUNT
+    };
+
+    /** Currencies in rough order of FX turnover; pairs built from earlier ones rank first. */
+    private static final String[] CURRENCIES = {"USD", "EUR", "JPY", "GBP", "CNY", "AUD", "CAD", "CHF", "HKD", "SGD"};
+    static final String[][] PAIRS = pairs();
+    private static final String[] INVALID_CURRENCIES = {"ABC", "US", "EURO", "usd"};
+    private static final String[] INVALID_TIMESTAMPS = {"2024-01-15T10:00:00", "15/01/2024 10:00", "2024-01-15 25:00:00"};
+    private static final String[] INVALID_AMOUNTS = {"12,50", "abc", "1.2.3"};
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private final Options options;
+    private final SplittableRandom random;
+    private final double[] pairCdf;
+    private final RejectionReason[] mixReasons;
+    private final double[] mixCdf;
+    private final Map<RejectionReason, Long> expectedRejections = new EnumMap<>(RejectionReason.class);
+    private long[] validRows = new long[1024];
+    private int validCount;
+    private long row;
+
+    public DealDatasetGenerator(Options options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.seed());
+        this.pairCdf = zipfCdf(PAIRS.length, options.pairSkew());
+        this.mixReasons = options.invalidMix().keySet().toArray(RejectionReason[]::new);
+        this.mixCdf = new double[mixReasons.length];
+        double total = options.invalidMix().values().stream().mapToDouble(Double::doubleValue).sum();
+        double cumulative = 0;
+        for (int i = 0; i < mixReasons.length; i++) {
+            cumulative += options.invalidMix().get(mixReasons[i]) / total;
+            mixCdf[i] = cumulative;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        var options = Options.parse(args);
+        long start = System.nanoTime();
+        var generator = new DealDatasetGenerator(options);
+        generator.write(options.output());
+        log.info("Wrote {} {} deals to {} in {} ms - Expected rejections: {}", options.count(), options.format(),
+                 options.output().toAbsolutePath(), (System.nanoTime() - start) / 1_000_000, generator.expectedRejections());
+    }
+
+    /** Writes the dataset to {@code output} and its manifest to {@code output.manifest.json}. */
+    public void write(Path output) throws IOException {
+        if (!isNull(output.toAbsolutePath().getParent())) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+        try (var out = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16)) {
+            write(out);
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(output.resolveSibling(output.getFileName() + ".manifest.json").toFile(), manifest());
+    }
+
+    public void write(OutputStream out) throws IOException {
+        if (options.format() == Format.CSV) {
+            writeCsv(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16));
+            return;
+        }
+        var factory = switch (options.format()) {
+            case SMILE -> new SmileFactory();
+            case CBOR -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        try (var generator = factory.createGenerator(out)) {
+            boolean array = options.format() != Format.NDJSON;
+            if (array) {
+                generator.writeStartArray();
+            } else {
+                generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            }
+            for (long i = 0; i < options.count(); i++) {
+                writeDeal(generator, next());
+            }
+            if (array) {
+                generator.writeEndArray();
+            } else {
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    /** The next row; rows must be consumed in order for the dataset to be reproducible. */
+    public FxDealReqDTO next() {
+        long index = row++;
+        double roll = random.nextDouble();
+        if (roll < options.invalidRatio() && mixReasons.length > 0) {
+            var reason = mixReasons[pick(mixCdf, random.nextDouble())];
+            expectedRejections.merge(reason, 1L, Long::sum);
+            return invalid(reason, validDeal(dealId(index)));
+        }
+        if (roll < options.invalidRatio() + options.duplicateRatio() && validCount > 0) {
+            expectedRejections.merge(RejectionReason.DUPLICATE_DEAL_ID, 1L, Long::sum);
+            return validDeal(dealId(validRows[random.nextInt(validCount)]));
+        }
+        if (validCount == validRows.length) {
+            validRows = Arrays.copyOf(validRows, validCount * 2);
+        }
+        validRows[validCount++] = index;
+        return validDeal(dealId(index));
+    }
+
+    /** Rows generated so far per rejection reason the import service should report for them. */
+    public Map<RejectionReason, Long> expectedRejections() {
+        return expectedRejections;
+    }
+
+    private Map<String, Object> manifest() {
+        var manifest = new LinkedHashMap<String, Object>();
+        manifest.put("count", options.count());
+        manifest.put("seed", options.seed());
+        manifest.put("format", options.format());
+        manifest.put("idPrefix", options.idPrefix());
+        manifest.put("pairSkew", options.pairSkew());
+        manifest.put("timestamps", options.timestamps());
+        manifest.put("start", options.start().format(FxDealServiceImpl.FORMATTER));
+        manifest.put("days", options.days());
+        manifest.put("duplicateRatio", options.duplicateRatio());
+        manifest.put("invalidRatio", options.invalidRatio());
+        manifest.put("invalidMix", options.invalidMix());
+        long rejected = expectedRejections.values().stream().mapToLong(Long::longValue).sum();
+        manifest.put("expectedSaved", row - rejected);
+        manifest.put("expectedRejections", expectedRejections);
+        return manifest;
+    }
+
+    private String dealId(long index) {
+        return options.idPrefix() + "-" + index;
+    }
+
+    private FxDealReqDTO validDeal(String dealId) {
+        var pair = PAIRS[pick(pairCdf, random.nextDouble())];
+        return new FxDealReqDTO(dealId, pair[0], pair[1], timestamp(), amount());
+    }
+
+    private FxDealReqDTO invalid(RejectionReason reason, FxDealReqDTO deal) {
+        var id = deal.dealId();
+        var from = deal.fromCurrency();
+        var to = deal.toCurrency();
+        var timestamp = deal.dealTimestamp();
+        var amount = deal.dealAmount();
+        return switch (reason) {
+            case DEAL_ID_REQUIRED -> new FxDealReqDTO("", from, to, timestamp, amount);
+            case FROM_CURRENCY_REQUIRED -> new FxDealReqDTO(id, "", to, timestamp, amount);
+            case INVALID_FROM_CURRENCY -> new FxDealReqDTO(id, anyOf(INVALID_CURRENCIES), to, timestamp, amount);
+            case TO_CURRENCY_REQUIRED -> new FxDealReqDTO(id, from, "", timestamp, amount);
+            case INVALID_TO_CURRENCY -> new FxDealReqDTO(id, from, anyOf(INVALID_CURRENCIES), timestamp, amount);
+            case SAME_CURRENCIES -> new FxDealReqDTO(id, from, from, timestamp, amount);
+            case DEAL_TIMESTAMP_REQUIRED -> new FxDealReqDTO(id, from, to, "", amount);
+            case INVALID_DEAL_TIMESTAMP -> new FxDealReqDTO(id, from, to, anyOf(INVALID_TIMESTAMPS), amount);
+            case DEAL_AMOUNT_REQUIRED -> new FxDealReqDTO(id, from, to, timestamp, "");
+            case INVALID_DEAL_AMOUNT -> new FxDealReqDTO(id, from, to, timestamp, anyOf(INVALID_AMOUNTS));
+            case NON_POSITIVE_DEAL_AMOUNT -> new FxDealReqDTO(id, from, to, timestamp, random.nextBoolean() ? "0" : "-" + amount);
+            default -> throw new IllegalArgumentException("Cannot generate a row rejected for " + reason);
+        };
+    }
+
+    private String anyOf(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private String timestamp() {
+        long span = (long) options.days() * SECONDS_PER_DAY;
+        long seconds = switch (options.timestamps()) {
+            case UNIFORM -> random.nextLong(span);
+            case SEQUENTIAL -> (row - 1) * span / Math.max(1, options.count());
+            case BUSINESS_HOURS -> businessHoursSecond();
+        };
+        return options.start().plusSeconds(seconds).format(FxDealServiceImpl.FORMATTER);
+    }
+
+    /** A weekday second between 07:00 and 19:00, peaking around 13:00. */
+    private long businessHoursSecond() {
+        long day;
+        do {
+            day = random.nextInt(options.days());
+        } while (options.days() >= 7 && isWeekend(options.start().plusDays(day).getDayOfWeek()));
+        double hours = 7 + 6 * (random.nextDouble() + random.nextDouble());
+        return day * SECONDS_PER_DAY + (long) (hours * 3600);
+    }
+
+    private static boolean isWeekend(DayOfWeek day) {
+        return day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+    }
+
+    /** Log-uniform between 10.00 and 10,000,000.00, so small tickets dominate as they do in practice. */
+    private String amount() {
+        long cents = (long) Math.pow(10, 3 + random.nextDouble() * 6);
+        var amount = new StringBuilder(16).append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            amount.append('0');
+        }
+        return amount.append(fraction).toString();
+    }
+
+    private static void writeDeal(JsonGenerator generator, FxDealReqDTO deal) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("dealId", deal.dealId());
+        generator.writeStringField("fromCurrency", deal.fromCurrency());
+        generator.writeStringField("toCurrency", deal.toCurrency());
+        generator.writeStringField("dealTimestamp", deal.dealTimestamp());
+        generator.writeStringField("dealAmount", deal.dealAmount());
+        generator.writeEndObject();
+    }
+
+    private void writeCsv(Writer writer) throws IOException {
+        writer.write("dealId,fromCurrency,toCurrency,dealTimestamp,dealAmount\n");
+        for (long i = 0; i < options.count(); i++) {
+            var deal = next();
+            writer.write(csv(deal.dealId()));
+            writer.write(',');
+            writer.write(csv(deal.fromCurrency()));
+            writer.write(',');
+            writer.write(csv(deal.toCurrency()));
+            writer.write(',');
+            writer.write(csv(deal.dealTimestamp()));
+            writer.write(',');
+            writer.write(csv(deal.dealAmount()));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private static String csv(String value) {
+        return value.indexOf(',') < 0 && value.indexOf('"') < 0 ? value : '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String[][] pairs() {
+        var pairs = new String[CURRENCIES.length * (CURRENCIES.length - 1)][];
+        int i = 0;
+        for (int rank = 1; rank < CURRENCIES.length * 2; rank++) {
+            for (int from = 0; from < CURRENCIES.length; from++) {
+                int to = rank - from;
+                if (to >= 0 && to < CURRENCIES.length && to != from) {
+                    pairs[i++] = new String[]{CURRENCIES[from], CURRENCIES[to]};
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static double[] zipfCdf(int size, double exponent) {
+        var cdf = new double[size];
+        double total = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            total += 1 / Math.pow(rank, exponent);
+            cdf[rank - 1] = total;
+        }
+        for (int i = 0; i < size; i++) {
+            cdf[i] /= total;
+        }
+        return cdf;
+    }
+
+    private static int pick(double[] cdf, double value) {
+        int index = Arrays.binarySearch(cdf, value);
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+
+    public record Options(long count, long seed, Format format, Path output, String idPrefix, double pairSkew,
+                          Timestamps timestamps, LocalDateTime start, int days, double duplicateRatio,
+                          double invalidRatio, Map<RejectionReason, Double> invalidMix) {
+        private static final String USAGE = "Options: --count N --seed N --format json|ndjson|csv|smile|cbor "
+                + "--output PATH --id-prefix TEXT --pair-skew S --timestamps uniform|sequential|business_hours "
+                + "--start 'yyyy-MM-dd HH:mm:ss' --days N --duplicate-ratio R --invalid-ratio R "
+                + "--invalid-mix REASON=WEIGHT,...";
+
+        public Options {
+            if (count < 0 || days < 1 || pairSkew < 0) {
+                throw new IllegalArgumentException("count must not be negative, days must be positive and pair skew must not be negative");
+            }
+            if (duplicateRatio < 0 || invalidRatio < 0 || duplicateRatio + invalidRatio > 1) {
+                throw new IllegalArgumentException("duplicate and invalid ratios must not be negative or add up to more than 1");
+            }
+            for (var reason : invalidMix.keySet()) {
+                if (!Arrays.asList(FIELD_REASONS).contains(reason)) {
+                    throw new IllegalArgumentException("Invalid mix cannot contain " + reason + ", use one of " + Arrays.toString(FIELD_REASONS));
+                }
+            }
+        }
+
+        public static Options defaults() {
+            var mix = new EnumMap<RejectionReason, Double>(RejectionReason.class);
+            for (var reason : FIELD_REASONS) {
+                mix.put(reason, 1.0);
+            }
+            return new Options(100_000, 42, Format.NDJSON, Path.of("target/datasets/deals.ndjson"), "SYN-42", 1.0,
+                               Timestamps.BUSINESS_HOURS, LocalDateTime.of(2024, 1, 1, 0, 0), 30, 0.01, 0.05, mix);
+        }
+
+        public static Options parse(String[] args) {
+            if (args.length % 2 != 0) {
+                throw new IllegalArgumentException(USAGE);
+            }
+            var values = new LinkedHashMap<String, String>();
+            for (int i = 0; i < args.length; i += 2) {
+                values.put(args[i], args[i + 1]);
+            }
+            var defaults = defaults();
+            long seed = Long.parseLong(values.getOrDefault("--seed", String.valueOf(defaults.seed())));
+            var format = Format.valueOf(values.getOrDefault("--format", defaults.format().name()).toUpperCase(Locale.ROOT));
+            var options = new Options(
+                    Long.parseLong(values.getOrDefault("--count", String.valueOf(defaults.count()))),
+                    seed,
+                    format,
+                    Path.of(values.getOrDefault("--output", "target/datasets/deals." + format.name().toLowerCase(Locale.ROOT))),
+                    values.getOrDefault("--id-prefix", "SYN-" + seed),
+                    Double.parseDouble(values.getOrDefault("--pair-skew", String.valueOf(defaults.pairSkew()))),
+                    Timestamps.valueOf(values.getOrDefault("--timestamps", defaults.timestamps().name()).toUpperCase(Locale.ROOT)),
+                    values.containsKey("--start") ? LocalDateTime.parse(values.get("--start"), FxDealServiceImpl.FORMATTER) : defaults.start(),
+                    Integer.parseInt(values.getOrDefault("--days", String.valueOf(defaults.days()))),
+                    Double.parseDouble(values.getOrDefault("--duplicate-ratio", String.valueOf(defaults.duplicateRatio()))),
+                    Double.parseDouble(values.getOrDefault("--invalid-ratio", String.valueOf(defaults.invalidRatio()))),
+                    values.containsKey("--invalid-mix") ? parseMix(values.get("--invalid-mix")) : defaults.invalidMix());
+            values.keySet().removeAll(List.of("--count", "--seed", "--format", "--output", "--id-prefix",
+                    "--pair-skew", "--timestamps", "--start", "--days", "--duplicate-ratio", "--invalid-ratio", "--invalid-mix"));
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException("Unknown options " + values.keySet() + ". " + USAGE);
+            }
+            return options;
+        }
+
+        private static Map<RejectionReason, Double> parseMix(String mix) {
+            var weights = new EnumMap<RejectionReason, Double>(RejectionReason.class);
+            for (var entry : mix.split(",")) {
+                var parts = entry.split("=", 2);
+                weights.put(RejectionReason.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)),
+                            parts.length == 2 ? Double.parseDouble(parts[1]) : 1.0);
+            }
+            return weights;
+        }
+    }
+}
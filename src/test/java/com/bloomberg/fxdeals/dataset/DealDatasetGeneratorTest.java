@@ -0,0 +1,125 @@
+package com.bloomberg.fxdeals.dataset;
+
+import com.bloomberg.fxdeals.archive.DealArchive;
+import com.bloomberg.fxdeals.cache.DealRangeCache;
+import com.bloomberg.fxdeals.dtos.req.FxDealReqDTO;
+import com.bloomberg.fxdeals.dtos.res.RejectionReason;
+import com.bloomberg.fxdeals.entity.FxDeal;
+import com.bloomberg.fxdeals.exception.FxDealBatchImportException;
+import com.bloomberg.fxdeals.logging.ImportLogGovernor;
+import com.bloomberg.fxdeals.mappers.FxDealMapperImpl;
+import com.bloomberg.fxdeals.metrics.ImportMetrics;
+import com.bloomberg.fxdeals.metrics.IngestionStatistics;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import com.bloomberg.fxdeals.service.impl.FxDealServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("DealDatasetGenerator Tests")
+class DealDatasetGeneratorTest {
+
+    @TempDir
+    private Path directory;
+
+    private static DealDatasetGenerator.Options options(long seed, DealDatasetGenerator.Format format) {
+        var defaults = DealDatasetGenerator.Options.defaults();
+        return new DealDatasetGenerator.Options(2_000, seed, format, defaults.output(), "SYN-" + seed, 1.2,
+                                                defaults.timestamps(), defaults.start(), defaults.days(), 0.1, 0.3,
+                                                defaults.invalidMix());
+    }
+
+    private static byte[] generate(DealDatasetGenerator.Options options) throws IOException {
+        var out = new ByteArrayOutputStream();
+        new DealDatasetGenerator(options).write(out);
+        return out.toByteArray();
+    }
+
+    /** The import service over an in-memory repository that remembers saved deal IDs. */
+    private FxDealServiceImpl service() {
+        Set<String> saved = new HashSet<>();
+        var repository = (FxDealRepository) Proxy.newProxyInstance(
+                FxDealRepository.class.getClassLoader(), new Class<?>[]{FxDealRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "existsById" -> saved.contains((String) args[0]);
+                    case "save" -> {
+                        saved.add(((FxDeal) args[0]).getDealId());
+                        yield args[0];
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return new FxDealServiceImpl(repository, null, null, new FxDealMapperImpl(), event -> { },
+                                     new DealRangeCache(60, 2232, 1_000_000), new DealArchive(directory.resolve("archive"), 2_000),
+                                     new ImportMetrics(new SimpleMeterRegistry()), new ImportLogGovernor(10, 20, 10_000),
+                                     new IngestionStatistics(new SimpleMeterRegistry(), 60));
+    }
+
+    @Test
+    @DisplayName("Should write identical bytes for the same seed in every format")
+    void shouldBeReproducible() throws IOException {
+        for (var format : DealDatasetGenerator.Format.values()) {
+            // Arrange
+            var options = options(7, format);
+
+            // Act
+            var first = generate(options);
+            var second = generate(options);
+            var otherSeed = generate(options(8, format));
+
+            // Assert
+            assertThat(first).as(format.name()).isNotEmpty().isEqualTo(second).isNotEqualTo(otherSeed);
+        }
+    }
+
+    @Test
+    @DisplayName("Should produce exactly the rejections the import service reports")
+    void shouldMatchImportServiceRejections() {
+        // Arrange
+        var generator = new DealDatasetGenerator(options(11, DealDatasetGenerator.Format.NDJSON));
+        var deals = new ArrayList<FxDealReqDTO>();
+        for (int i = 0; i < 2_000; i++) {
+            deals.add(generator.next());
+        }
+
+        // Act
+        Map<RejectionReason, Long> reported = new EnumMap<>(RejectionReason.class);
+        assertThatThrownBy(() -> service().importBatchDeals(deals))
+                .isInstanceOfSatisfying(FxDealBatchImportException.class, e -> {
+                    for (var rejected : e.getRejectedFxDeals()) {
+                        assertThat(rejected.reasons()).hasSize(1);
+                        reported.merge(rejected.reasons().get(0), 1L, Long::sum);
+                    }
+                    assertThat(e.getSavedDeals()).hasSize(2_000 - e.getRejectedFxDeals().size());
+                });
+
+        // Assert
+        assertThat(reported).isEqualTo(generator.expectedRejections());
+        assertThat(reported.keySet()).contains(DealDatasetGenerator.FIELD_REASONS).contains(RejectionReason.DUPLICATE_DEAL_ID);
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid mix the validator cannot produce")
+    void shouldRejectUnproducibleReasons() {
+        // Act & Assert
+        assertThatThrownBy(() -> DealDatasetGenerator.Options.parse(new String[]{"--invalid-mix", "PERSISTENCE_ERROR=1"}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("PERSISTENCE_ERROR");
+        assertThatThrownBy(() -> DealDatasetGenerator.Options.parse(new String[]{"--rows", "10"}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("--rows");
+    }
+}
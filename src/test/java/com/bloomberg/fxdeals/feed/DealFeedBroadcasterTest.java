@@ -0,0 +1,120 @@
+package com.bloomberg.fxdeals.feed;
+
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import com.bloomberg.fxdeals.event.FxDealsImportedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DealFeedBroadcaster Tests")
+class DealFeedBroadcasterTest {
+
+    private final ArrayDeque<SseEmitter> emitters = new ArrayDeque<>();
+    private final DealFeedBroadcaster broadcaster = new DealFeedBroadcaster(
+            new ObjectMapper().findAndRegisterModules(), 1024, 60_000, 16, 512,
+            DealFeedBroadcaster.SlowConsumerPolicy.NOTIFY, 1, 100, timeout -> emitters.poll());
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    private static FxDealsImportedEvent imported(String dealId) {
+        return new FxDealsImportedEvent(List.of(new FxDealResDTO(dealId, "USD", "EUR",
+                LocalDateTime.of(2026, 1, 15, 10, 30), new BigDecimal("100.00"))));
+    }
+
+    @Test
+    @DisplayName("Should evict a subscriber stalled in a send so the others are still served")
+    void shouldEvictStalledSubscriber() throws Exception {
+        // Arrange
+        var stalled = new StallingEmitter();
+        var healthy = new RecordingEmitter();
+        emitters.add(stalled);
+        emitters.add(healthy);
+        broadcaster.subscribe(null, null);
+        broadcaster.onDealsImported(imported("DEAL001"));
+        assertThat(stalled.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        broadcaster.subscribe(null, null);
+
+        // Act
+        broadcaster.onDealsImported(imported("DEAL002"));
+        boolean servedBeforeEviction = healthy.received.await(300, TimeUnit.MILLISECONDS);
+        broadcaster.evictStalledSubscribers();
+        boolean servedAfterEviction = healthy.received.await(5, TimeUnit.SECONDS);
+        int poolSizeWhileStalled = broadcaster.dispatcherPoolSize();
+        stalled.release.countDown();
+
+        // Assert
+        assertThat(servedBeforeEviction).isFalse();
+        assertThat(servedAfterEviction).isTrue();
+        assertThat(poolSizeWhileStalled).isEqualTo(2);
+        assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+        assertThat(stalled.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(broadcaster.dispatcherPoolSize()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should leave subscribers whose sends finish within the timeout")
+    void shouldKeepSubscribersWithinTimeout() throws Exception {
+        // Arrange
+        var healthy = new RecordingEmitter();
+        emitters.add(healthy);
+        broadcaster.subscribe(null, null);
+
+        // Act
+        broadcaster.onDealsImported(imported("DEAL001"));
+        boolean served = healthy.received.await(5, TimeUnit.SECONDS);
+        Thread.sleep(150);
+        broadcaster.evictStalledSubscribers();
+
+        // Assert
+        assertThat(served).isTrue();
+        assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+        assertThat(broadcaster.dispatcherPoolSize()).isEqualTo(1);
+    }
+
+    /** Blocks every dispatcher send as a client that stopped reading would. */
+    private static final class StallingEmitter extends SseEmitter {
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch received = new CountDownLatch(1);
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+            received.countDown();
+        }
+    }
+}
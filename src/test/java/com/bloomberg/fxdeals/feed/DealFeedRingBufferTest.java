@@ -0,0 +1,58 @@
+package com.bloomberg.fxdeals.feed;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("DealFeedRingBuffer Tests")
+class DealFeedRingBufferTest {
+
+    private static DealFeedItem item(String id) {
+        return new DealFeedItem("USD/EUR", "{\"dealId\":\"" + id + "\"}");
+    }
+
+    @Test
+    @DisplayName("Should assign consecutive sequences to published items")
+    void shouldAssignSequences() {
+        // Arrange
+        var ring = new DealFeedRingBuffer(4);
+
+        // Act
+        long next = ring.publish(List.of(item("A"), item("B")));
+
+        // Assert
+        assertThat(next).isEqualTo(2);
+        assertThat(ring.published()).isEqualTo(2);
+        assertThat(ring.get(0)).isEqualTo(item("A"));
+        assertThat(ring.get(1)).isEqualTo(item("B"));
+        assertThat(ring.oldestAvailable()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should report overwritten sequences once the ring wraps")
+    void shouldReportOverwrittenSequences() {
+        // Arrange
+        var ring = new DealFeedRingBuffer(4);
+
+        // Act
+        ring.publish(List.of(item("A"), item("B"), item("C"), item("D"), item("E"), item("F")));
+
+        // Assert
+        assertThat(ring.oldestAvailable()).isEqualTo(2);
+        assertThat(ring.get(0)).isNull();
+        assertThat(ring.get(1)).isNull();
+        assertThat(ring.get(2)).isEqualTo(item("C"));
+        assertThat(ring.get(5)).isEqualTo(item("F"));
+    }
+
+    @Test
+    @DisplayName("Should require a power-of-two capacity")
+    void shouldRequirePowerOfTwoCapacity() {
+        assertThatThrownBy(() -> new DealFeedRingBuffer(3)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(new DealFeedRingBuffer(8).capacity()).isEqualTo(8);
+    }
+}
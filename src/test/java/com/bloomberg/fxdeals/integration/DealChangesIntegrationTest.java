@@ -0,0 +1,70 @@
+package com.bloomberg.fxdeals.integration;
+
+import com.bloomberg.fxdeals.config.AbstractIntegrationTest;
+import com.bloomberg.fxdeals.dtos.res.FxDealChangeResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealChangesResDTO;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import com.bloomberg.fxdeals.service.FxDealService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DealChangesIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private FxDealService fxDealService;
+
+    @Autowired
+    private FxDealRepository fxDealRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        fxDealRepository.deleteAll();
+    }
+
+    private static void insert(Connection connection, String dealId) throws SQLException {
+        try (var statement = connection.prepareStatement("""
+                INSERT INTO fx_deals (deal_id, from_currency, to_currency, deal_timestamp, deal_amount)
+                VALUES (?, 'USD', 'EUR', '2024-11-16 10:30:00', 100)""")) {
+            statement.setString(1, dealId);
+            statement.executeUpdate();
+        }
+    }
+
+    @Test
+    @DisplayName("Integration: Should not skip a deal whose transaction commits after a later sequence")
+    void shouldNotSkipDealCommittedOutOfOrder() throws SQLException {
+        // Given - a watermark at the current end of the feed
+        long watermark = fxDealService.getChangesAfter(0L, null).nextAfter();
+
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            first.setAutoCommit(false);
+            second.setAutoCommit(false);
+
+            // When - the first transaction takes the lower sequence but commits after the second
+            insert(first, "INTERLEAVED-LOW");
+            insert(second, "INTERLEAVED-HIGH");
+            second.commit();
+            FxDealChangesResDTO whileFirstRuns = fxDealService.getChangesAfter(watermark, null);
+            first.commit();
+            FxDealChangesResDTO afterFirstCommits = fxDealService.getChangesAfter(whileFirstRuns.nextAfter(), null);
+
+            // Then - the committed higher sequence waits until the lower one is decided
+            assertThat(whileFirstRuns.changes()).isEmpty();
+            assertThat(whileFirstRuns.nextAfter()).isEqualTo(watermark);
+            assertThat(afterFirstCommits.changes())
+                    .extracting(FxDealChangeResDTO::dealId)
+                    .containsExactly("INTERLEAVED-LOW", "INTERLEAVED-HIGH");
+        }
+    }
+}
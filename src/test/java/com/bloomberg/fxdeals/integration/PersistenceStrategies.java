@@ -0,0 +1,206 @@
+package com.bloomberg.fxdeals.integration;
+
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import com.bloomberg.fxdeals.entity.FxDeal;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import jakarta.persistence.EntityManager;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+/**
+ * The ways of writing a batch of deals compared by {@link PersistenceStrategyBenchmarkTest}. Every
+ * strategy skips deals whose ID already exists and returns how many rows it inserted.
+ */
+class PersistenceStrategies {
+    static final int EXISTENCE_CHUNK_SIZE = 5_000;
+    static final int MULTI_ROW_INSERT_ROWS = 1_000;
+    private static final String INSERT = "INSERT INTO fx_deals (deal_id, from_currency, to_currency, deal_timestamp, deal_amount)"
+            + " VALUES (?, ?, ?, ?, ?) ON CONFLICT (deal_id) DO NOTHING";
+    private static final String CREATE_STAGING = "CREATE TEMP TABLE fx_deals_staging (deal_id VARCHAR(100),"
+            + " from_currency VARCHAR(3), to_currency VARCHAR(3), deal_timestamp TIMESTAMP, deal_amount DECIMAL(19, 4))"
+            + " ON COMMIT DROP";
+    private static final String COPY_STAGING = "COPY fx_deals_staging FROM STDIN (FORMAT csv)";
+    private static final String MERGE_STAGING = "INSERT INTO fx_deals (deal_id, from_currency, to_currency, deal_timestamp, deal_amount)"
+            + " SELECT deal_id, from_currency, to_currency, deal_timestamp, deal_amount FROM fx_deals_staging"
+            + " ON CONFLICT (deal_id) DO NOTHING";
+    private static final DateTimeFormatter COPY_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    enum Strategy {
+        /** What the import service does today: one {@code existsById} and one {@code save} per deal. */
+        PER_ROW_EXISTS_SAVE,
+        /**
+         * Chunked existence query, then {@code saveAll} in one transaction. Spring Data merges entities
+         * with assigned IDs, so Hibernate still selects each row before batching the inserts.
+         */
+        SAVE_ALL_BATCHED,
+        /** Chunked existence query, then {@code persist} with Hibernate JDBC batching and no merge. */
+        PERSIST_BATCHED,
+        /** One prepared {@code INSERT ... ON CONFLICT DO NOTHING} sent with {@code addBatch}. */
+        JDBC_ADD_BATCH,
+        /** {@code INSERT ... VALUES (...), (...) ON CONFLICT DO NOTHING} of up to 1000 rows each. */
+        MULTI_ROW_INSERT,
+        /** {@code COPY} into a temporary staging table, then one {@code INSERT ... SELECT ... ON CONFLICT}. */
+        COPY_STAGING
+    }
+
+    private final FxDealRepository repository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final int hibernateBatchSize;
+
+    PersistenceStrategies(FxDealRepository repository, EntityManager entityManager, JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transaction, int hibernateBatchSize) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = transaction;
+        this.hibernateBatchSize = hibernateBatchSize;
+    }
+
+    int write(Strategy strategy, List<FxDealResDTO> deals) {
+        return switch (strategy) {
+            case PER_ROW_EXISTS_SAVE -> perRow(deals);
+            case SAVE_ALL_BATCHED -> inTransaction(() -> {
+                var fresh = withoutExisting(deals);
+                repository.saveAll(fresh.stream().map(PersistenceStrategies::toEntity).toList());
+                return fresh.size();
+            });
+            case PERSIST_BATCHED -> inTransaction(() -> persist(withoutExisting(deals)));
+            case JDBC_ADD_BATCH -> inTransaction(() -> jdbcBatch(deals));
+            case MULTI_ROW_INSERT -> inTransaction(() -> multiRowInsert(deals));
+            case COPY_STAGING -> inTransaction(() -> copy(deals));
+        };
+    }
+
+    /** Inserts {@code deals} unconditionally; used to create the duplicates a run has to skip. */
+    void seed(List<FxDealResDTO> deals) {
+        inTransaction(() -> multiRowInsert(deals));
+    }
+
+    private int perRow(List<FxDealResDTO> deals) {
+        int inserted = 0;
+        for (FxDealResDTO deal : deals) {
+            if (!repository.existsById(deal.dealId())) {
+                repository.save(toEntity(deal));
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    private int persist(List<FxDealResDTO> deals) {
+        for (int i = 0; i < deals.size(); i++) {
+            entityManager.persist(toEntity(deals.get(i)));
+            if ((i + 1) % hibernateBatchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return deals.size();
+    }
+
+    private int jdbcBatch(List<FxDealResDTO> deals) {
+        int inserted = 0;
+        for (int[] counts : jdbcTemplate.batchUpdate(INSERT, deals, hibernateBatchSize, (ps, deal) -> {
+            ps.setString(1, deal.dealId());
+            ps.setString(2, deal.fromCurrency());
+            ps.setString(3, deal.toCurrency());
+            ps.setTimestamp(4, Timestamp.valueOf(deal.dealTimestamp()));
+            ps.setBigDecimal(5, deal.dealAmount());
+        })) {
+            for (int count : counts) {
+                inserted += Math.max(count, 0);
+            }
+        }
+        return inserted;
+    }
+
+    private int multiRowInsert(List<FxDealResDTO> deals) {
+        int inserted = 0;
+        for (int start = 0; start < deals.size(); start += MULTI_ROW_INSERT_ROWS) {
+            var chunk = deals.subList(start, Math.min(start + MULTI_ROW_INSERT_ROWS, deals.size()));
+            var sql = new StringBuilder("INSERT INTO fx_deals (deal_id, from_currency, to_currency, deal_timestamp, deal_amount) VALUES ");
+            var args = new Object[chunk.size() * 5];
+            for (int i = 0; i < chunk.size(); i++) {
+                var deal = chunk.get(i);
+                sql.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+                args[i * 5] = deal.dealId();
+                args[i * 5 + 1] = deal.fromCurrency();
+                args[i * 5 + 2] = deal.toCurrency();
+                args[i * 5 + 3] = Timestamp.valueOf(deal.dealTimestamp());
+                args[i * 5 + 4] = deal.dealAmount();
+            }
+            sql.append(" ON CONFLICT (deal_id) DO NOTHING");
+            inserted += jdbcTemplate.update(sql.toString(), args);
+        }
+        return inserted;
+    }
+
+    private int copy(List<FxDealResDTO> deals) {
+        var csv = new StringBuilder(deals.size() * 64);
+        for (FxDealResDTO deal : deals) {
+            csv.append('"').append(deal.dealId().replace("\"", "\"\"")).append("\",")
+                    .append(deal.fromCurrency()).append(',')
+                    .append(deal.toCurrency()).append(',')
+                    .append(COPY_TIMESTAMP.format(deal.dealTimestamp())).append(',')
+                    .append(deal.dealAmount().toPlainString()).append('\n');
+        }
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+            try (var statement = con.createStatement()) {
+                statement.execute(CREATE_STAGING);
+                con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING, new StringReader(csv.toString()));
+                return statement.executeUpdate(MERGE_STAGING);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private List<FxDealResDTO> withoutExisting(List<FxDealResDTO> deals) {
+        Set<String> existing = new HashSet<>();
+        for (int start = 0; start < deals.size(); start += EXISTENCE_CHUNK_SIZE) {
+            var ids = deals.subList(start, Math.min(start + EXISTENCE_CHUNK_SIZE, deals.size())).stream()
+                    .map(FxDealResDTO::dealId)
+                    .toArray(String[]::new);
+            existing.addAll(repository.findExistingDealIds(ids));
+        }
+        var fresh = new ArrayList<FxDealResDTO>(deals.size() - existing.size());
+        for (FxDealResDTO deal : deals) {
+            if (!existing.contains(deal.dealId())) {
+                fresh.add(deal);
+            }
+        }
+        return fresh;
+    }
+
+    private int inTransaction(IntSupplier work) {
+        Integer inserted = transaction.execute(status -> work.getAsInt());
+        return inserted == null ? 0 : inserted;
+    }
+
+    private static FxDeal toEntity(FxDealResDTO deal) {
+        var entity = new FxDeal();
+        entity.setDealId(deal.dealId());
+        entity.setFromCurrency(deal.fromCurrency());
+        entity.setToCurrency(deal.toCurrency());
+        entity.setDealTimestamp(deal.dealTimestamp());
+        entity.setDealAmount(deal.dealAmount());
+        return entity;
+    }
+}
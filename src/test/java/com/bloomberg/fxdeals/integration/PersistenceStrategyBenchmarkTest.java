@@ -0,0 +1,172 @@
+package com.bloomberg.fxdeals.integration;
+
+import com.bloomberg.fxdeals.config.AbstractIntegrationTest;
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import com.bloomberg.fxdeals.integration.PersistenceStrategies.Strategy;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sweeps every {@link Strategy} over batch sizes and duplicate ratios against the Testcontainers
+ * database and writes throughput and latency per combination as JSON, so persistence changes can be
+ * decided from measurements. Off by default; run with
+ * {@code mvn test -Dtest=PersistenceStrategyBenchmarkTest -Dfx-deals.benchmark.persistence=true}.
+ * <p>
+ * Each measured run starts from an empty table seeded with the run's duplicates, and asserts that
+ * exactly the non-duplicate deals were inserted.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "fx-deals.benchmark.persistence", matches = "true")
+@TestPropertySource(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=" + PersistenceStrategyBenchmarkTest.HIBERNATE_BATCH_SIZE,
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.com.bloomberg.fxdeals=WARN",
+        "logging.level.org.springframework.test=WARN"
+})
+class PersistenceStrategyBenchmarkTest extends AbstractIntegrationTest {
+    static final int HIBERNATE_BATCH_SIZE = 500;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 15, 10, 0, 0);
+    private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "JPY", "CHF", "AUD", "CAD", "SEK"};
+
+    @Autowired
+    private FxDealRepository fxDealRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    record RunResult(Strategy strategy, int batchSize, double duplicateRatio, int inserted, List<Double> durationsMs,
+                     double minMs, double p50Ms, double meanMs, double maxMs, double dealsPerSecond,
+                     double p50MicrosPerDeal) {
+    }
+
+    @Test
+    @DisplayName("Benchmark: Should compare persistence strategies across batch sizes and duplicate ratios")
+    void shouldComparePersistenceStrategies() throws IOException {
+        // Arrange
+        var strategies = strategies();
+        var batchSizes = Arrays.stream(property("batch-sizes", "100,1000,10000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        var duplicateRatios = Arrays.stream(property("duplicate-ratios", "0,0.1,0.5").split(","))
+                .map(String::trim).mapToDouble(Double::parseDouble).toArray();
+        int warmups = Integer.parseInt(property("warmups", "2"));
+        int runs = Integer.parseInt(property("runs", "5"));
+        var output = Path.of(property("output", "target/benchmarks/persistence-strategies.json"));
+        var persistence = new PersistenceStrategies(fxDealRepository, entityManager, jdbcTemplate,
+                                                    new TransactionTemplate(transactionManager), HIBERNATE_BATCH_SIZE);
+
+        // Act
+        var results = new ArrayList<RunResult>();
+        for (int batchSize : batchSizes) {
+            for (double duplicateRatio : duplicateRatios) {
+                for (Strategy strategy : strategies) {
+                    results.add(measure(persistence, strategy, batchSize, duplicateRatio, warmups, runs));
+                }
+            }
+        }
+        jdbcTemplate.execute("TRUNCATE fx_deals");
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        var report = new LinkedHashMap<String, Object>();
+        report.put("generatedAt", Instant.now().toString());
+        report.put("hibernateBatchSize", HIBERNATE_BATCH_SIZE);
+        report.put("warmups", warmups);
+        report.put("runs", runs);
+        report.put("results", results);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+        log.warn("Persistence strategy results written to {}", output.toAbsolutePath());
+        results.forEach(result -> log.warn("{} batch={} duplicates={} p50={}ms deals/s={}",
+                                           result.strategy(), result.batchSize(), result.duplicateRatio(),
+                                           String.format("%.2f", result.p50Ms()), String.format("%.0f", result.dealsPerSecond())));
+
+        // Assert
+        assertThat(output).exists();
+        assertThat(results).hasSize(batchSizes.length * duplicateRatios.length * strategies.size());
+    }
+
+    private RunResult measure(PersistenceStrategies persistence, Strategy strategy, int batchSize,
+                              double duplicateRatio, int warmups, int runs) {
+        int duplicates = (int) Math.round(batchSize * duplicateRatio);
+        var durations = new ArrayList<Double>(runs);
+        for (int run = 0; run < warmups + runs; run++) {
+            var deals = deals(batchSize, run);
+            jdbcTemplate.execute("TRUNCATE fx_deals");
+            persistence.seed(deals.subList(0, duplicates));
+            Collections.shuffle(deals, new Random(run));
+
+            long start = System.nanoTime();
+            int inserted = persistence.write(strategy, deals);
+            long elapsed = System.nanoTime() - start;
+
+            assertThat(inserted).as("%s inserted", strategy).isEqualTo(batchSize - duplicates);
+            assertThat(fxDealRepository.count()).isEqualTo(batchSize);
+            if (run >= warmups) {
+                durations.add(elapsed / 1_000_000.0);
+            }
+        }
+
+        var sorted = durations.stream().sorted().toList();
+        double p50 = sorted.get(sorted.size() / 2);
+        return new RunResult(strategy, batchSize, duplicateRatio, batchSize - duplicates, durations,
+                             sorted.get(0), p50, sorted.stream().mapToDouble(Double::doubleValue).average().orElse(0),
+                             sorted.get(sorted.size() - 1), batchSize / (p50 / 1_000.0), p50 * 1_000.0 / batchSize);
+    }
+
+    private static List<FxDealResDTO> deals(int batchSize, int run) {
+        var random = new Random(31L * batchSize + run);
+        var deals = new ArrayList<FxDealResDTO>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            int from = random.nextInt(CURRENCIES.length);
+            int to = (from + 1 + random.nextInt(CURRENCIES.length - 1)) % CURRENCIES.length;
+            deals.add(new FxDealResDTO("PB-" + run + "-" + i, CURRENCIES[from], CURRENCIES[to],
+                                       BASE.plusSeconds(i), BigDecimal.valueOf(1 + random.nextInt(100_000_000), 4)));
+        }
+        return deals;
+    }
+
+    private static List<Strategy> strategies() {
+        var selected = property("strategies", "");
+        if (selected.isBlank()) {
+            return List.of(Strategy.values());
+        }
+        return Arrays.stream(selected.split(",")).map(String::trim).map(Strategy::valueOf).toList();
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("fx-deals.benchmark." + name, defaultValue);
+    }
+}
@@ -0,0 +1,127 @@
+package com.bloomberg.fxdeals.integration;
+
+import com.bloomberg.fxdeals.config.AbstractIntegrationTest;
+import com.bloomberg.fxdeals.config.datasource.ReplicaLagGuard;
+import com.bloomberg.fxdeals.dtos.req.FxDealReqDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import com.bloomberg.fxdeals.entity.FxDeal;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import com.bloomberg.fxdeals.service.FxDealService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the read/write routing against two independent PostgreSQL instances: rows that only exist
+ * on the second instance prove that read-only transactions were routed to it.
+ */
+class ReadWriteRoutingIntegrationTest extends AbstractIntegrationTest {
+
+    @Container
+    protected static final PostgreSQLContainer<?> replicaContainer =
+        new PostgreSQLContainer<>("postgres:18.1-alpine")
+            .withDatabaseName("fx-deals-warehouse-replica-test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void registerReplicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("fx-deals.datasource.replica.enabled", () -> "true");
+        registry.add("fx-deals.datasource.replica.max-lag-ms", () -> "0");
+        registry.add("fx-deals.datasource.replica.pool.jdbc-url", replicaContainer::getJdbcUrl);
+        registry.add("fx-deals.datasource.replica.pool.username", replicaContainer::getUsername);
+        registry.add("fx-deals.datasource.replica.pool.password", replicaContainer::getPassword);
+    }
+
+    @Autowired
+    private FxDealService fxDealService;
+
+    @Autowired
+    private FxDealRepository fxDealRepository;
+
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+
+    @BeforeAll
+    static void createReplicaSchema() throws SQLException {
+        try (var connection = DriverManager.getConnection(replicaContainer.getJdbcUrl(),
+                                                          replicaContainer.getUsername(),
+                                                          replicaContainer.getPassword());
+             var statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE IF NOT EXISTS fx_deals (
+                        deal_id VARCHAR(100) PRIMARY KEY,
+                        from_currency VARCHAR(3) NOT NULL,
+                        to_currency VARCHAR(3) NOT NULL,
+                        deal_timestamp TIMESTAMP NOT NULL,
+                        deal_amount DECIMAL(19, 4) NOT NULL,
+                        ingest_seq BIGSERIAL NOT NULL UNIQUE)""");
+            statement.execute("TRUNCATE fx_deals");
+            statement.execute("""
+                    INSERT INTO fx_deals VALUES ('REPLICA-ONLY', 'USD', 'EUR', '2024-11-16 10:30:00', 1)""");
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        fxDealRepository.deleteAll();
+        replicaLagGuard.checkLag();
+    }
+
+    @Test
+    @DisplayName("Integration: Should serve read-only repository reads from the replica pool")
+    void testReadOnlyRead_ReadsFromReplica() {
+        assertThat(fxDealRepository.findAll())
+                .extracting(FxDeal::getDealId)
+                .containsExactly("REPLICA-ONLY");
+    }
+
+    @Test
+    @DisplayName("Integration: Should render the cached listing from the primary pool")
+    void testGetAllDeals_ReadsFromPrimary() {
+        // When
+        fxDealService.importSingleDeal(new FxDealReqDTO(
+                "PRIMARY-002", "USD", "EUR", "2024-11-16 10:30:00", "1000.50"));
+
+        // Then
+        assertThat(fxDealService.getAllDeals())
+                .extracting(FxDealResDTO::dealId)
+                .containsExactly("PRIMARY-002");
+    }
+
+    @Test
+    @DisplayName("Integration: Should load cached range buckets from the primary pool")
+    void testGetDealsInRange_ReadsFromPrimary() {
+        // When
+        fxDealService.importSingleDeal(new FxDealReqDTO(
+                "PRIMARY-003", "USD", "EUR", "2024-11-16 10:45:00", "1000.50"));
+
+        // Then
+        assertThat(fxDealService.getDealsInRange("2024-11-16 10:00:00", "2024-11-16 11:00:00"))
+                .extracting(FxDealResDTO::dealId)
+                .containsExactly("PRIMARY-003");
+    }
+
+    @Test
+    @DisplayName("Integration: Should keep imports on the primary pool")
+    void testImport_WritesToPrimary() {
+        // When
+        fxDealService.importSingleDeal(new FxDealReqDTO(
+                "PRIMARY-001", "USD", "EUR", "2024-11-16 10:30:00", "1000.50"));
+
+        // Then
+        assertThat(fxDealRepository.existsById("PRIMARY-001")).isTrue();
+        assertThat(fxDealRepository.existsById("REPLICA-ONLY")).isFalse();
+    }
+}
@@ -0,0 +1,102 @@
+package com.bloomberg.fxdeals.jfr;
+
+import com.bloomberg.fxdeals.dtos.res.RejectionReason;
+import com.bloomberg.fxdeals.metrics.ImportMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("JFR Events Tests")
+class JfrEventsTest {
+
+    @TempDir
+    private Path directory;
+
+    private List<RecordedEvent> record(String eventName, Runnable action) throws IOException {
+        try (var recording = new Recording()) {
+            recording.enable(eventName).withThreshold(Duration.ZERO);
+            recording.start();
+            action.run();
+            recording.stop();
+            var file = directory.resolve("test.jfr");
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(eventName))
+                    .toList();
+        }
+    }
+
+    @Test
+    @DisplayName("Should record stage durations and outcome of each imported deal")
+    void shouldRecordDealImportEvents() throws IOException {
+        // Arrange
+        var metrics = new ImportMetrics(new SimpleMeterRegistry());
+
+        // Act
+        var events = record("com.bloomberg.fxdeals.DealImport", () -> {
+            var saved = DealImportEvent.start(ImportMetrics.Operation.BATCH, "DEAL-1", 2);
+            metrics.record(ImportMetrics.Stage.VALIDATE, ImportMetrics.Operation.BATCH, 1_000);
+            metrics.record(ImportMetrics.Stage.PERSIST, ImportMetrics.Operation.BATCH, 5_000);
+            metrics.record(ImportMetrics.Stage.PERSIST, ImportMetrics.Operation.BATCH, 2_000);
+            saved.saved();
+            saved.finish();
+
+            var rejected = DealImportEvent.start(ImportMetrics.Operation.BATCH, "DEAL-2", 2);
+            rejected.rejected(List.of(RejectionReason.DUPLICATE_DEAL_ID, RejectionReason.INVALID_FROM_CURRENCY));
+            rejected.finish();
+            metrics.record(ImportMetrics.Stage.PERSIST, ImportMetrics.Operation.BATCH, 9_000);
+        });
+
+        // Assert
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0)).satisfies(event -> {
+            assertThat(event.getString("dealId")).isEqualTo("DEAL-1");
+            assertThat(event.getString("operation")).isEqualTo("BATCH");
+            assertThat(event.getInt("batchSize")).isEqualTo(2);
+            assertThat(event.getDuration("validate")).isEqualTo(Duration.ofNanos(1_000));
+            assertThat(event.getDuration("persist")).isEqualTo(Duration.ofNanos(7_000));
+            assertThat(event.getString("outcome")).isEqualTo(DealImportEvent.SAVED);
+        });
+        assertThat(events.get(1)).satisfies(event -> {
+            assertThat(event.getDuration("persist")).isZero();
+            assertThat(event.getString("outcome")).isEqualTo(DealImportEvent.REJECTED);
+            assertThat(event.getString("rejectionReasons")).isEqualTo("DUPLICATE_DEAL_ID,INVALID_FROM_CURRENCY");
+        });
+    }
+
+    @Test
+    @DisplayName("Should record one database call event per repository call, including failures")
+    void shouldRecordDatabaseCallEvents() throws IOException {
+        // Arrange
+        var proxyFactory = new ProxyFactory((Function<String, Integer>) value -> Integer.parseInt(value));
+        proxyFactory.addAdvice(new DatabaseCallInterceptor("FxDealRepository"));
+        @SuppressWarnings("unchecked")
+        var repository = (Function<String, Integer>) proxyFactory.getProxy();
+
+        // Act
+        var events = record("com.bloomberg.fxdeals.DatabaseCall", () -> {
+            assertThat(repository.apply("42")).isEqualTo(42);
+            assertThatThrownBy(() -> repository.apply("x")).isInstanceOf(NumberFormatException.class);
+        });
+
+        // Assert
+        assertThat(events).extracting(event -> event.getString("repository")).containsOnly("FxDealRepository");
+        assertThat(events).extracting(event -> event.getString("method")).containsExactly("apply", "apply");
+        assertThat(events).extracting(event -> event.getString("error"))
+                .containsExactly(null, NumberFormatException.class.getName());
+    }
+}
@@ -0,0 +1,196 @@
+package com.bloomberg.fxdeals.load;
+
+import com.bloomberg.fxdeals.capture.CaptureLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Replays a traffic capture taken with {@code /actuator/capture} against a running instance with
+ * {@link OpenModelDriver}. Requests keep their recorded inter-arrival times, scaled by {@code --speed}
+ * ({@code 1} for real time, {@code 10} for ten times faster), or are all due at once with
+ * {@code --speed max}, which caps concurrency at the most requests the capture saw in flight. Writes a
+ * {@link LoadReport} holding the replay latency next to the durations the service took when the
+ * traffic was captured, plus the number of requests answered with a different status.
+ * <pre>
+ * mvn -Preplay test-compile exec:exec -Dreplay.args="--capture fx-deals-20260101-120000.fxcap --speed 4"
+ * </pre>
+ */
+@Slf4j
+public final class CaptureReplay {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String SCENARIO = "capture";
+
+    private CaptureReplay() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var options = options(args);
+        if (!options.containsKey("--capture")) {
+            throw new IllegalArgumentException("--capture PATH is required");
+        }
+        var baseUrl = options.get("--base-url");
+        var speed = options.get("--speed").trim().toLowerCase(Locale.ROOT);
+        boolean asFastAsPossible = speed.equals("max");
+        double factor = asFastAsPossible ? 0 : Double.parseDouble(speed);
+        if (!asFastAsPossible && factor <= 0) {
+            throw new IllegalArgumentException("--speed must be positive or max");
+        }
+
+        var capture = read(Path.of(options.get("--capture")));
+        var entries = capture.entries();
+        if (entries.isEmpty()) {
+            log.warn("Capture {} holds no requests", options.get("--capture"));
+            return;
+        }
+        int recordedInFlight = entries.stream().mapToInt(CaptureLog.Entry::inFlight).max().orElse(1);
+        int maxInFlight = options.containsKey("--max-in-flight") ? Integer.parseInt(options.get("--max-in-flight"))
+                : asFastAsPossible ? recordedInFlight : Math.max(64, recordedInFlight * 2);
+        long[] arrivals = arrivals(entries, factor);
+        var duration = Duration.ofNanos(arrivals[arrivals.length - 1]).plusMillis(1);
+
+        var client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        var next = new AtomicInteger();
+        var mismatches = new AtomicLong();
+        var scenario = new OpenModelDriver.Scenario(
+                SCENARIO, entries.size() * 1e9 / Math.max(1, arrivals[arrivals.length - 1]),
+                index -> index < arrivals.length ? arrivals[(int) index] : -1,
+                () -> send(client, baseUrl, entries.get(next.getAndIncrement()), mismatches),
+                status -> status > 0 && status < 500);
+
+        log.info("Replaying {} requests captured at {} against {} at speed {} with up to {} in flight",
+                 entries.size(), capture.start(), baseUrl, speed, maxInFlight);
+        var results = new OpenModelDriver(Duration.ZERO, duration, maxInFlight).run(List.of(scenario));
+
+        var prefix = options.get("--prefix");
+        var reportOptions = new LinkedHashMap<String, Object>(options);
+        reportOptions.put("--max-in-flight", maxInFlight);
+        var report = LoadReport.of(prefix, results, duration, reportOptions);
+        @SuppressWarnings("unchecked")
+        var metrics = (Map<String, Object>) report.get("metrics");
+        var original = original(entries);
+        metrics.put(prefix + "_" + SCENARIO + "_original_duration", LoadReport.trend(original));
+        metrics.put(prefix + "_" + SCENARIO + "_status_mismatches", LoadReport.counter(mismatches.get(), duration));
+
+        var output = Path.of(options.get("--output"));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        JSON.writer(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+        var result = results.get(SCENARIO);
+        try (var out = new PrintStream(Files.newOutputStream(output.resolveSibling(prefix + "_" + SCENARIO + "_latency.hgrm")),
+                                       false, StandardCharsets.UTF_8)) {
+            result.latency().outputPercentileDistribution(out, 1000.0);
+        }
+        log.info("{} requests, {} failed, {} late starts, {} with a different status than captured, statuses {}",
+                 result.requests(), result.failed(), result.lateStarts(), mismatches.get(), result.statuses());
+        log.info("Replayed service time p50={}ms p99={}ms max={}ms (latency p99={}ms) - captured p50={}ms p99={}ms max={}ms",
+                 millis(result.serviceTime().getValueAtPercentile(50)), millis(result.serviceTime().getValueAtPercentile(99)),
+                 millis(result.serviceTime().getMaxValue()), millis(result.latency().getValueAtPercentile(99)),
+                 millis(original.getValueAtPercentile(50)), millis(original.getValueAtPercentile(99)), millis(original.getMaxValue()));
+        log.info("Replay report written to {}", output.toAbsolutePath());
+    }
+
+    record Capture(Instant start, List<CaptureLog.Entry> entries) {
+    }
+
+    /** All entries of a capture in arrival order; the capture file holds them in completion order. */
+    static Capture read(Path file) throws IOException {
+        var entries = new ArrayList<CaptureLog.Entry>();
+        try (var reader = new CaptureLog.Reader(Files.newInputStream(file))) {
+            for (var entry = reader.next(); !isNull(entry); entry = reader.next()) {
+                entries.add(entry);
+            }
+            entries.sort(Comparator.comparingLong(CaptureLog.Entry::offsetNanos));
+            return new Capture(Instant.ofEpochMilli(reader.startEpochMillis()), entries);
+        }
+    }
+
+    /**
+     * When each entry is due, relative to the first one, with the recorded gaps divided by
+     * {@code speed}; all at once when {@code speed} is 0.
+     */
+    static long[] arrivals(List<CaptureLog.Entry> entries, double speed) {
+        var arrivals = new long[entries.size()];
+        long first = entries.get(0).offsetNanos();
+        for (int i = 0; i < arrivals.length; i++) {
+            arrivals[i] = speed == 0 ? 0 : (long) ((entries.get(i).offsetNanos() - first) / speed);
+        }
+        return arrivals;
+    }
+
+    private static Map<String, String> options(String[] args) {
+        var options = new LinkedHashMap<String, String>();
+        options.put("--base-url", "http://localhost:8080");
+        options.put("--speed", "1");
+        options.put("--prefix", "replay");
+        options.put("--output", "target/replay/report.json");
+        if (args.length % 2 != 0) {
+            throw new IllegalArgumentException("Options come in pairs: --capture PATH " + options.keySet() + " --max-in-flight N");
+        }
+        for (int i = 0; i < args.length; i += 2) {
+            if (!options.containsKey(args[i]) && !args[i].equals("--capture") && !args[i].equals("--max-in-flight")) {
+                throw new IllegalArgumentException("Unknown option " + args[i] + ", use one of --capture " + options.keySet()
+                                                   + " --max-in-flight");
+            }
+            options.put(args[i], args[i + 1]);
+        }
+        return options;
+    }
+
+    private static Callable<Integer> send(HttpClient client, String baseUrl, CaptureLog.Entry entry, AtomicLong mismatches) {
+        var builder = HttpRequest.newBuilder(URI.create(baseUrl + entry.uri()))
+                .timeout(Duration.ofSeconds(30))
+                .method(entry.method(), entry.body().length == 0
+                        ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(entry.body()));
+        if (!entry.contentType().isEmpty()) {
+            builder.header("Content-Type", entry.contentType());
+        }
+        var request = builder.build();
+        return () -> {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status != entry.status()) {
+                mismatches.incrementAndGet();
+            }
+            return status;
+        };
+    }
+
+    private static Histogram original(List<CaptureLog.Entry> entries) {
+        var histogram = new Histogram(3);
+        for (var entry : entries) {
+            histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(entry.durationNanos()));
+        }
+        return histogram;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,230 @@
+package com.bloomberg.fxdeals.load;
+
+import com.bloomberg.fxdeals.dataset.DealDatasetGenerator;
+import com.bloomberg.fxdeals.dtos.req.FxDealReqDTO;
+import com.bloomberg.fxdeals.service.impl.FxDealServiceImpl;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.IntPredicate;
+
+/**
+ * Drives the import and read endpoints of a running instance at constant arrival rates with
+ * {@link OpenModelDriver}, writes a k6-style {@link LoadReport} plus an HdrHistogram percentile
+ * distribution ({@code .hgrm}) per scenario, and optionally fails when the report regressed against
+ * a baseline report. Import payloads come from {@link DealDatasetGenerator}, so a seed always sends
+ * the same deals in the same order.
+ * <pre>
+ * mvn -Pload test-compile exec:exec -Dload.args="--rates single_import=50,batch_import=5,get_all=10 --duration 2m"
+ * </pre>
+ */
+@Slf4j
+public final class LoadHarness {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final List<String> SCENARIOS = List.of("single_import", "batch_import", "get_all", "range");
+
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var options = options(args);
+        var baseUrl = options.get("--base-url");
+        var duration = duration(options.get("--duration"));
+        var warmup = duration(options.get("--warmup"));
+        long seed = Long.parseLong(options.get("--seed"));
+        double invalidRatio = Double.parseDouble(options.get("--invalid-ratio"));
+        double duplicateRatio = Double.parseDouble(options.get("--duplicate-ratio"));
+        int batchSize = Integer.parseInt(options.get("--batch-size"));
+        var idPrefix = options.getOrDefault("--id-prefix", "LOAD-" + seed + "-" + Long.toString(System.currentTimeMillis(), 36));
+        IntPredicate importExpected = invalidRatio + duplicateRatio > 0
+                ? status -> status == 201 || status == 400 : status -> status == 201;
+
+        var client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        var scenarios = new ArrayList<OpenModelDriver.Scenario>();
+        for (var rate : rates(options.get("--rates")).entrySet()) {
+            var name = rate.getKey();
+            var deals = new DealDatasetGenerator(new DealDatasetGenerator.Options(
+                    Long.MAX_VALUE, seed + SCENARIOS.indexOf(name), DealDatasetGenerator.Format.JSON, Path.of("unused"),
+                    idPrefix + "-" + SCENARIOS.indexOf(name), 1.0, DealDatasetGenerator.Timestamps.BUSINESS_HOURS,
+                    DealDatasetGenerator.Options.defaults().start(), 30, duplicateRatio, invalidRatio,
+                    DealDatasetGenerator.Options.defaults().invalidMix()));
+            scenarios.add(switch (name) {
+                case "single_import" -> new OpenModelDriver.Scenario(name, rate.getValue(),
+                        () -> post(client, baseUrl + "/api/v1/deals/import/single", json(deals.next())), importExpected);
+                case "batch_import" -> new OpenModelDriver.Scenario(name, rate.getValue(),
+                        () -> post(client, baseUrl + "/api/v1/deals/import/batch", json(batch(deals, batchSize))), importExpected);
+                case "get_all" -> new OpenModelDriver.Scenario(name, rate.getValue(),
+                        () -> get(client, baseUrl + "/api/v1/deals"), status -> status == 200);
+                default -> new OpenModelDriver.Scenario(name, rate.getValue(),
+                        () -> get(client, baseUrl + "/api/v1/deals/range?from=" + encode(rangeStart())
+                                + "&to=" + encode(rangeStart().plusDays(1))), status -> status == 200);
+            });
+        }
+
+        log.info("Running {} against {} for {} after a {} warm-up", scenarios.stream().map(s -> s.name() + "=" + s.ratePerSecond() + "/s").toList(),
+                 baseUrl, duration, warmup);
+        var results = new OpenModelDriver(warmup, duration, Integer.parseInt(options.get("--max-in-flight"))).run(scenarios);
+
+        var reportOptions = new LinkedHashMap<String, Object>(options);
+        reportOptions.put("--id-prefix", idPrefix);
+        var prefix = options.get("--prefix");
+        var report = LoadReport.of(prefix, results, duration, reportOptions);
+        var output = Path.of(options.get("--output"));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        JSON.writer(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+        for (var result : results.values()) {
+            var histogram = output.resolveSibling(prefix + "_" + result.scenario().name() + "_latency.hgrm");
+            try (var out = new PrintStream(Files.newOutputStream(histogram), false, StandardCharsets.UTF_8)) {
+                result.latency().outputPercentileDistribution(out, 1000.0);
+            }
+            log.info("{}: {} requests, {} failed, {} late starts, statuses {} - latency p50={}ms p99={}ms p99.9={}ms max={}ms "
+                     + "(uncorrected p99={}ms)", result.scenario().name(), result.requests(), result.failed(), result.lateStarts(),
+                     result.statuses(), millis(result.latency().getValueAtPercentile(50)), millis(result.latency().getValueAtPercentile(99)),
+                     millis(result.latency().getValueAtPercentile(99.9)), millis(result.latency().getMaxValue()),
+                     millis(result.serviceTime().getValueAtPercentile(99)));
+        }
+        log.info("Load report written to {}", output.toAbsolutePath());
+
+        if (options.containsKey("--baseline")) {
+            var baseline = JSON.readValue(Path.of(options.get("--baseline")).toFile(), new TypeReference<Map<String, Object>>() { });
+            var comparisons = LoadReport.compare(report, baseline, Double.parseDouble(options.get("--tolerance")),
+                                                 Double.parseDouble(options.get("--min-delta-ms")));
+            comparisons.forEach(c -> log.info("{} {} {}: {} -> {} ms ({}%)", c.regression() ? "REGRESSED" : "ok       ",
+                                              c.metric(), c.stat(), c.baseline(), c.current(),
+                                              String.format(Locale.ROOT, "%+.1f", c.change() * 100)));
+            long regressions = comparisons.stream().filter(LoadReport.Comparison::regression).count();
+            if (comparisons.isEmpty()) {
+                log.warn("Baseline {} shares no latency metrics with this run", options.get("--baseline"));
+            } else if (regressions > 0 && Boolean.parseBoolean(options.get("--fail-on-regression"))) {
+                log.error("{} latency statistics regressed against {}", regressions, options.get("--baseline"));
+                System.exit(1);
+            }
+        }
+    }
+
+    private static Map<String, String> options(String[] args) {
+        var options = new LinkedHashMap<String, String>();
+        options.put("--base-url", "http://localhost:8080");
+        options.put("--rates", "single_import=20,batch_import=2,get_all=5");
+        options.put("--duration", "60s");
+        options.put("--warmup", "10s");
+        options.put("--max-in-flight", "64");
+        options.put("--batch-size", "10");
+        options.put("--seed", "42");
+        options.put("--invalid-ratio", "0");
+        options.put("--duplicate-ratio", "0");
+        options.put("--prefix", "mixed");
+        options.put("--output", "target/load/report.json");
+        options.put("--tolerance", "0.1");
+        options.put("--min-delta-ms", "1");
+        options.put("--fail-on-regression", "true");
+        if (args.length % 2 != 0) {
+            throw new IllegalArgumentException("Options come in pairs: " + options.keySet() + " --baseline PATH --id-prefix TEXT");
+        }
+        for (int i = 0; i < args.length; i += 2) {
+            if (!options.containsKey(args[i]) && !args[i].equals("--baseline") && !args[i].equals("--id-prefix")) {
+                throw new IllegalArgumentException("Unknown option " + args[i] + ", use one of " + options.keySet()
+                                                   + " --baseline --id-prefix");
+            }
+            options.put(args[i], args[i + 1]);
+        }
+        return options;
+    }
+
+    /** {@code single_import=20,get_all=5}: requests per second per scenario; 0 leaves a scenario out. */
+    static Map<String, Double> rates(String value) {
+        var rates = new LinkedHashMap<String, Double>();
+        for (var entry : value.split(",")) {
+            var parts = entry.split("=", 2);
+            var name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!SCENARIOS.contains(name) || parts.length != 2) {
+                throw new IllegalArgumentException("Unknown scenario rate '" + entry + "', use NAME=RATE with one of " + SCENARIOS);
+            }
+            double rate = Double.parseDouble(parts[1]);
+            if (rate > 0) {
+                rates.put(name, rate);
+            }
+        }
+        return rates;
+    }
+
+    /** {@code 500ms}, {@code 30s} or {@code 2m}, as in k6 options. */
+    static Duration duration(String value) {
+        var text = value.trim().toLowerCase(Locale.ROOT);
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        long amount = Long.parseLong(text.substring(0, text.length() - 1));
+        return switch (text.charAt(text.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Invalid duration '" + value + "', use e.g. 500ms, 30s or 2m");
+        };
+    }
+
+    private static List<FxDealReqDTO> batch(DealDatasetGenerator deals, int size) {
+        var batch = new ArrayList<FxDealReqDTO>(size);
+        for (int i = 0; i < size; i++) {
+            batch.add(deals.next());
+        }
+        return batch;
+    }
+
+    private static Callable<Integer> post(HttpClient client, String url, byte[] body) {
+        var request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return () -> client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static Callable<Integer> get(HttpClient client, String url) {
+        var request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+        return () -> client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static byte[] json(Object body) {
+        try {
+            return JSON.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize request body", e);
+        }
+    }
+
+    private static LocalDateTime rangeStart() {
+        return DealDatasetGenerator.Options.defaults().start();
+    }
+
+    private static String encode(LocalDateTime timestamp) {
+        return URLEncoder.encode(timestamp.format(FxDealServiceImpl.FORMATTER), StandardCharsets.UTF_8);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,110 @@
+package com.bloomberg.fxdeals.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load results in the shape of a k6 {@code --summary-export} file ({@code metrics.<name>.values}, times
+ * in milliseconds), so a harness report can be diffed against an earlier report or against a k6 summary
+ * such as {@code perf/k6/results/mixed-summary.json}. Each scenario contributes a coordinated-omission
+ * corrected {@code <prefix>_<scenario>_latency} trend, the uncorrected {@code ..._service_time}
+ * trend, and request, failure and late-start counts.
+ */
+public final class LoadReport {
+    static final List<String> PERCENTILES = List.of("med", "p(90)", "p(95)", "p(99)", "p(99.9)");
+
+    private LoadReport() {
+    }
+
+    /** Where a statistic of a trend moved between the baseline and the current report. */
+    public record Comparison(String metric, String stat, double baseline, double current, boolean regression) {
+        public double change() {
+            return baseline == 0 ? 0 : (current - baseline) / baseline;
+        }
+    }
+
+    public static Map<String, Object> of(String prefix, Map<String, OpenModelDriver.Result> results, Duration duration,
+                                         Map<String, Object> options) {
+        var metrics = new LinkedHashMap<String, Object>();
+        for (var result : results.values()) {
+            var name = prefix + "_" + result.scenario().name();
+            metrics.put(name + "_latency", trend(result.latency()));
+            metrics.put(name + "_service_time", trend(result.serviceTime()));
+            metrics.put(name + "_reqs", counter(result.requests(), duration));
+            var failed = new LinkedHashMap<String, Object>();
+            failed.put("rate", result.requests() == 0 ? 0.0 : (double) result.failed() / result.requests());
+            failed.put("passes", result.failed());
+            failed.put("fails", result.requests() - result.failed());
+            metrics.put(name + "_failed", metric("rate", "default", failed));
+            metrics.put(name + "_late_starts", counter(result.lateStarts(), duration));
+            metrics.put(name + "_statuses", metric("counter", "default", new LinkedHashMap<>(result.statuses())));
+        }
+        var report = new LinkedHashMap<String, Object>();
+        report.put("state", Map.of("testRunDurationMs", duration.toMillis()));
+        report.put("options", options);
+        report.put("metrics", metrics);
+        return report;
+    }
+
+    /**
+     * Compares every trend statistic present in both reports. A statistic regressed when it grew by
+     * more than {@code tolerance} (0.1 is 10%) and by more than {@code minDeltaMs}, which keeps
+     * sub-millisecond jitter on fast endpoints from failing a run.
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Comparison> compare(Map<String, Object> current, Map<String, Object> baseline,
+                                           double tolerance, double minDeltaMs) {
+        var comparisons = new ArrayList<Comparison>();
+        var currentMetrics = (Map<String, Object>) current.getOrDefault("metrics", Map.of());
+        var baselineMetrics = (Map<String, Object>) baseline.getOrDefault("metrics", Map.of());
+        currentMetrics.forEach((name, metric) -> {
+            if (!(baselineMetrics.get(name) instanceof Map<?, ?> baselineMetric)
+                    || !"trend".equals(((Map<String, Object>) metric).get("type"))) {
+                return;
+            }
+            var currentValues = (Map<String, Object>) ((Map<String, Object>) metric).get("values");
+            var baselineValues = (Map<String, Object>) baselineMetric.get("values");
+            for (var stat : PERCENTILES) {
+                if (currentValues.get(stat) instanceof Number now && baselineValues.get(stat) instanceof Number before) {
+                    double delta = now.doubleValue() - before.doubleValue();
+                    boolean regression = delta > minDeltaMs && delta > before.doubleValue() * tolerance;
+                    comparisons.add(new Comparison(name, stat, before.doubleValue(), now.doubleValue(), regression));
+                }
+            }
+        });
+        return comparisons;
+    }
+
+    static Map<String, Object> trend(Histogram micros) {
+        var values = new LinkedHashMap<String, Object>();
+        values.put("avg", micros.getMean() / 1000);
+        values.put("min", micros.getMinValue() / 1000.0);
+        values.put("med", micros.getValueAtPercentile(50) / 1000.0);
+        values.put("max", micros.getMaxValue() / 1000.0);
+        values.put("p(90)", micros.getValueAtPercentile(90) / 1000.0);
+        values.put("p(95)", micros.getValueAtPercentile(95) / 1000.0);
+        values.put("p(99)", micros.getValueAtPercentile(99) / 1000.0);
+        values.put("p(99.9)", micros.getValueAtPercentile(99.9) / 1000.0);
+        return metric("trend", "time", values);
+    }
+
+    static Map<String, Object> counter(long count, Duration duration) {
+        var values = new LinkedHashMap<String, Object>();
+        values.put("count", count);
+        values.put("rate", duration.isZero() ? 0.0 : count * 1000.0 / duration.toMillis());
+        return metric("counter", "default", values);
+    }
+
+    private static Map<String, Object> metric(String type, String contains, Map<?, ?> values) {
+        var metric = new LinkedHashMap<String, Object>();
+        metric.put("type", type);
+        metric.put("contains", contains);
+        metric.put("values", values);
+        return metric;
+    }
+}
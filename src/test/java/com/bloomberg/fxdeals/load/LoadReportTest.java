@@ -0,0 +1,77 @@
+package com.bloomberg.fxdeals.load;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.assertj.core.api.InstanceOfAssertFactories.MAP;
+
+@DisplayName("LoadReport Tests")
+class LoadReportTest {
+
+    private static Map<String, Object> trend(double med, double p95) {
+        return Map.of("type", "trend", "contains", "time", "values", Map.of("med", med, "p(95)", p95));
+    }
+
+    @Test
+    @DisplayName("Should report coordinated-omission corrected latency in k6 summary shape")
+    void shouldBuildK6StyleReport() {
+        // Arrange
+        var latency = new Histogram(3);
+        var serviceTime = new Histogram(3);
+        for (int i = 1; i <= 100; i++) {
+            latency.recordValue(i * 1_000L);
+            serviceTime.recordValue(500);
+        }
+        var scenario = new OpenModelDriver.Scenario("get_all", 10, () -> () -> 200, status -> status == 200);
+        var result = new OpenModelDriver.Result(scenario, latency, serviceTime, 100, 5, 0, Map.of(200, 95L, 500, 5L));
+
+        // Act
+        var report = LoadReport.of("mixed", Map.of("get_all", result), Duration.ofSeconds(10), Map.of());
+
+        // Assert
+        assertThat(report).extractingByKey("metrics").asInstanceOf(MAP)
+                .containsKeys("mixed_get_all_latency", "mixed_get_all_service_time", "mixed_get_all_reqs", "mixed_get_all_failed")
+                .satisfies(metrics -> {
+                    var values = (Map<?, ?>) ((Map<?, ?>) metrics.get("mixed_get_all_latency")).get("values");
+                    assertThat((double) values.get("med")).isEqualTo(50.0, offset(0.1));
+                    assertThat((double) values.get("p(99)")).isEqualTo(99.0, offset(0.1));
+                    var failed = (Map<?, ?>) ((Map<?, ?>) metrics.get("mixed_get_all_failed")).get("values");
+                    assertThat(failed.get("rate")).isEqualTo(0.05);
+                    var requests = (Map<?, ?>) ((Map<?, ?>) metrics.get("mixed_get_all_reqs")).get("values");
+                    assertThat(requests.get("rate")).isEqualTo(10.0);
+                });
+    }
+
+    @Test
+    @DisplayName("Should flag statistics that grew beyond both the tolerance and the noise floor")
+    void shouldCompareAgainstBaseline() {
+        // Arrange
+        var baseline = Map.<String, Object>of("metrics", Map.of(
+                "mixed_single_import_latency", trend(10, 100),
+                "mixed_get_all_latency", trend(0.4, 2),
+                "http_req_duration", trend(1, 1)));
+        var current = Map.<String, Object>of("metrics", Map.of(
+                "mixed_single_import_latency", trend(10.5, 130),
+                "mixed_get_all_latency", trend(0.8, 2.1),
+                "mixed_batch_import_latency", trend(50, 80)));
+
+        // Act
+        var comparisons = LoadReport.compare(current, baseline, 0.1, 1);
+
+        // Assert
+        assertThat(comparisons).hasSize(4);
+        assertThat(comparisons).filteredOn(LoadReport.Comparison::regression)
+                .singleElement()
+                .satisfies(comparison -> {
+                    assertThat(comparison.metric()).isEqualTo("mixed_single_import_latency");
+                    assertThat(comparison.stat()).isEqualTo("p(95)");
+                    assertThat(comparison.change()).isEqualTo(0.3, offset(1e-9));
+                });
+    }
+}
@@ -0,0 +1,172 @@
+package com.bloomberg.fxdeals.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Runs open-model workloads: each scenario starts requests on its own schedule, usually a constant
+ * arrival rate, whether or not earlier ones have completed, as production clients do, and up to
+ * {@code maxInFlight} run at once.
+ * <p>
+ * Latency is measured from the moment a request was <em>scheduled</em> to start, not from when a
+ * worker got round to sending it, so a stalled server is charged for every request that should
+ * have been sent during the stall (coordinated omission correction). The uncorrected service time
+ * from send to response is recorded alongside for comparison. Requests scheduled during the
+ * warm-up are sent but not recorded.
+ */
+public final class OpenModelDriver {
+    private final Duration warmup;
+    private final Duration duration;
+    private final int maxInFlight;
+
+    public OpenModelDriver(Duration warmup, Duration duration, int maxInFlight) {
+        this.warmup = warmup;
+        this.duration = duration;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * One workload. {@code arrivals} maps the index of each request to the nanoseconds after the start
+     * at which it is due, or to a negative value when there are no more. {@code requests} is called on
+     * the scenario's scheduling thread, in order, and returns the request to send; the request returns
+     * the HTTP status, which {@code expected} accepts or counts as a failure.
+     */
+    public record Scenario(String name, double ratePerSecond, LongUnaryOperator arrivals,
+                           Supplier<Callable<Integer>> requests, IntPredicate expected) {
+
+        /** Requests arriving at a constant {@code ratePerSecond}. */
+        public Scenario(String name, double ratePerSecond, Supplier<Callable<Integer>> requests, IntPredicate expected) {
+            this(name, ratePerSecond, constantRate(ratePerSecond), requests, expected);
+        }
+
+        private static LongUnaryOperator constantRate(double ratePerSecond) {
+            double intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+            return index -> (long) (index * intervalNanos);
+        }
+    }
+
+    /** Latencies in microseconds. */
+    public record Result(Scenario scenario, Histogram latency, Histogram serviceTime, long requests, long failed,
+                         long lateStarts, Map<Integer, Long> statuses) {
+    }
+
+    public Map<String, Result> run(List<Scenario> scenarios) throws InterruptedException {
+        var workers = new ThreadPoolExecutor(maxInFlight, maxInFlight, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                                             daemonThreads("load-worker"));
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        var recorders = new ArrayList<ScenarioRecorder>();
+        var schedulers = new ArrayList<Thread>();
+        for (var scenario : scenarios) {
+            var recorder = new ScenarioRecorder(scenario);
+            recorders.add(recorder);
+            var scheduler = new Thread(() -> schedule(recorder, workers, start, measureFrom, end), "load-" + scenario.name());
+            scheduler.setDaemon(true);
+            scheduler.start();
+            schedulers.add(scheduler);
+        }
+        for (var scheduler : schedulers) {
+            scheduler.join();
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(Math.max(60, duration.toSeconds()), TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+
+        var results = new LinkedHashMap<String, Result>();
+        for (var recorder : recorders) {
+            results.put(recorder.scenario.name(), recorder.result());
+        }
+        return results;
+    }
+
+    private static void schedule(ScenarioRecorder recorder, ExecutorService workers, long start, long measureFrom, long end) {
+        for (long i = 0; ; i++) {
+            long offset = recorder.scenario.arrivals().applyAsLong(i);
+            long intended = start + offset;
+            if (offset < 0 || intended >= end) {
+                return;
+            }
+            var request = recorder.scenario.requests().get();
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (wait < -TimeUnit.MILLISECONDS.toNanos(1)) {
+                recorder.lateStarts.incrementAndGet();
+            }
+            boolean measured = intended >= measureFrom;
+            workers.execute(() -> recorder.send(request, intended, measured));
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        var counter = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class ScenarioRecorder {
+        private final Scenario scenario;
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final Histogram serviceTime = new ConcurrentHistogram(3);
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong lateStarts = new AtomicLong();
+        private final Map<Integer, AtomicLong> statuses = new ConcurrentSkipListMap<>();
+
+        private ScenarioRecorder(Scenario scenario) {
+            this.scenario = scenario;
+        }
+
+        private void send(Callable<Integer> request, long intended, boolean measured) {
+            long sent = System.nanoTime();
+            int status;
+            try {
+                status = request.call();
+            } catch (Exception e) {
+                status = -1;
+            }
+            long done = System.nanoTime();
+            if (!measured) {
+                return;
+            }
+            requests.incrementAndGet();
+            statuses.computeIfAbsent(status, key -> new AtomicLong()).incrementAndGet();
+            if (status < 0 || !scenario.expected().test(status)) {
+                failed.incrementAndGet();
+            }
+            latency.recordValue(TimeUnit.NANOSECONDS.toMicros(done - intended));
+            serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(done - sent));
+        }
+
+        private Result result() {
+            var counts = new LinkedHashMap<Integer, Long>();
+            statuses.forEach((status, count) -> counts.put(status, count.get()));
+            return new Result(scenario, latency, serviceTime, requests.get(), failed.get(), lateStarts.get(), counts);
+        }
+    }
+}
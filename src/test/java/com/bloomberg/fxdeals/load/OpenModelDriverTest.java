@@ -0,0 +1,58 @@
+package com.bloomberg.fxdeals.load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("OpenModelDriver Tests")
+class OpenModelDriverTest {
+
+    @Test
+    @DisplayName("Should charge a stall to every request scheduled during it")
+    void shouldCorrectForCoordinatedOmission() throws InterruptedException {
+        // Arrange
+        var sent = new AtomicInteger();
+        var scenario = new OpenModelDriver.Scenario("stalling", 200, () -> () -> {
+            Thread.sleep(sent.incrementAndGet() == 50 ? 300 : 1);
+            return 201;
+        }, status -> status == 201);
+
+        // Act
+        var result = new OpenModelDriver(Duration.ZERO, Duration.ofSeconds(1), 1).run(List.of(scenario)).get("stalling");
+
+        // Assert
+        assertThat(result.requests()).isEqualTo(200);
+        assertThat(result.failed()).isZero();
+        assertThat(result.statuses()).isEqualTo(Map.of(201, 200L));
+        assertThat(result.serviceTime().getValueAtPercentile(90)).isLessThan(50_000);
+        assertThat(result.latency().getValueAtPercentile(90)).isGreaterThan(100_000);
+        assertThat(result.latency().getMaxValue()).isGreaterThanOrEqualTo(300_000);
+    }
+
+    @Test
+    @DisplayName("Should count unexpected statuses and errors as failures without recording the warm-up")
+    void shouldCountFailures() throws InterruptedException {
+        // Arrange
+        var sent = new AtomicInteger();
+        var scenario = new OpenModelDriver.Scenario("failing", 100, () -> () -> switch (sent.incrementAndGet() % 4) {
+            case 0 -> throw new IllegalStateException("connection refused");
+            case 1 -> 500;
+            default -> 200;
+        }, status -> status == 200);
+
+        // Act
+        var result = new OpenModelDriver(Duration.ofMillis(200), Duration.ofMillis(400), 4).run(List.of(scenario)).get("failing");
+
+        // Assert
+        assertThat(sent.get()).isEqualTo(60);
+        assertThat(result.requests()).isEqualTo(40);
+        assertThat(result.failed()).isEqualTo(20);
+        assertThat(result.statuses()).containsOnlyKeys(-1, 200, 500);
+    }
+}
@@ -0,0 +1,107 @@
+package com.bloomberg.fxdeals.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.bloomberg.fxdeals.dtos.res.RejectedFxDealResDTO;
+import com.bloomberg.fxdeals.dtos.res.RejectionReason;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ImportLogGovernor Tests")
+class ImportLogGovernorTest {
+
+    private final Logger log = (Logger) LoggerFactory.getLogger("com.bloomberg.fxdeals.logging.test");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        log.addAppender(appender);
+        log.setLevel(Level.INFO);
+        log.setAdditive(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        log.detachAppender(appender);
+    }
+
+    private static RejectedFxDealResDTO rejected(String dealId, RejectionReason reason) {
+        return new RejectedFxDealResDTO(dealId, List.of(reason.name()), List.of(reason));
+    }
+
+    @Test
+    @DisplayName("Should log sampled rejection details and one summary per batch")
+    void shouldSummarizeBatch() {
+        // Arrange
+        var governor = new ImportLogGovernor(2, 20, 10_000);
+        var batchLog = governor.batch(log, 6);
+
+        // Act
+        batchLog.saved("D1");
+        batchLog.saved("D2");
+        batchLog.rejected(rejected("D3", RejectionReason.INVALID_FROM_CURRENCY));
+        batchLog.rejected(rejected("D4", RejectionReason.INVALID_FROM_CURRENCY));
+        batchLog.rejected(rejected("D5", RejectionReason.DUPLICATE_DEAL_ID));
+        batchLog.failed(rejected("D6", RejectionReason.PERSISTENCE_ERROR), new IllegalStateException("connection reset"));
+        batchLog.finish();
+
+        // Assert
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+                "Validation failed for deal ID: D3 in batch - Errors: [INVALID_FROM_CURRENCY]",
+                "Validation failed for deal ID: D4 in batch - Errors: [INVALID_FROM_CURRENCY]",
+                "Batch import completed with 4 rejected deals and 2 successful deals out of 6 - Reasons: "
+                        + "{DUPLICATE_DEAL_ID=1, INVALID_FROM_CURRENCY=2, PERSISTENCE_ERROR=1} - details logged for the first 2 only");
+    }
+
+    @Test
+    @DisplayName("Should log a successful batch as a single INFO line")
+    void shouldLogSuccessfulBatchOnce() {
+        // Arrange
+        var batchLog = new ImportLogGovernor(2, 20, 10_000).batch(log, 3);
+
+        // Act
+        batchLog.saved("D1");
+        batchLog.saved("D2");
+        batchLog.saved("D3");
+        batchLog.finish();
+
+        // Assert
+        assertThat(appender.list).singleElement().satisfies(event -> {
+            assertThat(event.getLevel()).isEqualTo(Level.INFO);
+            assertThat(event.getFormattedMessage()).isEqualTo("Batch import completed successfully with 3 deals");
+        });
+    }
+
+    @Test
+    @DisplayName("Should rate-limit repeated warnings per reason and report suppressed ones")
+    void shouldRateLimitWarnings() throws InterruptedException {
+        // Arrange
+        var governor = new ImportLogGovernor(10, 2, 500);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            governor.warn(log, RejectionReason.INVALID_FROM_CURRENCY, "Invalid ISO currency code: {}", "X" + i);
+        }
+        governor.warn(log, RejectionReason.INVALID_DEAL_AMOUNT, "Invalid decimal format: {}", "abc");
+        Thread.sleep(600);
+        governor.warn(log, RejectionReason.INVALID_FROM_CURRENCY, "Invalid ISO currency code: {}", "X5");
+
+        // Assert
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+                "Invalid ISO currency code: X0",
+                "Invalid ISO currency code: X1",
+                "Invalid decimal format: abc",
+                "3 similar 'INVALID_FROM_CURRENCY' warnings were suppressed in the previous 500 ms",
+                "Invalid ISO currency code: X5");
+    }
+}
@@ -0,0 +1,81 @@
+package com.bloomberg.fxdeals.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("IngestionStatistics Tests")
+class IngestionStatisticsTest {
+
+    private final IngestionStatistics statistics = new IngestionStatistics(new SimpleMeterRegistry(), 60);
+
+    @Test
+    @DisplayName("Should start every average at the first rate and decay the 1-minute average fastest")
+    void shouldAverageDealRates() {
+        // Arrange
+        var batch = statistics.start(ImportMetrics.Operation.BATCH, 50);
+        for (int i = 0; i < 40; i++) {
+            batch.saved();
+        }
+        for (int i = 0; i < 10; i++) {
+            batch.rejected();
+        }
+        batch.finish();
+
+        // Act
+        statistics.tick();
+        var first = statistics.dealsPerSecond();
+        statistics.tick();
+        var second = statistics.dealsPerSecond();
+
+        // Assert
+        assertThat(first.get("received")).containsEntry("m1_rate", 10.0).containsEntry("m5_rate", 10.0).containsEntry("m15_rate", 10.0);
+        assertThat(first.get("imported")).containsEntry("m1_rate", 8.0);
+        assertThat(first.get("rejected")).containsEntry("m15_rate", 2.0);
+        var decayed = second.get("received");
+        assertThat(decayed.get("m1_rate")).isCloseTo(10.0 * Math.exp(-5.0 / 60), within(1e-9));
+        assertThat(decayed.get("m1_rate")).isLessThan(decayed.get("m5_rate"));
+        assertThat(decayed.get("m5_rate")).isLessThan(decayed.get("m15_rate"));
+    }
+
+    @Test
+    @DisplayName("Should count batches and deals in flight until they finish and record their durations")
+    void shouldTrackInFlightImports() {
+        // Arrange
+        var batch = statistics.start(ImportMetrics.Operation.BATCH, 3);
+        var single = statistics.start(ImportMetrics.Operation.SINGLE, 1);
+
+        // Act
+        int batchesDuring = statistics.inFlightBatches();
+        long dealsDuring = statistics.inFlightDeals();
+        single.finish();
+        batch.finish();
+
+        // Assert
+        assertThat(batchesDuring).isEqualTo(1);
+        assertThat(dealsDuring).isEqualTo(4);
+        assertThat(statistics.inFlightBatches()).isZero();
+        assertThat(statistics.inFlightDeals()).isZero();
+        assertThat(statistics.durationPercentiles()).containsOnlyKeys("single", "batch");
+        assertThat(statistics.durationPercentiles().get("batch")).containsOnlyKeys("p50", "p99", "p999");
+        assertThat((double) statistics.durationPercentiles().get("batch").get("p999")).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should report request latency percentiles per method and URI pattern")
+    void shouldTrackRequestDurations() {
+        // Act
+        statistics.recordRequest("GET", "/api/v1/deals/range", 4_000_000);
+        statistics.recordRequest("GET", "/api/v1/deals/range", 6_000_000);
+        statistics.recordRequest("POST", "/api/v1/deals/import/batch", 20_000_000);
+
+        // Assert
+        var percentiles = statistics.requestPercentiles();
+        assertThat(percentiles).containsOnlyKeys("GET /api/v1/deals/range", "POST /api/v1/deals/import/batch");
+        assertThat(percentiles.get("GET /api/v1/deals/range")).containsOnlyKeys("p50", "p99", "p999");
+        assertThat((double) percentiles.get("GET /api/v1/deals/range").get("p999")).isBetween(5.0, 7.0);
+    }
+}
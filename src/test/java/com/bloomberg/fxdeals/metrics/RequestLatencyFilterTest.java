@@ -0,0 +1,58 @@
+package com.bloomberg.fxdeals.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RequestLatencyFilter Tests")
+class RequestLatencyFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IngestionStatistics statistics = new IngestionStatistics(registry, 60);
+    private final RequestLatencyFilter filter = new RequestLatencyFilter(statistics);
+
+    @Test
+    @DisplayName("Should time read requests under their URI pattern")
+    void shouldRecordReadRequests() throws ServletException, IOException {
+        // Arrange
+        var chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/deals/{dealId}/exists");
+                response.getWriter().write("{\"exists\":true}");
+            }
+        });
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/deals/D1/exists"), new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertThat(registry.get("fxdeals.request.duration")
+                           .tag("method", "GET").tag("uri", "/api/v1/deals/{dealId}/exists").timer().count())
+                .isEqualTo(1);
+        assertThat(statistics.requestPercentiles()).containsOnlyKeys("GET /api/v1/deals/{dealId}/exists");
+    }
+
+    @Test
+    @DisplayName("Should only time API requests")
+    void shouldSkipNonApiRequests() throws ServletException, IOException {
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+                        new MockFilterChain());
+
+        // Assert
+        assertThat(statistics.requestPercentiles()).isEmpty();
+    }
+}
@@ -0,0 +1,92 @@
+package com.bloomberg.fxdeals.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RequestResourceFilter Tests")
+class RequestResourceFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RequestResourceFilter filter = new RequestResourceFilter(registry, true, "X-Server-Timing");
+
+    /** Stands in for a handler: allocates about 1 MiB and writes a body. */
+    private static MockFilterChain allocatingChain() {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/deals/{dealId}/exists");
+                var chunks = new byte[16][];
+                for (int i = 0; i < chunks.length; i++) {
+                    chunks[i] = new byte[64 * 1024];
+                }
+                response.getWriter().write("{\"exists\":" + (chunks.length > 0) + "}");
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Should record CPU time and allocated bytes per method and URI pattern")
+    void shouldRecordRequestResources() throws ServletException, IOException {
+        // Arrange
+        var request = new MockHttpServletRequest("GET", "/api/v1/deals/D1/exists");
+        var response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, allocatingChain());
+
+        // Assert
+        var allocation = registry.get("fxdeals.request.allocation")
+                .tag("method", "GET").tag("uri", "/api/v1/deals/{dealId}/exists").summary();
+        assertThat(allocation.count()).isEqualTo(1);
+        assertThat(allocation.totalAmount()).isGreaterThanOrEqualTo(16 * 64 * 1024);
+        assertThat(registry.get("fxdeals.request.cpu").tag("uri", "/api/v1/deals/{dealId}/exists").timer().count())
+                .isEqualTo(1);
+        assertThat(response.getHeader(RequestResourceFilter.SERVER_TIMING)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should add a Server-Timing header only when the client asks for it")
+    void shouldAddServerTimingOnRequest() throws ServletException, IOException {
+        // Arrange
+        var request = new MockHttpServletRequest("GET", "/api/v1/deals/D1/exists");
+        request.addHeader("X-Server-Timing", "true");
+        var response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, allocatingChain());
+
+        // Assert
+        assertThat(response.getHeaders(RequestResourceFilter.SERVER_TIMING)).singleElement().asString()
+                .matches("app;dur=\\d+\\.\\d{3}, cpu;dur=\\d+\\.\\d{3}, alloc;desc=\"\\d+ bytes\"");
+        assertThat(response.getContentAsString()).isEqualTo("{\"exists\":true}");
+    }
+
+    @Test
+    @DisplayName("Should not account requests outside the API")
+    void shouldSkipNonApiRequests() throws ServletException, IOException {
+        // Arrange
+        var request = new MockHttpServletRequest("GET", "/actuator/health");
+        request.addHeader("X-Server-Timing", "true");
+        var response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, allocatingChain());
+
+        // Assert
+        assertThat(registry.find("fxdeals.request.allocation").meters()).isEmpty();
+        assertThat(response.getHeader(RequestResourceFilter.SERVER_TIMING)).isNull();
+    }
+}
@@ -0,0 +1,83 @@
+package com.bloomberg.fxdeals.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DealChangeHorizon Tests")
+class DealChangeHorizonTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private DealChangeHorizon horizon;
+
+    @BeforeEach
+    void setUp() {
+        horizon = new DealChangeHorizon(jdbcTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void database(long issued, long xmin, long xmax) {
+        when(jdbcTemplate.queryForObject(DealChangeHorizon.ISSUED_QUERY, Long.class)).thenReturn(issued);
+        when(jdbcTemplate.queryForObject(eq(DealChangeHorizon.SNAPSHOT_QUERY), any(RowMapper.class)))
+                .thenReturn(new DealChangeHorizon.Snapshot(xmin, xmax));
+    }
+
+    @Test
+    @DisplayName("Should reach the last issued sequence when no transaction is running")
+    void shouldReachIssuedSequenceWhenIdle() {
+        // Arrange
+        database(5, 100, 100);
+
+        // Act
+        long current = horizon.current();
+
+        // Assert
+        assertThat(current).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should hold the horizon below a running transaction until it ends")
+    void shouldHoldBelowRunningTransaction() {
+        // Arrange - transaction 100 took sequence 6 and is running, transaction 101 took 7 and committed
+        database(5, 100, 100);
+        horizon.advance();
+        database(7, 100, 102);
+
+        // Act
+        long whileRunning = horizon.current();
+        database(7, 102, 102);
+        long afterCommit = horizon.current();
+
+        // Assert
+        assertThat(whileRunning).isEqualTo(5);
+        assertThat(afterCommit).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should release queued sequences once the transactions that could hold them have ended")
+    void shouldReleaseQueuedSequences() {
+        // Arrange - sequences up to 7 were issued while transactions below 102 ran
+        database(7, 100, 102);
+        horizon.advance();
+        database(8, 102, 103);
+
+        // Act - those have ended, but transaction 102 holds sequence 8
+        long current = horizon.current();
+
+        // Assert
+        assertThat(current).isEqualTo(7);
+    }
+}
@@ -0,0 +1,184 @@
+package com.bloomberg.fxdeals.service.impl;
+
+import com.bloomberg.fxdeals.archive.DealArchive;
+import com.bloomberg.fxdeals.archive.DealArchiveFile;
+import com.bloomberg.fxdeals.cache.DealChecksumCache;
+import com.bloomberg.fxdeals.dtos.res.DealChecksumLeafResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealChangeResDTO;
+import com.bloomberg.fxdeals.exception.FxDealQueryException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FxDealChecksumService Tests")
+class FxDealChecksumServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path directory;
+
+    private FxDealChecksumServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new FxDealChecksumServiceImpl(jdbcTemplate, new DealChecksumCache(),
+                                                new DealArchive(directory.resolve("archive"), 2_000), 2, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private void returnLeaf(long bucketIndex, long count, BigDecimal hashSum) {
+        doAnswer(invocation -> {
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.getLong(1)).thenReturn(bucketIndex);
+            when(resultSet.getLong(2)).thenReturn(count);
+            when(resultSet.getBigDecimal(3)).thenReturn(hashSum);
+            invocation.<RowCallbackHandler>getArgument(1).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("Should combine leaves pairwise and promote an unpaired leaf")
+    void shouldBuildTree() {
+        // Arrange
+        var leaves = List.of(
+                new DealChecksumLeafResDTO("a", "b", 1, FxDealChecksumServiceImpl.leaf(1, BigDecimal.ONE).digest()),
+                new DealChecksumLeafResDTO("b", "c", 2, FxDealChecksumServiceImpl.leaf(2, BigDecimal.TEN).digest()),
+                new DealChecksumLeafResDTO("c", "d", 0, FxDealChecksumServiceImpl.EMPTY_LEAF.digest()));
+
+        // Act
+        var tree = FxDealChecksumServiceImpl.tree("timestamp", leaves);
+
+        // Assert
+        assertThat(tree.count()).isEqualTo(3);
+        assertThat(tree.levels()).extracting(List::size).containsExactly(1, 2, 3);
+        assertThat(tree.levels().get(1).get(1)).isEqualTo(leaves.get(2).digest());
+        assertThat(tree.root()).isEqualTo(tree.levels().get(0).get(0)).hasSize(32);
+    }
+
+    @Test
+    @DisplayName("Should match the documented leaf digest")
+    void shouldMatchDocumentedLeafDigest() {
+        assertThat(FxDealChecksumServiceImpl.leaf(3, new BigDecimal("-1234")).digest())
+                .isEqualTo("21dab0d124d75131fdc125fdd660fc2a");
+        assertThat(FxDealChecksumServiceImpl.EMPTY_LEAF.digest()).isEqualTo("3eac1f3c2ef5215eb9bd13e28ae0975a");
+    }
+
+    @Test
+    @DisplayName("Should serve closed buckets from the cache on repeated requests")
+    void shouldCacheClosedBuckets() {
+        // Arrange
+        var from = LocalDateTime.of(2025, 11, 16, 0, 0, 0);
+        long firstIndex = from.toEpochSecond(ZoneOffset.UTC) / 3600;
+        returnLeaf(firstIndex + 1, 5, new BigDecimal("42"));
+
+        // Act
+        var first = service.getChecksumTree(null, "2025-11-16 00:00:00", "2025-11-16 04:00:00", 60);
+        var second = service.getChecksumTree("timestamp", "2025-11-16 00:00:00", "2025-11-16 04:00:00", 60);
+
+        // Assert
+        assertThat(first.leaves()).extracting(DealChecksumLeafResDTO::count).containsExactly(0L, 5L, 0L, 0L);
+        assertThat(first.leaves().get(1).start()).isEqualTo("2025-11-16 01:00:00");
+        assertThat(second).isEqualTo(first);
+        verify(jdbcTemplate, times(2)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("Should return 256 hash-prefix buckets for deal ID checksums")
+    void shouldBuildDealIdTree() {
+        // Act
+        var tree = service.getChecksumTree("dealId", null, null, null);
+
+        // Assert
+        assertThat(tree.leaves()).hasSize(256);
+        assertThat(tree.leaves().get(0).start()).isEqualTo("00");
+        assertThat(tree.leaves().get(255).end()).isEqualTo("100");
+        assertThat(tree.count()).isZero();
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("Should hash deals exactly like the SQL row hash")
+    void shouldHashLikeSql() {
+        // Expected values computed by PostgreSQL from ROW_HASH over numeric(19,4) amounts
+        assertThat(FxDealChecksumServiceImpl.rowHash("DEAL001", "USD", "EUR", LocalDateTime.of(2025, 11, 16, 10, 30),
+                                                     new BigDecimal("1000.5000")))
+                .isEqualTo(9185988121985224119L);
+        assertThat(FxDealChecksumServiceImpl.rowHash("OLD-7", "GBP", "JPY", LocalDateTime.of(2024, 1, 15, 9, 0, 5),
+                                                     new BigDecimal("-0.2500")))
+                .isEqualTo(5639804707381985054L);
+    }
+
+    @Test
+    @DisplayName("Should count archived deals in their timestamp and deal ID buckets")
+    void shouldIncludeArchivedDeals() throws IOException {
+        // Arrange
+        var archived = new FxDealChangeResDTO(3, "OLD-7", "GBP", "JPY", LocalDateTime.of(2024, 1, 15, 9, 0, 5),
+                                              new BigDecimal("-0.2500"));
+        service.shutdown();
+        var archiveDirectory = Files.createDirectories(directory.resolve("archive"));
+        DealArchiveFile.write(archiveDirectory.resolve("a" + DealArchiveFile.EXTENSION), List.of(archived));
+        service = new FxDealChecksumServiceImpl(jdbcTemplate, new DealChecksumCache(),
+                                                new DealArchive(archiveDirectory, 2_000), 2, 100);
+        var expected = FxDealChecksumServiceImpl.leaf(1, BigDecimal.valueOf(5639804707381985054L)).digest();
+
+        // Act
+        var byTimestamp = service.getChecksumTree("timestamp", "2024-01-15 08:00:00", "2024-01-15 11:00:00", 60);
+        var byDealId = service.getChecksumTree("dealId", null, null, null);
+
+        // Assert
+        assertThat(byTimestamp.leaves()).extracting(DealChecksumLeafResDTO::count).containsExactly(0L, 1L, 0L);
+        assertThat(byTimestamp.leaves().get(1).digest()).isEqualTo(expected);
+        assertThat(byDealId.count()).isEqualTo(1);
+        assertThat(byDealId.leaves().get(32).digest()).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid checksum requests")
+    void shouldRejectInvalidRequests() {
+        assertThatThrownBy(() -> service.getChecksumTree("currency", null, null, null))
+                .isInstanceOf(FxDealQueryException.class);
+        assertThatThrownBy(() -> service.getChecksumTree(null, null, "2025-11-16 00:00:00", null))
+                .isInstanceOf(FxDealQueryException.class);
+        assertThatThrownBy(() -> service.getChecksumTree(null, "2025-11-16 00:00:00", "2025-11-16 00:00:00", null))
+                .isInstanceOf(FxDealQueryException.class);
+        assertThatThrownBy(() -> service.getChecksumTree(null, "2025-11-16", "2025-11-17 00:00:00", null))
+                .isInstanceOf(FxDealQueryException.class);
+        assertThatThrownBy(() -> service.getChecksumTree(null, "2025-11-16 00:00:00", "2025-11-17 00:00:00", 0))
+                .isInstanceOf(FxDealQueryException.class);
+        assertThatThrownBy(() -> service.getChecksumTree(null, "2025-01-01 00:00:00", "2025-11-17 00:00:00", 1))
+                .isInstanceOf(FxDealQueryException.class)
+                .hasMessageContaining("more than 100 buckets");
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
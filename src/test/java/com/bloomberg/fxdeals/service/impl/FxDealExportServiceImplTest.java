@@ -0,0 +1,222 @@
+package com.bloomberg.fxdeals.service.impl;
+
+import com.bloomberg.fxdeals.archive.DealArchive;
+import com.bloomberg.fxdeals.archive.DealArchiveFile;
+import com.bloomberg.fxdeals.dtos.res.DealExportFileResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealChangeResDTO;
+import com.bloomberg.fxdeals.exception.FxDealExportUnavailableException;
+import com.bloomberg.fxdeals.exception.FxDealQueryException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FxDealExportService Tests")
+class FxDealExportServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path directory;
+
+    private FxDealExportServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new FxDealExportServiceImpl(jdbcTemplate, new DealArchive(directory.resolve("archive"), 2_000), directory,
+                                              4, 8, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should split heap blocks into contiguous ranges with an open-ended last range")
+    void shouldPartitionBlocks() {
+        // Act
+        var ranges = FxDealExportServiceImpl.partition(10, 3);
+
+        // Assert
+        assertThat(ranges).containsExactly(
+                new FxDealExportServiceImpl.BlockRange(0, 4L),
+                new FxDealExportServiceImpl.BlockRange(4, 7L),
+                new FxDealExportServiceImpl.BlockRange(7, null));
+        assertThat(ranges.get(1).predicate()).isEqualTo("ctid >= '(4,0)'::tid AND ctid < '(7,0)'::tid");
+        assertThat(ranges.get(2).predicate()).isEqualTo("ctid >= '(7,0)'::tid");
+    }
+
+    @Test
+    @DisplayName("Should use fewer ranges than workers for small tables")
+    void shouldNotCreateEmptyRanges() {
+        assertThat(FxDealExportServiceImpl.partition(2, 4)).hasSize(2);
+        assertThat(FxDealExportServiceImpl.partition(0, 4))
+                .containsExactly(new FxDealExportServiceImpl.BlockRange(0, null));
+    }
+
+    @Test
+    @DisplayName("Should reject worker counts outside the configured bounds")
+    void shouldRejectInvalidWorkers() {
+        assertThatThrownBy(() -> service.exportAllDeals(0)).isInstanceOf(FxDealQueryException.class);
+        assertThatThrownBy(() -> service.exportAllDeals(9))
+                .isInstanceOf(FxDealQueryException.class)
+                .hasMessage("Workers must be between 1 and 8");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should refuse a second export while one is running")
+    void shouldRefuseConcurrentExport() throws Exception {
+        // Arrange
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new DataAccessResourceFailureException("connection lost");
+        });
+        var first = CompletableFuture.runAsync(() -> service.exportAllDeals(null));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.exportAllDeals(2)).isInstanceOf(FxDealExportUnavailableException.class);
+        release.countDown();
+        assertThatThrownBy(first::join).hasCauseInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    @Test
+    @DisplayName("Should remove the export directory when the export fails")
+    void shouldCleanUpFailedExport() throws Exception {
+        // Arrange
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.exportAllDeals(2)).isInstanceOf(DataAccessResourceFailureException.class);
+        try (var entries = Files.list(directory)) {
+            assertThat(entries).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Should export archived deals to their own part in the COPY CSV layout")
+    void shouldExportArchivedDeals() throws Exception {
+        // Arrange
+        var archiveDirectory = Files.createDirectories(directory.resolve("archive"));
+        DealArchiveFile.write(archiveDirectory.resolve("a" + DealArchiveFile.EXTENSION), List.of(
+                new FxDealChangeResDTO(1, "OLD,1", "USD", "EUR", LocalDateTime.of(2024, 1, 15, 9, 0),
+                                       new BigDecimal("12.5000"))));
+        service.shutdown();
+        service = new FxDealExportServiceImpl(jdbcTemplate, new DealArchive(archiveDirectory, 2_000),
+                                              directory.resolve("exports"), 1, 8, false);
+        var connection = mock(Connection.class);
+        var statement = mock(Statement.class);
+        var snapshot = mock(ResultSet.class);
+        var pgConnection = mock(PGConnection.class);
+        var copyManager = mock(CopyManager.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(FxDealExportServiceImpl.SNAPSHOT_QUERY)).thenReturn(snapshot);
+        when(snapshot.next()).thenReturn(true);
+        when(snapshot.getString(1)).thenReturn("00000003-0000001B-1");
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(copyManager.copyOut(anyString(), any(OutputStream.class))).thenReturn(0L);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+
+        // Act
+        var export = service.exportAllDeals(null);
+
+        // Assert
+        assertThat(export.rows()).isEqualTo(1);
+        assertThat(export.files()).extracting(DealExportFileResDTO::file).containsExactly("archive-00000.csv", "part-00000.csv");
+        assertThat(export.files().get(0).fromBlock()).isNull();
+        assertThat(Files.readString(directory.resolve("exports").resolve(export.exportId()).resolve("archive-00000.csv")))
+                .isEqualTo(FxDealExportServiceImpl.CSV_HEADER + "\"OLD,1\",USD,EUR,2024-01-15 09:00:00,12.5000\n");
+    }
+
+    @Test
+    @DisplayName("Should cancel the COPY still running on other workers when a part fails")
+    void shouldCancelRunningCopiesOnFailure() throws Exception {
+        // Arrange
+        var coordinator = mock(Connection.class);
+        var statement = mock(Statement.class);
+        var snapshot = mock(ResultSet.class);
+        when(coordinator.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(FxDealExportServiceImpl.SNAPSHOT_QUERY)).thenReturn(snapshot);
+        when(snapshot.next()).thenReturn(true);
+        when(snapshot.getString(1)).thenReturn("00000003-0000001B-1");
+        when(snapshot.getLong(2)).thenReturn(2L);
+        var cancelled = new CountDownLatch(1);
+        var failing = worker(statement, invocation -> {
+            throw new SQLException("disk full");
+        });
+        var running = worker(statement, invocation -> {
+            assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+            throw new SQLException("canceling statement due to user request");
+        });
+        var runningPgConnection = running.unwrap(PGConnection.class);
+        doAnswer(invocation -> {
+            cancelled.countDown();
+            return null;
+        }).when(runningPgConnection).cancelQuery();
+        var connections = new ArrayDeque<>(List.of(coordinator, failing, running));
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(invocation -> {
+            Connection connection;
+            synchronized (connections) {
+                connection = connections.poll();
+            }
+            return invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection);
+        });
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.exportAllDeals(2)).hasMessageContaining("disk full");
+        verify(runningPgConnection, atLeastOnce()).cancelQuery();
+        verify(running, never()).commit();
+    }
+
+    private static Connection worker(Statement statement, Answer<Long> copy) throws Exception {
+        var connection = mock(Connection.class);
+        var pgConnection = mock(PGConnection.class);
+        var copyManager = mock(CopyManager.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(copyManager.copyOut(anyString(), any(OutputStream.class))).thenAnswer(copy);
+        return connection;
+    }
+}
@@ -1,12 +1,30 @@
 package com.bloomberg.fxdeals.service.impl;
 
+import com.bloomberg.fxdeals.archive.DealArchive;
+import com.bloomberg.fxdeals.archive.DealArchiveFile;
+import com.bloomberg.fxdeals.cache.DealRangeCache;
+import com.bloomberg.fxdeals.dtos.req.DealField;
 import com.bloomberg.fxdeals.dtos.req.FxDealReqDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealChangeResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealChangesResDTO;
+import com.bloomberg.fxdeals.dtos.res.FxDealExistenceResDTO;
 import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import com.bloomberg.fxdeals.dtos.res.RejectionReason;
 import com.bloomberg.fxdeals.entity.FxDeal;
+import com.bloomberg.fxdeals.event.FxDealsImportedEvent;
 import com.bloomberg.fxdeals.exception.FxDealBatchImportException;
+import com.bloomberg.fxdeals.exception.FxDealQueryException;
 import com.bloomberg.fxdeals.exception.FxDealSingleImportException;
+import com.bloomberg.fxdeals.logging.ImportLogGovernor;
 import com.bloomberg.fxdeals.mappers.FxDealMapper;
+import com.bloomberg.fxdeals.metrics.ImportMetrics;
+import com.bloomberg.fxdeals.metrics.IngestionStatistics;
+import com.bloomberg.fxdeals.repository.DealChangeHorizon;
+import com.bloomberg.fxdeals.repository.FxDealProjectionRepository;
 import com.bloomberg.fxdeals.repository.FxDealRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,17 +32,32 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +70,32 @@ class FxDealServiceImplTest {
     @Mock
     private FxDealMapper mapper;
 
+    @Mock
+    private FxDealProjectionRepository projectionRepository;
+
+    @Mock
+    private DealChangeHorizon changeHorizon;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DealArchive archive;
+
+    @Spy
+    private DealRangeCache rangeCache = new DealRangeCache(60, 48, 1_000);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ImportMetrics metrics = new ImportMetrics(meterRegistry);
+
+    @Spy
+    private ImportLogGovernor logGovernor = new ImportLogGovernor(10, 20, 10_000);
+
+    @Spy
+    private IngestionStatistics ingestion = new IngestionStatistics(meterRegistry, 60);
+
     @InjectMocks
     private FxDealServiceImpl service;
 
@@ -45,7 +104,9 @@ class FxDealServiceImplTest {
     private FxDealResDTO validResponse;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
+        lenient().when(archive.consistently(any()))
+                .thenAnswer(invocation -> invocation.<DealArchive.Read<?, ?>>getArgument(0).run());
         validRequest = new FxDealReqDTO(
                 "DEAL001",
                 "USD",
@@ -70,6 +131,15 @@ class FxDealServiceImplTest {
         );
     }
 
+    /** Archives {@code deals}, which must be in timestamp order, in one file. */
+    private void archived(FxDealChangeResDTO... deals) {
+        var file = new DealArchiveFile.Metadata(Path.of("deals" + DealArchiveFile.EXTENSION), deals.length,
+                                                deals[0].dealTimestamp(), deals[deals.length - 1].dealTimestamp(),
+                                                "A", "Z", 1, Long.MAX_VALUE, null);
+        when(archive.files()).thenReturn(List.of(file));
+        when(archive.readAll(file)).thenReturn(List.of(deals));
+    }
+
     @Nested
     @DisplayName("Single Deal Import - Success Cases")
     class SingleDealImportSuccess {
@@ -94,6 +164,7 @@ class FxDealServiceImplTest {
             assertThat(result.dealAmount()).isEqualTo(new BigDecimal("1000.50"));
             verify(repository).existsById("DEAL001");
             verify(repository).save(validEntity);
+            verify(eventPublisher).publishEvent(new FxDealsImportedEvent(List.of(validResponse)));
         }
 
         @Test
@@ -892,6 +963,22 @@ class FxDealServiceImplTest {
             verify(repository).existsById("DEAL001");
             verify(repository, never()).save(any());
         }
+
+        @Test
+        @DisplayName("Should reject deal that has already been archived")
+        void shouldRejectArchivedDeal() {
+            // Arrange
+            when(repository.existsById("DEAL001")).thenReturn(false);
+            when(archive.containsDealId("DEAL001")).thenReturn(true);
+
+            // Act & Assert
+            assertThatThrownBy(() -> service.importSingleDeal(validRequest))
+                    .isInstanceOf(FxDealSingleImportException.class)
+                    .satisfies(ex -> assertThat(((FxDealSingleImportException) ex).getRejectedFxDeal().reasons())
+                            .containsExactly(RejectionReason.DUPLICATE_DEAL_ID));
+            verify(archive).consistently(any());
+            verify(repository, never()).save(any());
+        }
     }
 
     @Nested
@@ -959,6 +1046,8 @@ class FxDealServiceImplTest {
             // Assert
             assertThat(results).hasSize(3);
             verify(repository, times(3)).save(any());
+            verify(eventPublisher).publishEvent(
+                    new FxDealsImportedEvent(List.of(validResponse, validResponse, validResponse)));
         }
 
         @Test
@@ -997,6 +1086,7 @@ class FxDealServiceImplTest {
                     });
 
             verify(repository, times(2)).save(any());
+            verify(eventPublisher).publishEvent(new FxDealsImportedEvent(List.of(validResponse, validResponse)));
         }
 
         @Test
@@ -1020,6 +1110,50 @@ class FxDealServiceImplTest {
                     });
 
             verify(repository, never()).save(any());
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        @DisplayName("Should attach reason codes matching validation messages")
+        void shouldAttachReasonCodes() {
+            // Arrange
+            FxDealReqDTO invalidRequest = new FxDealReqDTO(
+                    "DEAL002", "USD", null, "invalid-date", "-100"
+            );
+            when(repository.existsById("DEAL002")).thenReturn(false);
+
+            // Act & Assert
+            assertThatThrownBy(() -> service.importBatchDeals(List.of(invalidRequest)))
+                    .isInstanceOf(FxDealBatchImportException.class)
+                    .satisfies(ex -> {
+                        var rejected = ((FxDealBatchImportException) ex).getRejectedFxDeals().get(0);
+                        assertThat(rejected.reasons()).containsExactly(
+                                RejectionReason.TO_CURRENCY_REQUIRED,
+                                RejectionReason.INVALID_DEAL_TIMESTAMP,
+                                RejectionReason.NON_POSITIVE_DEAL_AMOUNT);
+                        assertThat(rejected.validationMsgs()).containsExactly(
+                                "To currency is required",
+                                "Invalid deal timestamp format, should be yyyy-MM-dd HH:mm:ss",
+                                "Deal amount must be a positive number");
+                    });
+        }
+
+        @Test
+        @DisplayName("Should report persistence failures with their own reason code")
+        void shouldReportPersistenceErrorReason() {
+            // Arrange
+            when(repository.existsById("DEAL001")).thenReturn(false);
+            when(mapper.toEntity(validRequest)).thenReturn(validEntity);
+            when(repository.save(validEntity)).thenThrow(new RuntimeException("connection reset"));
+
+            // Act & Assert
+            assertThatThrownBy(() -> service.importBatchDeals(List.of(validRequest)))
+                    .isInstanceOf(FxDealBatchImportException.class)
+                    .satisfies(ex -> {
+                        var rejected = ((FxDealBatchImportException) ex).getRejectedFxDeals().get(0);
+                        assertThat(rejected.reasons()).containsExactly(RejectionReason.PERSISTENCE_ERROR);
+                        assertThat(rejected.validationMsgs()).containsExactly("Database error: connection reset");
+                    });
         }
 
         @Test
@@ -1072,37 +1206,362 @@ class FxDealServiceImplTest {
     class GetAllDealsTests {
 
         @Test
-        @DisplayName("Should return all deals from repository")
+        @DisplayName("Should return projected deals from repository without entity mapping")
         void shouldReturnAllDeals() {
             // Arrange
-            List<FxDeal> entities = Arrays.asList(validEntity, validEntity, validEntity);
             List<FxDealResDTO> responses = Arrays.asList(validResponse, validResponse, validResponse);
 
-            when(repository.findAll()).thenReturn(entities);
-            when(mapper.toDTOs(entities)).thenReturn(responses);
+            when(repository.findAllProjected()).thenReturn(responses);
 
             // Act
             List<FxDealResDTO> results = service.getAllDeals();
 
             // Assert
             assertThat(results).hasSize(3);
-            verify(repository).findAll();
-            verify(mapper).toDTOs(entities);
+            verify(repository).findAllProjected();
+            verify(repository, never()).findAll();
+            verifyNoInteractions(mapper);
+        }
+
+        @Test
+        @DisplayName("Should append archived deals and list a deal found in both places once")
+        void shouldAppendArchivedDeals() {
+            // Arrange
+            when(repository.findAllProjected()).thenReturn(List.of(validResponse));
+            archived(new FxDealChangeResDTO(3, "OLD001", "GBP", "JPY", LocalDateTime.of(2024, 1, 15, 9, 0, 0),
+                                            new BigDecimal("5.0000")),
+                     new FxDealChangeResDTO(7, "DEAL001", "USD", "EUR", validResponse.dealTimestamp(),
+                                            validResponse.dealAmount()));
+
+            // Act
+            List<FxDealResDTO> results = service.getAllDeals();
+
+            // Assert
+            assertThat(results).extracting(FxDealResDTO::dealId).containsExactly("DEAL001", "OLD001");
         }
 
         @Test
         @DisplayName("Should return empty list when no deals exist")
         void shouldReturnEmptyListWhenNoDeals() {
             // Arrange
-            when(repository.findAll()).thenReturn(List.of());
-            when(mapper.toDTOs(any())).thenReturn(List.of());
+            when(repository.findAllProjected()).thenReturn(List.of());
 
             // Act
             List<FxDealResDTO> results = service.getAllDeals();
 
             // Assert
             assertThat(results).isEmpty();
-            verify(repository).findAll();
+            verify(repository).findAllProjected();
+        }
+    }
+
+    @Nested
+    @DisplayName("Sparse Field Projection Tests")
+    class SparseFieldProjectionTests {
+
+        @Test
+        @DisplayName("Should write only the requested fields for each row")
+        void shouldWriteRequestedFields() throws Exception {
+            // Arrange
+            var fields = EnumSet.of(DealField.DEAL_ID, DealField.DEAL_TIMESTAMP, DealField.DEAL_AMOUNT);
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.getString(1)).thenReturn("DEAL001");
+            when(resultSet.getTimestamp(2)).thenReturn(Timestamp.valueOf(LocalDateTime.of(2025, 11, 16, 10, 30, 0)));
+            when(resultSet.getBigDecimal(3)).thenReturn(new BigDecimal("1000.5000"));
+            doAnswer(invocation -> {
+                RowCallbackHandler handler = invocation.getArgument(1);
+                handler.processRow(resultSet);
+                handler.processRow(resultSet);
+                return null;
+            }).when(projectionRepository).streamDeals(eq(fields), any());
+            var out = new StringWriter();
+
+            // Act
+            try (var generator = new ObjectMapper().getFactory().createGenerator(out)) {
+                service.writeAllDeals(fields, generator);
+            }
+
+            // Assert
+            var row = "{\"dealId\":\"DEAL001\",\"dealTimestamp\":\"2025-11-16 10:30:00\",\"dealAmount\":1000.5000}";
+            assertThat(out.toString()).isEqualTo("[" + row + "," + row + "]");
+            verifyNoInteractions(repository, mapper);
+        }
+
+        @Test
+        @DisplayName("Should write archived deals after the table rows, selecting the keys needed to skip duplicates")
+        void shouldWriteArchivedDeals() throws Exception {
+            // Arrange
+            var fields = EnumSet.of(DealField.DEAL_AMOUNT);
+            archived(new FxDealChangeResDTO(3, "OLD001", "GBP", "JPY", LocalDateTime.of(2024, 1, 15, 9, 0, 0),
+                                            new BigDecimal("5.0000")),
+                     new FxDealChangeResDTO(7, "DEAL001", "USD", "EUR", LocalDateTime.of(2025, 11, 16, 10, 30, 0),
+                                            new BigDecimal("1000.5000")));
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.getString(1)).thenReturn("DEAL001");
+            when(resultSet.getTimestamp(2)).thenReturn(Timestamp.valueOf(LocalDateTime.of(2025, 11, 16, 10, 30, 0)));
+            when(resultSet.getBigDecimal(3)).thenReturn(new BigDecimal("1000.5000"));
+            doAnswer(invocation -> {
+                invocation.<RowCallbackHandler>getArgument(1).processRow(resultSet);
+                return null;
+            }).when(projectionRepository)
+                    .streamDeals(eq(EnumSet.of(DealField.DEAL_ID, DealField.DEAL_TIMESTAMP, DealField.DEAL_AMOUNT)), any());
+            var out = new StringWriter();
+
+            // Act
+            try (var generator = new ObjectMapper().getFactory().createGenerator(out)) {
+                service.writeAllDeals(fields, generator);
+            }
+
+            // Assert
+            assertThat(out.toString()).isEqualTo("[{\"dealAmount\":1000.5000},{\"dealAmount\":5.0000}]");
+        }
+
+        @Test
+        @DisplayName("Should propagate generator write failures")
+        void shouldPropagateWriteFailures() throws Exception {
+            // Arrange
+            var fields = EnumSet.of(DealField.DEAL_ID);
+            JsonGenerator generator = mock(JsonGenerator.class);
+            doThrow(new IOException("broken pipe")).when(generator).writeStartObject();
+            doAnswer(invocation -> {
+                invocation.<RowCallbackHandler>getArgument(1).processRow(mock(ResultSet.class));
+                return null;
+            }).when(projectionRepository).streamDeals(eq(fields), any());
+
+            // Act & Assert
+            assertThatThrownBy(() -> service.writeAllDeals(fields, generator))
+                    .isInstanceOf(IOException.class)
+                    .hasMessage("broken pipe");
+        }
+
+        @Test
+        @DisplayName("Should parse field names into whitelisted fields")
+        void shouldParseFields() {
+            assertThat(DealField.parse(null)).isNull();
+            assertThat(DealField.parse("dealAmount, dealId"))
+                    .containsExactly(DealField.DEAL_ID, DealField.DEAL_AMOUNT);
+            assertThatThrownBy(() -> DealField.parse("dealId,deal_amount"))
+                    .isInstanceOf(FxDealQueryException.class)
+                    .hasMessageContaining("Unknown field 'deal_amount'");
+        }
+    }
+
+    @Nested
+    @DisplayName("Deal Changes Tests")
+    class DealChangesTests {
+
+        private FxDealChangeResDTO change(long ingestSeq) {
+            return new FxDealChangeResDTO(ingestSeq, "DEAL" + ingestSeq, "USD", "EUR",
+                                          LocalDateTime.of(2025, 11, 16, 10, 30, 0), new BigDecimal("1000.50"));
+        }
+
+        @Test
+        @DisplayName("Should return changes after watermark with next watermark")
+        void shouldReturnChangesAfterWatermark() {
+            // Arrange
+            when(changeHorizon.current()).thenReturn(20L);
+            when(repository.findChangesAfter(10L, 20L, Limit.of(3))).thenReturn(List.of(change(11), change(14)));
+
+            // Act
+            FxDealChangesResDTO result = service.getChangesAfter(10L, 2);
+
+            // Assert
+            assertThat(result.changes()).extracting(FxDealChangeResDTO::ingestSeq).containsExactly(11L, 14L);
+            assertThat(result.nextAfter()).isEqualTo(14);
+            assertThat(result.hasMore()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should trim the look-ahead row and report more changes")
+        void shouldReportMoreChanges() {
+            // Arrange
+            when(changeHorizon.current()).thenReturn(20L);
+            when(repository.findChangesAfter(0L, 20L, Limit.of(3))).thenReturn(List.of(change(1), change(2), change(3)));
+
+            // Act
+            FxDealChangesResDTO result = service.getChangesAfter(null, 2);
+
+            // Assert
+            assertThat(result.changes()).hasSize(2);
+            assertThat(result.nextAfter()).isEqualTo(2);
+            assertThat(result.hasMore()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should merge archived deals into the page in sequence order")
+        void shouldMergeArchivedChanges() {
+            // Arrange
+            when(changeHorizon.current()).thenReturn(20L);
+            when(repository.findChangesAfter(10L, 20L, Limit.of(3))).thenReturn(List.of(change(12), change(15)));
+            when(archive.findChangesBetween(10L, 20L, 3)).thenReturn(List.of(change(11), change(14)));
+
+            // Act
+            FxDealChangesResDTO result = service.getChangesAfter(10L, 2);
+
+            // Assert
+            assertThat(result.changes()).extracting(FxDealChangeResDTO::ingestSeq).containsExactly(11L, 12L);
+            assertThat(result.nextAfter()).isEqualTo(12);
+            assertThat(result.hasMore()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should stream a projected page, merging archived deals and selecting only the requested columns")
+        void shouldWriteProjectedChanges() throws Exception {
+            // Arrange
+            var fields = EnumSet.of(DealField.DEAL_ID);
+            when(changeHorizon.current()).thenReturn(20L);
+            when(archive.findChangesBetween(10L, 20L, 3)).thenReturn(List.of(change(11), change(14)));
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.getLong(1)).thenReturn(12L, 15L);
+            when(resultSet.getString(2)).thenReturn("DEAL12", "DEAL15");
+            doAnswer(invocation -> {
+                RowCallbackHandler handler = invocation.getArgument(4);
+                handler.processRow(resultSet);
+                handler.processRow(resultSet);
+                return null;
+            }).when(projectionRepository).streamChanges(eq(fields), eq(10L), eq(20L), eq(3), any());
+            var out = new StringWriter();
+
+            // Act
+            try (var generator = new ObjectMapper().getFactory().createGenerator(out)) {
+                service.writeChangesAfter(10L, 2, fields, generator);
+            }
+
+            // Assert
+            assertThat(out.toString()).isEqualTo("{\"changes\":[{\"ingestSeq\":11,\"dealId\":\"DEAL11\"},"
+                    + "{\"ingestSeq\":12,\"dealId\":\"DEAL12\"}],\"nextAfter\":12,\"hasMore\":true}");
+            verify(archive).consistently(any());
+            verifyNoInteractions(repository);
+        }
+
+        @Test
+        @DisplayName("Should write an empty projected page without querying when the watermark is at the horizon")
+        void shouldWriteEmptyProjectedPage() throws Exception {
+            // Arrange
+            when(changeHorizon.current()).thenReturn(42L);
+            var out = new StringWriter();
+
+            // Act
+            try (var generator = new ObjectMapper().getFactory().createGenerator(out)) {
+                service.writeChangesAfter(42L, null, EnumSet.of(DealField.DEAL_AMOUNT), generator);
+            }
+
+            // Assert
+            assertThat(out.toString()).isEqualTo("{\"changes\":[],\"nextAfter\":42,\"hasMore\":false}");
+            verifyNoInteractions(projectionRepository);
+        }
+
+        @Test
+        @DisplayName("Should keep watermark and use default limit when nothing is new")
+        void shouldKeepWatermarkWhenNoChanges() {
+            // Arrange
+            when(changeHorizon.current()).thenReturn(50L);
+            when(repository.findChangesAfter(42L, 50L, Limit.of(FxDealServiceImpl.DEFAULT_CHANGES_LIMIT + 1)))
+                    .thenReturn(List.of());
+
+            // Act
+            FxDealChangesResDTO result = service.getChangesAfter(42L, null);
+
+            // Assert
+            assertThat(result.changes()).isEmpty();
+            assertThat(result.nextAfter()).isEqualTo(42);
+            assertThat(result.hasMore()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should not read past the commit horizon while an earlier sequence is uncommitted")
+        void shouldStopAtCommitHorizon() {
+            // Arrange - sequence 11 is held by a running import, 12 has already committed
+            when(changeHorizon.current()).thenReturn(10L).thenReturn(12L);
+            when(repository.findChangesAfter(10L, 12L, Limit.of(3))).thenReturn(List.of(change(11), change(12)));
+
+            // Act
+            FxDealChangesResDTO whileRunning = service.getChangesAfter(10L, 2);
+            FxDealChangesResDTO afterCommit = service.getChangesAfter(whileRunning.nextAfter(), 2);
+
+            // Assert
+            assertThat(whileRunning.changes()).isEmpty();
+            assertThat(whileRunning.nextAfter()).isEqualTo(10);
+            assertThat(afterCommit.changes()).extracting(FxDealChangeResDTO::ingestSeq).containsExactly(11L, 12L);
+            verify(repository, never()).findChangesAfter(eq(10L), eq(10L), any());
+        }
+
+        @Test
+        @DisplayName("Should reject negative watermark and out of range limit")
+        void shouldRejectInvalidParameters() {
+            assertThatThrownBy(() -> service.getChangesAfter(-1L, null))
+                    .isInstanceOf(FxDealQueryException.class);
+            assertThatThrownBy(() -> service.getChangesAfter(0L, 0))
+                    .isInstanceOf(FxDealQueryException.class);
+            assertThatThrownBy(() -> service.getChangesAfter(0L, FxDealServiceImpl.MAX_CHANGES_LIMIT + 1))
+                    .isInstanceOf(FxDealQueryException.class);
+            verifyNoInteractions(repository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Deal Existence Check Tests")
+    class DealExistenceCheckTests {
+
+        @Test
+        @DisplayName("Should split existing and missing IDs in request order")
+        void shouldSplitExistingAndMissing() {
+            // Arrange
+            when(repository.findExistingDealIds(new String[]{"DEAL003", "DEAL001", "DEAL002"}))
+                    .thenReturn(List.of("DEAL001", "DEAL003"));
+
+            // Act
+            FxDealExistenceResDTO result = service.checkExistingDeals(List.of("DEAL003", "DEAL001", "DEAL002", "DEAL001"));
+
+            // Assert
+            assertThat(result.existing()).containsExactly("DEAL003", "DEAL001");
+            assertThat(result.missing()).containsExactly("DEAL002");
+            verify(repository, never()).existsById(any());
+        }
+
+        @Test
+        @DisplayName("Should report archived IDs as existing")
+        void shouldFindArchivedIds() {
+            // Arrange
+            when(repository.findExistingDealIds(new String[]{"DEAL001", "OLD001"})).thenReturn(List.of("DEAL001"));
+            when(archive.findDealIds(List.of("OLD001"))).thenReturn(Set.of("OLD001"));
+
+            // Act
+            FxDealExistenceResDTO result = service.checkExistingDeals(List.of("DEAL001", "OLD001"));
+
+            // Assert
+            assertThat(result.existing()).containsExactly("DEAL001", "OLD001");
+            assertThat(result.missing()).isEmpty();
+            verify(archive).consistently(any());
+        }
+
+        @Test
+        @DisplayName("Should query one chunk at a time")
+        void shouldQueryInChunks() {
+            // Arrange
+            var ids = IntStream.range(0, FxDealServiceImpl.EXISTENCE_CHUNK_SIZE * 2 + 1)
+                    .mapToObj(i -> "DEAL" + i)
+                    .toList();
+            when(repository.findExistingDealIds(any())).thenReturn(List.of());
+
+            // Act
+            FxDealExistenceResDTO result = service.checkExistingDeals(ids);
+
+            // Assert
+            assertThat(result.missing()).hasSize(ids.size());
+            verify(repository, times(3)).findExistingDealIds(any());
+        }
+
+        @Test
+        @DisplayName("Should reject blank IDs and oversized requests")
+        void shouldRejectInvalidRequests() {
+            assertThatThrownBy(() -> service.checkExistingDeals(Arrays.asList("DEAL001", " ")))
+                    .isInstanceOf(FxDealQueryException.class)
+                    .hasMessage("Deal IDs must not be blank");
+            assertThatThrownBy(() -> service.checkExistingDeals(
+                    Collections.nCopies(FxDealServiceImpl.MAX_EXISTENCE_IDS + 1, "DEAL001")))
+                    .isInstanceOf(FxDealQueryException.class);
+            verifyNoInteractions(repository);
         }
     }
 
@@ -1231,5 +1690,193 @@ class FxDealServiceImplTest {
             verify(repository).save(validEntity);
         }
     }
-}
 
+    @Nested
+    @DisplayName("Deal Range Tests")
+    class DealRangeTests {
+
+        private FxDealResDTO deal(String dealId, int hour, int minute) {
+            return new FxDealResDTO(dealId, "USD", "EUR", LocalDateTime.of(2025, 11, 16, hour, minute, 0), new BigDecimal("100"));
+        }
+
+        private LocalDateTime at(int hour) {
+            return LocalDateTime.of(2025, 11, 16, hour, 0, 0);
+        }
+
+        @Test
+        @DisplayName("Should read uncached buckets with one query and trim to the requested bounds")
+        void shouldAssembleRangeFromSingleQuery() {
+            // Arrange
+            when(repository.findDealsBetween(at(10), at(13))).thenReturn(List.of(
+                    deal("D1", 10, 15), deal("D2", 10, 45), deal("D3", 11, 30), deal("D4", 12, 10), deal("D5", 12, 20)));
+
+            // Act
+            List<FxDealResDTO> result = service.getDealsInRange("2025-11-16 10:30:00", "2025-11-16 12:15:00");
+
+            // Assert
+            assertThat(result).extracting(FxDealResDTO::dealId).containsExactly("D2", "D3", "D4");
+            assertThat(rangeCache.cachedDeals()).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("Should serve closed buckets from cache and re-read only buckets touched by an import")
+        void shouldReReadOnlyInvalidatedBuckets() {
+            // Arrange
+            when(repository.findDealsBetween(at(10), at(13))).thenReturn(List.of(deal("D1", 10, 15), deal("D2", 12, 20)));
+            service.getDealsInRange("2025-11-16 10:00:00", "2025-11-16 13:00:00");
+            when(repository.findDealsBetween(at(11), at(12))).thenReturn(List.of(deal("LATE", 11, 5)));
+
+            // Act
+            rangeCache.onDealsImported(new FxDealsImportedEvent(List.of(deal("LATE", 11, 5))));
+            List<FxDealResDTO> result = service.getDealsInRange("2025-11-16 10:00:00", "2025-11-16 13:00:00");
+            List<FxDealResDTO> cached = service.getDealsInRange("2025-11-16 10:00:00", "2025-11-16 13:00:00");
+
+            // Assert
+            assertThat(result).extracting(FxDealResDTO::dealId).containsExactly("D1", "LATE", "D2");
+            assertThat(cached).isEqualTo(result);
+            verify(repository).findDealsBetween(at(10), at(13));
+            verify(repository).findDealsBetween(at(11), at(12));
+        }
+
+        @Test
+        @DisplayName("Should write only the requested fields of deals in range")
+        void shouldWriteProjectedRange() throws Exception {
+            // Arrange
+            when(repository.findDealsBetween(at(10), at(11))).thenReturn(List.of(deal("D1", 10, 15), deal("D2", 10, 45)));
+            var out = new StringWriter();
+
+            // Act
+            try (var generator = new ObjectMapper().getFactory().createGenerator(out)) {
+                service.writeDealsInRange("2025-11-16 10:00:00", "2025-11-16 10:30:00",
+                                          EnumSet.of(DealField.DEAL_ID, DealField.DEAL_TIMESTAMP), generator);
+            }
+
+            // Assert
+            assertThat(out.toString()).isEqualTo("[{\"dealId\":\"D1\",\"dealTimestamp\":\"2025-11-16 10:15:00\"}]");
+        }
+
+        @Test
+        @DisplayName("Should merge archived deals and keep deals found in both places once")
+        void shouldMergeArchivedDeals() {
+            // Arrange
+            when(repository.findDealsBetween(at(10), at(12))).thenReturn(List.of(deal("D2", 10, 30), deal("D4", 11, 10)));
+            when(archive.findDealsBetween(at(10), at(12))).thenReturn(List.of(
+                    deal("A1", 10, 5), deal("D2", 10, 30), deal("A3", 11, 0)));
+
+            // Act
+            List<FxDealResDTO> result = service.getDealsInRange("2025-11-16 10:00:00", "2025-11-16 12:00:00");
+
+            // Assert
+            assertThat(result).extracting(FxDealResDTO::dealId).containsExactly("A1", "D2", "A3", "D4");
+        }
+
+        @Test
+        @DisplayName("Should not cache a bucket invalidated while it was being read")
+        void shouldNotCacheBucketInvalidatedDuringRead() {
+            // Arrange
+            when(repository.findDealsBetween(at(10), at(11))).thenAnswer(invocation -> {
+                rangeCache.invalidate(at(10).plusMinutes(30));
+                return List.of(deal("D1", 10, 15));
+            });
+
+            // Act
+            service.getDealsInRange("2025-11-16 10:00:00", "2025-11-16 11:00:00");
+
+            // Assert
+            assertThat(rangeCache.get(rangeCache.bucketIndex(at(10)))).isNull();
+        }
+
+        @Test
+        @DisplayName("Should reject missing, inverted, malformed and oversized ranges")
+        void shouldRejectInvalidRanges() {
+            assertThatThrownBy(() -> service.getDealsInRange(null, "2025-11-16 10:00:00"))
+                    .isInstanceOf(FxDealQueryException.class);
+            assertThatThrownBy(() -> service.getDealsInRange("2025-11-16 10:00:00", "2025-11-16 10:00:00"))
+                    .isInstanceOf(FxDealQueryException.class)
+                    .hasMessage("To must be after from");
+            assertThatThrownBy(() -> service.getDealsInRange("2025-11-16", "2025-11-17 10:00:00"))
+                    .isInstanceOf(FxDealQueryException.class);
+            assertThatThrownBy(() -> service.getDealsInRange("2025-11-16 00:00:00", "2025-11-19 00:00:00"))
+                    .isInstanceOf(FxDealQueryException.class)
+                    .hasMessage("Range spans more than 48 buckets");
+            verifyNoInteractions(repository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Import Metrics Tests")
+    class ImportMetricsTests {
+
+        private long stageCount(String stage, String operation) {
+            return meterRegistry.get("fxdeals.import.stage").tag("stage", stage).tag("operation", operation).timer().count();
+        }
+
+        @Test
+        @DisplayName("Should time every service stage of a single import")
+        void shouldTimeSingleImportStages() {
+            // Arrange
+            when(repository.existsById("DEAL001")).thenReturn(false);
+            when(mapper.toEntity(validRequest)).thenReturn(validEntity);
+            when(repository.save(validEntity)).thenReturn(validEntity);
+            when(mapper.toDTO(validEntity)).thenReturn(validResponse);
+
+            // Act
+            service.importSingleDeal(validRequest);
+
+            // Assert
+            assertThat(stageCount("validate", "single")).isEqualTo(1);
+            assertThat(stageCount("duplicate_check", "single")).isEqualTo(1);
+            assertThat(stageCount("map", "single")).isEqualTo(1);
+            assertThat(stageCount("persist", "single")).isEqualTo(1);
+            assertThat(stageCount("persist", "batch")).isZero();
+        }
+
+        @Test
+        @DisplayName("Should record batch size and count rejections per reason")
+        void shouldRecordBatchSizeAndRejections() {
+            // Arrange
+            var duplicate = new FxDealReqDTO("DEAL001", "USD", "USD", "2025-11-16 10:30:00", "1");
+            var missingId = new FxDealReqDTO(null, "USD", "EUR", "2025-11-16 10:30:00", "1");
+            when(repository.existsById("DEAL001")).thenReturn(true);
+
+            // Act
+            assertThatThrownBy(() -> service.importBatchDeals(List.of(duplicate, missingId)))
+                    .isInstanceOf(FxDealBatchImportException.class);
+
+            // Assert
+            assertThat(meterRegistry.get("fxdeals.import.batch.size").summary().totalAmount()).isEqualTo(2);
+            assertThat(meterRegistry.get("fxdeals.import.rejections").tag("reason", "DUPLICATE_DEAL_ID").counter().count())
+                    .isEqualTo(1);
+            assertThat(meterRegistry.get("fxdeals.import.rejections").tag("reason", "SAME_CURRENCIES").counter().count())
+                    .isEqualTo(1);
+            assertThat(meterRegistry.get("fxdeals.import.rejections").tag("reason", "DEAL_ID_REQUIRED").counter().count())
+                    .isEqualTo(1);
+            assertThat(stageCount("validate", "batch")).isEqualTo(2);
+            assertThat(stageCount("duplicate_check", "batch")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should release in-flight deals and count outcomes even when a batch fails midway")
+        void shouldReleaseInFlightDealsWhenBatchFails() {
+            // Arrange
+            var failing = new FxDealReqDTO("DEAL002", "USD", "EUR", "2025-11-16 10:30:00", "1");
+            when(repository.existsById("DEAL001")).thenReturn(false);
+            when(repository.existsById("DEAL002")).thenThrow(new QueryTimeoutException("statement timeout"));
+            when(mapper.toEntity(validRequest)).thenReturn(validEntity);
+            when(repository.save(validEntity)).thenReturn(validEntity);
+            when(mapper.toDTO(validEntity)).thenReturn(validResponse);
+
+            // Act
+            assertThatThrownBy(() -> service.importBatchDeals(List.of(validRequest, failing)))
+                    .isInstanceOf(QueryTimeoutException.class);
+            ingestion.tick();
+
+            // Assert
+            assertThat(ingestion.inFlightBatches()).isZero();
+            assertThat(ingestion.inFlightDeals()).isZero();
+            assertThat(ingestion.dealsPerSecond().get("received")).containsEntry("m1_rate", 0.4);
+            assertThat(ingestion.dealsPerSecond().get("imported")).containsEntry("m1_rate", 0.2);
+            assertThat(meterRegistry.get("fxdeals.ingestion.duration").tag("operation", "batch").timer().count()).isEqualTo(1);
+        }
+    }
+}
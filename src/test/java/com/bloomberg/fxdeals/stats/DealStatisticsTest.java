@@ -0,0 +1,112 @@
+package com.bloomberg.fxdeals.stats;
+
+import com.bloomberg.fxdeals.dtos.res.FxDealResDTO;
+import com.bloomberg.fxdeals.event.FxDealsImportedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DealStatistics Tests")
+class DealStatisticsTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private DealStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new DealStatistics(jdbcTemplate, 1_000);
+    }
+
+    private static FxDealsImportedEvent imported(int count) {
+        var deal = new FxDealResDTO("DEAL001", "USD", "EUR", LocalDateTime.of(2025, 11, 16, 10, 30, 0), BigDecimal.ONE);
+        return new FxDealsImportedEvent(Collections.nCopies(count, deal));
+    }
+
+    @Test
+    @DisplayName("Should report nothing before the first refresh")
+    void shouldBeEmptyBeforeRefresh() {
+        assertThat(statistics.current()).isNull();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should count exactly while the table is small")
+    void shouldCountExactlyForSmallTable() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(DealStatistics.ESTIMATE_QUERY, Long.class)).thenReturn(-1L);
+        when(jdbcTemplate.queryForObject(DealStatistics.COUNT_QUERY, Long.class)).thenReturn(42L);
+
+        // Act
+        statistics.refresh();
+
+        // Assert
+        assertThat(statistics.current().totalDeals()).isEqualTo(42);
+        assertThat(statistics.current().estimated()).isFalse();
+        assertThat(statistics.lastError()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should use the planner estimate for large tables")
+    void shouldUseEstimateForLargeTable() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(DealStatistics.ESTIMATE_QUERY, Long.class)).thenReturn(5_000_000L);
+
+        // Act
+        statistics.refresh();
+
+        // Assert
+        assertThat(statistics.current().totalDeals()).isEqualTo(5_000_000);
+        assertThat(statistics.current().estimated()).isTrue();
+        verify(jdbcTemplate, never()).queryForObject(DealStatistics.COUNT_QUERY, Long.class);
+    }
+
+    @Test
+    @DisplayName("Should add imports between refreshes and fold them into the next refresh")
+    void shouldTrackImportsIncrementally() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(DealStatistics.ESTIMATE_QUERY, Long.class)).thenReturn(10L);
+        when(jdbcTemplate.queryForObject(DealStatistics.COUNT_QUERY, Long.class)).thenReturn(10L, 13L);
+        statistics.refresh();
+
+        // Act
+        statistics.onDealsImported(imported(3));
+
+        // Assert
+        assertThat(statistics.current().totalDeals()).isEqualTo(13);
+        statistics.refresh();
+        assertThat(statistics.current().totalDeals()).isEqualTo(13);
+    }
+
+    @Test
+    @DisplayName("Should keep the last statistics and record the error when a refresh fails")
+    void shouldKeepLastStatisticsOnFailure() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(DealStatistics.ESTIMATE_QUERY, Long.class))
+                .thenReturn(10L)
+                .thenThrow(new QueryTimeoutException("timeout"));
+        when(jdbcTemplate.queryForObject(DealStatistics.COUNT_QUERY, Long.class)).thenReturn(10L);
+        statistics.refresh();
+
+        // Act
+        statistics.refresh();
+
+        // Assert
+        assertThat(statistics.current().totalDeals()).isEqualTo(10);
+        assertThat(statistics.lastError()).isEqualTo("timeout");
+    }
+}